@@ -0,0 +1,56 @@
+"""
+Unit tests for job cancellation checkpoints.
+"""
+
+import json
+import pytest
+from callback import callback
+from cancellation import CancellationRegistry, JobCancelled, cancellations
+
+
+def published_messages(channel):
+    return [json.loads(call.kwargs["body"]) for call in channel.basic_publish.call_args_list]
+
+
+class TestCancellationRegistry:
+    def test_check_raises_only_for_cancelled_jobs(self):
+        registry = CancellationRegistry()
+        registry.cancel("job-1")
+
+        registry.check("job-2", "start")
+        with pytest.raises(JobCancelled) as cancelled:
+            registry.check("job-1", "sandbox run viz")
+
+        assert cancelled.value.stage == "sandbox run viz"
+
+    def test_cancellations_expire(self):
+        registry = CancellationRegistry(ttl_seconds=0)
+        registry.cancel("job-1")
+
+        assert not registry.is_cancelled("job-1")
+
+
+class TestCancelledCallback:
+    def test_cancelled_job_is_acknowledged_without_running_the_agent(self, mocker):
+        agent_class = mocker.patch("callback.get_agent_class")
+        channel = mocker.Mock()
+        method = mocker.Mock(delivery_tag=7)
+        cancellations.cancel("job-cancelled")
+        body = json.dumps(
+            {
+                "jobId": "job-cancelled",
+                "agentType": "CODER_AGENT",
+                "prompt": "write a solver",
+                "submittedAt": 1000,
+            }
+        )
+
+        callback(channel, method, None, body)
+
+        agent_class.return_value.assert_not_called()
+        channel.basic_ack.assert_called_once_with(delivery_tag=7)
+        channel.basic_nack.assert_not_called()
+        result = published_messages(channel)[-1]
+        assert result["status"] == "TASK_CANCELLED"
+        assert result["stage"] == "start"
+        assert result["submittedAt"] == 1000
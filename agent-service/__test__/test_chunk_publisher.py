@@ -0,0 +1,77 @@
+"""
+Unit tests for streaming agent output as TASK_CHUNK messages.
+"""
+
+import json
+import asyncio
+import pytest
+from agents.agent import Agent
+from streaming import ChunkPublisher
+
+
+def published_messages(channel):
+    return [json.loads(call.kwargs["body"]) for call in channel.basic_publish.call_args_list]
+
+
+class StubChain:
+    """Stands in for prompt | llm | parser, yielding fixed chunks"""
+
+    def __init__(self, chunks):
+        self.chunks = chunks
+
+    async def ainvoke(self, inputs):
+        return "".join(self.chunks)
+
+    async def astream(self, inputs):
+        for chunk in self.chunks:
+            yield chunk
+
+
+class TestChunkPublisher:
+    def test_publish_uses_job_routing_key_and_sequence(self, mocker):
+        channel = mocker.Mock()
+        publisher = ChunkPublisher(channel, "job-1", exchange="job_stream")
+
+        publisher.publish("Hello")
+        publisher.publish("")
+        publisher.publish(" world")
+        publisher.finish("completed")
+
+        messages = published_messages(channel)
+        assert [m["seq"] for m in messages] == [0, 1, 2]
+        assert [m.get("delta") for m in messages] == ["Hello", " world", ""]
+        assert messages[-1]["final"] is True
+        assert messages[-1]["outcome"] == "completed"
+        assert all(m["status"] == "TASK_CHUNK" for m in messages)
+        call = channel.basic_publish.call_args_list[0]
+        assert call.kwargs["exchange"] == "job_stream"
+        assert call.kwargs["routing_key"] == "job.job-1"
+        assert publisher.first_token_at is not None
+
+    def test_publish_failure_disables_streaming(self, mocker):
+        channel = mocker.Mock()
+        channel.basic_publish.side_effect = Exception("channel closed")
+        publisher = ChunkPublisher(channel, "job-1")
+
+        publisher.publish("Hello")
+        publisher.publish("world")
+
+        assert channel.basic_publish.call_count == 1
+        assert publisher.enabled is False
+
+
+class TestStreamChain:
+    def test_stream_chain_forwards_chunks_and_returns_full_text(self):
+        received = []
+
+        result = asyncio.run(
+            Agent.stream_chain(StubChain(["x = ", "1", "\n"]), {}, received.append)
+        )
+
+        assert received == ["x = ", "1", "\n"]
+        assert result == "x = 1\n"
+
+    def test_stream_chain_without_callback_invokes_once(self):
+        result = asyncio.run(Agent.stream_chain(StubChain(["a", "b"]), {}))
+
+        assert result == "ab"
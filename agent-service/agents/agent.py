@@ -1,5 +1,5 @@
 from abc import abstractmethod, ABC
-from typing import List, Dict, Any
+from typing import List, Dict, Any, Callable, Optional
 from langchain_core.messages import HumanMessage, AIMessage, SystemMessage
 
 
@@ -45,6 +45,22 @@ class Agent(ABC):
         Testable without LLM."""
         return response.replace("```python", "").replace("```", "").strip()
 
+    @staticmethod
+    async def stream_chain(
+        chain, inputs: Dict[str, Any], on_chunk: Optional[Callable[[str], None]] = None
+    ) -> str:
+        """Run a text chain, passing each generated chunk to on_chunk as it arrives.
+        Returns the complete text, exactly as ainvoke would."""
+        if on_chunk is None:
+            return await chain.ainvoke(inputs)
+
+        parts = []
+        async for chunk in chain.astream(inputs):
+            if chunk:
+                parts.append(chunk)
+                on_chunk(chunk)
+        return "".join(parts)
+
     @abstractmethod
     async def run(
         self,
@@ -54,5 +70,6 @@ class Agent(ABC):
         conversation_history: List[Dict[str, Any]] = None,
         accepted_model: str = "",
         accepted_code: str = "",
+        on_chunk: Optional[Callable[[str], None]] = None,
     ) -> dict:
         pass
@@ -2,7 +2,7 @@ from agents.agent import Agent
 from langchain_google_genai import ChatGoogleGenerativeAI
 from langchain_core.prompts import ChatPromptTemplate
 from langchain_core.output_parsers import StrOutputParser
-from typing import List, Dict, Any
+from typing import List, Dict, Any, Callable, Optional
 
 
 class CoderAgent(Agent):
@@ -43,6 +43,7 @@ class CoderAgent(Agent):
         conversation_history: List[Dict[str, Any]] = None,
         accepted_model: str = "",
         accepted_code: str = "",
+        on_chunk: Optional[Callable[[str], None]] = None,
     ) -> dict:
         print(f"[CoderAgent] Generating code for job {job_id}")
 
@@ -55,7 +56,7 @@ class CoderAgent(Agent):
         )
 
         chain = prompt_template | self.llm | StrOutputParser()
-        response = await chain.ainvoke({"input": prompt})
+        response = await self.stream_chain(chain, {"input": prompt}, on_chunk)
 
         cleaned_code = self.clean_code_output(response)
 
@@ -2,7 +2,7 @@ from agents.agent import Agent
 from langchain_google_genai import ChatGoogleGenerativeAI
 from langchain_core.prompts import ChatPromptTemplate
 from langchain_core.output_parsers import StrOutputParser
-from typing import List, Dict, Any
+from typing import List, Dict, Any, Callable, Optional
 
 
 class ModelerAgent(Agent):
@@ -56,6 +56,7 @@ class ModelerAgent(Agent):
         conversation_history: List[Dict[str, Any]] = None,
         accepted_model: str = "",
         accepted_code: str = "",
+        on_chunk: Optional[Callable[[str], None]] = None,
     ) -> dict:
         print(f"[ModelerAgent] Processing job {job_id}")
 
@@ -68,7 +69,9 @@ class ModelerAgent(Agent):
         )
 
         chain = prompt_template | self.llm | StrOutputParser()
-        response = await chain.ainvoke({"input": prompt, "context": context})
+        response = await self.stream_chain(
+            chain, {"input": prompt, "context": context}, on_chunk
+        )
 
         return self.format_response(response)
 
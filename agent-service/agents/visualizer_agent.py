@@ -2,7 +2,7 @@ from langchain_core.output_parsers import StrOutputParser
 from langchain_core.prompts import ChatPromptTemplate
 from langchain_core.messages import HumanMessage, AIMessage, SystemMessage
 from langchain_google_genai import ChatGoogleGenerativeAI
-from typing import List, Dict, Any, Tuple
+from typing import List, Dict, Any, Callable, Optional, Tuple
 import pika
 import json
 import time
@@ -11,6 +11,7 @@ import uuid
 import base64
 
 from agents.agent import Agent
+from cancellation import cancellations
 
 
 class VisualizerAgent(Agent):
@@ -109,6 +110,7 @@ Zasady:
         self, code: str, job_id: str, job_suffix: str = ""
     ) -> dict:
         """Submit code to sandbox and wait for result on a private response queue to avoid backend consumers."""
+        cancellations.check(job_id, f"sandbox run {job_suffix}".strip())
 
         sandbox_job_id = (
             f"{job_id}_{job_suffix}_{uuid.uuid4().hex}"
@@ -185,6 +187,7 @@ Zasady:
         conversation_history: List[Dict[str, Any]] = None,
         accepted_model: str = "",
         accepted_code: str = "",
+        on_chunk: Optional[Callable[[str], None]] = None,
     ) -> dict:
         """
         Execute visualizer workflow:
@@ -192,6 +195,8 @@ Zasady:
         2. Generate visualization code based on solver output + accepted model + user instructions
         3. Run visualization code in sandbox and collect PNG files
         4. Generate markdown report indicating where to insert PNGs ([FILE: ...])
+
+        The result is a JSON report with files, so it is not streamed (on_chunk is unused).
         """
         print(f"[VisualizerAgent] Starting visualization for job {job_id}")
 
@@ -208,6 +213,7 @@ Zasady:
             execution_output = ""
 
         # STEP 1: Generate visualization code
+        cancellations.check(job_id, "visualization code generation")
         visualization_code = await self._generate_visualization_code(
             execution_output,
             context,
@@ -221,6 +227,7 @@ Zasady:
         sandbox_output, sandbox_files = self._extract_sandbox_results(sandbox_result)
 
         # STEP 3: Generate final report
+        cancellations.check(job_id, "final report")
         report_markdown = await self._generate_final_report(
             execution_output, sandbox_output, user_request, accepted_model
         )
@@ -1,5 +1,7 @@
 from rabbitmq_config import RABBITMQ_OUT_QUEUE
 from agents.agent_registry import get_agent_class
+from streaming import ChunkPublisher, now_millis
+from cancellation import cancellations, JobCancelled
 import pika
 import json
 import asyncio
@@ -15,6 +17,7 @@ def callback(ch, method, properties, body):
         context = message_data.get("context", "")
         accepted_model = message_data.get("acceptedModel", "")
         accepted_code = message_data.get("acceptedCode", "")
+        submitted_at = message_data.get("submittedAt")
 
         if not all([job_id, agent_type_str, prompt]):
             print(f"Error: Incomplete message, rejecting: {message_data}")
@@ -38,7 +41,15 @@ def callback(ch, method, properties, body):
             ch.basic_nack(delivery_tag=method.delivery_tag, requeue=False)
             return
 
+        cancellations.check(job_id, "start")
+
         agent_instance = AgentClass()
+        chunk_publisher = ChunkPublisher(ch, job_id)
+
+        def on_chunk(delta):
+            # Raising here stops the LLM stream mid-generation
+            cancellations.check(job_id, "generation")
+            chunk_publisher.publish(delta)
 
         result_payload = asyncio.run(
             agent_instance.run(
@@ -48,14 +59,19 @@ def callback(ch, method, properties, body):
                 conversation_history=conversation_history,
                 accepted_model=accepted_model,
                 accepted_code=accepted_code,
+                on_chunk=on_chunk,
             )
         )
+        chunk_publisher.finish("completed")
 
         response_message = {
             "jobId": job_id,
             "status": "TASK_COMPLETED",
             "agentType": agent_type_str,
             "payload": result_payload,
+            "submittedAt": submitted_at,
+            # Agents that do not stream produce their first output at the end
+            "firstTokenAt": chunk_publisher.first_token_at or now_millis(),
         }
 
         ch.basic_publish(
@@ -70,6 +86,31 @@ def callback(ch, method, properties, body):
 
         ch.basic_ack(delivery_tag=method.delivery_tag)
 
+    except JobCancelled as cancelled:
+        # Not an error: the backend already marked the job cancelled and ignores any answer
+        try:
+            ChunkPublisher(ch, job_id).finish("cancelled")
+            ch.basic_publish(
+                exchange="",
+                routing_key=RABBITMQ_OUT_QUEUE,
+                body=json.dumps(
+                    {
+                        "jobId": job_id,
+                        "status": "TASK_CANCELLED",
+                        "agentType": agent_type_str,
+                        "stage": cancelled.stage,
+                        "submittedAt": submitted_at,
+                    }
+                ),
+                properties=pika.BasicProperties(
+                    delivery_mode=2,
+                ),
+            )
+        except Exception as publish_error:
+            print(f"Failed to acknowledge cancellation of job {job_id}: {publish_error}")
+
+        ch.basic_ack(delivery_tag=method.delivery_tag)
+
     except Exception as e:
         print(f"Processing error: {e}")
         import traceback
@@ -83,6 +124,8 @@ def callback(ch, method, properties, body):
             agent_type_str = message_data.get("agentType")
 
             if job_id:
+                ChunkPublisher(ch, job_id).finish("error")
+
                 error_response = {
                     "jobId": job_id,
                     "status": "TASK_FAILED",
@@ -0,0 +1,76 @@
+from rabbitmq_config import connect_rabbitmq, RABBITMQ_CANCEL_EXCHANGE
+import pika
+import json
+import threading
+import time
+
+# How long a cancellation is remembered; longer than any job waits in its queue
+CANCELLATION_TTL_SECONDS = 6 * 60 * 60
+
+
+class JobCancelled(Exception):
+    """Raised at a checkpoint of a job the backend has cancelled."""
+
+    def __init__(self, job_id: str, stage: str = ""):
+        super().__init__(f"Job {job_id} was cancelled")
+        self.job_id = job_id
+        self.stage = stage
+
+
+class CancellationRegistry:
+    """Job ids cancelled by the backend, as heard on the cancel exchange. Shared by
+    all consumer threads of this worker; entries expire after ttl_seconds."""
+
+    def __init__(self, ttl_seconds: float = CANCELLATION_TTL_SECONDS):
+        self.ttl_seconds = ttl_seconds
+        self._cancelled = {}
+        self._lock = threading.Lock()
+
+    def cancel(self, job_id: str):
+        now = time.monotonic()
+        with self._lock:
+            self._cancelled[job_id] = now + self.ttl_seconds
+            expired = [key for key, expires_at in self._cancelled.items() if expires_at <= now]
+            for key in expired:
+                del self._cancelled[key]
+
+    def is_cancelled(self, job_id: str) -> bool:
+        with self._lock:
+            expires_at = self._cancelled.get(job_id)
+        return expires_at is not None and expires_at > time.monotonic()
+
+    def check(self, job_id: str, stage: str = ""):
+        """Checkpoint before an expensive step: raises JobCancelled if the job was cancelled."""
+        if self.is_cancelled(job_id):
+            print(f"Job {job_id} cancelled, skipping {stage or 'remaining work'}")
+            raise JobCancelled(job_id, stage)
+
+
+cancellations = CancellationRegistry()
+
+
+def on_cancel_message(ch, method, properties, body):
+    try:
+        job_id = json.loads(body).get("jobId")
+        if job_id:
+            cancellations.cancel(job_id)
+    except ValueError as e:
+        print(f"Ignoring malformed cancellation: {e}")
+
+
+def listen_for_cancellations():
+    """Binds a queue of this worker's own to the cancel fanout exchange, so every
+    worker hears of every cancellation. The queue goes away with the connection."""
+    while True:
+        try:
+            _, channel = connect_rabbitmq()
+            queue = channel.queue_declare(queue="", exclusive=True, auto_delete=True).method.queue
+            channel.queue_bind(queue=queue, exchange=RABBITMQ_CANCEL_EXCHANGE)
+            print(f"Listening for job cancellations on {RABBITMQ_CANCEL_EXCHANGE}...")
+
+            channel.basic_consume(queue=queue, on_message_callback=on_cancel_message, auto_ack=True)
+            channel.start_consuming()
+
+        except pika.exceptions.AMQPConnectionError as e:
+            print(f"Error: {e}. Cancellation listener lost RabbitMQ, retrying...")
+            time.sleep(5)
@@ -10,6 +10,18 @@ RABBITMQ_PASSWORD = os.getenv("RABBITMQ_PASS", "guest")
 
 RABBITMQ_IN_QUEUE = os.getenv("RABBITMQ_IN_QUEUE_AGENT", "code_request_queue")
 RABBITMQ_OUT_QUEUE = os.getenv("RABBITMQ_OUT_QUEUE_AGENT", "code_review_queue")
+# Topic exchange for incremental output, routing key job.<jobId>
+RABBITMQ_STREAM_EXCHANGE = os.getenv("RABBITMQ_STREAM_EXCHANGE", "job_stream")
+# Direct exchange routing each job to the queue of its agent type, <exchange>.<AGENT_TYPE>
+RABBITMQ_AGENT_EXCHANGE = os.getenv("RABBITMQ_AGENT_EXCHANGE", "agent_requests")
+# Fanout exchange of cancelled job ids, {"jobId": ...}
+RABBITMQ_CANCEL_EXCHANGE = os.getenv("RABBITMQ_CANCEL_EXCHANGE", "job_cancellations")
+# Must match the backend's declaration, the broker refuses a queue redeclared with other arguments
+AGENT_QUEUE_MAX_PRIORITY = 5
+
+
+def agent_queue_name(agent_type: str) -> str:
+    return f"{RABBITMQ_AGENT_EXCHANGE}.{agent_type}"
 
 
 def connect_rabbitmq():
@@ -21,5 +33,27 @@ def connect_rabbitmq():
     channel = connection.channel()
     channel.queue_declare(queue=RABBITMQ_IN_QUEUE, durable=True)
     channel.queue_declare(queue=RABBITMQ_OUT_QUEUE, durable=True)
+    channel.exchange_declare(
+        exchange=RABBITMQ_STREAM_EXCHANGE, exchange_type="topic", durable=True
+    )
+    channel.exchange_declare(
+        exchange=RABBITMQ_AGENT_EXCHANGE, exchange_type="direct", durable=True
+    )
+    channel.exchange_declare(
+        exchange=RABBITMQ_CANCEL_EXCHANGE, exchange_type="fanout", durable=True
+    )
 
     return connection, channel
+
+
+def declare_agent_queue(channel, agent_type: str) -> str:
+    queue = agent_queue_name(agent_type)
+    channel.queue_declare(
+        queue=queue,
+        durable=True,
+        arguments={"x-max-priority": AGENT_QUEUE_MAX_PRIORITY},
+    )
+    channel.queue_bind(
+        queue=queue, exchange=RABBITMQ_AGENT_EXCHANGE, routing_key=agent_type
+    )
+    return queue
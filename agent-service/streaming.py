@@ -0,0 +1,53 @@
+from rabbitmq_config import RABBITMQ_STREAM_EXCHANGE
+import pika
+import json
+import time
+
+
+def now_millis() -> int:
+    return int(time.time() * 1000)
+
+
+class ChunkPublisher:
+    """Publishes incremental agent output as TASK_CHUNK messages on the stream exchange,
+    routing key job.<jobId>. Chunks are transient: the complete answer is still sent once
+    as TASK_COMPLETED, so a failure here only stops the live preview."""
+
+    def __init__(self, channel, job_id: str, exchange: str = RABBITMQ_STREAM_EXCHANGE):
+        self.channel = channel
+        self.job_id = job_id
+        self.exchange = exchange
+        self.routing_key = f"job.{job_id}"
+        self.seq = 0
+        self.first_token_at = None
+        self.enabled = True
+
+    def publish(self, delta: str):
+        if not delta:
+            return
+        if self.first_token_at is None:
+            self.first_token_at = now_millis()
+        self._send({"delta": delta})
+
+    def finish(self, outcome: str):
+        """Marks the end of the stream; outcome is "completed" or "error"."""
+        self._send({"delta": "", "final": True, "outcome": outcome})
+
+    def _send(self, fields: dict):
+        if not self.enabled:
+            return
+        message = {"jobId": self.job_id, "status": "TASK_CHUNK", "seq": self.seq, **fields}
+        try:
+            self.channel.basic_publish(
+                exchange=self.exchange,
+                routing_key=self.routing_key,
+                body=json.dumps(message),
+                properties=pika.BasicProperties(
+                    content_type="application/json",
+                    delivery_mode=1,
+                ),
+            )
+            self.seq += 1
+        except Exception as e:
+            print(f"Failed to publish chunk for job {self.job_id}, streaming disabled: {e}")
+            self.enabled = False
@@ -1,19 +1,39 @@
-from rabbitmq_config import connect_rabbitmq, RABBITMQ_IN_QUEUE
+from rabbitmq_config import connect_rabbitmq, declare_agent_queue, RABBITMQ_IN_QUEUE
+from agents.agent_registry import AgentType
 from callback import callback
+from cancellation import listen_for_cancellations
+import os
 import pika
+import threading
 import time
 
+# Agent types this worker serves, comma separated; defaults to all of them
+AGENT_TYPES = [
+    agent_type.strip()
+    for agent_type in os.getenv(
+        "AGENT_TYPES", ",".join(agent_type.value for agent_type in AgentType)
+    ).split(",")
+    if agent_type.strip()
+]
 
-def start_worker():
+
+def consume(agent_type=None):
+    """Consumes one queue on its own connection, so a long job of one agent type
+    never holds up the others. Without an agent type, drains the legacy shared queue."""
     while True:
         try:
             _, channel = connect_rabbitmq()
-            print("Connected to RabbitMQ successfully, waiting for tasks...")
+            queue = (
+                declare_agent_queue(channel, agent_type)
+                if agent_type
+                else RABBITMQ_IN_QUEUE
+            )
+            print(f"Connected to RabbitMQ successfully, waiting for tasks on {queue}...")
 
             channel.basic_qos(prefetch_count=1)
 
             channel.basic_consume(
-                queue=RABBITMQ_IN_QUEUE, on_message_callback=callback, auto_ack=False
+                queue=queue, on_message_callback=callback, auto_ack=False
             )
 
             channel.start_consuming()
@@ -22,9 +42,24 @@ def start_worker():
             print(f"Error: {e}. Connection to RabbitMQ failed, retrying...")
             time.sleep(5)
 
-        except KeyboardInterrupt:
-            print("Worker stopped by user.")
-            break
+
+def start_worker():
+    # The legacy queue only holds requests published before per-agent queues existed
+    consumers = [None] + AGENT_TYPES
+    for agent_type in consumers:
+        threading.Thread(
+            target=consume, args=(agent_type,), name=f"consumer-{agent_type or 'legacy'}", daemon=True
+        ).start()
+
+    threading.Thread(
+        target=listen_for_cancellations, name="cancellation-listener", daemon=True
+    ).start()
+
+    try:
+        while True:
+            time.sleep(1)
+    except KeyboardInterrupt:
+        print("Worker stopped by user.")
 
 
 if __name__ == "__main__":
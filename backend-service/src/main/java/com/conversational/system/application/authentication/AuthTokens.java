@@ -0,0 +1,7 @@
+package com.conversational.system.application.authentication;
+
+/**
+ * Short-lived JWT access token together with the opaque refresh token that can renew it.
+ */
+public record AuthTokens(String accessToken, String refreshToken) {
+}
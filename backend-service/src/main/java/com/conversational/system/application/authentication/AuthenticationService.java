@@ -14,11 +14,21 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
 import com.conversational.system.application.authentication.code_generation.CodeGenerator;
+import com.conversational.system.application.authentication.current_user.CurrentUserProvider;
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
 import com.conversational.system.application.authentication.email_sender.EmailSender;
+import com.conversational.system.application.authentication.json_web_token.AccessTokenRevocationService;
 import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.authentication.json_web_token.RefreshTokenService;
+import com.conversational.system.application.authentication.json_web_token.TokenVersionService;
+import com.conversational.system.application.authentication.password_hashing.PasswordHashingUnavailableException;
 import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserCache;
 import com.conversational.system.application.entities.user.UserRepository;
+import com.conversational.system.application.entities.user.UserSnapshot;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -31,6 +41,11 @@ public class AuthenticationService {
     private final OAuth2Service oauth2Service;
     private final EmailSender emailSender;
     private final CodeCacheService codeCacheService;
+    private final TokenVersionService tokenVersionService;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final CurrentUserProvider currentUserProvider;
 
     public void registerUser(String username, String email, String password) {
         verifyEmail(email);
@@ -49,7 +64,7 @@ public class AuthenticationService {
         sendPasswordResetEmail(user);
     }
 
-    public String loginUser(String username, String password) {
+    public AuthTokens loginUser(String username, String password) {
         if (username == null || username.isBlank())
             throw new IllegalArgumentException("Username cannot be blank.");
         if (password == null || password.isBlank())
@@ -57,7 +72,8 @@ public class AuthenticationService {
         try {
             Authentication authentication = UsernamePasswordAuthenticationToken.unauthenticated(username, password);
             authentication = authenticationManager.authenticate(authentication);
-            return jwtService.generateJWToken(username);
+            User user = ((CustomUserDetails) authentication.getPrincipal()).getUser();
+            return issueTokens(user);
         } catch (DisabledException e) {
             throw new RuntimeException(
                     "Account is not verified for user " + username + ".\nPlease verify your email before logging in.");
@@ -66,7 +82,7 @@ public class AuthenticationService {
         }
     }
 
-    public String authenticateOAuth2User(Authentication authentication) {
+    public AuthTokens authenticateOAuth2User(Authentication authentication) {
         if (!(authentication instanceof OAuth2AuthenticationToken oAuth2Token))
             throw new RuntimeException(
                     "Expected OAuth2AuthenticationToken but received: " + authentication.getClass().getSimpleName());
@@ -79,7 +95,7 @@ public class AuthenticationService {
             String username = oauth2Service.extractUsername(oAuth2User, provider);
 
             User user = findOrCreateOauthUser(email, username);
-            return jwtService.generateJWToken(user.getUsername());
+            return issueTokens(user);
         } catch (OAuth2AuthenticationException e) {
             throw e;
         } catch (Exception e) {
@@ -87,6 +103,30 @@ public class AuthenticationService {
         }
     }
 
+    // Consumes the refresh token and issues a new access/refresh pair from the current user state
+    public AuthTokens refreshTokens(String refreshToken) {
+        Integer userId = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        return issueTokens(user);
+    }
+
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtService.validateToken(accessToken);
+                accessTokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+            } catch (JwtException e) {
+                // Expired or invalid tokens cannot be used anyway
+            }
+        }
+        if (refreshToken != null)
+            refreshTokenService.revoke(refreshToken);
+    }
+
+    private AuthTokens issueTokens(User user) {
+        return new AuthTokens(jwtService.generateJWToken(user), refreshTokenService.issue(user.getId()));
+    }
+
     private User findOrCreateOauthUser(String email, String username) {
         return userRepository.findByEmail(email)
                 .orElseGet(() -> {
@@ -130,27 +170,34 @@ public class AuthenticationService {
     }
 
     public void resetPassword(String code, String newPassword) {
-        Integer userId = codeCacheService.getUserIdByPasswordResetCode(code);
+        // Consumed up front so two concurrent requests cannot both use the same code
+        Integer userId = codeCacheService.consumePasswordResetCode(code);
         if (userId == null)
             throw new RuntimeException("Invalid password reset code: " + code);
 
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
+        try {
+            user.setPasswordHash(passwordEncoder.encode(newPassword));
+        } catch (PasswordHashingUnavailableException e) {
+            // Hand the code back so the user can retry once hashing capacity frees up
+            codeCacheService.savePasswordResetCode(code, userId);
+            throw e;
+        }
+        user.incrementTokenVersion();
         userRepository.save(user);
-
-        codeCacheService.deletePasswordResetCode(code);
+        tokenVersionService.publish(user.getId(), user.getTokenVersion());
+        refreshTokenService.revokeAll(user.getId());
     }
 
     public void verifyAccount(String verificationCode) {
-        Integer userId = codeCacheService.getUserIdByVerificationCode(verificationCode);
+        Integer userId = codeCacheService.consumeVerificationCode(verificationCode);
         if (userId == null)
             throw new RuntimeException("Invalid verification code: " + verificationCode);
 
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         user.setVerified(true);
         userRepository.save(user);
-
-        codeCacheService.deleteVerificationCode(verificationCode);
+        userCache.invalidate(user.getId(), user.getUsername());
     }
 
     public void resendVerificationEmail(String email) {
@@ -164,11 +211,23 @@ public class AuthenticationService {
     }
 
     public User extractUser(Authentication authentication) {
+        // JWT principals carry the user id: one primary key lookup, shared with @CurrentUser for the request
+        if (authentication.getPrincipal() instanceof CustomUserDetails principal && principal.getUser().getId() != null)
+            return currentUserProvider.getUser(principal).orElseThrow(() -> new RuntimeException(
+                    "Authenticated user not found (id: " + principal.getUser().getId() + ").\n"));
+
         String username = authentication.getName();
         Optional<User> user_opt = userRepository.findByUsername(username);
         if (user_opt.isEmpty())
             throw new RuntimeException("Authenticated user not found (username: " + username + ").\n");
         return user_opt.get();
+    }
+
+    // Read-only view of the authenticated user, served from the user cache
+    public UserSnapshot extractUserSnapshot(Authentication authentication) {
+        String username = authentication.getName();
+        return userCache.getByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Authenticated user not found (username: " + username + ").\n"));
     }}
 
     
@@ -1,8 +1,15 @@
 package com.conversational.system.application.authentication;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +17,12 @@ import org.springframework.beans.factory.annotation.Value;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * One-time verification and password reset codes in Redis.
+ * Codes map to the user id as a plain decimal string; a per-user pointer remembers the current code so
+ * issuing a new one revokes the old one in the same script call. Consuming a code is a single GETDEL,
+ * so a code can be used at most once even under concurrent requests.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -19,87 +32,99 @@ public class CodeCacheService {
 
     @Value("${app.security.password-reset-code-ttl-minutes:15}")
     private long passwordResetCodeTtl;
-    private static final String VERIFICATION_CODE_PREFIX = "verification:";
-    private static final String PASSWORD_RESET_CODE_PREFIX = "password_reset:";
-    private final RedisTemplate<String, Object> redisTemplate;
+    private static final byte[] ISSUE_SCRIPT = loadScript("redis/code_issue.lua");
+    private final StringRedisTemplate redisTemplate;
 
-    // VERIFICATION CODE METHODS
-    public void saveVerificationCode(String verificationCode, Integer userId) {
-        saveCode(VERIFICATION_CODE_PREFIX, verificationCode, userId, verificationCodeTtl);
-    }
+    public enum CodeType {
+        VERIFICATION("verification:", "verification_user:"),
+        PASSWORD_RESET("password_reset:", "password_reset_user:");
 
-    public Integer getUserIdByVerificationCode(String verificationCode) {
-        return getUserIdByCode(VERIFICATION_CODE_PREFIX, verificationCode);
+        private final String codePrefix;
+        private final String userPrefix;
+
+        CodeType(String codePrefix, String userPrefix) {
+            this.codePrefix = codePrefix;
+            this.userPrefix = userPrefix;
+        }
     }
 
-    public boolean deleteVerificationCode(String verificationCode) {
-        return deleteCode(VERIFICATION_CODE_PREFIX, verificationCode);
+    // VERIFICATION CODE METHODS
+    public void saveVerificationCode(String verificationCode, Integer userId) {
+        issueCodes(CodeType.VERIFICATION, Map.of(userId, verificationCode));
     }
 
-    public boolean verificationCodeExists(String verificationCode) {
-        return codeExists(VERIFICATION_CODE_PREFIX, verificationCode);
+    public Integer consumeVerificationCode(String verificationCode) {
+        return consumeCode(CodeType.VERIFICATION, verificationCode);
     }
 
     // PASSWORD RESET CODE METHODS
     public void savePasswordResetCode(String resetCode, Integer userId) {
-        saveCode(PASSWORD_RESET_CODE_PREFIX, resetCode, userId, passwordResetCodeTtl);
+        issueCodes(CodeType.PASSWORD_RESET, Map.of(userId, resetCode));
     }
 
-    public Integer getUserIdByPasswordResetCode(String resetCode) {
-        return getUserIdByCode(PASSWORD_RESET_CODE_PREFIX, resetCode);
+    public Integer consumePasswordResetCode(String resetCode) {
+        return consumeCode(CodeType.PASSWORD_RESET, resetCode);
     }
 
-    public boolean deletePasswordResetCode(String resetCode) {
-        return deleteCode(PASSWORD_RESET_CODE_PREFIX, resetCode);
-    }
-
-    public boolean passwordResetCodeExists(String resetCode) {
-        return codeExists(PASSWORD_RESET_CODE_PREFIX, resetCode);
-    }
-
-    // PRIVATE HELPER METHODS
-    private void saveCode(String prefix, String code, Integer userId, long ttlMinutes) {
+    // BATCH METHODS - one pipelined round trip regardless of the number of users
+    public void issueCodes(CodeType type, Map<Integer, String> codesByUserId) {
+        long ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes(type));
         try {
-            if (ttlMinutes <= 0) {
-                ttlMinutes = 15;
-                log.warn("TTL must be greater than 0. Using default value {}.", ttlMinutes);
-            }
-            String key = prefix + code;
-            redisTemplate.opsForValue().set(key, userId, ttlMinutes, TimeUnit.MINUTES);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                codesByUserId.forEach((userId, code) -> connection.scriptingCommands().eval(ISSUE_SCRIPT,
+                        ReturnType.INTEGER, 2,
+                        bytes(type.userPrefix + userId), bytes(type.codePrefix + code),
+                        bytes(userId.toString()), bytes(type.codePrefix), bytes(Long.toString(ttlMillis)), bytes(code)));
+                return null;
+            });
         } catch (Exception e) {
             log.error("Error while saving code.", e);
             throw new RuntimeException("Error while saving code.", e);
         }
     }
 
-    private Integer getUserIdByCode(String prefix, String code) {
+    public void revokeCodes(CodeType type, Collection<Integer> userIds) {
         try {
-            String key = prefix + code;
-            Object value = redisTemplate.opsForValue().get(key);
-            return value != null ? ((Number) value).intValue() : null;
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                userIds.forEach(userId -> connection.scriptingCommands().eval(ISSUE_SCRIPT, ReturnType.INTEGER, 1,
+                        bytes(type.userPrefix + userId), bytes(userId.toString()), bytes(type.codePrefix)));
+                return null;
+            });
         } catch (Exception e) {
-            log.error("Error while getting user id by code.", e);
-            throw new RuntimeException("Error while getting user id by code.", e);
+            log.error("Error while revoking codes.", e);
+            throw new RuntimeException("Error while revoking codes.", e);
         }
     }
 
-    private boolean deleteCode(String prefix, String code) {
+    // PRIVATE HELPER METHODS
+    private Integer consumeCode(CodeType type, String code) {
         try {
-            String key = prefix + code;
-            return Boolean.TRUE.equals(redisTemplate.delete(key));
+            String value = redisTemplate.opsForValue().getAndDelete(type.codePrefix + code);
+            return value != null ? Integer.valueOf(value) : null;
         } catch (Exception e) {
-            log.error("Error while deleting code.", e);
-            throw new RuntimeException("Error while deleting code.", e);
+            log.error("Error while consuming code.", e);
+            throw new RuntimeException("Error while consuming code.", e);
         }
     }
 
-    private boolean codeExists(String prefix, String code) {
+    private long ttlMinutes(CodeType type) {
+        long ttlMinutes = type == CodeType.VERIFICATION ? verificationCodeTtl : passwordResetCodeTtl;
+        if (ttlMinutes <= 0) {
+            ttlMinutes = 15;
+            log.warn("TTL must be greater than 0. Using default value {}.", ttlMinutes);
+        }
+        return ttlMinutes;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] loadScript(String path) {
         try {
-            String key = prefix + code;
-            return Boolean.TRUE.equals(redisTemplate.hasKey(key));
-        } catch (Exception e) {
-            log.error("Error while checking if code exists.", e);
-            throw new RuntimeException("Error while checking if code exists.", e);
+            return new ClassPathResource(path).getContentAsByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load Redis script: " + path, e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.conversational.system.application.authentication;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived cache of GitHub user id to primary email, so a user logging in again within the TTL
+ * does not wait on another call to the GitHub emails API.
+ */
+@Component
+public class GitHubEmailCache {
+    private final Map<String, CachedEmail> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public GitHubEmailCache(@Value("${app.oauth2.github.email-cache.max-size:10000}") int maxSize,
+            @Value("${app.oauth2.github.email-cache.ttl-seconds:600}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.hits = Counter.builder("github.email.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("github.email.cache").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("github.email.cache.evictions").register(meterRegistry);
+        Gauge.builder("github.email.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public String get(String githubId, Supplier<String> loader) {
+        long now = System.currentTimeMillis();
+        if (githubId != null && ttlMillis > 0) {
+            CachedEmail cached = entries.get(githubId);
+            if (cached != null) {
+                if (cached.expiresAt() > now) {
+                    hits.increment();
+                    return cached.email();
+                }
+                entries.remove(githubId, cached);
+            }
+        }
+
+        misses.increment();
+        String email = loader.get();
+        if (githubId != null && ttlMillis > 0) {
+            makeRoom(now);
+            entries.put(githubId, new CachedEmail(email, now + ttlMillis));
+        }
+        return email;
+    }
+
+    public void invalidate(String githubId) {
+        entries.remove(githubId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(long now) {
+        if (entries.size() < maxSize)
+            return;
+
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        Iterator<CachedEmail> iterator = entries.values().iterator();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private record CachedEmail(String email, long expiresAt) {
+    }
+}
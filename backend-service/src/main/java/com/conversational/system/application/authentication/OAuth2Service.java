@@ -3,6 +3,7 @@ package com.conversational.system.application.authentication;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -12,17 +13,34 @@ import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
-import lombok.RequiredArgsConstructor;
+import com.conversational.system.application.resilience.CircuitBreaker;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
-@RequiredArgsConstructor
 public class OAuth2Service {
     private final OAuth2AuthorizedClientService authorizedClientService;
-    private static final String GITHUB_EMAILS_API_URL = "https://api.github.com/user/emails";
     private final RestTemplate restTemplate;
+    private final GitHubEmailCache gitHubEmailCache;
+    private final CircuitBreaker gitHubCircuitBreaker;
+    private final String gitHubEmailsApiUrl;
 
+    public OAuth2Service(OAuth2AuthorizedClientService authorizedClientService, RestTemplate restTemplate,
+            GitHubEmailCache gitHubEmailCache, MeterRegistry meterRegistry,
+            @Value("${app.oauth2.github.emails-url:https://api.github.com/user/emails}") String gitHubEmailsApiUrl,
+            @Value("${app.oauth2.github.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.oauth2.github.circuit-breaker.open-seconds:30}") long openSeconds) {
+        this.authorizedClientService = authorizedClientService;
+        this.restTemplate = restTemplate;
+        this.gitHubEmailCache = gitHubEmailCache;
+        this.gitHubEmailsApiUrl = gitHubEmailsApiUrl;
+        // 4xx answers (revoked token, missing scope) mean GitHub is up, so they don't trip the breaker
+        this.gitHubCircuitBreaker = new CircuitBreaker("github-api", failureThreshold, openSeconds * 1000,
+                e -> !(e instanceof HttpClientErrorException), meterRegistry);
+    }
 
     public String extractEmail(OAuth2User oAuth2User, String provider, String principalName) {
         return switch (provider.toLowerCase()) {
@@ -47,11 +65,15 @@ public class OAuth2Service {
         /* Retrieves the primary email from GitHub OAuth2 authentication.
         * Unlike Google, GitHub does not include email in the default OAuth2User attributes.
         * We must make a separate API call to /user/emails endpoint to fetch all emails,
-        * then extract the primary one from the returned list. */
+        * then extract the primary one from the returned list.
+        * The result is cached per GitHub id for a few minutes, so repeat logins skip the API call. */
+        Object gitHubId = oAuth2User.getAttribute("id");
         try {
-            String accessToken = getGitHubAccessToken(registrationId, principalName);
-            List<Map<String, Object>> emails = fetchEmailsFromGitHub(accessToken);
-            return extractPrimaryEmail(emails, oAuth2User);
+            return gitHubEmailCache.get(gitHubId != null ? gitHubId.toString() : null, () -> {
+                String accessToken = getGitHubAccessToken(registrationId, principalName);
+                List<Map<String, Object>> emails = gitHubCircuitBreaker.call(() -> fetchEmailsFromGitHub(accessToken));
+                return extractPrimaryEmail(emails, oAuth2User);
+            });
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -74,7 +96,7 @@ public class OAuth2Service {
         HttpEntity<?> entity = new HttpEntity<>(headers);
         
         ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-            GITHUB_EMAILS_API_URL,
+            gitHubEmailsApiUrl,
             HttpMethod.GET,
             entity,
             new ParameterizedTypeReference<List<Map<String, Object>>>() {}
@@ -0,0 +1,19 @@
+package com.conversational.system.application.authentication.current_user;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the authenticated user into a controller method parameter.
+ * Supported types: CustomUserDetails (the principal JwtFilter already built, no lookup),
+ * UserSnapshot (served from the user cache) and User (loaded by id at most once per request).
+ * Resolves to null for anonymous requests.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,42 @@
+package com.conversational.system.application.authentication.current_user;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserSnapshot;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    private final CurrentUserProvider currentUserProvider;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (type == CustomUserDetails.class || type == User.class || type == UserSnapshot.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        CustomUserDetails principal = currentUserProvider.getPrincipal().orElse(null);
+        if (principal == null)
+            return null;
+
+        Class<?> type = parameter.getParameterType();
+        if (type == User.class)
+            return currentUserProvider.getUser(principal).orElse(null);
+        if (type == UserSnapshot.class)
+            return currentUserProvider.getSnapshot(principal).orElse(null);
+        return principal;
+    }
+}
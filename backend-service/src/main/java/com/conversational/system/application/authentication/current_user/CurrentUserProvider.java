@@ -0,0 +1,56 @@
+package com.conversational.system.application.authentication.current_user;
+
+import java.util.Optional;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserCache;
+import com.conversational.system.application.entities.user.UserRepository;
+import com.conversational.system.application.entities.user.UserSnapshot;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Turns the authenticated principal into the user views callers need.
+ * The principal already carries the user id, so the entity is loaded by primary key and memoized
+ * in the current request; any further lookups in the same request reuse it.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserProvider {
+    private static final String USER_ATTRIBUTE = CurrentUserProvider.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+
+    public Optional<CustomUserDetails> getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails principal)
+            return Optional.of(principal);
+        return Optional.empty();
+    }
+
+    public Optional<UserSnapshot> getSnapshot(CustomUserDetails principal) {
+        return userCache.getById(principal.getUser().getId());
+    }
+
+    public Optional<User> getUser(CustomUserDetails principal) {
+        Integer userId = principal.getUser().getId();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User memoized
+                && userId.equals(memoized.getId()))
+            return Optional.of(memoized);
+
+        Optional<User> user = userRepository.findById(userId);
+        if (requestAttributes != null)
+            user.ifPresent(found -> requestAttributes.setAttribute(USER_ATTRIBUTE, found, RequestAttributes.SCOPE_REQUEST));
+        return user;
+    }
+}
@@ -2,6 +2,8 @@ package com.conversational.system.application.authentication.custom_user_details
 
 import java.util.Optional;
 
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,7 +15,7 @@ import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailService implements UserDetailsService {
+public class CustomUserDetailService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     
@@ -26,4 +28,12 @@ public class CustomUserDetailService implements UserDetailsService {
         
         return new CustomUserDetails(userOpt.get());
     }
-}
\ No newline at end of file
+
+    // Called by DaoAuthenticationProvider after a successful login when the stored BCrypt cost is outdated
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+        User user = ((CustomUserDetails) userDetails).getUser();
+        user.setPasswordHash(newPasswordHash);
+        return new CustomUserDetails(userRepository.save(user));
+    }
+}
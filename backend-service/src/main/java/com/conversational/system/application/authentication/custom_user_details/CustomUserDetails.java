@@ -10,15 +10,28 @@ import org.springframework.security.core.userdetails.UserDetails;
 import com.conversational.system.application.entities.user.User;
 
 public class CustomUserDetails implements UserDetails{
+    private static final Collection<? extends GrantedAuthority> DEFAULT_AUTHORITIES =
+            Collections.singleton(new SimpleGrantedAuthority("USER"));
+
     private User user;
+    private Collection<? extends GrantedAuthority> authorities;
     
     public CustomUserDetails(User user) {
+        this(user, DEFAULT_AUTHORITIES);
+    }
+
+    public CustomUserDetails(User user, Collection<? extends GrantedAuthority> authorities) {
         this.user = user;
+        this.authorities = authorities;
+    }
+
+    public User getUser() {
+        return user;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.singleton(new SimpleGrantedAuthority("USER"));
+        return authorities;
     }
 
     @Override
@@ -0,0 +1,280 @@
+package com.conversational.system.application.authentication.email_sender;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.conversational.system.application.entities.email.OutboundEmail;
+import com.conversational.system.application.entities.email.OutboundEmailRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable outbound mail queue backed by the outbound_email table.
+ * Callers only insert a row; a bounded pool of workers claims pending rows in batches,
+ * sends each batch over a single SMTP connection and retries failures with exponential backoff.
+ * A sent email's body is cleared, since it carries verification and reset codes, and sent or failed
+ * rows are deleted after retention-hours.
+ */
+@Slf4j
+@Component
+public class EmailDispatcher {
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final Object wakeUpSignal = new Object();
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer batchSendTimer;
+    private final Timer queueLatencyTimer;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.mail.dispatcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mail.dispatcher.workers:2}")
+    private int workerCount;
+
+    @Value("${app.mail.dispatcher.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.dispatcher.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.mail.dispatcher.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.dispatcher.initial-backoff-ms:2000}")
+    private long initialBackoffMs;
+
+    @Value("${app.mail.dispatcher.lock-timeout-ms:120000}")
+    private long lockTimeoutMs;
+
+    @Value("${app.mail.dispatcher.retention-hours:24}")
+    private long retentionHours;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public EmailDispatcher(OutboundEmailRepository outboundEmailRepository, JavaMailSender mailSender,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = Counter.builder("mail.dispatch").tag("result", "sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("mail.dispatch").tag("result", "retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.dispatch").tag("result", "failed").register(meterRegistry);
+        this.batchSendTimer = Timer.builder("mail.send.latency").description("Time to send one batch over SMTP")
+                .register(meterRegistry);
+        this.queueLatencyTimer = Timer.builder("mail.queue.latency").description("Time from enqueue to delivery")
+                .register(meterRegistry);
+        Gauge.builder("mail.queue.depth", outboundEmailRepository,
+                repository -> repository.countByStatus(OutboundEmail.Status.PENDING)).register(meterRegistry);
+    }
+
+    public void enqueue(String to, String subject, String body) {
+        outboundEmailRepository.save(new OutboundEmail(to, subject, body));
+        wakeUp();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled)
+            return;
+        running = true;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("email-dispatcher-");
+        threadFactory.setDaemon(true);
+        workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+        for (int i = 0; i < workerCount; i++)
+            workers.submit(this::workLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp();
+        if (workers != null) {
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (wakeUpSignal) {
+            wakeUpSignal.notifyAll();
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                if (dispatchBatch() > 0)
+                    continue;
+                synchronized (wakeUpSignal) {
+                    wakeUpSignal.wait(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Email dispatcher iteration failed.", e);
+                sleepQuietly(pollIntervalMs);
+            }
+        }
+    }
+
+    // Claims, sends and records one batch. Returns the number of claimed emails.
+    int dispatchBatch() {
+        List<OutboundEmail> batch = claimBatch();
+        if (batch.isEmpty())
+            return 0;
+
+        Map<OutboundEmail, Exception> failures = sendBatch(batch);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboundEmail email : batch) {
+            Exception failure = failures.get(email);
+            if (failure == null)
+                markSent(email, now);
+            else
+                markFailed(email, failure, now);
+        }
+        transactionTemplate.executeWithoutResult(status -> outboundEmailRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private List<OutboundEmail> claimBatch() {
+        List<OutboundEmail> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboundEmail> emails = outboundEmailRepository.findClaimable(OutboundEmail.Status.PENDING,
+                    OutboundEmail.Status.SENDING, now, PageRequest.of(0, batchSize));
+            for (OutboundEmail email : emails) {
+                email.setStatus(OutboundEmail.Status.SENDING);
+                email.setLockedUntil(now.plus(Duration.ofMillis(lockTimeoutMs)));
+            }
+            return outboundEmailRepository.saveAll(emails);
+        });
+        return claimed != null ? claimed : Collections.emptyList();
+    }
+
+    /* Sends the whole batch through JavaMailSender.send(MimeMessage...), which opens one
+     * SMTP/STARTTLS session for all messages. Returns failures keyed by the OutboundEmail. */
+    private Map<OutboundEmail, Exception> sendBatch(List<OutboundEmail> batch) {
+        Map<OutboundEmail, Exception> failures = new HashMap<>();
+        Map<MimeMessage, OutboundEmail> byMessage = new LinkedHashMap<>();
+        for (OutboundEmail email : batch) {
+            try {
+                byMessage.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                failures.put(email, e);
+            }
+        }
+        if (byMessage.isEmpty())
+            return failures;
+
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty())
+                byMessage.values().forEach(email -> failures.put(email, e));
+            failedMessages.forEach((message, cause) -> failures.put(byMessage.get(message), cause));
+        } catch (MailException e) {
+            byMessage.values().forEach(email -> failures.put(email, e));
+        } finally {
+            sample.stop(batchSendTimer);
+        }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(email.getRecipient());
+        helper.setFrom(fromEmail);
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+        return message;
+    }
+
+    private void markSent(OutboundEmail email, LocalDateTime now) {
+        email.setStatus(OutboundEmail.Status.SENT);
+        email.setSentAt(now);
+        // The column is NOT NULL in existing schemas, so the delivered body is blanked rather than nulled
+        email.setBody("");
+        email.setLockedUntil(null);
+        email.setLastError(null);
+        sentCounter.increment();
+        queueLatencyTimer.record(Duration.between(email.getCreatedAt(), now));
+    }
+
+    private void markFailed(OutboundEmail email, Exception failure, LocalDateTime now) {
+        email.setAttempts(email.getAttempts() + 1);
+        email.setLockedUntil(null);
+        email.setLastError(failure.getMessage());
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(OutboundEmail.Status.FAILED);
+            failedCounter.increment();
+            log.error("Giving up on email {} to {} after {} attempts.", email.getId(), email.getRecipient(),
+                    email.getAttempts(), failure);
+            return;
+        }
+        long backoffMs = initialBackoffMs << Math.min(email.getAttempts() - 1, 16);
+        email.setStatus(OutboundEmail.Status.PENDING);
+        email.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMs)));
+        retriedCounter.increment();
+        log.warn("Failed to send email {} (attempt {}), retrying in {} ms.", email.getId(), email.getAttempts(),
+                backoffMs);
+    }
+
+    // Finished rows are only kept for inspection; drops them after retention-hours
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    void purgeFinished() {
+        if (!enabled)
+            return;
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer purged = transactionTemplate.execute(status -> outboundEmailRepository.deleteFinishedBefore(
+                List.of(OutboundEmail.Status.SENT, OutboundEmail.Status.FAILED), before));
+        if (purged != null && purged > 0)
+            log.debug("Purged {} finished emails from the outbound queue.", purged);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.conversational.system.application.authentication.email_sender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Email template compiled once into alternating literal chunks and {{slot}} references.
+ * Rendering appends the literals and the HTML-escaped slot values into a per-thread builder
+ * sized for the template, so a send does no I/O and no intermediate string copies.
+ */
+public final class EmailTemplate {
+    private static final String SLOT_OPEN = "{{";
+    private static final String SLOT_CLOSE = "}}";
+    // Builders that grew past this are dropped instead of being kept per thread
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final int ESTIMATED_SLOT_LENGTH = 64;
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<>();
+
+    private final String name;
+    // literals.length == slots.length + 1; output is literals[0] slots[0] literals[1] ... literals[n]
+    private final String[] literals;
+    private final String[] slots;
+    private final int estimatedLength;
+
+    private EmailTemplate(String name, String[] literals, String[] slots) {
+        this.name = name;
+        this.literals = literals;
+        this.slots = slots;
+        int length = slots.length * ESTIMATED_SLOT_LENGTH;
+        for (String literal : literals)
+            length += literal.length();
+        this.estimatedLength = length;
+    }
+
+    public static EmailTemplate compile(String name, String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(SLOT_OPEN, position);
+            if (open < 0)
+                break;
+            int close = source.indexOf(SLOT_CLOSE, open + SLOT_OPEN.length());
+            if (close < 0)
+                throw new IllegalArgumentException("Unclosed slot in email template " + name + " at index " + open);
+            String slot = source.substring(open + SLOT_OPEN.length(), close).trim();
+            if (slot.isEmpty())
+                throw new IllegalArgumentException("Empty slot in email template " + name + " at index " + open);
+            literals.add(source.substring(position, open));
+            slots.add(slot);
+            position = close + SLOT_CLOSE.length();
+        }
+        literals.add(source.substring(position));
+        return new EmailTemplate(name, literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder builder = BUFFER.get();
+        if (builder == null || builder.capacity() > MAX_RETAINED_CAPACITY) {
+            builder = new StringBuilder(estimatedLength);
+            BUFFER.set(builder);
+        }
+        builder.setLength(0);
+        builder.ensureCapacity(estimatedLength);
+
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            String value = values.get(slots[i]);
+            if (value == null)
+                throw new IllegalArgumentException("Missing value for slot '" + slots[i] + "' in email template " + name);
+            appendEscaped(builder, value);
+        }
+        builder.append(literals[slots.length]);
+        return builder.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getSlots() {
+        return List.of(slots);
+    }
+
+    static void appendEscaped(StringBuilder builder, String value) {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement = switch (value.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement != null) {
+                builder.append(value, start, i).append(replacement);
+                start = i + 1;
+            }
+        }
+        builder.append(value, start, value.length());
+    }
+}
@@ -0,0 +1,82 @@
+package com.conversational.system.application.authentication.email_sender;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads and compiles every email template once at startup.
+ * With hot reload enabled (dev only) a template is recompiled when its file changes on disk;
+ * point app.mail.templates.location at file:src/main/resources/templates/email/ to edit templates live.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRegistry {
+    private static final String TEMPLATE_EXTENSION = ".html";
+
+    private final Map<String, LoadedTemplate> templates = new ConcurrentHashMap<>();
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+
+    @Value("${app.mail.templates.location:classpath:templates/email/}")
+    private String location;
+
+    @Value("${app.mail.templates.hot-reload:false}")
+    private boolean hotReload;
+
+    @PostConstruct
+    public void init() {
+        try {
+            for (Resource resource : resourceResolver.getResources(location + "*" + TEMPLATE_EXTENSION)) {
+                String filename = resource.getFilename();
+                String name = filename.substring(0, filename.length() - TEMPLATE_EXTENSION.length());
+                templates.put(name, load(name, resource));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load email templates from " + location, e);
+        }
+        log.info("Compiled {} email templates from {}.", templates.size(), location);
+    }
+
+    public EmailTemplate get(String name) {
+        LoadedTemplate loaded = templates.get(name);
+        if (loaded == null)
+            throw new RuntimeException("Unknown email template: " + name);
+        if (hotReload)
+            loaded = reloadIfModified(name, loaded);
+        return loaded.template();
+    }
+
+    private LoadedTemplate reloadIfModified(String name, LoadedTemplate loaded) {
+        try {
+            if (loaded.resource().lastModified() == loaded.lastModified())
+                return loaded;
+            LoadedTemplate reloaded = load(name, loaded.resource());
+            templates.put(name, reloaded);
+            log.info("Reloaded email template {}.", name);
+            return reloaded;
+        } catch (IOException | RuntimeException e) {
+            // Keep serving the last good version while the file is being edited
+            log.warn("Failed to reload email template {}: {}", name, e.getMessage());
+            return loaded;
+        }
+    }
+
+    private LoadedTemplate load(String name, Resource resource) throws IOException {
+        long lastModified = hotReload ? resource.lastModified() : 0;
+        String source = resource.getContentAsString(StandardCharsets.UTF_8);
+        return new LoadedTemplate(EmailTemplate.compile(name, source), resource, lastModified);
+    }
+
+    private record LoadedTemplate(EmailTemplate template, Resource resource, long lastModified) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.conversational.system.application.authentication.json_web_token;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revocation list for individual access tokens (by jti), used by logout.
+ * The source of truth is a Redis sorted set scored by token expiry, so entries age out with the tokens.
+ * Every instance keeps a Bloom filter of that set, rebuilt periodically from Redis, and only asks Redis
+ * when the filter reports a possible match. The common case - a token that was never revoked - is
+ * answered locally without allocation.
+ */
+@Slf4j
+@Service
+public class AccessTokenRevocationService {
+    private static final String REVOKED_TOKENS_KEY = "revoked_access_tokens";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Counter bloomPositives;
+    private final Counter confirmedRevocations;
+    // Guarded by this: revocations made while sync() reads Redis, added to the filter it builds
+    private final List<String> revokedDuringSync = new ArrayList<>();
+    private boolean syncing;
+    private volatile BloomFilter revokedTokens;
+    private volatile int syncedCount;
+
+    @Value("${app.jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    public AccessTokenRevocationService(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.bloomPositives = Counter.builder("jwt.revocation.filter").tag("result", "maybe")
+                .register(meterRegistry);
+        this.confirmedRevocations = Counter.builder("jwt.revocation.filter").tag("result", "revoked")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.size", this, service -> service.syncedCount).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        revokedTokens = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis())
+            return;
+        redisTemplate.opsForZSet().add(REVOKED_TOKENS_KEY, tokenId, expiresAt.getTime());
+        // A sync that read Redis before the add above must not swap in a filter without the token
+        synchronized (this) {
+            revokedTokens.add(tokenId);
+            if (syncing)
+                revokedDuringSync.add(tokenId);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !revokedTokens.mightContain(tokenId))
+            return false;
+
+        bloomPositives.increment();
+        try {
+            boolean revoked = redisTemplate.opsForZSet().score(REVOKED_TOKENS_KEY, tokenId) != null;
+            if (revoked)
+                confirmedRevocations.increment();
+            return revoked;
+        } catch (Exception e) {
+            // Only tokens the filter already flagged get here, so failing closed is cheap
+            log.warn("Could not confirm revocation of token {} in Redis, treating it as revoked.", tokenId, e);
+            return true;
+        }
+    }
+
+    /* Rebuilds the filter from the live part of the sorted set. Rebuilding (instead of only adding)
+     * also drops expired revocations, which keeps the false positive rate from creeping up.
+     * Redis is read without holding the lock, so revocations are never blocked behind a sync. */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    void sync() {
+        synchronized (this) {
+            syncing = true;
+            revokedDuringSync.clear();
+        }
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_TOKENS_KEY, 0, now);
+            Set<String> tokenIds = redisTemplate.opsForZSet().rangeByScore(REVOKED_TOKENS_KEY, now, Double.MAX_VALUE);
+            int count = tokenIds != null ? tokenIds.size() : 0;
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, count * 2), falsePositiveRate);
+            if (tokenIds != null)
+                tokenIds.forEach(rebuilt::add);
+            synchronized (this) {
+                revokedDuringSync.forEach(rebuilt::add);
+                revokedTokens = rebuilt;
+                syncedCount = count;
+            }
+        } catch (Exception e) {
+            log.warn("Could not sync revoked access tokens from Redis.", e);
+        } finally {
+            synchronized (this) {
+                syncing = false;
+                revokedDuringSync.clear();
+            }
+        }
+    }
+}
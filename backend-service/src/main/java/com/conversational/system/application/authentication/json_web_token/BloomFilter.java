@@ -0,0 +1,63 @@
+package com.conversational.system.application.authentication.json_web_token;
+
+/**
+ * Fixed-size Bloom filter over strings backed by a long[] bit set.
+ * Membership checks hash the characters in place (no byte[] or boxing), so a negative lookup
+ * allocates nothing. Adds must come from a single writer at a time; concurrent readers are fine
+ * because bits are only ever set.
+ */
+public final class BloomFilter {
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new long[(bitCount + 63) >>> 6];
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = Math.floorMod(h1 + i * h2, bitCount);
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[index >>> 6] & (1L << index)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    public int bitSize() {
+        return bitCount;
+    }
+
+    // 64-bit FNV-1a over the chars followed by a murmur3 finalizer to spread the bits
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe1a85ec5L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
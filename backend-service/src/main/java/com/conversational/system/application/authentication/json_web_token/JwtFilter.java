@@ -3,7 +3,9 @@ package com.conversational.system.application.authentication.json_web_token;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.micrometer.common.lang.NonNull;
 import jakarta.servlet.FilterChain;
@@ -12,6 +14,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -20,29 +23,44 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
+    // WebSocket subprotocol that announces the access token as the next subprotocol
+    public static final String WEBSOCKET_BEARER_PROTOCOL = "bearer";
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
     private static final String AUTH_HEADER_NAME = "Authorization";
     private static final String AUTH_HEADER_PREFIX = "Bearer ";
+    private static final String UPGRADE_HEADER_NAME = "Upgrade";
+    private static final String WEBSOCKET_PROTOCOL_HEADER_NAME = "Sec-WebSocket-Protocol";
+    private static final String CLAIMS_PRINCIPAL_SOURCE = "claims";
+
+    // "claims" builds the principal from the token itself, "database" loads the user on every request
+    @Value("${app.jwt.principal-source:claims}")
+    private String principalSource;
 
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws IOException, ServletException {
         
-        String authenticationHeader = request.getHeader(AUTH_HEADER_NAME);
-        if (!hasValidAuthorizationHeader(authenticationHeader)) {
+        String token = resolveToken(request);
+        if (token == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
-            String token = authenticationHeader.substring(AUTH_HEADER_PREFIX.length());
-            String username = jwtService.extractUsername(token);
-            if (shouldAuthenticateUser(username)) authenticateUser(token, username, request);
+            Claims claims = jwtService.validateToken(token);
+            if (accessTokenRevocationService.isRevoked(claims.getId()))
+                throw new JwtException("Token has been revoked.");
+            String username = claims.getSubject();
+            if (shouldAuthenticateUser(username)) authenticateUser(claims, request);
         } 
         catch (JwtException | IllegalArgumentException e) {
             System.err.println("Invalid JWT Token: " + e.getClass().getSimpleName() + " - " + e.getMessage());
@@ -62,11 +80,32 @@ public class JwtFilter extends OncePerRequestFilter {
         String path = request.getRequestURI();                      
         return path.startsWith("/api/auth/register")
                 || path.startsWith("/api/auth/login")
-                || path.startsWith("/api/auth/oauth2/success")
+                || path.startsWith("/api/auth/logout")
+                || path.startsWith("/api/auth/refresh")
                 || path.startsWith("/oauth2")
                 || path.startsWith("/login");
     }
 
+    private String resolveToken(HttpServletRequest request) {
+        String authenticationHeader = request.getHeader(AUTH_HEADER_NAME);
+        if (hasValidAuthorizationHeader(authenticationHeader))
+            return authenticationHeader.substring(AUTH_HEADER_PREFIX.length());
+        return resolveWebSocketToken(request);
+    }
+
+    // Browsers cannot set headers on a WebSocket handshake, so the token comes as the subprotocols "bearer, <token>"
+    private String resolveWebSocketToken(HttpServletRequest request) {
+        if (!"websocket".equalsIgnoreCase(request.getHeader(UPGRADE_HEADER_NAME)))
+            return null;
+        String protocols = request.getHeader(WEBSOCKET_PROTOCOL_HEADER_NAME);
+        if (protocols == null)
+            return null;
+        String[] offered = protocols.split(",");
+        if (offered.length != 2 || !WEBSOCKET_BEARER_PROTOCOL.equals(offered[0].trim()))
+            return null;
+        return offered[1].trim();
+    }
+
     private boolean hasValidAuthorizationHeader(String authenticationHeader) {
         return authenticationHeader != null && authenticationHeader.startsWith(AUTH_HEADER_PREFIX);
     }
@@ -75,13 +114,32 @@ public class JwtFilter extends OncePerRequestFilter {
         return username != null && SecurityContextHolder.getContext().getAuthentication() == null;
     }
 
-    private void authenticateUser(String token, String username, HttpServletRequest request) {
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+    private void authenticateUser(Claims claims, HttpServletRequest request) {
+        // Signature and expiration were already checked by validateToken - no need to parse the token again
+        UserDetails userDetails = resolveUserDetails(claims);
+        UsernamePasswordAuthenticationToken authToken = createAuthenticationToken(userDetails, request);
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 
-        if (jwtService.isTokenValid(token, userDetails.getUsername())) {
-            UsernamePasswordAuthenticationToken authToken = createAuthenticationToken(userDetails, request);
-            SecurityContextHolder.getContext().setAuthentication(authToken);
+    private UserDetails resolveUserDetails(Claims claims) {
+        Integer tokenVersion = claims.get(JwtService.TOKEN_VERSION_CLAIM, Integer.class);
+
+        if (CLAIMS_PRINCIPAL_SOURCE.equalsIgnoreCase(principalSource)) {
+            Optional<CustomUserDetails> fromClaims = jwtService.buildUserDetails(claims);
+            if (fromClaims.isPresent()) {
+                Integer userId = fromClaims.get().getUser().getId();
+                if (!tokenVersionService.isCurrent(userId, tokenVersion))
+                    throw new JwtException("Token has been revoked for user " + claims.getSubject() + ".");
+                return fromClaims.get();
+            }
         }
+
+        // Database mode, or a token issued before the principal claims were introduced
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (tokenVersion != null && userDetails instanceof CustomUserDetails customUserDetails
+                && customUserDetails.getUser().getTokenVersion() != tokenVersion)
+            throw new JwtException("Token has been revoked for user " + claims.getSubject() + ".");
+        return userDetails;
     }
 
     private UsernamePasswordAuthenticationToken createAuthenticationToken(UserDetails userDetails, HttpServletRequest request) {
@@ -1,23 +1,41 @@
 package com.conversational.system.application.authentication.json_web_token;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+import com.conversational.system.application.entities.user.User;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
-    
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String VERIFIED_CLAIM = "verified";
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
     @Value("${app.jwt.secret}")
     private String secret;
 
@@ -26,18 +44,29 @@ public class JwtService {
 
     private SecretKey secretKey;
 
+    // JwtParser is immutable and thread-safe, so a single instance is shared by all requests
+    private JwtParser jwtParser;
+
     @PostConstruct
     public void init() {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.jwtParser = Jwts.parser().verifyWith(secretKey).build();
     }
 
-    public String generateJWToken(String username) {
+    public String generateJWToken(User user) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(VERIFIED_CLAIM, user.isVerified());
+        claims.put(AUTHORITIES_CLAIM, new CustomUserDetails(user).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
 
         return Jwts
                     .builder()
                     .claims().add(claims)
-                    .subject(username)
+                    .id(UUID.randomUUID().toString()) // jti, used to revoke this token on logout
+                    .subject(user.getUsername())
                     .issuedAt(new Date(System.currentTimeMillis()))
                     .expiration(new Date(System.currentTimeMillis() + expiration))
                     .and()
@@ -45,33 +74,54 @@ public class JwtService {
                     .compact();
     }
 
+    /* Verifies the signature and expiration once and returns all claims.
+     * Tokens that were already verified are served from the cache without re-running HMAC.
+     * Throws JwtException when the token is malformed, tampered with or expired. */
+    public Claims validateToken(String token) {
+        return verifiedTokenCache.get(token, this::extractAllClaims);
+    }
+
+    /* Rebuilds the principal from token claims without touching the database.
+     * Returns empty for tokens issued before the claims were introduced. */
+    public Optional<CustomUserDetails> buildUserDetails(Claims claims) {
+        Integer userId = claims.get(USER_ID_CLAIM, Integer.class);
+        Boolean verified = claims.get(VERIFIED_CLAIM, Boolean.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        Object authorities = claims.get(AUTHORITIES_CLAIM);
+        if (userId == null || verified == null || tokenVersion == null || !(authorities instanceof Collection<?> names))
+            return Optional.empty();
+
+        User user = new User();
+        user.setId(userId);
+        user.setUsername(claims.getSubject());
+        user.setVerified(verified);
+        user.setTokenVersion(tokenVersion);
+        List<SimpleGrantedAuthority> grantedAuthorities = names.stream()
+                .map(name -> new SimpleGrantedAuthority(name.toString()))
+                .toList();
+        return Optional.of(new CustomUserDetails(user, grantedAuthorities));
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public boolean isTokenValid(String token, String username) {
-        final String tokenUsername = extractUsername(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = validateToken(token);
+        return claims.getSubject().equals(username) && !isTokenExpired(claims);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = validateToken(token);
         return claimsResolver.apply(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                    .parser()
-                    .verifyWith(secretKey)
-                    .build()
+        return jwtParser
                     .parseSignedClaims(token)
                     .getPayload();
     }
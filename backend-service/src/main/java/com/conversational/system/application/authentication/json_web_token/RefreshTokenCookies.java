@@ -0,0 +1,41 @@
+package com.conversational.system.application.authentication.json_web_token;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the refresh token cookie shared by the password login endpoints and the OAuth2 login success handler.
+ * HttpOnly and scoped to /api/auth, so scripts cannot read it and it only travels to refresh/logout.
+ */
+@Component
+public class RefreshTokenCookies {
+    public static final String COOKIE_NAME = "refresh_token";
+    private static final String COOKIE_PATH = "/api/auth";
+
+    @Value("${app.jwt.refresh.expiration-days:14}")
+    private long refreshTokenExpirationDays;
+
+    @Value("${app.jwt.refresh.cookie-secure:false}")
+    private boolean cookieSecure;
+
+    public ResponseCookie issue(String refreshToken) {
+        return build(refreshToken, Duration.ofDays(refreshTokenExpirationDays));
+    }
+
+    public ResponseCookie expire() {
+        return build("", Duration.ZERO);
+    }
+
+    private ResponseCookie build(String value, Duration maxAge) {
+        return ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite("Lax")
+                .path(COOKIE_PATH)
+                .maxAge(maxAge)
+                .build();
+    }
+}
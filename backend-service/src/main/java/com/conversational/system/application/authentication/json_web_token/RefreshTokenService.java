@@ -0,0 +1,147 @@
+package com.conversational.system.application.authentication.json_web_token;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opaque, rotating refresh tokens stored in Redis.
+ * A token is "{id}.{secret}"; Redis keeps only a SHA-256 of the secret under refresh_token:{id}
+ * and an index of the user's token ids under refresh_tokens:{userId}. Every refresh consumes the token
+ * and issues a new one. Replaying a consumed token after the grace period is treated as theft and
+ * revokes all refresh tokens of that user.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+    private static final String TOKEN_PREFIX = "refresh_token:";
+    private static final String USER_TOKENS_PREFIX = "refresh_tokens:";
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/refresh_token_issue.lua"), Long.class);
+    private static final RedisScript<Long> ROTATE_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/refresh_token_rotate.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.jwt.refresh.expiration-days:14}")
+    private long expirationDays;
+
+    @Value("${app.jwt.refresh.reuse-detection-hours:24}")
+    private long reuseDetectionHours;
+
+    @Value("${app.jwt.refresh.grace-seconds:10}")
+    private long graceSeconds;
+
+    public RefreshTokenService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public String issue(Integer userId) {
+        String id = randomToken(16);
+        String secret = randomToken(32);
+        Duration ttl = getExpiration();
+
+        // One script, so a token is never left without its expiry or outside its user's index
+        redisTemplate.execute(ISSUE_SCRIPT, List.of(TOKEN_PREFIX + id, USER_TOKENS_PREFIX + userId),
+                userId.toString(), digest(secret), id, String.valueOf(ttl.toMillis()));
+        return id + "." + secret;
+    }
+
+    /* Consumes the refresh token and returns its owner. The caller issues the replacement.
+     * Throws RuntimeException when the token is unknown, expired, already used or replayed. */
+    public Integer rotate(String refreshToken) {
+        TokenParts parts = TokenParts.parse(refreshToken);
+        if (parts == null)
+            throw new RuntimeException("Invalid refresh token.");
+
+        Long result = redisTemplate.execute(ROTATE_SCRIPT, List.of(TOKEN_PREFIX + parts.id()), digest(parts.secret()),
+                String.valueOf(Duration.ofHours(reuseDetectionHours).toMillis()),
+                String.valueOf(Duration.ofSeconds(graceSeconds).toMillis()));
+        if (result == null || result == 0)
+            throw new RuntimeException("Invalid refresh token.");
+        if (result < 0) {
+            int userId = (int) -result;
+            log.warn("Refresh token replay detected for user {}, revoking all refresh tokens.", userId);
+            revokeAll(userId);
+            throw new RuntimeException("Invalid refresh token.");
+        }
+        redisTemplate.opsForSet().remove(USER_TOKENS_PREFIX + result, parts.id());
+        return result.intValue();
+    }
+
+    public void revoke(String refreshToken) {
+        TokenParts parts = TokenParts.parse(refreshToken);
+        if (parts == null)
+            return;
+        Object userId = redisTemplate.opsForHash().get(TOKEN_PREFIX + parts.id(), "uid");
+        redisTemplate.delete(TOKEN_PREFIX + parts.id());
+        if (userId != null)
+            redisTemplate.opsForSet().remove(USER_TOKENS_PREFIX + userId, parts.id());
+    }
+
+    public void revokeAll(Integer userId) {
+        String userTokensKey = USER_TOKENS_PREFIX + userId;
+        Set<String> ids = redisTemplate.opsForSet().members(userTokensKey);
+        List<String> keys = new ArrayList<>();
+        keys.add(userTokensKey);
+        if (ids != null)
+            ids.forEach(id -> keys.add(TOKEN_PREFIX + id));
+        redisTemplate.delete(keys);
+    }
+
+    public Duration getExpiration() {
+        return Duration.ofDays(expirationDays);
+    }
+
+    private static String randomToken(int bytes) {
+        byte[] buffer = new byte[bytes];
+        SECURE_RANDOM.nextBytes(buffer);
+        return ENCODER.encodeToString(buffer);
+    }
+
+    private static String digest(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return ENCODER.encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static String loadScript(String path) {
+        try {
+            return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load Redis script: " + path, e);
+        }
+    }
+
+    private record TokenParts(String id, String secret) {
+        static TokenParts parse(String token) {
+            if (token == null)
+                return null;
+            int separator = token.indexOf('.');
+            if (separator <= 0 || separator == token.length() - 1)
+                return null;
+            return new TokenParts(token.substring(0, separator), token.substring(separator + 1));
+        }
+    }
+}
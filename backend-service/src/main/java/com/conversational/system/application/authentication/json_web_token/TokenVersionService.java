@@ -0,0 +1,103 @@
+package com.conversational.system.application.authentication.json_web_token;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.conversational.system.application.entities.user.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks the current token version of every user so that stateless JWT principals can be revoked.
+ * Versions are shared between backend instances through Redis and memoized locally for a few seconds,
+ * so the hot request path touches neither Postgres nor Redis. The database is only read when Redis
+ * has no entry for the user.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenVersionService {
+    private static final String TOKEN_VERSION_PREFIX = "token_version:";
+    private static final int REVOKED = -1;
+    private static final int LOCAL_SWEEP_THRESHOLD = 10_000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final UserRepository userRepository;
+    private final Map<Integer, CachedVersion> localVersions = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.token-version.local-ttl-seconds:5}")
+    private long localTtlSeconds;
+
+    @Value("${app.jwt.expiration}")
+    private long tokenExpiration;
+
+    public boolean isCurrent(Integer userId, Integer tokenVersion) {
+        if (userId == null || tokenVersion == null)
+            return false;
+        int currentVersion = currentVersion(userId);
+        return currentVersion != REVOKED && currentVersion == tokenVersion;
+    }
+
+    // Must be called after the bumped version has been saved to the database
+    public void publish(Integer userId, int tokenVersion) {
+        store(userId, tokenVersion);
+    }
+
+    public void revoke(Integer userId) {
+        store(userId, REVOKED);
+    }
+
+    private int currentVersion(Integer userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = localVersions.get(userId);
+        if (cached != null && cached.expiresAt() > now)
+            return cached.version();
+
+        Integer version = readShared(userId);
+        if (version == null) {
+            version = userRepository.findById(userId).map(user -> user.getTokenVersion()).orElse(REVOKED);
+            writeShared(userId, version);
+        }
+        remember(userId, version, now);
+        return version;
+    }
+
+    private void store(Integer userId, int version) {
+        remember(userId, version, System.currentTimeMillis());
+        writeShared(userId, version);
+    }
+
+    private void remember(Integer userId, int version, long now) {
+        if (localVersions.size() >= LOCAL_SWEEP_THRESHOLD)
+            localVersions.values().removeIf(entry -> entry.expiresAt() <= now);
+        localVersions.put(userId, new CachedVersion(version, now + TimeUnit.SECONDS.toMillis(localTtlSeconds)));
+    }
+
+    private Integer readShared(Integer userId) {
+        try {
+            Object value = redisTemplate.opsForValue().get(TOKEN_VERSION_PREFIX + userId);
+            return value != null ? ((Number) value).intValue() : null;
+        } catch (Exception e) {
+            log.warn("Could not read token version of user {} from Redis, falling back to database.", userId, e);
+            return null;
+        }
+    }
+
+    private void writeShared(Integer userId, int version) {
+        try {
+            // Any token older than its own lifetime is expired anyway, so the entry can expire with it
+            redisTemplate.opsForValue().set(TOKEN_VERSION_PREFIX + userId, version, tokenExpiration, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Could not write token version of user {} to Redis.", userId, e);
+        }
+    }
+
+    private record CachedVersion(int version, long expiresAt) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.conversational.system.application.authentication.json_web_token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded cache of JWTs whose signature has already been verified.
+ * Entries are keyed by a SHA-256 digest of the raw token (so bearer tokens are not kept in memory)
+ * and are dropped as soon as the token itself expires.
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    });
+
+    private final Map<String, CachedClaims> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public VerifiedTokenCache(@Value("${app.jwt.cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.maxSize = Math.max(1, maxSize);
+        this.hits = Counter.builder("jwt.token.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jwt.token.cache").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("jwt.token.cache.evictions").register(meterRegistry);
+        Gauge.builder("jwt.token.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public Claims get(String token, Function<String, Claims> verifier) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+
+        CachedClaims cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                hits.increment();
+                return cached.claims();
+            }
+            entries.remove(key, cached);
+        }
+
+        misses.increment();
+        Claims claims = verifier.apply(token); // throws JwtException for invalid or expired tokens
+        Date expiration = claims.getExpiration();
+        if (expiration != null && expiration.getTime() > now) {
+            makeRoom(now);
+            entries.put(key, new CachedClaims(claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    public void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(long now) {
+        if (entries.size() < maxSize)
+            return;
+
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        // Still full of live tokens - drop a slice of entries so we don't sweep on every miss.
+        Iterator<CachedClaims> iterator = entries.values().iterator();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private record CachedClaims(Claims claims, long expiresAt) {
+    }
+}
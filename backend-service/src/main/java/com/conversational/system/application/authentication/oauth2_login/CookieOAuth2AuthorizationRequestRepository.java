@@ -0,0 +1,144 @@
+package com.conversational.system.application.authentication.oauth2_login;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.WebUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the in-flight OAuth2 authorization request (state, redirect uri, PKCE/nonce attributes) in a short-lived,
+ * HMAC-signed cookie instead of the HttpSession, so starting a social login leaves nothing on the server.
+ * Cookie value: base64url(expiresAtMillis + "|" + json) "." base64url(hmac).
+ */
+@Slf4j
+@Component
+public class CookieOAuth2AuthorizationRequestRepository implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+    public static final String COOKIE_NAME = "oauth2_auth_request";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SecretKeySpec signingKey;
+    private final Duration ttl;
+    private final boolean cookieSecure;
+
+    public CookieOAuth2AuthorizationRequestRepository(
+            @Value("${app.oauth2.authorization-request.signing-key:${app.jwt.secret}}") String signingKey,
+            @Value("${app.oauth2.authorization-request.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.oauth2.authorization-request.cookie-secure:${app.jwt.refresh.cookie-secure:false}}") boolean cookieSecure) {
+        this.signingKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.cookieSecure = cookieSecure;
+        // Spring Security's mixins only deserialize allow-listed types, so the JSON cannot name arbitrary classes
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader()));
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        String state = request.getParameter(OAuth2ParameterNames.STATE);
+        if (state == null)
+            return null;
+        OAuth2AuthorizationRequest authorizationRequest = readCookie(request);
+        return authorizationRequest != null && state.equals(authorizationRequest.getState()) ? authorizationRequest : null;
+    }
+
+    @Override
+    public void saveAuthorizationRequest(OAuth2AuthorizationRequest authorizationRequest, HttpServletRequest request,
+            HttpServletResponse response) {
+        if (authorizationRequest == null) {
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+            return;
+        }
+        String value = encode(authorizationRequest, System.currentTimeMillis() + ttl.toMillis());
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(value, ttl).toString());
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request,
+            HttpServletResponse response) {
+        OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+        if (authorizationRequest != null)
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+        return authorizationRequest;
+    }
+
+    String encode(OAuth2AuthorizationRequest authorizationRequest, long expiresAt) {
+        try {
+            String payload = expiresAt + "|" + objectMapper.writeValueAsString(authorizationRequest);
+            byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+            return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize OAuth2 authorization request.", e);
+        }
+    }
+
+    OAuth2AuthorizationRequest decode(String value) {
+        int separator = value.indexOf('.');
+        if (separator < 0)
+            return null;
+        try {
+            byte[] payloadBytes = DECODER.decode(value.substring(0, separator));
+            byte[] signature = DECODER.decode(value.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature))
+                return null;
+
+            String payload = new String(payloadBytes, StandardCharsets.UTF_8);
+            int pipe = payload.indexOf('|');
+            if (pipe < 0 || Long.parseLong(payload.substring(0, pipe)) < System.currentTimeMillis())
+                return null;
+            return objectMapper.readValue(payload.substring(pipe + 1), OAuth2AuthorizationRequest.class);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            log.warn("Discarding malformed OAuth2 authorization request cookie: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private OAuth2AuthorizationRequest readCookie(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        return cookie != null && !cookie.getValue().isEmpty() ? decode(cookie.getValue()) : null;
+    }
+
+    // SameSite=Lax still sends the cookie on the provider's top-level redirect back to /login/oauth2/code/*
+    private ResponseCookie cookie(String value, Duration maxAge) {
+        return ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available.", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.conversational.system.application.authentication.oauth2_login;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import com.conversational.system.application.authentication.AuthTokens;
+import com.conversational.system.application.authentication.AuthenticationService;
+import com.conversational.system.application.authentication.json_web_token.RefreshTokenCookies;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Issues our own token pair straight from the OAuth2 callback and redirects to the frontend.
+ * Neither the provider's Authentication nor a failure is stored, so the login leaves no session behind.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OAuth2LoginHandler implements AuthenticationSuccessHandler, AuthenticationFailureHandler {
+    private final AuthenticationService authenticationService;
+    private final RefreshTokenCookies refreshTokenCookies;
+
+    @Value("${app.frontend.base-url}")
+    private String frontendBaseUrl;
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+            Authentication authentication) throws IOException {
+        try {
+            AuthTokens tokens = authenticationService.authenticateOAuth2User(authentication);
+            response.addHeader(HttpHeaders.SET_COOKIE, refreshTokenCookies.issue(tokens.refreshToken()).toString());
+            response.sendRedirect(frontendBaseUrl + "/auth/callback?token=" + tokens.accessToken());
+        } catch (Exception e) {
+            log.warn("OAuth2 login failed: {}", e.getMessage());
+            redirectToLoginError(response);
+        }
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+            AuthenticationException exception) throws IOException {
+        log.warn("OAuth2 login rejected: {}", exception.getMessage());
+        redirectToLoginError(response);
+    }
+
+    private void redirectToLoginError(HttpServletResponse response) throws IOException {
+        response.sendRedirect(frontendBaseUrl + "/auth/login?error=OAuthAuthenticationFailed");
+    }
+}
@@ -0,0 +1,248 @@
+package com.conversational.system.application.authentication.oauth2_login;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * OAuth2 authorized clients (provider access/refresh tokens) kept in Redis under oauth2_client:{registration}:{principal},
+ * expiring together with the tokens, so every node sees them and nothing accumulates on the heap.
+ * A small LRU in front serves the lookup that follows a login on the same node without a round trip.
+ * Replaces Spring Boot's default InMemoryOAuth2AuthorizedClientService, which never forgets a client.
+ */
+@Slf4j
+@Component
+public class RedisOAuth2AuthorizedClientService implements OAuth2AuthorizedClientService {
+    private static final String KEY_PREFIX = "oauth2_client:";
+    // Rough per-entry overhead of the map node, key, client, registration reference and token objects
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CachedClient> localClients;
+    private final AtomicLong localHeapBytes = new AtomicLong();
+    private final Duration defaultTtl;
+    private final Duration minTtl;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public RedisOAuth2AuthorizedClientService(StringRedisTemplate redisTemplate,
+            ClientRegistrationRepository clientRegistrationRepository, MeterRegistry meterRegistry,
+            @Value("${app.oauth2.authorized-clients.local-max-size:1000}") int localMaxSize,
+            @Value("${app.oauth2.authorized-clients.default-ttl-seconds:3600}") long defaultTtlSeconds,
+            @Value("${app.oauth2.authorized-clients.min-ttl-seconds:60}") long minTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+        this.minTtl = Duration.ofSeconds(minTtlSeconds);
+        int maxSize = Math.max(1, localMaxSize);
+        this.localClients = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClient> eldest) {
+                if (size() <= maxSize)
+                    return false;
+                localHeapBytes.addAndGet(-eldest.getValue().estimatedBytes());
+                evictions.increment();
+                return true;
+            }
+        };
+        this.hits = Counter.builder("oauth2.authorized_client.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("oauth2.authorized_client.cache").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("oauth2.authorized_client.cache.evictions").register(meterRegistry);
+        Gauge.builder("oauth2.authorized_client.cache.size", this, service -> service.localSize())
+                .register(meterRegistry);
+        Gauge.builder("oauth2.authorized_client.cache.heap", localHeapBytes, AtomicLong::get)
+                .description("Estimated heap held by locally cached authorized clients").baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId, String principalName) {
+        String key = key(clientRegistrationId, principalName);
+        long now = System.currentTimeMillis();
+
+        CachedClient cached = getLocal(key);
+        if (cached != null && cached.expiresAt() > now) {
+            hits.increment();
+            return (T) cached.client();
+        }
+        if (cached != null)
+            removeLocal(key);
+
+        misses.increment();
+        String json;
+        try {
+            json = redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            log.warn("Failed to load OAuth2 authorized client {} from Redis: {}", key, e.getMessage());
+            return null;
+        }
+        if (json == null)
+            return null;
+
+        OAuth2AuthorizedClient client = deserialize(clientRegistrationId, principalName, json);
+        if (client != null)
+            putLocal(key, client, expiresAt(client, now));
+        return (T) client;
+    }
+
+    @Override
+    public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+        String key = key(authorizedClient.getClientRegistration().getRegistrationId(), principal.getName());
+        long now = System.currentTimeMillis();
+        long expiresAt = expiresAt(authorizedClient, now);
+        putLocal(key, authorizedClient, expiresAt);
+        try {
+            redisTemplate.opsForValue().set(key, serialize(authorizedClient), Duration.ofMillis(expiresAt - now));
+        } catch (DataAccessException e) {
+            // The local copy still serves the login that is in progress on this node
+            log.warn("Failed to store OAuth2 authorized client {} in Redis: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+        String key = key(clientRegistrationId, principalName);
+        removeLocal(key);
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            log.warn("Failed to remove OAuth2 authorized client {} from Redis: {}", key, e.getMessage());
+        }
+    }
+
+    public int localSize() {
+        synchronized (localClients) {
+            return localClients.size();
+        }
+    }
+
+    public long localHeapBytes() {
+        return localHeapBytes.get();
+    }
+
+    private CachedClient getLocal(String key) {
+        synchronized (localClients) {
+            return localClients.get(key);
+        }
+    }
+
+    private void putLocal(String key, OAuth2AuthorizedClient client, long expiresAt) {
+        CachedClient cached = new CachedClient(client, expiresAt, estimateBytes(key, client));
+        synchronized (localClients) {
+            CachedClient previous = localClients.put(key, cached);
+            localHeapBytes.addAndGet(cached.estimatedBytes() - (previous != null ? previous.estimatedBytes() : 0));
+        }
+    }
+
+    private void removeLocal(String key) {
+        synchronized (localClients) {
+            CachedClient removed = localClients.remove(key);
+            if (removed != null)
+                localHeapBytes.addAndGet(-removed.estimatedBytes());
+        }
+    }
+
+    /* Lives as long as the longest-lived token, but at least min-ttl: when the provider sends no expires_in
+     * (GitHub OAuth apps) Spring stamps the token with a one-second expiry, yet it is still needed right after login. */
+    private long expiresAt(OAuth2AuthorizedClient client, long now) {
+        Instant expiresAt = client.getAccessToken().getExpiresAt();
+        OAuth2RefreshToken refreshToken = client.getRefreshToken();
+        if (refreshToken != null && refreshToken.getExpiresAt() != null
+                && (expiresAt == null || refreshToken.getExpiresAt().isAfter(expiresAt)))
+            expiresAt = refreshToken.getExpiresAt();
+        long expiresAtMillis = expiresAt != null ? expiresAt.toEpochMilli() : now + defaultTtl.toMillis();
+        return Math.max(expiresAtMillis, now + minTtl.toMillis());
+    }
+
+    private String serialize(OAuth2AuthorizedClient client) {
+        OAuth2AccessToken accessToken = client.getAccessToken();
+        OAuth2RefreshToken refreshToken = client.getRefreshToken();
+        StoredClient stored = new StoredClient(
+                accessToken.getTokenValue(),
+                accessToken.getScopes(),
+                toMillis(accessToken.getIssuedAt()),
+                toMillis(accessToken.getExpiresAt()),
+                refreshToken != null ? refreshToken.getTokenValue() : null,
+                refreshToken != null ? toMillis(refreshToken.getIssuedAt()) : null,
+                refreshToken != null ? toMillis(refreshToken.getExpiresAt()) : null);
+        try {
+            return objectMapper.writeValueAsString(stored);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize OAuth2 authorized client.", e);
+        }
+    }
+
+    private OAuth2AuthorizedClient deserialize(String clientRegistrationId, String principalName, String json) {
+        ClientRegistration registration = clientRegistrationRepository.findByRegistrationId(clientRegistrationId);
+        if (registration == null)
+            return null;
+        try {
+            StoredClient stored = objectMapper.readValue(json, StoredClient.class);
+            OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                    stored.accessToken(), toInstant(stored.issuedAt()), toInstant(stored.expiresAt()), stored.scopes());
+            OAuth2RefreshToken refreshToken = stored.refreshToken() != null
+                    ? new OAuth2RefreshToken(stored.refreshToken(), toInstant(stored.refreshIssuedAt()),
+                            toInstant(stored.refreshExpiresAt()))
+                    : null;
+            return new OAuth2AuthorizedClient(registration, principalName, accessToken, refreshToken);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable OAuth2 authorized client for {}: {}", principalName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static int estimateBytes(String key, OAuth2AuthorizedClient client) {
+        int chars = key.length() + client.getPrincipalName().length() + client.getAccessToken().getTokenValue().length();
+        for (String scope : client.getAccessToken().getScopes())
+            chars += scope.length();
+        if (client.getRefreshToken() != null)
+            chars += client.getRefreshToken().getTokenValue().length();
+        return ENTRY_OVERHEAD_BYTES + 2 * chars;
+    }
+
+    private static String key(String clientRegistrationId, String principalName) {
+        return KEY_PREFIX + clientRegistrationId + ":" + principalName;
+    }
+
+    private static Long toMillis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : null;
+    }
+
+    private static Instant toInstant(Long millis) {
+        return millis != null ? Instant.ofEpochMilli(millis) : null;
+    }
+
+    private record CachedClient(OAuth2AuthorizedClient client, long expiresAt, int estimatedBytes) {
+    }
+
+    private record StoredClient(String accessToken, Set<String> scopes, Long issuedAt, Long expiresAt,
+            String refreshToken, Long refreshIssuedAt, Long refreshExpiresAt) {
+    }
+}
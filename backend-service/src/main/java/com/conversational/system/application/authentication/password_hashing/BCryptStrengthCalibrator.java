@@ -0,0 +1,84 @@
+package com.conversational.system.application.authentication.password_hashing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the BCrypt cost at startup so that one hash takes roughly the target latency on this hardware.
+ * Each cost step doubles the work, so the cost is derived from one measured hash at the minimum cost.
+ * Set app.security.bcrypt.strength to pin the cost (recommended when nodes run on mixed hardware,
+ * otherwise rehash-on-login can move users between costs).
+ */
+@Slf4j
+@Component
+public class BCryptStrengthCalibrator {
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int MEASUREMENT_ROUNDS = 3;
+
+    @Value("${app.security.bcrypt.strength:0}")
+    private int configuredStrength;
+
+    @Value("${app.security.bcrypt.target-ms:250}")
+    private long targetMs;
+
+    @Value("${app.security.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    @Value("${app.security.bcrypt.max-strength:14}")
+    private int maxStrength;
+
+    private final MeterRegistry meterRegistry;
+    private int strength;
+
+    public BCryptStrengthCalibrator(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void calibrate() {
+        if (configuredStrength > 0) {
+            strength = configuredStrength;
+        } else {
+            long measuredNanos = measure(minStrength);
+            strength = strengthFor(measuredNanos, minStrength, maxStrength, targetMs);
+            log.info("BCrypt cost {} hashes in {} ms, calibrated cost {} for a {} ms target.", minStrength,
+                    measuredNanos / 1_000_000, strength, targetMs);
+        }
+        Gauge.builder("password.hash.bcrypt.strength", this, BCryptStrengthCalibrator::getStrength)
+                .register(meterRegistry);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    static int strengthFor(long measuredNanos, int minStrength, int maxStrength, long targetMs) {
+        int result = minStrength;
+        long hashNanos = Math.max(1, measuredNanos);
+        long targetNanos = targetMs * 1_000_000;
+        while (result < maxStrength && hashNanos * 2 <= targetNanos) {
+            hashNanos *= 2;
+            result++;
+        }
+        return result;
+    }
+
+    // Best of a few rounds after a warm-up, so JIT and a noisy neighbour don't inflate the estimate
+    private static long measure(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        BCrypt.hashpw(CALIBRATION_PASSWORD, salt);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENT_ROUNDS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(CALIBRATION_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,55 @@
+package com.conversational.system.application.authentication.password_hashing;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt encoder whose encode/matches calls run on the PasswordHashingExecutor instead of the caller's thread.
+ * upgradeEncoding reports any hash whose cost differs from the current one, which lets
+ * DaoAuthenticationProvider rehash the password transparently on the next successful login.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final PasswordHashingExecutor executor;
+
+    public OffloadedPasswordEncoder(int strength, PasswordHashingExecutor executor) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost != strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    // Hashes look like $2a$10$<salt+hash>; returns -1 for anything that is not a BCrypt hash
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$')
+            return -1;
+        int separator = encodedPassword.indexOf('$', 1);
+        if (separator < 0 || separator + 3 >= encodedPassword.length() || encodedPassword.charAt(separator + 3) != '$')
+            return -1;
+        try {
+            return Integer.parseInt(encodedPassword.substring(separator + 1, separator + 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.conversational.system.application.authentication.password_hashing;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Small, separately sized pool that runs every BCrypt computation.
+ * Hashing never competes with the whole Tomcat pool for CPU: at most {@code threads} hashes run at once,
+ * at most {@code queue-capacity} wait, and anything beyond that fails fast with PasswordHashingUnavailableException.
+ */
+@Component
+public class PasswordHashingExecutor {
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> computeTimers = new ConcurrentHashMap<>();
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:32}") int queueCapacity,
+            @Value("${app.security.password-hashing.timeout-ms:5000}") long timeoutMs,
+            MeterRegistry meterRegistry) {
+        // Half of the cores by default, so request threads keep CPU during a login storm
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+        this.meterRegistry = meterRegistry;
+        this.queueWaitTimer = Timer.builder("password.hash.queue.wait")
+                .description("Time a hashing task waits for a free hashing thread").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected").register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public <T> T execute(String operation, Supplier<T> task) {
+        Timer computeTimer = computeTimers.computeIfAbsent(operation, name -> Timer.builder("password.hash.compute")
+                .tag("operation", name).description("Time spent computing a BCrypt hash").register(meterRegistry));
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return computeTimer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException("Password hashing is overloaded, please retry later.");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException("Password hashing timed out, please retry later.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw new RuntimeException("Password hashing failed.", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,10 @@
+package com.conversational.system.application.authentication.password_hashing;
+
+/**
+ * Thrown when the password hashing executor is saturated and the request should be retried later (HTTP 503).
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
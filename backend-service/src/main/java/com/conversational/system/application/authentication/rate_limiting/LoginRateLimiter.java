@@ -0,0 +1,230 @@
+package com.conversational.system.application.authentication.rate_limiting;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throttles login attempts before any password hashing happens.
+ * Every attempt takes a token from two buckets: one per (username, client IP) pair, which stops
+ * guessing a single account without letting an attacker lock the real user out from elsewhere,
+ * and a looser one per client IP, which stops spraying many usernames.
+ * Buckets live in Redis and are updated by one Lua script. When Redis fails or answers slower
+ * than the threshold, the limiter switches to in-process buckets for a short backoff window.
+ */
+@Slf4j
+@Service
+public class LoginRateLimiter {
+    private static final String USER_IP_PREFIX = "login_rate:user_ip:";
+    private static final String IP_PREFIX = "login_rate:ip:";
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/login_token_bucket.lua"), Long.class);
+    private static final RedisSerializer<Object> ARGS_SERIALIZER = new GenericToStringSerializer<>(Object.class);
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StripedTokenBuckets localBuckets;
+    private final Counter allowedCounter;
+    private final Counter rejectedCounter;
+    private final Counter fallbackCounter;
+    private final boolean enabled;
+    private final int userIpCapacity;
+    private final long userIpRefillMs;
+    private final int ipCapacity;
+    private final long ipRefillMs;
+    private final long redisSlowThresholdMs;
+    private final long redisBackoffMs;
+    private volatile long redisBypassedUntil;
+
+    public LoginRateLimiter(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry,
+            @Value("${app.security.login-rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.security.login-rate-limit.user-ip.capacity:5}") int userIpCapacity,
+            @Value("${app.security.login-rate-limit.user-ip.refill-seconds:12}") long userIpRefillSeconds,
+            @Value("${app.security.login-rate-limit.ip.capacity:30}") int ipCapacity,
+            @Value("${app.security.login-rate-limit.ip.refill-seconds:2}") long ipRefillSeconds,
+            @Value("${app.security.login-rate-limit.redis-slow-threshold-ms:50}") long redisSlowThresholdMs,
+            @Value("${app.security.login-rate-limit.redis-backoff-ms:5000}") long redisBackoffMs,
+            @Value("${app.security.login-rate-limit.local.stripes:64}") int stripes,
+            @Value("${app.security.login-rate-limit.local.max-buckets:100000}") int maxLocalBuckets) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.userIpCapacity = userIpCapacity;
+        this.userIpRefillMs = TimeUnit.SECONDS.toMillis(userIpRefillSeconds);
+        this.ipCapacity = ipCapacity;
+        this.ipRefillMs = TimeUnit.SECONDS.toMillis(ipRefillSeconds);
+        this.redisSlowThresholdMs = redisSlowThresholdMs;
+        this.redisBackoffMs = redisBackoffMs;
+        this.localBuckets = new StripedTokenBuckets(stripes, maxLocalBuckets);
+        this.allowedCounter = Counter.builder("login.rate_limit").tag("result", "allowed").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("login.rate_limit").tag("result", "rejected").register(meterRegistry);
+        this.fallbackCounter = Counter.builder("login.rate_limit.fallback")
+                .description("Login attempts throttled in-process because Redis was slow or unavailable")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one login attempt for the given username and client IP.
+     * Returns 0 when the attempt may proceed, otherwise the number of milliseconds to wait.
+     */
+    public long tryAcquire(String username, String clientIp) {
+        if (!enabled)
+            return 0;
+        String ip = clientIp != null ? clientIp : "unknown";
+        String userIpKey = USER_IP_PREFIX + normalize(username) + "|" + ip;
+        String ipKey = IP_PREFIX + ip;
+
+        Long retryAfterMs = System.currentTimeMillis() >= redisBypassedUntil ? acquireShared(userIpKey, ipKey) : null;
+        if (retryAfterMs == null) {
+            fallbackCounter.increment();
+            retryAfterMs = localBuckets.tryAcquire(List.of(userIpKey, ipKey),
+                    new int[] { userIpCapacity, ipCapacity }, new long[] { userIpRefillMs, ipRefillMs });
+        }
+
+        if (retryAfterMs > 0)
+            rejectedCounter.increment();
+        else
+            allowedCounter.increment();
+        return retryAfterMs;
+    }
+
+    // Returns null when Redis could not answer in time and the local buckets should decide
+    private Long acquireShared(String userIpKey, String ipKey) {
+        long start = System.nanoTime();
+        try {
+            Long retryAfterMs = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, ARGS_SERIALIZER, RESULT_SERIALIZER,
+                    List.of(userIpKey, ipKey), userIpCapacity, userIpRefillMs, ipCapacity, ipRefillMs);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsedMs > redisSlowThresholdMs) {
+                // This answer is still valid, but route the next attempts locally for a while
+                log.warn("Login rate limit script took {} ms, using local buckets for {} ms.", elapsedMs, redisBackoffMs);
+                redisBypassedUntil = System.currentTimeMillis() + redisBackoffMs;
+            }
+            return retryAfterMs;
+        } catch (Exception e) {
+            log.warn("Login rate limit script failed, using local buckets for {} ms.", redisBackoffMs, e);
+            redisBypassedUntil = System.currentTimeMillis() + redisBackoffMs;
+            return null;
+        }
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String loadScript(String path) {
+        try {
+            return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load Redis script: " + path, e);
+        }
+    }
+
+    /**
+     * In-process token buckets guarded by a fixed set of lock stripes, so unrelated keys
+     * rarely contend and no per-key lock objects are allocated.
+     */
+    static final class StripedTokenBuckets {
+        private final Object[] stripes;
+        private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+        private final int maxBuckets;
+
+        StripedTokenBuckets(int stripeCount, int maxBuckets) {
+            // Power of two so the stripe index is a mask
+            int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+            this.stripes = new Object[size];
+            for (int i = 0; i < size; i++)
+                stripes[i] = new Object();
+            this.maxBuckets = Math.max(1, maxBuckets);
+        }
+
+        long tryAcquire(List<String> keys, int[] capacities, long[] refillMs) {
+            long now = System.currentTimeMillis();
+            if (buckets.size() >= maxBuckets)
+                sweep(now, capacities, refillMs);
+
+            long wait = 0;
+            // Check first, then consume, like the Redis script. Each bucket is touched under its own stripe.
+            for (int i = 0; i < keys.size(); i++)
+                wait = Math.max(wait, bucket(keys.get(i), capacities[i]).waitMs(stripeFor(keys.get(i)), now,
+                        capacities[i], refillMs[i]));
+            if (wait > 0)
+                return wait;
+            for (int i = 0; i < keys.size(); i++)
+                bucket(keys.get(i), capacities[i]).take(stripeFor(keys.get(i)), now, capacities[i], refillMs[i]);
+            return 0;
+        }
+
+        int size() {
+            return buckets.size();
+        }
+
+        private Bucket bucket(String key, int capacity) {
+            return buckets.computeIfAbsent(key, k -> new Bucket(capacity, System.currentTimeMillis()));
+        }
+
+        private Object stripeFor(String key) {
+            int hash = key.hashCode();
+            return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        }
+
+        // Drops buckets that have been idle long enough to be full again
+        private void sweep(long now, int[] capacities, long[] refillMs) {
+            long fullAfter = 0;
+            for (int i = 0; i < capacities.length; i++)
+                fullAfter = Math.max(fullAfter, capacities[i] * refillMs[i]);
+            long idleFor = fullAfter;
+            buckets.values().removeIf(bucket -> now - bucket.updatedAt > idleFor);
+            // Memory bound wins over precision if every bucket is still active
+            if (buckets.size() >= maxBuckets)
+                buckets.clear();
+        }
+
+        private static final class Bucket {
+            private double tokens;
+            private long updatedAt;
+
+            private Bucket(int capacity, long now) {
+                this.tokens = capacity;
+                this.updatedAt = now;
+            }
+
+            long waitMs(Object lock, long now, int capacity, long refillMs) {
+                synchronized (lock) {
+                    refill(now, capacity, refillMs);
+                    return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * refillMs);
+                }
+            }
+
+            void take(Object lock, long now, int capacity, long refillMs) {
+                synchronized (lock) {
+                    refill(now, capacity, refillMs);
+                    tokens = Math.max(0, tokens - 1);
+                }
+            }
+
+            private void refill(long now, int capacity, long refillMs) {
+                if (now > updatedAt) {
+                    tokens = Math.min(capacity, tokens + (double) (now - updatedAt) / refillMs);
+                    updatedAt = now;
+                }
+            }
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package com.conversational.system.application.coding;
 
+import com.conversational.system.application.messaging.ConfirmedPublisher;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
 public class CodingService {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmedPublisher confirmedPublisher;
     private final RedisTemplate<String, Object> redisTemplate;
 
     @Value("${app.queue.code.execution}")
@@ -28,7 +29,12 @@ public class CodingService {
                 "code", code
         );
 
-        rabbitTemplate.convertAndSend(codeExecutionQueue, message);
+        // Wait for the broker's confirm so a lost request fails the call instead of leaving the client polling
+        try {
+            confirmedPublisher.publish(codeExecutionQueue, message).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to submit code execution job " + jobId, e.getCause());
+        }
 
         System.out.println("Job submitted to sandbox with jobId #" + jobId);
         return Map.of("jobId", jobId);
@@ -0,0 +1,28 @@
+package com.conversational.system.application.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.conversational.system.application.job.JobCompletionPublisher;
+
+@Configuration
+@ConditionalOnProperty(name = "app.jobs.completion.redis-fanout.enabled", havingValue = "true", matchIfMissing = true)
+public class JobCompletionConfig {
+
+    @Bean
+    public RedisMessageListenerContainer jobCompletionListenerContainer(RedisConnectionFactory factory,
+            JobCompletionPublisher jobCompletionPublisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(
+                (message, pattern) -> jobCompletionPublisher.receive(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(jobCompletionPublisher.getChannel()));
+        return container;
+    }
+}
@@ -1,18 +1,52 @@
 package com.conversational.system.application.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.context.annotation.Bean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.conversational.system.application.job.JobDispatcher;
 
 @Configuration
 public class RabbitMQConfig {
 
+    // Only drained by the agents now: requests published before per-agent-type queues existed
     @Bean
     public Queue codeRequestQueue(@Value("${app.queue.code.request}") String queueName) {
         return new Queue(queueName, true);
     }
 
+    // Agent requests, routed by agent type to <exchange>.<AGENT_TYPE> so one type's backlog never delays another
+    @Bean
+    public DirectExchange agentRequestExchange(@Value("${app.queue.agents.exchange}") String exchangeName) {
+        return new DirectExchange(exchangeName, true, false);
+    }
+
+    @Bean
+    public Declarables agentRequestQueues(DirectExchange agentRequestExchange, Environment environment) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String agentType : JobDispatcher.agentTypes(environment)) {
+            Queue queue = QueueBuilder.durable(JobDispatcher.queueName(agentRequestExchange.getName(), agentType))
+                    .maxPriority(JobDispatcher.INTERACTIVE_PRIORITY)
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(agentRequestExchange).with(agentType));
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
     public Queue codeReviewQueue(@Value("${app.queue.code.review}") String queueName) {
         return new Queue(queueName, true);
@@ -27,4 +61,22 @@ public class RabbitMQConfig {
     public Queue codeResultsQueue(@Value("${app.queue.code.results}") String queueName) {
         return new Queue(queueName, true);
     }
+
+    // Agent output chunks, published with routing key job.{jobId}
+    @Bean
+    public TopicExchange jobStreamExchange(@Value("${app.queue.job-stream.exchange}") String exchangeName) {
+        return new TopicExchange(exchangeName, true, false);
+    }
+
+    // Cancelled job ids; every agent worker binds its own queue, so each one learns of every cancellation
+    @Bean
+    public FanoutExchange jobCancelExchange(@Value("${app.queue.job-cancel.exchange}") String exchangeName) {
+        return new FanoutExchange(exchangeName, true, false);
+    }
+
+    // Per-instance, deleted with the connection; JobStreamRelay binds it to the jobs watched from this instance
+    @Bean
+    public Queue jobStreamQueue() {
+        return new AnonymousQueue();
+    }
 }
@@ -1,12 +1,16 @@
 package com.conversational.system.application.config;
 
-import com.conversational.system.application.conversation.ConversationService;
+import com.conversational.system.application.job.JobCancellation;
 import com.conversational.system.application.job.JobService;
+import com.conversational.system.application.job.JobStreamRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -16,7 +20,9 @@ public class ResultsListener {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final JobService jobService;
-    private final ConversationService conversationService;
+    private final JobStreamRelay jobStreamRelay;
+    private final JobCancellation jobCancellation;
+    private final MeterRegistry meterRegistry;
 
     @RabbitListener(queues = "${app.queue.code.review}")
     public void receiveJobResults(Map<String, Object> resultMessage) {
@@ -58,19 +64,27 @@ public class ResultsListener {
         System.out.println("Answer extracted: " + answer.substring(0, Math.min(100, answer.length())));
 
         // Update job status in JobService
-        if ("TASK_COMPLETED".equals(status)) {
-            // Save assistant message to database
-            String messageId = null;
+        if ("TASK_CANCELLED".equals(status)) {
+            // The agent stopped on the cancel signal; the job was marked cancelled when it was requested
+            jobCancellation.aborted((String) resultMessage.get("agentType"), agentTime(resultMessage));
+        } else if ("TASK_COMPLETED".equals(status) && jobService.isCancelled(jobId)) {
+            System.out.println("Dropping result of cancelled job: " + jobId);
+            jobCancellation.lateResult((String) resultMessage.get("agentType"), agentTime(resultMessage));
+        } else if ("TASK_COMPLETED".equals(status)) {
+            recordTimeToFirstToken(resultMessage);
+
+            // Saves the assistant message and completes the job together; a cancel that got there first wins
             try {
-                var message = conversationService.saveAssistantMessage(jobId, answer);
-                messageId = message.getId().toString();
+                String messageId = jobService.completeJob(jobId, answer);
                 System.out.println("Assistant message saved for job: " + jobId + " with messageId: " + messageId);
+            } catch (JobService.JobFinishedException e) {
+                System.out.println("Dropping result of finished job: " + jobId);
+                if (jobService.isCancelled(jobId))
+                    jobCancellation.lateResult((String) resultMessage.get("agentType"), agentTime(resultMessage));
             } catch (Exception e) {
                 System.err.println("Failed to save assistant message: " + e.getMessage());
+                jobService.updateJobResult(jobId, "completed", answer, null);
             }
-
-            // Update job result with messageId
-            jobService.updateJobResult(jobId, "completed", answer, messageId);
         } else if ("TASK_FAILED".equals(status)) {
             String errorMessage = (String) resultMessage.get("error");
             String fullError = "Task failed: " + (errorMessage != null ? errorMessage : "Unknown error");
@@ -81,6 +95,44 @@ public class ResultsListener {
         }
     }
 
+    // Incremental agent output; the complete answer still arrives once on the review queue
+    @RabbitListener(queues = "#{jobStreamQueue.name}")
+    public void receiveJobChunks(Map<String, Object> chunkMessage) {
+        String jobId = (String) chunkMessage.get("jobId");
+        if (jobId == null || !"TASK_CHUNK".equals(chunkMessage.get("status"))) {
+            return;
+        }
+        long seq = chunkMessage.get("seq") instanceof Number number ? number.longValue() : 0;
+        jobStreamRelay.onChunk(jobId, seq, (String) chunkMessage.get("delta"),
+                Boolean.TRUE.equals(chunkMessage.get("final")), (String) chunkMessage.get("outcome"));
+    }
+
+    /* submittedAt is stamped by JobService and echoed by the agent together with the time its first token was
+     * generated. Recorded once per completed job, whichever instance consumes the result. */
+    private void recordTimeToFirstToken(Map<String, Object> resultMessage) {
+        if (!(resultMessage.get("submittedAt") instanceof Number submittedAt)
+                || !(resultMessage.get("firstTokenAt") instanceof Number firstTokenAt)) {
+            return;
+        }
+        long millis = firstTokenAt.longValue() - submittedAt.longValue();
+        if (millis < 0) {
+            return;
+        }
+        Object agentType = resultMessage.get("agentType");
+        Timer.builder("jobs.time_to_first_token")
+                .description("Time from job submission to the first generated token")
+                .tag("agentType", agentType != null ? agentType.toString() : "unknown")
+                .register(meterRegistry)
+                .record(Duration.ofMillis(millis));
+    }
+
+    // From the submittedAt echoed by the agent until now; null when the agent did not echo it
+    private static Duration agentTime(Map<String, Object> resultMessage) {
+        return resultMessage.get("submittedAt") instanceof Number submittedAt
+                ? Duration.ofMillis(System.currentTimeMillis() - submittedAt.longValue())
+                : null;
+    }
+
     @RabbitListener(queues = "${app.queue.code.results}")
     public void receiveCodeExecutionResults(Map<String, Object> resultMessage) {
         System.out.println("Got result for job: " + resultMessage.get("jobId"));
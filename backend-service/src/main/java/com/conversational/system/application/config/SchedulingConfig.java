@@ -0,0 +1,11 @@
+package com.conversational.system.application.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Periodic upkeep (samplers, sweepers, syncs, heartbeats, purges) runs as @Scheduled methods on the shared
+// task scheduler, sized by spring.task.scheduling.pool.size
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -5,22 +5,29 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.conversational.system.application.authentication.json_web_token.JwtFilter;
+import com.conversational.system.application.authentication.oauth2_login.CookieOAuth2AuthorizationRequestRepository;
+import com.conversational.system.application.authentication.oauth2_login.OAuth2LoginHandler;
+import com.conversational.system.application.authentication.password_hashing.BCryptStrengthCalibrator;
+import com.conversational.system.application.authentication.password_hashing.OffloadedPasswordEncoder;
+import com.conversational.system.application.authentication.password_hashing.PasswordHashingExecutor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -32,15 +39,13 @@ public class SecurityConfig {
     @Value("${app.cors.allowed-origins}")
     private final List<String> allowedOrigins;
     private final JwtFilter jwtFilter;
+    private final CookieOAuth2AuthorizationRequestRepository authorizationRequestRepository;
+    private final OAuth2LoginHandler oAuth2LoginHandler;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PasswordEncoder passwordEncoder(BCryptStrengthCalibrator strengthCalibrator,
+            PasswordHashingExecutor passwordHashingExecutor) {
+        return new OffloadedPasswordEncoder(strengthCalibrator.getStrength(), passwordHashingExecutor);
     }
 
     @Bean
@@ -56,25 +61,49 @@ public class SecurityConfig {
         return source;
     }
 
+    /* Everything under /api is authenticated by the bearer JWT alone: no HttpSession is created or read,
+     * no saved request is kept and an unauthenticated call gets a plain 401 instead of a login redirect. */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .securityMatcher("/api/**")
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests((request) -> request
+                        .requestMatchers("/api/auth/**").permitAll()
+                        .anyRequest().authenticated())
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(this.jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .build();
+    }
+
+    /* Social login handshake (/oauth2/authorization/*, /login/oauth2/code/*). The authorization request
+     * travels in a signed cookie and the success handler hands out our own tokens, so this chain is stateless too. */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(2)
+    public SecurityFilterChain oauth2LoginSecurityFilterChain(HttpSecurity http) throws Exception {
         return http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
-                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests((request) -> request
-                        .requestMatchers(
-                                "/api/auth/register",
-                                "/api/auth/login",
-                                "/api/auth/oauth2/success",
-                                "/oauth2/**",
-                                "/login/**",
-                                "/api/auth/**")
-                        .permitAll()
+                        .requestMatchers("/oauth2/**", "/login/**").permitAll()
                         .anyRequest().authenticated())
-                .httpBasic(Customizer.withDefaults())
-                .addFilterBefore(this.jwtFilter, BasicAuthenticationFilter.class)
-                .oauth2Login(oauth2 -> oauth2.defaultSuccessUrl("/api/auth/oauth2/success", true))
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(this.jwtFilter, UsernamePasswordAuthenticationFilter.class) // e.g. actuator endpoints
+                .oauth2Login(oauth2 -> oauth2
+                        .authorizationEndpoint(endpoint -> endpoint
+                                .authorizationRequestRepository(authorizationRequestRepository))
+                        .successHandler(oAuth2LoginHandler)
+                        .failureHandler(oAuth2LoginHandler))
                 .build();
     }
 
@@ -0,0 +1,35 @@
+package com.conversational.system.application.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.conversational.system.application.entities.user.UserCache;
+
+@Configuration
+@ConditionalOnProperty(name = "app.user-cache.redis-invalidation.enabled", havingValue = "true")
+public class UserCacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer userCacheInvalidationListenerContainer(RedisConnectionFactory factory,
+            UserCache userCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener((message, pattern) -> {
+            // Payload format: "<id>:<username>", either part may be empty
+            String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = payload.indexOf(':');
+            if (separator < 0)
+                return;
+            String id = payload.substring(0, separator);
+            String username = payload.substring(separator + 1);
+            userCache.evictLocal(id.isEmpty() ? null : Integer.valueOf(id), username.isEmpty() ? null : username);
+        }, new ChannelTopic(userCache.getInvalidationChannel()));
+        return container;
+    }
+}
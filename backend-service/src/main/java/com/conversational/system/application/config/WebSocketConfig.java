@@ -0,0 +1,30 @@
+package com.conversational.system.application.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.conversational.system.application.job.JobStreamWebSocketHandler;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    private final JobStreamWebSocketHandler jobStreamWebSocketHandler;
+    private final List<String> allowedOrigins;
+
+    public WebSocketConfig(JobStreamWebSocketHandler jobStreamWebSocketHandler,
+            @Value("${app.cors.allowed-origins}") List<String> allowedOrigins) {
+        this.jobStreamWebSocketHandler = jobStreamWebSocketHandler;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(jobStreamWebSocketHandler, "/api/jobs/stream")
+                .setAllowedOrigins(allowedOrigins.toArray(new String[0]));
+    }
+}
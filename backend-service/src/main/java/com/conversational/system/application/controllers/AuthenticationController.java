@@ -1,18 +1,23 @@
 package com.conversational.system.application.controllers;
 
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.security.core.Authentication;
 
-import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
 
+import com.conversational.system.application.authentication.AuthTokens;
 import com.conversational.system.application.authentication.AuthenticationService;
+import com.conversational.system.application.authentication.json_web_token.RefreshTokenCookies;
+import com.conversational.system.application.authentication.password_hashing.PasswordHashingUnavailableException;
+import com.conversational.system.application.authentication.rate_limiting.LoginRateLimiter;
 import com.conversational.system.application.controllers.requests.LoginRequest;
 import com.conversational.system.application.controllers.requests.PasswordResetRequestDto;
 import com.conversational.system.application.controllers.requests.RegisterRequest;
@@ -26,12 +31,18 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api/auth")
 public class AuthenticationController {
     private final AuthenticationService authenticationService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenCookies refreshTokenCookies;
+    private static final String BEARER_PREFIX = "Bearer ";
 
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestBody RegisterRequest request) {
         try {
             authenticationService.registerUser(request.getUsername(), request.getEmail(), request.getPassword());
             return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully");
+        } catch (PasswordHashingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
         } catch (RuntimeException e) {
             String errorMessage = e.getMessage();
             if (errorMessage.contains("already taken") || errorMessage.contains("incorrect")) {
@@ -45,23 +56,62 @@ public class AuthenticationController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> loginUser(@RequestBody LoginRequest request) {
+    public ResponseEntity<String> loginUser(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Throttled before AuthenticationService so rejected attempts never reach BCrypt
+        long retryAfterMs = loginRateLimiter.tryAcquire(request.getUsername(), httpRequest.getRemoteAddr());
+        if (retryAfterMs > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(retryAfterMs + 999)))
+                    .body("Too many login attempts. Please try again later.");
+        }
         try {
-            String token = authenticationService.loginUser(request.getUsername(), request.getPassword());
-            return ResponseEntity.status(HttpStatus.OK).body(token);
+            AuthTokens tokens = authenticationService.loginUser(request.getUsername(), request.getPassword());
+            return ResponseEntity.status(HttpStatus.OK)
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenCookies.issue(tokens.refreshToken()).toString())
+                    .body(tokens.accessToken());
+        } catch (PasswordHashingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Exception occured during registration process.\n" + e.getMessage());
         }
     }
 
-    @GetMapping("/oauth2/success")
-    public void authenticateWithGoogle(Authentication authentication, HttpServletResponse response) throws IOException {
+    // Exchanges the refresh token cookie for a new access token and rotates the cookie
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refreshToken(
+            @CookieValue(name = RefreshTokenCookies.COOKIE_NAME, required = false) String refreshToken) {
+        if (refreshToken == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing refresh token.");
         try {
-            String token = authenticationService.authenticateOAuth2User(authentication);
-            response.sendRedirect("http://localhost:3000/auth/callback?token=" + token);
+            AuthTokens tokens = authenticationService.refreshTokens(refreshToken);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenCookies.issue(tokens.refreshToken()).toString())
+                    .body(tokens.accessToken());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenCookies.expire().toString())
+                    .body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorizationHeader,
+            @CookieValue(name = RefreshTokenCookies.COOKIE_NAME, required = false) String refreshToken) {
+        try {
+            String accessToken = authorizationHeader != null && authorizationHeader.startsWith(BEARER_PREFIX)
+                    ? authorizationHeader.substring(BEARER_PREFIX.length())
+                    : null;
+            authenticationService.logout(accessToken, refreshToken);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenCookies.expire().toString())
+                    .body("Logged out successfully");
         } catch (Exception e) {
-            response.sendRedirect("http://localhost:3000/auth/login?error=OAuthAuthenticationFailed");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenCookies.expire().toString())
+                    .body("Exception occured during logout.\n" + e.getMessage());
         }
     }
 
@@ -116,6 +166,9 @@ public class AuthenticationController {
         try {
             authenticationService.resetPassword(request.getResetCode(), request.getNewPassword());
             return ResponseEntity.status(HttpStatus.OK).body("Password has been reset successfully");
+        } catch (PasswordHashingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
         } catch (RuntimeException e) {
             String errorMessage = e.getMessage();
             if (errorMessage.contains("Invalid") || errorMessage.contains("not found")) {
@@ -129,4 +182,4 @@ public class AuthenticationController {
                     .body("Unexpected error during password reset: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -21,7 +21,7 @@ public class DashboardController {
     @GetMapping("/get-email")
     public ResponseEntity<String> getUserEmail(Authentication authentication){
         try {
-            return ResponseEntity.status(HttpStatus.OK).body(authenticationService.extractUser(authentication).getEmail());
+            return ResponseEntity.status(HttpStatus.OK).body(authenticationService.extractUserSnapshot(authentication).email());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error getting user email.\n" +e.getMessage());
         }
@@ -30,7 +30,7 @@ public class DashboardController {
     @GetMapping("/get-username")
     public ResponseEntity<String> getUserUsername(Authentication authentication){
         try {
-            return ResponseEntity.status(HttpStatus.OK).body(authenticationService.extractUser(authentication).getUsername());
+            return ResponseEntity.status(HttpStatus.OK).body(authenticationService.extractUserSnapshot(authentication).username());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error getting user email.\n" +e.getMessage());
         }
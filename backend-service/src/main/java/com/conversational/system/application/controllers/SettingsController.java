@@ -1,5 +1,6 @@
 package com.conversational.system.application.controllers;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.conversational.system.application.authentication.AuthenticationService;
 import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.authentication.password_hashing.PasswordHashingUnavailableException;
 import com.conversational.system.application.controllers.requests.ChangeEmailRequest;
 import com.conversational.system.application.controllers.requests.ChangePasswordRequest;
 import com.conversational.system.application.controllers.requests.ChangeUsernameRequest;
@@ -35,13 +37,13 @@ public class SettingsController {
     @GetMapping("/profile")
     public ResponseEntity<UserProfileDto> getUserProfile(Authentication authentication) {
         try {
-            var user = authenticationService.extractUser(authentication);
+            var user = authenticationService.extractUserSnapshot(authentication);
             
             UserProfileDto profile = UserProfileDto.builder()
-                .username(user.getUsername())
-                .email(user.getEmail())
+                .username(user.username())
+                .email(user.email())
                 .isVerified(user.isVerified())
-                .createdAt(user.getCreationDate().toString())
+                .createdAt(user.creationDate().toString())
                 .build();
 
             return ResponseEntity.ok(profile);
@@ -55,7 +57,7 @@ public class SettingsController {
     public ResponseEntity<String> getUserUsername(Authentication authentication){
         try {
             String verificationState = "unverified";
-            if (authenticationService.extractUser(authentication).isVerified()) verificationState="verified";
+            if (authenticationService.extractUserSnapshot(authentication).isVerified()) verificationState="verified";
             return ResponseEntity.status(HttpStatus.OK).body(verificationState);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error getting user email.\n" +e.getMessage());
@@ -65,7 +67,7 @@ public class SettingsController {
     @GetMapping("/get-creation-date")
     public ResponseEntity<String> getCreationDate(Authentication authentication){
         try {
-            return ResponseEntity.status(HttpStatus.OK).body(authenticationService.extractUser(authentication).getCreationDate().toString());
+            return ResponseEntity.status(HttpStatus.OK).body(authenticationService.extractUserSnapshot(authentication).creationDate().toString());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error getting user email.\n" +e.getMessage());
         }
@@ -76,7 +78,7 @@ public class SettingsController {
         try {
             User user = authenticationService.extractUser(authentication);
             userService.changeUsername(user, request.getNewUsername());
-            String token = jwtService.generateJWToken(request.getNewUsername());
+            String token = jwtService.generateJWToken(user);
             return ResponseEntity.status(HttpStatus.OK).body(token);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error occured while changing username.\n" +e.getMessage());
@@ -96,8 +98,13 @@ public class SettingsController {
     @PutMapping("/change-password")
     public ResponseEntity<String> changePassword(Authentication authentication, @RequestBody ChangePasswordRequest request) {
         try {
-            userService.changePassword(authenticationService.extractUser(authentication), request.getCurrentPassword(), request.getNewPassword());
-            return ResponseEntity.status(HttpStatus.OK).body("Password changed.");
+            User user = authenticationService.extractUser(authentication);
+            userService.changePassword(user, request.getCurrentPassword(), request.getNewPassword());
+            // Older tokens are revoked by the password change, so hand the client a fresh one
+            return ResponseEntity.status(HttpStatus.OK).body(jwtService.generateJWToken(user));
+        } catch (PasswordHashingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error occured while changing email.\n" +e.getMessage());
         }
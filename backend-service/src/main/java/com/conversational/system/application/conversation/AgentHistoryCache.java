@@ -0,0 +1,210 @@
+package com.conversational.system.application.conversation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-through Redis cache of the newest history entries of each agent conversation, as a list under
+ * agent_history:{conversationId}:{agentType} capped to app.history.cache.max-entries.
+ * Messages are appended once their transaction commits; until then they are only visible to reads in that
+ * transaction, and a rollback evicts the list. A miss is repopulated from the database unless a message was
+ * appended meanwhile. Redis failures degrade to misses, so the database stays the source of truth.
+ */
+@Slf4j
+@Component
+public class AgentHistoryCache {
+    private static final String HISTORY_PREFIX = "agent_history:";
+    private static final String GENERATION_PREFIX = "agent_history_gen:";
+    private static final RedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/history_append.lua"), Long.class);
+    private static final RedisScript<Long> POPULATE_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/history_populate.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+
+    @Value("${app.history.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.history.cache.max-entries:200}")
+    private int maxEntries;
+
+    @Value("${app.history.cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    public AgentHistoryCache(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.hits = Counter.builder("history.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("history.cache").tag("result", "miss").register(meterRegistry);
+        this.errors = Counter.builder("history.cache").tag("result", "error").register(meterRegistry);
+    }
+
+    /* A cached tail, oldest first, or a miss carrying the generation to hand back to populate. */
+    public record Lookup(List<HistoryEntry> entries, String generation) {
+        public boolean isHit() {
+            return entries != null;
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Lookup read(UUID conversationId, String agentType) {
+        String key = key(conversationId, agentType);
+        if (!enabled)
+            return new Lookup(null, null);
+        try {
+            // Read before the list, so an append landing in between makes the later populate back off
+            String generation = redisTemplate.opsForValue().get(GENERATION_PREFIX + key);
+            List<String> cached = redisTemplate.opsForList().range(HISTORY_PREFIX + key, 0, -1);
+            if (cached == null || cached.isEmpty()) {
+                misses.increment();
+                return new Lookup(null, generation != null ? generation : "");
+            }
+            hits.increment();
+            List<HistoryEntry> entries = new ArrayList<>(cached.size());
+            for (String encoded : cached)
+                entries.add(HistoryEntry.decode(encoded));
+            mergePending(key, entries);
+            return new Lookup(entries, generation);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Failed to read cached history of {}.", key, e);
+            return new Lookup(null, null);
+        }
+    }
+
+    /* Caches a tail loaded from the database (oldest first); generation comes from the missed read. */
+    public void populate(UUID conversationId, String agentType, String generation, List<HistoryEntry> entries) {
+        if (!enabled || generation == null || entries.isEmpty())
+            return;
+        String key = key(conversationId, agentType);
+        List<String> args = new ArrayList<>(entries.size() + 2);
+        args.add(generation);
+        args.add(String.valueOf(ttl().toSeconds()));
+        for (HistoryEntry entry : entries.subList(Math.max(0, entries.size() - maxEntries), entries.size()))
+            args.add(entry.encode());
+        try {
+            redisTemplate.execute(POPULATE_SCRIPT, List.of(HISTORY_PREFIX + key, GENERATION_PREFIX + key),
+                    args.toArray());
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Failed to cache history of {}.", key, e);
+        }
+    }
+
+    /* Appends a message saved in the current transaction once it commits. */
+    public void append(UUID conversationId, String agentType, HistoryEntry entry) {
+        if (!enabled)
+            return;
+        String key = key(conversationId, agentType);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendNow(key, entry);
+            return;
+        }
+        pendingAppends().computeIfAbsent(key, ignored -> new ArrayList<>()).add(entry);
+    }
+
+    public void evict(UUID conversationId, String agentType) {
+        if (enabled)
+            evict(key(conversationId, agentType));
+    }
+
+    private void appendNow(String key, HistoryEntry entry) {
+        try {
+            redisTemplate.execute(APPEND_SCRIPT, List.of(HISTORY_PREFIX + key, GENERATION_PREFIX + key),
+                    entry.encode(), entry.id().toString(), String.valueOf(maxEntries),
+                    String.valueOf(ttl().toSeconds()));
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Failed to append to cached history of {}, evicting it.", key, e);
+            evict(key);
+        }
+    }
+
+    private void evict(String key) {
+        try {
+            // Bump the generation first so a load in flight does not re-populate what is being dropped
+            redisTemplate.opsForValue().increment(GENERATION_PREFIX + key);
+            redisTemplate.expire(GENERATION_PREFIX + key, ttl());
+            redisTemplate.delete(HISTORY_PREFIX + key);
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Failed to evict cached history of {}.", key, e);
+        }
+    }
+
+    // Messages saved by the current transaction, so that its own reads (e.g. a job submit) include them
+    private void mergePending(String key, List<HistoryEntry> entries) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+        @SuppressWarnings("unchecked")
+        Map<String, List<HistoryEntry>> pending = (Map<String, List<HistoryEntry>>) TransactionSynchronizationManager
+                .getResource(this);
+        if (pending == null || !pending.containsKey(key))
+            return;
+        for (HistoryEntry entry : pending.get(key))
+            if (entries.stream().noneMatch(cached -> cached.id().equals(entry.id())))
+                entries.add(entry);
+    }
+
+    private Map<String, List<HistoryEntry>> pendingAppends() {
+        @SuppressWarnings("unchecked")
+        Map<String, List<HistoryEntry>> pending = (Map<String, List<HistoryEntry>>) TransactionSynchronizationManager
+                .getResource(this);
+        if (pending != null)
+            return pending;
+        Map<String, List<HistoryEntry>> created = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AgentHistoryCache.this);
+                if (status == STATUS_COMMITTED)
+                    created.forEach((key, entries) -> entries.forEach(entry -> appendNow(key, entry)));
+                else
+                    // A load inside the transaction may have cached its uncommitted messages
+                    created.keySet().forEach(AgentHistoryCache.this::evict);
+            }
+        });
+        return created;
+    }
+
+    private Duration ttl() {
+        return Duration.ofMinutes(ttlMinutes);
+    }
+
+    private static String key(UUID conversationId, String agentType) {
+        return conversationId + ":" + agentType;
+    }
+
+    private static String loadScript(String path) {
+        try {
+            return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load Redis script: " + path, e);
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.conversational.system.application.conversation;
 
+import com.conversational.system.application.authentication.current_user.CurrentUser;
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
 import com.conversational.system.application.entities.conversation.Conversation;
 import com.conversational.system.application.entities.user.User;
-import com.conversational.system.application.entities.user.UserRepository;
+import com.conversational.system.application.events.UserEventPublisher;
 import com.conversational.system.application.job.JobService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -19,25 +19,19 @@ import java.util.stream.Collectors;
 public class ConversationController {
 
     private final ConversationService conversationService;
-    private final UserRepository userRepository;
     private final JobService jobService;
+    private final UserEventPublisher userEventPublisher;
 
     @GetMapping
     public ResponseEntity<List<Map<String, Object>>> getUserConversations(
-            @AuthenticationPrincipal UserDetails principal) {
+            @CurrentUser CustomUserDetails principal) {
 
         if (principal == null) {
             return ResponseEntity.status(401).build();
         }
 
-        // Fetch the managed User entity from the database
-        User user = userRepository.findByEmail(principal.getUsername())
-                .orElseGet(() -> userRepository.findByUsername(principal.getUsername())
-                        .orElse(null));
-
-        if (user == null) {
-            return ResponseEntity.status(401).build();
-        }
+        // Only the id is needed here, and the authenticated principal already carries it
+        User user = principal.getUser();
 
         List<Conversation> conversations = conversationService.getUserConversations(user);
 
@@ -54,7 +48,7 @@ public class ConversationController {
 
     @GetMapping("/{conversationId}/history/{agentType}")
     public ResponseEntity<Map<String, Object>> getConversationHistory(
-            @AuthenticationPrincipal UserDetails principal,
+            @CurrentUser CustomUserDetails principal,
             @PathVariable UUID conversationId,
             @PathVariable String agentType) {
 
@@ -62,14 +56,8 @@ public class ConversationController {
             return ResponseEntity.status(401).build();
         }
 
-        // Fetch the managed User entity from the database
-        User user = userRepository.findByEmail(principal.getUsername())
-                .orElseGet(() -> userRepository.findByUsername(principal.getUsername())
-                        .orElse(null));
-
-        if (user == null) {
-            return ResponseEntity.status(401).build();
-        }
+        // Only the id is needed here, and the authenticated principal already carries it
+        User user = principal.getUser();
 
         Optional<Conversation> conversation = conversationService.getConversation(conversationId);
 
@@ -92,21 +80,15 @@ public class ConversationController {
 
     @DeleteMapping("/{conversationId}")
     public ResponseEntity<Map<String, String>> deleteConversation(
-            @AuthenticationPrincipal UserDetails principal,
+            @CurrentUser CustomUserDetails principal,
             @PathVariable UUID conversationId) {
 
         if (principal == null) {
             return ResponseEntity.status(401).build();
         }
 
-        // Fetch the managed User entity from the database
-        User user = userRepository.findByEmail(principal.getUsername())
-                .orElseGet(() -> userRepository.findByUsername(principal.getUsername())
-                        .orElse(null));
-
-        if (user == null) {
-            return ResponseEntity.status(401).build();
-        }
+        // Only the id is needed here, and the authenticated principal already carries it
+        User user = principal.getUser();
 
         Optional<Conversation> conversation = conversationService.getConversation(conversationId);
 
@@ -120,27 +102,24 @@ public class ConversationController {
         }
 
         conversationService.deleteConversation(conversationId);
+        userEventPublisher.publish(user.getId(), UserEventPublisher.CONVERSATION_EVENT, Map.of(
+                "conversationId", conversationId.toString(),
+                "change", "deleted"));
 
         return ResponseEntity.ok(Map.of("status", "deleted"));
     }
 
     @GetMapping("/{conversationId}/status")
     public ResponseEntity<Map<String, Object>> getConversationStatus(
-            @AuthenticationPrincipal UserDetails principal,
+            @CurrentUser CustomUserDetails principal,
             @PathVariable UUID conversationId) {
 
         if (principal == null) {
             return ResponseEntity.status(401).build();
         }
 
-        // Fetch the managed User entity from the database
-        User user = userRepository.findByEmail(principal.getUsername())
-                .orElseGet(() -> userRepository.findByUsername(principal.getUsername())
-                        .orElse(null));
-
-        if (user == null) {
-            return ResponseEntity.status(401).build();
-        }
+        // Only the id is needed here, and the authenticated principal already carries it
+        User user = principal.getUser();
 
         Optional<Conversation> conversation = conversationService.getConversation(conversationId);
 
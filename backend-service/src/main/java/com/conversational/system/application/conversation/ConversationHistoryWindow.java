@@ -0,0 +1,143 @@
+package com.conversational.system.application.conversation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.conversational.system.application.entities.conversation.Message;
+import com.conversational.system.application.entities.conversation.repositories.MessageHistoryEntry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decides which messages of an agent conversation are shipped with a job.
+ * Each agent type gets a window of the newest messages bounded by turns, estimated tokens and bytes
+ * (app.history.*, overridable per agent under app.history.agents.<AGENT_TYPE>.*; 0 disables a bound).
+ * Sizes are those of the message's history form, in which embedded artifacts are reduced to references,
+ * and are recorded when the message is written so selecting a window never reads message content.
+ */
+@Component
+public class ConversationHistoryWindow {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Pattern DATA_URI = Pattern.compile("data:[\\w/+.-]+;base64,[A-Za-z0-9+/=]+");
+    // Common rough estimate for LLM tokenizers: about four characters per token
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final Environment environment;
+    private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+    private final DistributionSummary tokenSummary;
+    private final DistributionSummary droppedSummary;
+
+    public ConversationHistoryWindow(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.tokenSummary = DistributionSummary.builder("jobs.history.tokens")
+                .description("Estimated tokens of the history shipped with a job").register(meterRegistry);
+        this.droppedSummary = DistributionSummary.builder("jobs.history.dropped")
+                .description("Messages left out of a job's history window").register(meterRegistry);
+    }
+
+    public record Policy(int maxTurns, int maxTokens, int maxBytes) {
+    }
+
+    /* Records the history form and its sizes on a message about to be saved. */
+    public static void annotate(Message message) {
+        String historyForm = toHistoryForm(message.getContent());
+        message.setHistoryContent(historyForm.equals(message.getContent()) ? null : historyForm);
+        message.setTokenCount(estimateTokens(historyForm));
+        message.setHistoryBytes(historyForm.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    /* A visualization report keeps its text and the names of its files; inline base64 data anywhere
+     * else is replaced by a marker. */
+    public static String toHistoryForm(String content) {
+        if (content == null)
+            return "";
+        String text = content;
+        if (content.startsWith("{") && content.contains("visualization_report")) {
+            try {
+                JsonNode report = objectMapper.readTree(content);
+                if ("visualization_report".equals(report.path("type").asText()))
+                    text = describeReport(report);
+            } catch (Exception e) {
+                // Not JSON after all, keep it as text
+            }
+        }
+        return DATA_URI.matcher(text).replaceAll("[inline data omitted]");
+    }
+
+    public static int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /* Picks the newest messages that fit the agent's policy. The newest message (the prompt being
+     * submitted) is always included. Returns how many of the newest messages to ship. */
+    public int select(String agentType, List<? extends MessageHistoryEntry> newestFirst) {
+        Policy policy = policyFor(agentType);
+        int selected = 0;
+        long tokens = 0;
+        long bytes = 0;
+        int turns = 0;
+        boolean previousWasAnswer = false;
+        for (MessageHistoryEntry entry : newestFirst) {
+            int entryTokens = entry.getTokenCount() != null ? entry.getTokenCount()
+                    : estimateTokensFromLength(entry.getContentLength());
+            int entryBytes = entry.getHistoryBytes() != null ? entry.getHistoryBytes()
+                    : entry.getContentLength() != null ? entry.getContentLength() : 0;
+            // Walking backwards, an answer opens an older turn and the prompt before it closes that turn
+            boolean isPrompt = "user".equals(entry.getRole());
+            int entryTurns = isPrompt && previousWasAnswer ? 0 : 1;
+            if (selected > 0 && (exceeds(turns + entryTurns, policy.maxTurns())
+                    || exceeds(tokens + entryTokens, policy.maxTokens())
+                    || exceeds(bytes + entryBytes, policy.maxBytes())))
+                break;
+            selected++;
+            tokens += entryTokens;
+            bytes += entryBytes;
+            turns += entryTurns;
+            previousWasAnswer = !isPrompt;
+        }
+        tokenSummary.record(tokens);
+        droppedSummary.record(newestFirst.size() - selected);
+        return selected;
+    }
+
+    public Policy policyFor(String agentType) {
+        return policies.computeIfAbsent(agentType != null ? agentType : "", type -> new Policy(
+                limit(type, "max-turns", 20),
+                limit(type, "max-tokens", 16000),
+                limit(type, "max-bytes", 131072)));
+    }
+
+    private int limit(String agentType, String name, int defaultValue) {
+        int global = environment.getProperty("app.history." + name, Integer.class, defaultValue);
+        return environment.getProperty("app.history.agents." + agentType + "." + name, Integer.class, global);
+    }
+
+    private static boolean exceeds(long value, int limit) {
+        return limit > 0 && value > limit;
+    }
+
+    // Legacy rows carry no token count; their content length (from the database) is the best estimate
+    private static int estimateTokensFromLength(Integer contentLength) {
+        return contentLength != null ? (contentLength + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN : 0;
+    }
+
+    private static String describeReport(JsonNode report) {
+        StringBuilder text = new StringBuilder(report.path("content").asText(""));
+        JsonNode files = report.has("generated_files") ? report.get("generated_files") : report.path("generatedFiles");
+        List<String> names = new ArrayList<>();
+        files.fieldNames().forEachRemaining(names::add);
+        if (!names.isEmpty())
+            text.append("\n\n[Generated files: ").append(String.join(", ", names)).append("]");
+        return text.toString();
+    }
+}
@@ -3,13 +3,17 @@ package com.conversational.system.application.conversation;
 import com.conversational.system.application.entities.conversation.*;
 import com.conversational.system.application.entities.conversation.repositories.AgentConversationRepository;
 import com.conversational.system.application.entities.conversation.repositories.ConversationRepository;
+import com.conversational.system.application.entities.conversation.repositories.MessageHistoryContent;
+import com.conversational.system.application.entities.conversation.repositories.MessageHistoryEntry;
 import com.conversational.system.application.entities.conversation.repositories.MessageRepository;
 import com.conversational.system.application.entities.user.User;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,6 +24,8 @@ public class ConversationService {
     private final ConversationRepository conversationRepository;
     private final AgentConversationRepository agentConversationRepository;
     private final MessageRepository messageRepository;
+    private final ConversationHistoryWindow historyWindow;
+    private final AgentHistoryCache historyCache;
 
     @Transactional
     public Conversation createConversation(User user, String title) {
@@ -45,7 +51,9 @@ public class ConversationService {
         AgentConversation agentConversation = getOrCreateAgentConversation(conversationId, agentType);
 
         Message message = new Message(agentConversation, "user", content, jobId);
+        ConversationHistoryWindow.annotate(message);
         message = messageRepository.save(message);
+        historyCache.append(conversationId, agentType, toHistoryEntry(message));
 
         agentConversation.updateTimestamp();
         agentConversation.getConversation().updateTimestamp();
@@ -61,7 +69,10 @@ public class ConversationService {
         AgentConversation agentConversation = userMessage.getAgentConversation();
 
         Message message = new Message(agentConversation, "assistant", content, jobId);
+        ConversationHistoryWindow.annotate(message);
         message = messageRepository.save(message);
+        historyCache.append(agentConversation.getConversation().getId(), agentConversation.getAgentType(),
+                toHistoryEntry(message));
 
         agentConversation.updateTimestamp();
         agentConversation.getConversation().updateTimestamp();
@@ -97,6 +108,64 @@ public class ConversationService {
                 .collect(Collectors.toList());
     }
 
+    // History shipped to an agent, serialized: the newest messages that fit the agent type's window
+    @Transactional(readOnly = true)
+    public List<String> getAgentHistoryWindow(UUID conversationId, String agentType) {
+        AgentHistoryCache.Lookup lookup = historyCache.read(conversationId, agentType);
+        List<HistoryEntry> tail = lookup.isHit()
+                ? lookup.entries()
+                : loadHistoryTail(conversationId, agentType, lookup.generation());
+
+        List<HistoryEntry> newestFirst = new ArrayList<>(tail);
+        Collections.reverse(newestFirst);
+        int size = historyWindow.select(agentType, newestFirst);
+        return tail.subList(tail.size() - size, tail.size()).stream()
+                .map(HistoryEntry::json)
+                .collect(Collectors.toList());
+    }
+
+    // Cache miss: reads the newest messages that fit the cache, without loading older content, and caches them
+    private List<HistoryEntry> loadHistoryTail(UUID conversationId, String agentType, String generation) {
+        AgentConversation agentConversation = agentConversationRepository
+                .findByConversationIdAndAgentType(conversationId, agentType)
+                .orElse(null);
+
+        if (agentConversation == null) {
+            return Collections.emptyList();
+        }
+
+        List<UUID> messageIds = messageRepository
+                .findHistoryEntries(agentConversation.getId(), PageRequest.of(0, historyCache.getMaxEntries())).stream()
+                .map(MessageHistoryEntry::getId)
+                .collect(Collectors.toList());
+        if (messageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<HistoryEntry> tail = messageRepository.findHistoryContents(messageIds).stream()
+                .map(ConversationService::toHistoryEntry)
+                .collect(Collectors.toList());
+        historyCache.populate(conversationId, agentType, generation, tail);
+        return tail;
+    }
+
+    private static HistoryEntry toHistoryEntry(Message message) {
+        String historyContent = message.getHistoryContent() != null ? message.getHistoryContent() : message.getContent();
+        return HistoryEntry.of(message.getId(), message.getRole(), historyContent, message.getTokenCount(),
+                message.getHistoryBytes());
+    }
+
+    // Messages written before history forms were recorded are reduced here, once, on their way into the cache
+    private static HistoryEntry toHistoryEntry(MessageHistoryContent message) {
+        if (message.getTokenCount() != null && message.getHistoryBytes() != null)
+            return HistoryEntry.of(message.getId(), message.getRole(), message.getContent(), message.getTokenCount(),
+                    message.getHistoryBytes());
+        String historyContent = ConversationHistoryWindow.toHistoryForm(message.getContent());
+        return HistoryEntry.of(message.getId(), message.getRole(), historyContent,
+                ConversationHistoryWindow.estimateTokens(historyContent),
+                historyContent.getBytes(StandardCharsets.UTF_8).length);
+    }
+
     @Transactional(readOnly = true)
     public List<Conversation> getUserConversations(User user) {
         return conversationRepository.findByUserIdOrderByUpdatedAtDesc(user.getId());
@@ -109,6 +178,8 @@ public class ConversationService {
 
     @Transactional
     public void deleteConversation(UUID conversationId) {
+        agentConversationRepository.findByConversationId(conversationId)
+                .forEach(agentConversation -> historyCache.evict(conversationId, agentConversation.getAgentType()));
         conversationRepository.deleteById(conversationId);
     }
 }
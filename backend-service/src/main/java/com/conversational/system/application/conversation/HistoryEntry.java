@@ -0,0 +1,67 @@
+package com.conversational.system.application.conversation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.conversational.system.application.entities.conversation.repositories.MessageHistoryEntry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One message of an agent's history in its shipped form: json is the {id, role, content} object exactly as
+ * it goes into the job request, so a history window is spliced into the request without re-serializing.
+ */
+public record HistoryEntry(UUID id, String role, int tokens, int bytes, String json) implements MessageHistoryEntry {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static HistoryEntry of(UUID id, String role, String historyContent, int tokens, int bytes) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", id.toString());
+        message.put("role", role);
+        message.put("content", historyContent);
+        try {
+            return new HistoryEntry(id, role, tokens, bytes, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize history entry " + id, e);
+        }
+    }
+
+    // Tab-separated "id role tokens bytes json"; json never needs escaping since it is the last field
+    public String encode() {
+        return id + "\t" + role + "\t" + tokens + "\t" + bytes + "\t" + json;
+    }
+
+    public static HistoryEntry decode(String encoded) {
+        String[] fields = encoded.split("\t", 5);
+        if (fields.length != 5)
+            throw new IllegalArgumentException("Malformed history entry");
+        return new HistoryEntry(UUID.fromString(fields[0]), fields[1], Integer.parseInt(fields[2]),
+                Integer.parseInt(fields[3]), fields[4]);
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public Integer getTokenCount() {
+        return tokens;
+    }
+
+    @Override
+    public Integer getHistoryBytes() {
+        return bytes;
+    }
+
+    @Override
+    public Integer getContentLength() {
+        return null;
+    }
+}
@@ -36,6 +36,17 @@ public class Message {
     @Column(name = "job_id")
     private String jobId;
 
+    // What agents see of this message when the content embeds artifacts (e.g. base64 images); null when identical
+    @Column(name = "history_content", columnDefinition = "TEXT")
+    private String historyContent;
+
+    // Estimated tokens and UTF-8 bytes of the history form, computed once when the message is written
+    @Column(name = "token_count")
+    private Integer tokenCount;
+
+    @Column(name = "history_bytes")
+    private Integer historyBytes;
+
     public Message(AgentConversation agentConversation, String role, String content, String jobId) {
         this.agentConversation = agentConversation;
         this.role = role;
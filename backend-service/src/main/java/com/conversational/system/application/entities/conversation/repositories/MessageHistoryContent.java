@@ -0,0 +1,20 @@
+package com.conversational.system.application.entities.conversation.repositories;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** History form of a message: historyContent when it was recorded, the full content otherwise. */
+public interface MessageHistoryContent {
+    UUID getId();
+
+    String getRole();
+
+    String getContent();
+
+    LocalDateTime getTimestamp();
+
+    // Null when content is the unprocessed original of a message written before history forms were recorded
+    Integer getTokenCount();
+
+    Integer getHistoryBytes();
+}
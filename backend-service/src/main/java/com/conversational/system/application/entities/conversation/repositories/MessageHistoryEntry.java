@@ -0,0 +1,19 @@
+package com.conversational.system.application.entities.conversation.repositories;
+
+import java.util.UUID;
+
+/**
+ * Sizes of one message as needed to pick an agent's history window, read without loading its content.
+ * tokenCount and historyBytes are null for messages written before they were recorded.
+ */
+public interface MessageHistoryEntry {
+    UUID getId();
+
+    String getRole();
+
+    Integer getTokenCount();
+
+    Integer getHistoryBytes();
+
+    Integer getContentLength();
+}
@@ -1,9 +1,13 @@
 package com.conversational.system.application.entities.conversation.repositories;
 
 import com.conversational.system.application.entities.conversation.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +17,16 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
     List<Message> findByAgentConversationIdOrderByTimestampAsc(UUID agentConversationId);
     
     Optional<Message> findByJobId(String jobId);
+
+    // Newest first, as many as the page holds; content is never fetched, only its length for messages without recorded sizes
+    @Query("SELECT m.id AS id, m.role AS role, m.tokenCount AS tokenCount, m.historyBytes AS historyBytes, "
+            + "CASE WHEN m.tokenCount IS NULL THEN LENGTH(m.content) ELSE NULL END AS contentLength "
+            + "FROM Message m WHERE m.agentConversation.id = :agentConversationId "
+            + "ORDER BY m.timestamp DESC")
+    List<MessageHistoryEntry> findHistoryEntries(@Param("agentConversationId") UUID agentConversationId, Pageable pageable);
+
+    @Query("SELECT m.id AS id, m.role AS role, COALESCE(m.historyContent, m.content) AS content, "
+            + "m.timestamp AS timestamp, m.tokenCount AS tokenCount, m.historyBytes AS historyBytes "
+            + "FROM Message m WHERE m.id IN :ids ORDER BY m.timestamp ASC")
+    List<MessageHistoryContent> findHistoryContents(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,40 @@
+package com.conversational.system.application.entities.email;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    // Lock timeout -2 translates to FOR UPDATE SKIP LOCKED, so concurrent workers never claim the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboundEmail e "
+            + "WHERE (e.status = :pending AND e.nextAttemptAt <= :now) "
+            + "OR (e.status = :sending AND e.lockedUntil < :now) "
+            + "ORDER BY e.id")
+    List<OutboundEmail> findClaimable(@Param("pending") OutboundEmail.Status pending,
+            @Param("sending") OutboundEmail.Status sending,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    long countByStatus(OutboundEmail.Status status);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE e.status IN :statuses AND e.createdAt < :before")
+    int deleteFinishedBefore(@Param("statuses") Collection<OutboundEmail.Status> statuses,
+            @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,99 @@
+package com.conversational.system.application.entities.job;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@Table(name = "outbound_job", indexes = {
+        @Index(name = "idx_outbound_job_status", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_outbound_job_dispatch", columnList = "agent_type, status, priority, dispatch_tag") })
+@NoArgsConstructor
+public class OutboundJob {
+    public enum Status { PENDING, SENDING, SENT, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private String jobId;
+
+    // Null for the default exchange, where the routing key is the queue name
+    @Column(name = "exchange")
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    // Jobs of an agent type are released in (priority desc, dispatch tag) order, as its capacity frees up
+    @Column(name = "agent_type")
+    private String agentType;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "user_class")
+    private String userClass;
+
+    @ColumnDefault("0")
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    // Virtual finish time in epoch milliseconds, assigned by JobDispatcher
+    @ColumnDefault("0")
+    @Column(name = "dispatch_tag", nullable = false)
+    private long dispatchTag;
+
+    // JSON envelope exactly as the agent receives it
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // A SENDING row whose lock has expired belongs to a crashed relay and can be claimed again
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public OutboundJob(String jobId, String routingKey, String payload) {
+        this.jobId = jobId;
+        this.routingKey = routingKey;
+        this.payload = payload;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.conversational.system.application.entities.job;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboundJobRepository extends JpaRepository<OutboundJob, Long> {
+
+    // Lock timeout -2 translates to FOR UPDATE SKIP LOCKED, so concurrent relays never claim the same rows.
+    // Rows without an agent type were enqueued before per-agent dispatch and are published as they come.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM OutboundJob j "
+            + "WHERE j.agentType IS NULL "
+            + "AND ((j.status = :pending AND j.nextAttemptAt <= :now) OR (j.status = :sending AND j.lockedUntil < :now)) "
+            + "ORDER BY j.id")
+    List<OutboundJob> findClaimable(@Param("pending") OutboundJob.Status pending,
+            @Param("sending") OutboundJob.Status sending,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    // Same claim, restricted to one agent type and in dispatch order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM OutboundJob j "
+            + "WHERE j.agentType = :agentType "
+            + "AND ((j.status = :pending AND j.nextAttemptAt <= :now) OR (j.status = :sending AND j.lockedUntil < :now)) "
+            + "ORDER BY j.priority DESC, j.dispatchTag, j.id")
+    List<OutboundJob> findClaimableByAgentType(@Param("agentType") String agentType,
+            @Param("pending") OutboundJob.Status pending,
+            @Param("sending") OutboundJob.Status sending,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    long countByStatus(OutboundJob.Status status);
+
+    long countByAgentTypeAndStatusIn(String agentType, Collection<OutboundJob.Status> statuses);
+
+    @Query("SELECT MIN(j.createdAt) FROM OutboundJob j WHERE j.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboundJob.Status status);
+
+    // Only a request no relay has claimed yet: a claimed row is SENDING once its claim commits, and one
+    // pending after failed attempts may have reached the broker unconfirmed
+    @Modifying
+    @Query("DELETE FROM OutboundJob j WHERE j.jobId = :jobId AND j.status = :pending AND j.attempts = 0")
+    int deletePending(@Param("jobId") String jobId, @Param("pending") OutboundJob.Status pending);
+
+    @Modifying
+    @Query("DELETE FROM OutboundJob j WHERE j.status IN :statuses AND j.createdAt < :before")
+    int deleteFinishedBefore(@Param("statuses") Collection<OutboundJob.Status> statuses,
+            @Param("before") LocalDateTime before);
+}
@@ -2,6 +2,8 @@ package com.conversational.system.application.entities.user;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -38,6 +40,16 @@ public class User {
     @Column(name = "is_verified", nullable = false)
     private boolean isVerified;
 
+    // Bumped whenever previously issued JWTs must stop being accepted
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    // Subscription plan; app.jobs.dispatch.weights.<plan> sets the user's share of agent capacity
+    @ColumnDefault("'free'")
+    @Column(name = "plan", nullable = false)
+    private String plan = "free";
+
     public User(String email, String username, String passwordHash) {
         this.email = email;
         this.username = username;
@@ -46,4 +58,8 @@ public class User {
         this.isVerified = false; 
     }
 
+    public void incrementTokenVersion() {
+        this.tokenVersion++;
+    }
+
 }
\ No newline at end of file
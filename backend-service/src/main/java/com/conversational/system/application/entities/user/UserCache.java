@@ -0,0 +1,139 @@
+package com.conversational.system.application.entities.user;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Size- and TTL-bounded cache of user snapshots, keyed by username and by id.
+ * Every write to a user must call {@link #invalidate(Integer, String)} after it has been saved.
+ * When app.user-cache.redis-invalidation.enabled is set, invalidations are also broadcast over
+ * Redis pub/sub so that every backend instance drops its copy.
+ */
+@Slf4j
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<String, CachedSnapshot> byUsername = new ConcurrentHashMap<>();
+    private final Map<Integer, CachedSnapshot> byId = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so that a load racing with a write does not re-insert stale data
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Value("${app.user-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.user-cache.redis-invalidation.enabled:false}")
+    private boolean redisInvalidationEnabled;
+
+    @Value("${app.user-cache.redis-invalidation.channel:user-cache-invalidation}")
+    private String invalidationChannel;
+
+    public UserCache(UserRepository userRepository, StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.hits = Counter.builder("user.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("user.cache").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("user.cache.evictions").register(meterRegistry);
+        Gauge.builder("user.cache.size", byId, Map::size).register(meterRegistry);
+    }
+
+    public Optional<UserSnapshot> getByUsername(String username) {
+        return get(byUsername.get(username), () -> userRepository.findByUsername(username));
+    }
+
+    public Optional<UserSnapshot> getById(Integer id) {
+        return get(byId.get(id), () -> userRepository.findById(id));
+    }
+
+    public void invalidate(Integer id, String username) {
+        evictLocal(id, username);
+        if (redisInvalidationEnabled)
+            broadcast(id, username);
+    }
+
+    // Called for invalidations received from other instances
+    public void evictLocal(Integer id, String username) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            CachedSnapshot removed = byId.remove(id);
+            if (removed != null)
+                byUsername.remove(removed.snapshot().username(), removed);
+        }
+        if (username != null)
+            byUsername.remove(username);
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    private Optional<UserSnapshot> get(CachedSnapshot cached, Supplier<Optional<User>> loader) {
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt() > now) {
+            hits.increment();
+            return Optional.of(cached.snapshot());
+        }
+
+        misses.increment();
+        long invalidationsBeforeLoad = invalidations.get();
+        Optional<UserSnapshot> snapshot = loader.get().map(UserSnapshot::from);
+        if (snapshot.isPresent() && invalidations.get() == invalidationsBeforeLoad)
+            put(snapshot.get(), now);
+        return snapshot;
+    }
+
+    private void put(UserSnapshot snapshot, long now) {
+        makeRoom(now);
+        CachedSnapshot entry = new CachedSnapshot(snapshot, now + TimeUnit.SECONDS.toMillis(ttlSeconds));
+        byId.put(snapshot.id(), entry);
+        byUsername.put(snapshot.username(), entry);
+    }
+
+    private void makeRoom(long now) {
+        if (byId.size() < maxSize)
+            return;
+
+        byId.values().removeIf(entry -> entry.expiresAt() <= now);
+        byUsername.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        Iterator<CachedSnapshot> iterator = byId.values().iterator();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        while (byId.size() > target && iterator.hasNext()) {
+            CachedSnapshot evicted = iterator.next();
+            iterator.remove();
+            byUsername.remove(evicted.snapshot().username(), evicted);
+            evictions.increment();
+        }
+    }
+
+    private void broadcast(Integer id, String username) {
+        try {
+            stringRedisTemplate.convertAndSend(invalidationChannel, (id != null ? id : "") + ":" + (username != null ? username : ""));
+        } catch (Exception e) {
+            log.warn("Failed to broadcast user cache invalidation for user {}.", id, e);
+        }
+    }
+
+    private record CachedSnapshot(UserSnapshot snapshot, long expiresAt) {
+    }
+}
@@ -4,6 +4,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.conversational.system.application.authentication.AuthenticationService;
+import com.conversational.system.application.authentication.json_web_token.RefreshTokenService;
+import com.conversational.system.application.authentication.json_web_token.TokenVersionService;
+import com.conversational.system.application.authentication.password_hashing.PasswordHashingUnavailableException;
 
 import lombok.RequiredArgsConstructor;
 
@@ -13,10 +16,16 @@ public class UserService {
     private final UserRepository userRepository;
     private final AuthenticationService authenticationService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokenService;
 
     public void deleteUser(User user) {
         try {
             userRepository.deleteById(user.getId());
+            tokenVersionService.revoke(user.getId());
+            refreshTokenService.revokeAll(user.getId());
+            userCache.invalidate(user.getId(), user.getUsername());
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -28,6 +37,7 @@ public class UserService {
             authenticationService.verifyEmailUnique(newEmail);
             user.setEmail(newEmail);
             userRepository.save(user);
+            userCache.invalidate(user.getId(), user.getUsername());
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -36,8 +46,12 @@ public class UserService {
     public void changeUsername(User user, String newUsername) {
         try {
             authenticationService.verifyUsernameUnique(newUsername);
+            String oldUsername = user.getUsername();
             user.setUsername(newUsername);
+            user.incrementTokenVersion();
             userRepository.save(user);
+            tokenVersionService.publish(user.getId(), user.getTokenVersion());
+            userCache.invalidate(user.getId(), oldUsername);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -50,7 +64,13 @@ public class UserService {
             }
             System.out.print("Correct Password");
             user.setPasswordHash(passwordEncoder.encode(newPassword));
+            user.incrementTokenVersion();
             userRepository.save(user);
+            tokenVersionService.publish(user.getId(), user.getTokenVersion());
+            refreshTokenService.revokeAll(user.getId());
+            userCache.invalidate(user.getId(), user.getUsername());
+        } catch (PasswordHashingUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -0,0 +1,12 @@
+package com.conversational.system.application.entities.user;
+
+import java.time.LocalDateTime;
+
+// Immutable, read-only copy of the user fields served by the settings and dashboard endpoints
+public record UserSnapshot(Integer id, String username, String email, boolean isVerified, LocalDateTime creationDate) {
+
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getEmail(), user.isVerified(),
+                user.getCreationDate());
+    }
+}
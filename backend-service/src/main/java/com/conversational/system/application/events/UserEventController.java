@@ -0,0 +1,36 @@
+package com.conversational.system.application.events;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.conversational.system.application.authentication.current_user.CurrentUser;
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class UserEventController {
+
+    private final UserEventHub userEventHub;
+
+    // One long-lived stream per browser tab: job outcomes and conversation list changes of the current user
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@CurrentUser CustomUserDetails principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // Keeps reverse proxies (nginx) from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(userEventHub.subscribe(principal.getUser().getId()));
+    }
+}
@@ -0,0 +1,166 @@
+package com.conversational.system.application.events;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Server-Sent Events streams of the users connected to this instance.
+ * An idle connection costs an SseEmitter and a small queue, not a thread: the servlet container keeps
+ * the request in async mode, a small shared pool writes queued events and a scheduled task sends heartbeats.
+ * Events are delivered here by UserEventPublisher, which fans them out to every instance.
+ */
+@Slf4j
+@Component
+public class UserEventHub {
+    static final String READY_EVENT = "ready";
+    static final String RESYNC_EVENT = "resync";
+
+    private final Map<Integer, Set<UserEventStream>> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter sentEvents;
+    private final Counter droppedEvents;
+    private ExecutorService senders;
+
+    @Value("${app.events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${app.events.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${app.events.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${app.events.sender-threads:4}")
+    private int senderThreads;
+
+    public UserEventHub(MeterRegistry meterRegistry) {
+        this.sentEvents = Counter.builder("sse.events").tag("result", "sent").register(meterRegistry);
+        this.droppedEvents = Counter.builder("sse.events").tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("sse.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-events-sender-");
+        threadFactory.setDaemon(true);
+        senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), threadFactory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (senders != null)
+            senders.shutdownNow();
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> stream.getEmitter().complete()));
+    }
+
+    public SseEmitter subscribe(Integer userId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        UserEventStream stream = new UserEventStream(userId, emitter, bufferSize, System.nanoTime());
+        emitter.onCompletion(() -> remove(stream));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove(stream));
+
+        Set<UserEventStream> userStreams = streams.compute(userId, (id, existing) -> {
+            Set<UserEventStream> updated = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            updated.add(stream);
+            return updated;
+        });
+        connections.incrementAndGet();
+        if (userStreams.size() > maxConnectionsPerUser)
+            closeOldest(userStreams);
+
+        // Tells the client it is (re)connected, so it can catch up on anything it missed meanwhile
+        enqueue(stream, SseEmitter.event().name(READY_EVENT).data("{}", MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    // Queues an event (data is already serialized JSON) on every stream of the user connected to this instance
+    public void deliver(Integer userId, String type, String data) {
+        Set<UserEventStream> userStreams = streams.get(userId);
+        if (userStreams == null)
+            return;
+        for (UserEventStream stream : userStreams)
+            enqueue(stream, SseEmitter.event().name(type).data(data, MediaType.APPLICATION_JSON));
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    @Scheduled(initialDelayString = "${app.events.heartbeat-seconds:15}",
+            fixedDelayString = "${app.events.heartbeat-seconds:15}", timeUnit = TimeUnit.SECONDS)
+    void sendHeartbeats() {
+        for (Set<UserEventStream> userStreams : streams.values()) {
+            for (UserEventStream stream : userStreams) {
+                if (stream.offerIfIdle(SseEmitter.event().comment("heartbeat")) && stream.claimDrain())
+                    senders.execute(() -> drain(stream));
+            }
+        }
+    }
+
+    private void enqueue(UserEventStream stream, SseEmitter.SseEventBuilder event) {
+        if (!stream.offer(event))
+            droppedEvents.increment();
+        if (stream.claimDrain())
+            senders.execute(() -> drain(stream));
+    }
+
+    private void drain(UserEventStream stream) {
+        SseEmitter emitter = stream.getEmitter();
+        try {
+            if (stream.clearOverflow())
+                emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+            SseEmitter.SseEventBuilder event;
+            while ((event = stream.next()) != null) {
+                emitter.send(event);
+                sentEvents.increment();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away (or the emitter already completed); the container reports the rest
+            log.debug("Closing event stream of user {}: {}", stream.getUserId(), e.getMessage());
+            remove(stream);
+            emitter.complete();
+        }
+    }
+
+    private void closeOldest(Set<UserEventStream> userStreams) {
+        userStreams.stream()
+                .min(Comparator.comparingLong(UserEventStream::getConnectedAt))
+                .ifPresent(oldest -> {
+                    remove(oldest);
+                    oldest.getEmitter().complete();
+                });
+    }
+
+    private void remove(UserEventStream stream) {
+        if (stream.isClosed())
+            return;
+        stream.close();
+        streams.computeIfPresent(stream.getUserId(), (id, userStreams) -> {
+            if (userStreams.remove(stream))
+                connections.decrementAndGet();
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.conversational.system.application.events;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes user events to every instance over a Redis channel, since a job result is consumed by whichever
+ * instance the broker picked while the user's stream may be open on another one.
+ * With app.events.redis-fanout.enabled=false (single instance) events go straight to the local hub.
+ */
+@Slf4j
+@Component
+public class UserEventPublisher {
+    public static final String JOB_EVENT = "job";
+    public static final String CONVERSATION_EVENT = "conversation";
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserEventHub userEventHub;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${app.events.channel:user_events}")
+    private String channel;
+
+    @Value("${app.events.redis-fanout.enabled:true}")
+    private boolean redisFanout;
+
+    public UserEventPublisher(StringRedisTemplate redisTemplate, UserEventHub userEventHub) {
+        this.redisTemplate = redisTemplate;
+        this.userEventHub = userEventHub;
+    }
+
+    public void publish(Integer userId, String type, Map<String, ?> data) {
+        if (userId == null)
+            return;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping {} event for user {}: {}", type, userId, e.getMessage());
+            return;
+        }
+        if (!redisFanout) {
+            userEventHub.deliver(userId, type, json);
+            return;
+        }
+        try {
+            // Payload format: "<userId>:<type>:<json>"
+            redisTemplate.convertAndSend(channel, userId + ":" + type + ":" + json);
+        } catch (DataAccessException e) {
+            // Streams on this instance still get it; clients elsewhere catch up on their next resync
+            log.warn("Failed to publish {} event for user {}: {}", type, userId, e.getMessage());
+            userEventHub.deliver(userId, type, json);
+        }
+    }
+
+    // Called for every message on the channel, including the ones this instance published
+    public void receive(String payload) {
+        int first = payload.indexOf(':');
+        int second = first < 0 ? -1 : payload.indexOf(':', first + 1);
+        if (second < 0)
+            return;
+        try {
+            Integer userId = Integer.valueOf(payload.substring(0, first));
+            userEventHub.deliver(userId, payload.substring(first + 1, second), payload.substring(second + 1));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user event: {}", e.getMessage());
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
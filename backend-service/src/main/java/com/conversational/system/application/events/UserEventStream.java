@@ -0,0 +1,94 @@
+package com.conversational.system.application.events;
+
+import java.util.ArrayDeque;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One open event stream: the emitter plus a bounded queue of events waiting to be written.
+ * At most one sender drains a stream at a time; when the queue is full the oldest event is dropped
+ * and the stream is marked so the client is told to resync.
+ */
+final class UserEventStream {
+    private final Integer userId;
+    private final SseEmitter emitter;
+    private final long connectedAt;
+    private final int capacity;
+    private final ArrayDeque<SseEmitter.SseEventBuilder> queue;
+    private boolean draining;
+    private boolean overflowed;
+    private volatile boolean closed;
+
+    UserEventStream(Integer userId, SseEmitter emitter, int capacity, long connectedAt) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayDeque<>(this.capacity);
+        this.connectedAt = connectedAt;
+    }
+
+    // Queues an event; returns false when an older event had to be dropped to make room
+    synchronized boolean offer(SseEmitter.SseEventBuilder event) {
+        boolean dropped = false;
+        if (queue.size() >= capacity) {
+            queue.pollFirst();
+            overflowed = true;
+            dropped = true;
+        }
+        queue.addLast(event);
+        return !dropped;
+    }
+
+    // Heartbeats are only worth sending when nothing else is about to be written
+    synchronized boolean offerIfIdle(SseEmitter.SseEventBuilder event) {
+        if (!queue.isEmpty() || draining)
+            return false;
+        queue.addLast(event);
+        return true;
+    }
+
+    // Returns true if the caller became the (only) sender and must drain the queue
+    synchronized boolean claimDrain() {
+        if (draining || queue.isEmpty() || closed)
+            return false;
+        draining = true;
+        return true;
+    }
+
+    // Next event to write, or null once the queue is empty, which also releases the drain
+    synchronized SseEmitter.SseEventBuilder next() {
+        SseEmitter.SseEventBuilder event = queue.pollFirst();
+        if (event == null || closed) {
+            draining = false;
+            return null;
+        }
+        return event;
+    }
+
+    synchronized boolean clearOverflow() {
+        boolean wasOverflowed = overflowed;
+        overflowed = false;
+        return wasOverflowed;
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    Integer getUserId() {
+        return userId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    long getConnectedAt() {
+        return connectedAt;
+    }
+}
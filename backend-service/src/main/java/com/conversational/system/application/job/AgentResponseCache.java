@@ -0,0 +1,170 @@
+package com.conversational.system.application.job;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis cache of completed agent answers, keyed by a SHA-256 of everything the agent sees: agent type,
+ * prompt, the history window before the prompt (roles and contents, not message ids) and the accepted
+ * model and code. Entries expire after ttl-hours and the least recently used beyond max-entries are
+ * evicted. A submitted job remembers its request hash under agent_response_job:{jobId}, so whichever
+ * instance receives the result can cache the answer. Redis failures count as misses.
+ */
+@Slf4j
+@Component
+public class AgentResponseCache {
+    private static final String RESPONSE_PREFIX = "agent_response:";
+    private static final String RECENCY_KEY = "agent_response_lru";
+    private static final String JOB_PREFIX = "agent_response_job:";
+    // Bump when the hashed fields change, so old entries are never matched against new requests
+    private static final String KEY_VERSION = "v1";
+    private static final RedisScript<String> GET_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/response_cache_get.lua"), String.class);
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/response_cache_put.lua"), Long.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final StringRedisTemplate redisTemplate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypassed;
+    private final Counter stored;
+    private final Counter errors;
+
+    @Value("${app.jobs.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jobs.response-cache.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.jobs.response-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.jobs.response-cache.max-entry-bytes:524288}")
+    private int maxEntryBytes;
+
+    public AgentResponseCache(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.hits = Counter.builder("jobs.response_cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jobs.response_cache").tag("result", "miss").register(meterRegistry);
+        this.bypassed = Counter.builder("jobs.response_cache").tag("result", "bypass").register(meterRegistry);
+        this.stored = Counter.builder("jobs.response_cache.stored").register(meterRegistry);
+        this.errors = Counter.builder("jobs.response_cache.errors").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /* Canonical request hash. history is the job's window of serialized entries, oldest first, ending
+     * with the prompt being submitted, which is hashed once as the prompt. */
+    public static String requestHash(String agentType, String prompt, List<String> history, String acceptedModel,
+            String acceptedCode) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeField(out, KEY_VERSION);
+            writeField(out, agentType);
+            writeField(out, prompt);
+            int previous = Math.max(0, history.size() - 1);
+            out.writeInt(previous);
+            for (String entry : history.subList(0, previous)) {
+                JsonNode message = objectMapper.readTree(entry);
+                writeField(out, message.path("role").asText());
+                writeField(out, message.path("content").asText());
+            }
+            writeField(out, acceptedModel);
+            writeField(out, acceptedCode);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray()));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash agent request", e);
+        }
+    }
+
+    public Optional<String> lookup(String requestHash) {
+        try {
+            String response = redisTemplate.execute(GET_SCRIPT, List.of(RESPONSE_PREFIX + requestHash, RECENCY_KEY),
+                    String.valueOf(System.currentTimeMillis()), requestHash);
+            (response != null ? hits : misses).increment();
+            return Optional.ofNullable(response);
+        } catch (RuntimeException e) {
+            errors.increment();
+            misses.increment();
+            log.warn("Failed to read the agent response cache.", e);
+            return Optional.empty();
+        }
+    }
+
+    public void recordBypass() {
+        bypassed.increment();
+    }
+
+    /* Remembers which request a submitted job answers, so its result can be cached when it arrives. */
+    public void expectResult(String jobId, String requestHash) {
+        try {
+            redisTemplate.opsForValue().set(JOB_PREFIX + jobId, requestHash, Duration.ofHours(ttlHours));
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Failed to remember the request hash of job {}.", jobId, e);
+        }
+    }
+
+    /* Caches a completed job's answer if the job was submitted with a request hash. */
+    public void storeResult(String jobId, String answer) {
+        if (!enabled || answer == null)
+            return;
+        try {
+            String requestHash = redisTemplate.opsForValue().getAndDelete(JOB_PREFIX + jobId);
+            if (requestHash == null || answer.getBytes(StandardCharsets.UTF_8).length > maxEntryBytes)
+                return;
+            redisTemplate.execute(PUT_SCRIPT, List.of(RESPONSE_PREFIX + requestHash, RECENCY_KEY), answer,
+                    String.valueOf(Duration.ofHours(ttlHours).toSeconds()), String.valueOf(System.currentTimeMillis()),
+                    requestHash, String.valueOf(maxEntries), RESPONSE_PREFIX);
+            stored.increment();
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Failed to cache the answer of job {}.", jobId, e);
+        }
+    }
+
+    // Length-prefixed, with -1 for null, so no two different requests serialize to the same bytes
+    private static void writeField(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String loadScript(String path) {
+        try {
+            return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load Redis script: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.conversational.system.application.job;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-node job state (app.jobs.state-store=memory), e.g. for local development without Redis.
+ * Each job is a small immutable entry (enum status, message id, timestamps); the answer itself is not kept,
+ * since a completed answer is already persisted as the assistant message and is re-read by its id.
+ * Transitions are compare-and-set on the entry, and a sweeper evicts finished and abandoned jobs by age
+ * and the oldest jobs once the table outgrows max-size.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.jobs.state-store", havingValue = "memory")
+public class InMemoryJobStateStore implements JobStateStore {
+    // Rough fixed cost of one job: map node, jobId string, entry record, its UUIDs and boxed user id
+    private static final int ENTRY_OVERHEAD_BYTES = 224;
+    // Error details are only a hint for the client, not worth keeping in full
+    private static final int MAX_DETAIL_LENGTH = 256;
+
+    private final Map<String, JobEntry> jobs = new ConcurrentHashMap<>();
+    private final Map<UUID, String> conversationToActiveJob = new ConcurrentHashMap<>();
+    private final Map<UUID, Outcome> conversationToLastOutcome = new ConcurrentHashMap<>();
+    private final AtomicLong heapBytes = new AtomicLong();
+    private final LongSupplier clock;
+    private final long finishedTtlMillis;
+    private final long pendingTtlMillis;
+    private final int maxSize;
+    private final Counter expiredEvictions;
+    private final Counter capacityEvictions;
+
+    @Autowired
+    public InMemoryJobStateStore(MeterRegistry meterRegistry,
+            @Value("${app.jobs.memory.finished-ttl-seconds:900}") long finishedTtlSeconds,
+            @Value("${app.jobs.memory.pending-ttl-seconds:3600}") long pendingTtlSeconds,
+            @Value("${app.jobs.memory.max-size:10000}") int maxSize) {
+        this(meterRegistry, finishedTtlSeconds, pendingTtlSeconds, maxSize, System::currentTimeMillis);
+    }
+
+    InMemoryJobStateStore(MeterRegistry meterRegistry, long finishedTtlSeconds, long pendingTtlSeconds, int maxSize,
+            LongSupplier clock) {
+        this.clock = clock;
+        this.finishedTtlMillis = TimeUnit.SECONDS.toMillis(finishedTtlSeconds);
+        this.pendingTtlMillis = TimeUnit.SECONDS.toMillis(pendingTtlSeconds);
+        this.maxSize = Math.max(1, maxSize);
+        this.expiredEvictions = Counter.builder("jobs.table.evictions").tag("reason", "expired")
+                .register(meterRegistry);
+        this.capacityEvictions = Counter.builder("jobs.table.evictions").tag("reason", "capacity")
+                .register(meterRegistry);
+        Gauge.builder("jobs.table.size", jobs, Map::size).register(meterRegistry);
+        Gauge.builder("jobs.table.heap", heapBytes, AtomicLong::get)
+                .description("Estimated heap held by tracked jobs").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("jobs.table.heap.per_job", this, store -> store.heapBytesPerJob())
+                .description("Estimated heap per tracked job").baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public void startJob(String jobId, UUID conversationId, Integer userId) {
+        long now = clock.getAsLong();
+        JobEntry entry = new JobEntry(conversationId, userId, Status.PENDING, null, null, now, now);
+        JobEntry previous = jobs.put(jobId, entry);
+        heapBytes.addAndGet(estimateBytes(jobId, entry) - (previous != null ? estimateBytes(jobId, previous) : 0));
+        conversationToActiveJob.put(conversationId, jobId);
+        conversationToLastOutcome.remove(conversationId);
+
+        if (jobs.size() > maxSize)
+            evictOverCapacity();
+    }
+
+    @Override
+    public boolean updateJob(String jobId, String status, String answer, String messageId) {
+        Status next = Status.of(status);
+        String detail = next.isError() ? truncate(answer) : null;
+        UUID message = parseMessageId(messageId);
+        long now = clock.getAsLong();
+
+        while (true) {
+            JobEntry current = jobs.get(jobId);
+            if (current == null) {
+                // Unknown (or already evicted) job: record the outcome without a conversation
+                JobEntry created = new JobEntry(null, null, next, message, detail, now, now);
+                if (jobs.putIfAbsent(jobId, created) != null)
+                    continue;
+                heapBytes.addAndGet(estimateBytes(jobId, created));
+                return true;
+            }
+            if (current.status().isTerminal())
+                return false;
+
+            JobEntry updated = new JobEntry(current.conversationId(), current.userId(), next, message, detail,
+                    current.createdAt(), now);
+            if (!jobs.replace(jobId, current, updated))
+                continue;
+            heapBytes.addAndGet(estimateBytes(jobId, updated) - estimateBytes(jobId, current));
+
+            UUID conversationId = current.conversationId();
+            if (next.isTerminal() && conversationId != null
+                    && (conversationToActiveJob.remove(conversationId, jobId)
+                            || !conversationToActiveJob.containsKey(conversationId)))
+                conversationToLastOutcome.put(conversationId, new Outcome(next, now));
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<JobState> getJob(String jobId) {
+        JobEntry entry = jobs.get(jobId);
+        if (entry == null)
+            return Optional.empty();
+        return Optional.of(new JobState(jobId, entry.conversationId(), entry.userId(), entry.status().value(),
+                entry.detail(), entry.messageId() != null ? entry.messageId().toString() : null));
+    }
+
+    @Override
+    public Optional<String> getActiveJobId(UUID conversationId) {
+        return Optional.ofNullable(conversationToActiveJob.get(conversationId));
+    }
+
+    @Override
+    public Optional<String> getLastTerminalStatus(UUID conversationId) {
+        Outcome outcome = conversationToLastOutcome.get(conversationId);
+        return outcome != null ? Optional.of(outcome.status().value()) : Optional.empty();
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+
+    public long heapBytes() {
+        return heapBytes.get();
+    }
+
+    double heapBytesPerJob() {
+        int size = jobs.size();
+        return size > 0 ? (double) heapBytes.get() / size : 0;
+    }
+
+    // Drops finished jobs older than finished-ttl and pending jobs the agent never answered within pending-ttl
+    @Scheduled(initialDelayString = "${app.jobs.memory.sweep-interval-seconds:30}",
+            fixedDelayString = "${app.jobs.memory.sweep-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    void sweep() {
+        try {
+            long now = clock.getAsLong();
+            for (Map.Entry<String, JobEntry> job : jobs.entrySet()) {
+                JobEntry entry = job.getValue();
+                long ttl = entry.status().isTerminal() ? finishedTtlMillis : pendingTtlMillis;
+                if (now - entry.updatedAt() >= ttl && evict(job.getKey(), entry))
+                    expiredEvictions.increment();
+            }
+            conversationToLastOutcome.values().removeIf(outcome -> now - outcome.finishedAt() >= finishedTtlMillis);
+        } catch (RuntimeException e) {
+            log.warn("Job table sweep failed.", e);
+        }
+    }
+
+    /* Evicts down to 90% of max-size so a full table is not re-sorted on every new job.
+     * Finished jobs go first, oldest first; pending jobs only when nothing else is left. */
+    private synchronized void evictOverCapacity() {
+        int excess = jobs.size() - maxSize * 9 / 10;
+        if (excess <= 0)
+            return;
+        List<Map.Entry<String, JobEntry>> candidates = new ArrayList<>(jobs.entrySet());
+        candidates.sort(Comparator
+                .comparing((Map.Entry<String, JobEntry> job) -> !job.getValue().status().isTerminal())
+                .thenComparingLong(job -> job.getValue().updatedAt()));
+        for (int i = 0; i < candidates.size() && excess > 0; i++) {
+            Map.Entry<String, JobEntry> job = candidates.get(i);
+            if (evict(job.getKey(), job.getValue())) {
+                capacityEvictions.increment();
+                excess--;
+            }
+        }
+    }
+
+    private boolean evict(String jobId, JobEntry entry) {
+        if (!jobs.remove(jobId, entry))
+            return false;
+        heapBytes.addAndGet(-estimateBytes(jobId, entry));
+        if (entry.conversationId() != null)
+            conversationToActiveJob.remove(entry.conversationId(), jobId);
+        return true;
+    }
+
+    private static int estimateBytes(String jobId, JobEntry entry) {
+        return ENTRY_OVERHEAD_BYTES + jobId.length() + (entry.detail() != null ? entry.detail().length() : 0);
+    }
+
+    private static String truncate(String detail) {
+        return detail != null && detail.length() > MAX_DETAIL_LENGTH ? detail.substring(0, MAX_DETAIL_LENGTH) : detail;
+    }
+
+    private static UUID parseMessageId(String messageId) {
+        if (messageId == null)
+            return null;
+        try {
+            return UUID.fromString(messageId);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed message id {}.", messageId);
+            return null;
+        }
+    }
+
+    enum Status {
+        PENDING(JobState.PENDING),
+        COMPLETED(JobState.COMPLETED),
+        FAILED(JobState.FAILED),
+        ERROR(JobState.ERROR),
+        CANCELLED(JobState.CANCELLED);
+
+        private final String value;
+
+        Status(String value) {
+            this.value = value;
+        }
+
+        static Status of(String value) {
+            for (Status status : values())
+                if (status.value.equals(value))
+                    return status;
+            throw new IllegalArgumentException("Unknown job status: " + value);
+        }
+
+        String value() {
+            return value;
+        }
+
+        boolean isTerminal() {
+            return this != PENDING;
+        }
+
+        boolean isError() {
+            return this == FAILED || this == ERROR;
+        }
+    }
+
+    // detail holds the (truncated) error text of a failed job; a completed answer lives in its message
+    private record JobEntry(UUID conversationId, Integer userId, Status status, UUID messageId, String detail,
+            long createdAt, long updatedAt) {
+    }
+
+    private record Outcome(Status status, long finishedAt) {
+    }
+}
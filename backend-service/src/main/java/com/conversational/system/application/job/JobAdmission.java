@@ -0,0 +1,153 @@
+package com.conversational.system.application.job;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.conversational.system.application.entities.job.OutboundJob;
+import com.conversational.system.application.entities.job.OutboundJobRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control in front of job submission.
+ * A job is rejected when its agent type's backlog (requests waiting in the outbox plus ready messages
+ * in the agent queue, sampled every depth-sample-interval-ms with a passive queue declare) has reached
+ * max-queue-depth, or when its user already has max-user-in-flight jobs of that type unfinished.
+ * Limits are read from app.jobs.admission.*, overridable per agent under app.jobs.admission.agents.<AGENT_TYPE>.*.
+ * Per-user counts live in the backend instance that admitted the job; its slot is freed when the job's
+ * terminal result arrives on any instance (see JobCompletionPublisher), or after lease-minutes when it
+ * never does. Users without unfinished jobs are not tracked.
+ */
+@Slf4j
+@Component
+public class JobAdmission {
+    private final RabbitTemplate rabbitTemplate;
+    private final OutboundJobRepository outboundJobRepository;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final String exchange;
+    private final long leaseMillis;
+    private final Map<String, AtomicLong> queueDepths = new ConcurrentHashMap<>();
+    private final Map<String, Integer> userInFlight = new ConcurrentHashMap<>();
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<String, Counter> admittedCounters = new ConcurrentHashMap<>();
+
+    public JobAdmission(RabbitTemplate rabbitTemplate, OutboundJobRepository outboundJobRepository,
+            Environment environment, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.outboundJobRepository = outboundJobRepository;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.exchange = environment.getProperty("app.queue.agents.exchange", "agent_requests");
+        this.leaseMillis = TimeUnit.MINUTES.toMillis(
+                environment.getProperty("app.jobs.admission.lease-minutes", Long.class, 30L));
+        for (String agentType : JobDispatcher.agentTypes(environment)) {
+            AtomicLong depth = new AtomicLong();
+            queueDepths.put(agentType, depth);
+            Gauge.builder("jobs.admission.queue.depth", depth, AtomicLong::get).tag("agent", agentType)
+                    .description("Sampled backlog of the agent type: outbox plus ready queue messages")
+                    .register(meterRegistry);
+        }
+    }
+
+    /* Outcome of an admission check; retryAfterSeconds is what the client is told to wait. */
+    public record Decision(boolean admitted, String reason, long retryAfterSeconds) {
+        static final Decision ADMITTED = new Decision(true, null, 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.admission.depth-sample-interval-ms:2000}")
+    public void sample() {
+        try {
+            sampleQueueDepths();
+            expireLeases();
+        } catch (RuntimeException e) {
+            log.error("Job admission sampling failed.", e);
+        }
+    }
+
+    /* Admits the job and takes one of its user's slots, or tells why not and when to retry. */
+    public Decision admit(String jobId, Integer userId, String agentType) {
+        AtomicLong depth = queueDepths.get(agentType);
+        if (depth != null && depth.get() >= limit(agentType, "max-queue-depth", 100))
+            return reject(agentType, "queue_full", limit(agentType, "queue-retry-after-seconds", 30));
+
+        int maxInFlight = limit(agentType, "max-user-in-flight", 3);
+        String userKey = userId + ":" + agentType;
+        AtomicBoolean admitted = new AtomicBoolean();
+        userInFlight.compute(userKey, (key, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= maxInFlight)
+                return count;
+            admitted.set(true);
+            return current + 1;
+        });
+        if (!admitted.get())
+            return reject(agentType, "user_limit", limit(agentType, "user-retry-after-seconds", 5));
+        leases.put(jobId, new Lease(userKey, System.currentTimeMillis() + leaseMillis));
+        admittedCounters.computeIfAbsent(agentType, type -> Counter.builder("jobs.admission")
+                .tag("agent", type).tag("result", "admitted").register(meterRegistry)).increment();
+        return Decision.ADMITTED;
+    }
+
+    /* Gives the job's slot back; safe to call more than once. */
+    public void release(String jobId) {
+        Lease lease = leases.remove(jobId);
+        if (lease != null)
+            userInFlight.computeIfPresent(lease.userKey(), (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    int trackedUserCount() {
+        return userInFlight.size();
+    }
+
+    void sampleQueueDepths() {
+        List<OutboundJob.Status> waiting = List.of(OutboundJob.Status.PENDING, OutboundJob.Status.SENDING);
+        queueDepths.forEach((agentType, depth) -> {
+            long outbox = outboundJobRepository.countByAgentTypeAndStatusIn(agentType, waiting);
+            long ready = 0;
+            try {
+                Integer messages = rabbitTemplate.execute(channel -> channel
+                        .queueDeclarePassive(JobDispatcher.queueName(exchange, agentType)).getMessageCount());
+                ready = messages != null ? messages : 0;
+            } catch (AmqpException e) {
+                log.warn("Failed to sample the depth of the {} queue, using the outbox alone.", agentType, e);
+            }
+            depth.set(outbox + ready);
+        });
+    }
+
+    private void expireLeases() {
+        long now = System.currentTimeMillis();
+        leases.forEach((jobId, lease) -> {
+            if (lease.expiresAt() <= now)
+                release(jobId);
+        });
+    }
+
+    private Decision reject(String agentType, String reason, int retryAfterSeconds) {
+        Counter.builder("jobs.admission").tag("agent", agentType).tag("result", reason).register(meterRegistry)
+                .increment();
+        return new Decision(false, reason, retryAfterSeconds);
+    }
+
+    private int limit(String agentType, String name, int defaultValue) {
+        int global = environment.getProperty("app.jobs.admission." + name, Integer.class, defaultValue);
+        return environment.getProperty("app.jobs.admission.agents." + agentType + "." + name, Integer.class, global);
+    }
+
+    private record Lease(String userKey, long expiresAt) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.conversational.system.application.job;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.conversational.system.application.messaging.ConfirmedPublisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stops the agent work of cancelled jobs.
+ * A job still waiting in the outbox is withdrawn and never published. Otherwise {jobId} is published on
+ * the app.queue.job-cancel.exchange fanout exchange, which every agent worker listens to and checks before
+ * each LLM call or sandbox run. The agent answers with TASK_CANCELLED when it stopped, while a
+ * TASK_COMPLETED it sent anyway is dropped; jobs.cancelled.agent.time{result=aborted|late} is how long the
+ * agent worked on the job in either case, so the gap between the two is the agent time saved.
+ */
+@Slf4j
+@Component
+public class JobCancellation {
+    private final JobOutboxRelay jobOutboxRelay;
+    private final ConfirmedPublisher confirmedPublisher;
+    private final MeterRegistry meterRegistry;
+    private final String exchange;
+    private final Counter withdrawn;
+    private final Counter signalled;
+    private final Counter signalFailures;
+
+    public JobCancellation(JobOutboxRelay jobOutboxRelay, ConfirmedPublisher confirmedPublisher,
+            Environment environment, MeterRegistry meterRegistry) {
+        this.jobOutboxRelay = jobOutboxRelay;
+        this.confirmedPublisher = confirmedPublisher;
+        this.meterRegistry = meterRegistry;
+        this.exchange = environment.getProperty("app.queue.job-cancel.exchange", "job_cancellations");
+        this.withdrawn = Counter.builder("jobs.cancelled").tag("stage", "queued").register(meterRegistry);
+        this.signalled = Counter.builder("jobs.cancelled").tag("stage", "dispatched").register(meterRegistry);
+        this.signalFailures = Counter.builder("jobs.cancelled.signal.errors").register(meterRegistry);
+    }
+
+    /* Called once the job is marked cancelled; withdraws its request or tells the agents to drop it. */
+    public void cancel(String jobId) {
+        if (jobOutboxRelay.withdraw(jobId)) {
+            withdrawn.increment();
+            return;
+        }
+        signalled.increment();
+        confirmedPublisher.publish(exchange, "", Map.of("jobId", jobId, "cancelledAt", System.currentTimeMillis()))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        signalFailures.increment();
+                        log.warn("Failed to publish the cancellation of job {}.", jobId, error);
+                    }
+                });
+    }
+
+    /* An agent stopped working on the job; agentTime runs from submission to the agent giving up. */
+    public void aborted(String agentType, Duration agentTime) {
+        record("aborted", agentType, agentTime);
+    }
+
+    /* A result arrived for a job cancelled too late to stop the agent; it is dropped. */
+    public void lateResult(String agentType, Duration agentTime) {
+        record("late", agentType, agentTime);
+    }
+
+    private void record(String result, String agentType, Duration agentTime) {
+        Timer timer = Timer.builder("jobs.cancelled.agent.time")
+                .description("Time from submission until the agent stopped working on a cancelled job")
+                .tag("result", result)
+                .tag("agentType", agentType != null ? agentType : "unknown")
+                .register(meterRegistry);
+        if (agentTime != null && !agentTime.isNegative())
+            timer.record(agentTime);
+    }
+}
@@ -0,0 +1,41 @@
+package com.conversational.system.application.job;
+
+import com.conversational.system.application.authentication.current_user.CurrentUser;
+import com.conversational.system.application.entities.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class JobCancellationController {
+
+    private final JobService jobService;
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Map<String, String>> cancelJob(@PathVariable String jobId, @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "status", "error",
+                    "message", "User not authenticated"));
+        }
+
+        return switch (jobService.cancelJob(jobId, user)) {
+            case CANCELLED -> ResponseEntity.ok(Map.of("status", JobState.CANCELLED, "jobId", jobId));
+            // Jobs of other users are reported as missing, so their ids cannot be probed
+            case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "not_found",
+                    "message", "Job not found"));
+            case FINISHED -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "status", "error",
+                    "message", "Job already finished"));
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.conversational.system.application.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tells every instance that a job finished, over a Redis channel. A job's dispatch lease is held by the
+ * instance whose relay published it and its admission slot by the one that admitted it, while its result
+ * is consumed by whichever instance the broker picked, so both are released wherever they are held.
+ * Releasing is idempotent, instances without the lease ignore the message.
+ * With app.jobs.completion.redis-fanout.enabled=false (single instance) the slot is released locally.
+ */
+@Slf4j
+@Component
+public class JobCompletionPublisher {
+    private final StringRedisTemplate redisTemplate;
+    private final JobDispatcher jobDispatcher;
+    private final JobAdmission jobAdmission;
+
+    @Value("${app.jobs.completion.channel:job_completions}")
+    private String channel;
+
+    @Value("${app.jobs.completion.redis-fanout.enabled:true}")
+    private boolean redisFanout;
+
+    public JobCompletionPublisher(StringRedisTemplate redisTemplate, JobDispatcher jobDispatcher,
+            JobAdmission jobAdmission) {
+        this.redisTemplate = redisTemplate;
+        this.jobDispatcher = jobDispatcher;
+        this.jobAdmission = jobAdmission;
+    }
+
+    public void publish(String jobId) {
+        if (!redisFanout) {
+            receive(jobId);
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, jobId);
+        } catch (DataAccessException e) {
+            // Slots held elsewhere fall back to their lease expiry
+            log.warn("Failed to broadcast the completion of job {}: {}", jobId, e.getMessage());
+            receive(jobId);
+        }
+    }
+
+    // Called for every message on the channel, including the ones this instance published
+    public void receive(String jobId) {
+        jobDispatcher.finished(jobId);
+        jobAdmission.release(jobId);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
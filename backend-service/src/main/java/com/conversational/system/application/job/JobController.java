@@ -1,16 +1,14 @@
 package com.conversational.system.application.job;
 
+import com.conversational.system.application.authentication.current_user.CurrentUser;
 import com.conversational.system.application.entities.user.User;
-import com.conversational.system.application.entities.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -19,44 +17,42 @@ import java.util.UUID;
 public class JobController {
 
     private final JobService jobService;
-    private final UserRepository userRepository;
+    private final JobAdmission jobAdmission;
 
     @PostMapping("/submit-job")
     public ResponseEntity<Map<String, String>> testSubmitJob(
             @RequestBody JobDescriptionDto jobDescriptionDto,
-            @AuthenticationPrincipal UserDetails principal) {
-        try {
-            if (principal == null || principal.getUsername() == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                        "status", "error",
-                        "message", "User not authenticated"));
-            }
-
-            // Fetch User entity from DB using username/email from JWT
-            Optional<User> userOpt = userRepository.findByEmail(principal.getUsername());
-            if (userOpt.isEmpty()) {
-                // fallback by username
-                userOpt = userRepository.findByUsername(principal.getUsername());
-            }
-
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                        "status", "error",
-                        "message", "User not found"));
-            }
-
-            User user = userOpt.get();
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "status", "error",
+                    "message", "User not authenticated"));
+        }
 
-            // Generate jobId on backend
-            String jobId = "job-" + UUID.randomUUID().toString();
-            jobDescriptionDto.setJobId(jobId);
+        // Generate jobId on backend
+        String jobId = "job-" + UUID.randomUUID().toString();
+        jobDescriptionDto.setJobId(jobId);
 
+        // Checked before anything is written, so a rejected submit costs no database work
+        JobAdmission.Decision admission = jobAdmission.admit(jobId, user.getId(), jobDescriptionDto.getAgentType());
+        if (!admission.admitted()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(admission.retryAfterSeconds()))
+                    .body(Map.of(
+                            "status", "error",
+                            "reason", admission.reason(),
+                            "message", "queue_full".equals(admission.reason())
+                                    ? "Agents are busy, please try again later"
+                                    : "Too many unfinished jobs, please wait for one to finish"));
+        }
+        try {
             UUID conversationId = jobService.submitJob(jobDescriptionDto, user);
             return ResponseEntity.ok(Map.of(
                     "status", "ok",
                     "jobId", jobId,
                     "conversationId", conversationId.toString()));
         } catch (Exception e) {
+            jobAdmission.release(jobId);
             return ResponseEntity.internalServerError().body(Map.of(
                     "status", "error",
                     "message", "Error submitting job: " + e.getMessage()));
@@ -18,4 +18,8 @@ public class JobDescriptionDto {
     String acceptedCode;
     UUID acceptedModelMessageId;
     UUID acceptedCodeMessageId;
+    // Complete from a cached answer to an identical request instead of running the agent
+    boolean useCachedResponse;
+    // Neither read nor fill the response cache for this request
+    boolean bypassCache;
 }
@@ -0,0 +1,178 @@
+package com.conversational.system.application.job;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.conversational.system.application.entities.job.OutboundJob;
+import com.conversational.system.application.entities.user.User;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Weighted fair scheduling of agent jobs across users, per agent type.
+ * Each job gets a virtual finish tag (Virtual Clock): a user's first job starts at the current time,
+ * further jobs queue behind their previous tag, and every job advances the user's clock by
+ * job-cost-seconds divided by the weight of the user's plan (app.jobs.dispatch.weights.<plan>).
+ * JobOutboxRelay releases jobs of an agent type in tag order, and only while fewer than its
+ * max-in-flight jobs are running, so the backlog waits in the outbox in fair order instead of in the
+ * broker's FIFO queue. A job is interactive, and published with a higher message priority, when its
+ * user had nothing queued or running for that agent type.
+ * In-flight jobs are counted by the backend instance that published them and released when their
+ * result arrives on any instance (see JobCompletionPublisher), or after lease-minutes when it never does.
+ */
+@Component
+public class JobDispatcher {
+    public static final int INTERACTIVE_PRIORITY = 5;
+    public static final int BACKGROUND_PRIORITY = 1;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final String exchange;
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+    private final long jobCostMillis;
+    private final long leaseMillis;
+    Clock clock = Clock.systemUTC();
+
+    public JobDispatcher(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.exchange = environment.getProperty("app.queue.agents.exchange", "agent_requests");
+        this.jobCostMillis = TimeUnit.SECONDS.toMillis(
+                environment.getProperty("app.jobs.dispatch.job-cost-seconds", Long.class, 20L));
+        this.leaseMillis = TimeUnit.MINUTES.toMillis(
+                environment.getProperty("app.jobs.dispatch.lease-minutes", Long.class, 30L));
+        int defaultMaxInFlight = environment.getProperty("app.jobs.dispatch.max-in-flight", Integer.class, 4);
+        for (String agentType : agentTypes(environment)) {
+            Lane lane = new Lane(environment.getProperty("app.jobs.dispatch.agents." + agentType + ".max-in-flight",
+                    Integer.class, defaultMaxInFlight));
+            lanes.put(agentType, lane);
+            Gauge.builder("jobs.dispatch.in_flight", lane, Lane::inFlightCount).tag("agent", agentType)
+                    .description("Jobs published and not finished yet").register(meterRegistry);
+        }
+    }
+
+    /* Where and in which order a job is published. */
+    public record Ticket(String exchange, String agentType, Integer userId, String userClass, int priority,
+            long dispatchTag) {
+    }
+
+    public static List<String> agentTypes(Environment environment) {
+        return List.of(environment.getProperty("app.queue.agents.types", String[].class,
+                new String[] { "MODELER_AGENT", "CODER_AGENT", "VISUALIZER_AGENT" }));
+    }
+
+    public static String queueName(String exchange, String agentType) {
+        return exchange + "." + agentType;
+    }
+
+    public List<String> agentTypes() {
+        return List.copyOf(lanes.keySet());
+    }
+
+    public Ticket schedule(String agentType, User user) {
+        Lane lane = lanes.get(agentType);
+        if (lane == null)
+            throw new IllegalArgumentException("Unknown agent type: " + agentType);
+        String plan = user.getPlan() != null ? user.getPlan() : "free";
+        double weight = environment.getProperty("app.jobs.dispatch.weights." + plan, Double.class, 1.0);
+        long now = clock.millis();
+        synchronized (lane) {
+            lane.expireLeases(now);
+            Long lastTag = lane.lastTags.get(user.getId());
+            boolean backlogged = (lastTag != null && lastTag > now) || lane.hasInFlight(user.getId());
+            long start = lastTag != null ? Math.max(now, lastTag) : now;
+            long tag = start + Math.round(jobCostMillis / Math.max(weight, 0.01));
+            lane.lastTags.put(user.getId(), tag);
+            if (lane.lastTags.size() > 10_000)
+                lane.lastTags.values().removeIf(lastFinish -> lastFinish <= now);
+            return new Ticket(exchange, agentType, user.getId(), plan,
+                    backlogged ? BACKGROUND_PRIORITY : INTERACTIVE_PRIORITY, tag);
+        }
+    }
+
+    /* Reserves up to limit slots of the agent type for a claim; confirm the claimed jobs with dispatched. */
+    public int reserve(String agentType, int limit) {
+        Lane lane = lanes.get(agentType);
+        synchronized (lane) {
+            lane.expireLeases(clock.millis());
+            int free = Math.max(0, lane.maxInFlight - lane.leases.size() - lane.reserved);
+            int reserved = Math.min(limit, free);
+            lane.reserved += reserved;
+            return reserved;
+        }
+    }
+
+    /* Turns a reservation into leases for the jobs actually claimed and returns the rest. */
+    public void dispatched(String agentType, int reserved, List<OutboundJob> claimed) {
+        Lane lane = lanes.get(agentType);
+        long expiresAt = clock.millis() + leaseMillis;
+        synchronized (lane) {
+            lane.reserved -= reserved;
+            for (OutboundJob job : claimed)
+                lane.leases.put(job.getJobId(), new Lease(job.getUserId(), expiresAt));
+        }
+    }
+
+    public void sent(OutboundJob job, Duration queueWait) {
+        if (job.getAgentType() == null)
+            return;
+        Timer.builder("jobs.dispatch.queue.wait")
+                .description("Time from job submission to its publish to the agent queue")
+                .tag("agent", job.getAgentType())
+                .tag("plan", job.getUserClass() != null ? job.getUserClass() : "unknown")
+                .tag("priority", job.getPriority() >= INTERACTIVE_PRIORITY ? "interactive" : "background")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(queueWait);
+    }
+
+    /* Frees the job's slot, once its result arrived or its publish failed. */
+    public void finished(String jobId) {
+        for (Lane lane : lanes.values())
+            synchronized (lane) {
+                if (lane.leases.remove(jobId) != null)
+                    return;
+            }
+    }
+
+    public int inFlightCount(String agentType) {
+        Lane lane = lanes.get(agentType);
+        return lane != null ? lane.inFlightCount() : 0;
+    }
+
+    private static final class Lane {
+        private final int maxInFlight;
+        private final Map<String, Lease> leases = new HashMap<>();
+        private final Map<Integer, Long> lastTags = new HashMap<>();
+        private int reserved;
+
+        private Lane(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        private synchronized int inFlightCount() {
+            return leases.size();
+        }
+
+        private boolean hasInFlight(Integer userId) {
+            return leases.values().stream().anyMatch(lease -> lease.userId() != null && lease.userId().equals(userId));
+        }
+
+        private void expireLeases(long now) {
+            leases.values().removeIf(lease -> lease.expiresAt() <= now);
+        }
+    }
+
+    private record Lease(Integer userId, long expiresAt) {
+    }
+}
@@ -0,0 +1,344 @@
+package com.conversational.system.application.job;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.conversational.system.application.entities.job.OutboundJob;
+import com.conversational.system.application.entities.job.OutboundJobRepository;
+import com.conversational.system.application.messaging.ConfirmedPublisher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transactional outbox for job requests, backed by the outbound_job table.
+ * JobService inserts the envelope in the same transaction as the user's message; the relay claims
+ * pending rows in batches, publishes them through the ConfirmedPublisher and marks each row sent once
+ * the broker has confirmed it. Delivery is at least once: an unconfirmed request is published again.
+ * Rows of each agent type are claimed in JobDispatcher order and only as far as the type has free slots.
+ */
+@Slf4j
+@Component
+public class JobOutboxRelay {
+    private final OutboundJobRepository outboundJobRepository;
+    private final ConfirmedPublisher confirmedPublisher;
+    private final JobDispatcher jobDispatcher;
+    private final JobService jobService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Object wakeUpSignal = new Object();
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer batchPublishTimer;
+    private final Timer outboxLatencyTimer;
+
+    @Value("${app.jobs.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jobs.outbox.workers:1}")
+    private int workerCount;
+
+    @Value("${app.jobs.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.jobs.outbox.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${app.jobs.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.jobs.outbox.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+
+    @Value("${app.jobs.outbox.lock-timeout-ms:30000}")
+    private long lockTimeoutMs;
+
+    @Value("${app.jobs.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public JobOutboxRelay(OutboundJobRepository outboundJobRepository, ConfirmedPublisher confirmedPublisher,
+            JobDispatcher jobDispatcher, @Lazy JobService jobService, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboundJobRepository = outboundJobRepository;
+        this.confirmedPublisher = confirmedPublisher;
+        this.jobDispatcher = jobDispatcher;
+        this.jobService = jobService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = Counter.builder("jobs.outbox.dispatch").tag("result", "sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("jobs.outbox.dispatch").tag("result", "retried")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("jobs.outbox.dispatch").tag("result", "failed").register(meterRegistry);
+        this.batchPublishTimer = Timer.builder("jobs.outbox.publish.latency")
+                .description("Time to publish one batch and receive its confirms").register(meterRegistry);
+        this.outboxLatencyTimer = Timer.builder("jobs.outbox.latency")
+                .description("Time from commit of the job request to its confirmed publish").register(meterRegistry);
+        Gauge.builder("jobs.outbox.depth", outboundJobRepository,
+                repository -> repository.countByStatus(OutboundJob.Status.PENDING)).register(meterRegistry);
+        Gauge.builder("jobs.outbox.lag", outboundJobRepository, JobOutboxRelay::oldestPendingAgeSeconds)
+                .description("Age of the oldest unpublished job request").baseUnit("seconds").register(meterRegistry);
+    }
+
+    /* Writes the envelope to the outbox; must run inside the caller's transaction so the request is
+     * published if and only if that transaction commits. The relay is woken once it has. */
+    public void enqueue(String jobId, JobDispatcher.Ticket ticket, Map<String, Object> envelope) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(envelope);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize request for job " + jobId, e);
+        }
+        OutboundJob job = new OutboundJob(jobId, ticket.agentType(), payload);
+        job.setExchange(ticket.exchange());
+        job.setAgentType(ticket.agentType());
+        job.setUserId(ticket.userId());
+        job.setUserClass(ticket.userClass());
+        job.setPriority(ticket.priority());
+        job.setDispatchTag(ticket.dispatchTag());
+        outboundJobRepository.save(job);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        else
+            wakeUp();
+    }
+
+    /* Removes a job's request that has not been claimed for publishing yet; false when it is too late. */
+    public boolean withdraw(String jobId) {
+        Integer deleted = transactionTemplate.execute(
+                status -> outboundJobRepository.deletePending(jobId, OutboundJob.Status.PENDING));
+        return deleted != null && deleted > 0;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled)
+            return;
+        running = true;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("job-outbox-relay-");
+        threadFactory.setDaemon(true);
+        workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+        for (int i = 0; i < workerCount; i++)
+            workers.submit(this::workLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp();
+        if (workers != null) {
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (wakeUpSignal) {
+            wakeUpSignal.notifyAll();
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                if (dispatchBatch() > 0)
+                    continue;
+                synchronized (wakeUpSignal) {
+                    wakeUpSignal.wait(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Job outbox relay iteration failed.", e);
+                sleepQuietly(pollIntervalMs);
+            }
+        }
+    }
+
+    // Claims, publishes and records one batch. Returns the number of claimed job requests.
+    int dispatchBatch() {
+        List<OutboundJob> batch = claimBatch();
+        if (batch.isEmpty())
+            return 0;
+
+        Map<OutboundJob, Exception> failures = publishBatch(batch);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboundJob job : batch) {
+            Exception failure = failures.get(job);
+            if (failure == null)
+                markSent(job, now);
+            else
+                markFailed(job, failure, now);
+        }
+        transactionTemplate.executeWithoutResult(status -> outboundJobRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private List<OutboundJob> claimBatch() {
+        List<OutboundJob> claimed = new ArrayList<>(claim(now -> outboundJobRepository.findClaimable(
+                OutboundJob.Status.PENDING, OutboundJob.Status.SENDING, now, PageRequest.of(0, batchSize))));
+        for (String agentType : jobDispatcher.agentTypes()) {
+            int reserved = jobDispatcher.reserve(agentType, batchSize);
+            if (reserved == 0)
+                continue;
+            List<OutboundJob> jobs = Collections.emptyList();
+            try {
+                jobs = claim(now -> outboundJobRepository.findClaimableByAgentType(agentType,
+                        OutboundJob.Status.PENDING, OutboundJob.Status.SENDING, now, PageRequest.of(0, reserved)));
+            } finally {
+                jobDispatcher.dispatched(agentType, reserved, jobs);
+            }
+            claimed.addAll(jobs);
+        }
+        return claimed;
+    }
+
+    private List<OutboundJob> claim(Function<LocalDateTime, List<OutboundJob>> query) {
+        List<OutboundJob> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboundJob> jobs = query.apply(now);
+            for (OutboundJob job : jobs) {
+                job.setStatus(OutboundJob.Status.SENDING);
+                job.setLockedUntil(now.plus(Duration.ofMillis(lockTimeoutMs)));
+            }
+            return outboundJobRepository.saveAll(jobs);
+        });
+        return claimed != null ? claimed : Collections.emptyList();
+    }
+
+    /* Hands the whole batch to the publisher before waiting on any confirm, so the batch costs one
+     * confirm round trip instead of one per message. Returns failures keyed by the OutboundJob. */
+    private Map<OutboundJob, Exception> publishBatch(List<OutboundJob> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            Map<OutboundJob, CompletableFuture<Void>> confirms = new LinkedHashMap<>();
+            for (OutboundJob job : batch)
+                confirms.put(job, confirmedPublisher.publish(job.getExchange(), job.getRoutingKey(), toMessage(job)));
+            Map<OutboundJob, Exception> failures = new HashMap<>();
+            confirms.forEach((job, confirm) -> {
+                try {
+                    confirm.join();
+                } catch (CompletionException | CancellationException e) {
+                    failures.put(job, e.getCause() instanceof Exception cause ? cause : e);
+                }
+            });
+            return failures;
+        } finally {
+            sample.stop(batchPublishTimer);
+        }
+    }
+
+    private static Message toMessage(OutboundJob job) {
+        Message message = MessageBuilder.withBody(job.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(job.getJobId())
+                .build();
+        if (job.getAgentType() != null)
+            message.getMessageProperties().setPriority(job.getPriority());
+        return message;
+    }
+
+    private void markSent(OutboundJob job, LocalDateTime now) {
+        job.setStatus(OutboundJob.Status.SENT);
+        job.setSentAt(now);
+        job.setLockedUntil(null);
+        job.setLastError(null);
+        sentCounter.increment();
+        outboxLatencyTimer.record(Duration.between(job.getCreatedAt(), now));
+        jobDispatcher.sent(job, Duration.between(job.getCreatedAt(), now));
+    }
+
+    private void markFailed(OutboundJob job, Exception failure, LocalDateTime now) {
+        jobDispatcher.finished(job.getJobId());
+        job.setAttempts(job.getAttempts() + 1);
+        job.setLockedUntil(null);
+        job.setLastError(failure.getMessage());
+        if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(OutboundJob.Status.FAILED);
+            failedCounter.increment();
+            log.error("Giving up on publishing job {} after {} attempts.", job.getJobId(), job.getAttempts(),
+                    failure);
+            // Through JobService, so the owner hears of it and every instance frees the job's slots
+            jobService.updateJobResult(job.getJobId(), JobState.ERROR, "Failed to submit job");
+            return;
+        }
+        long backoffMs = initialBackoffMs << Math.min(job.getAttempts() - 1, 16);
+        job.setStatus(OutboundJob.Status.PENDING);
+        job.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMs)));
+        retriedCounter.increment();
+        log.warn("Failed to publish job {} (attempt {}), retrying in {} ms.", job.getJobId(), job.getAttempts(),
+                backoffMs);
+    }
+
+    // Sent and failed rows are only kept for inspection; drops them after retention-hours
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    void purgeFinished() {
+        if (!enabled)
+            return;
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer purged = transactionTemplate.execute(status -> outboundJobRepository.deleteFinishedBefore(
+                List.of(OutboundJob.Status.SENT, OutboundJob.Status.FAILED), before));
+        if (purged != null && purged > 0)
+            log.debug("Purged {} finished job requests from the outbox.", purged);
+    }
+
+    private static double oldestPendingAgeSeconds(OutboundJobRepository repository) {
+        LocalDateTime oldest = repository.findOldestCreatedAt(OutboundJob.Status.PENDING);
+        return oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0) : 0;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
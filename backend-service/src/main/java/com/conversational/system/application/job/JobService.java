@@ -3,37 +3,46 @@ package com.conversational.system.application.job;
 import com.conversational.system.application.conversation.ConversationService;
 import com.conversational.system.application.entities.conversation.Conversation;
 import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.events.UserEventPublisher;
+import com.fasterxml.jackson.databind.util.RawValue;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class JobService {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final JobOutboxRelay jobOutboxRelay;
+    private final JobDispatcher jobDispatcher;
+    private final JobCompletionPublisher jobCompletionPublisher;
     private final ConversationService conversationService;
-    private final Map<String, Map<String, String>> jobResults = new ConcurrentHashMap<>();
-    private final Map<String, UUID> jobToConversationMap = new ConcurrentHashMap<>();
-    private final Map<UUID, String> conversationToActiveJobMap = new ConcurrentHashMap<>();
-    private final Map<UUID, String> conversationToLastTerminalStatus = new ConcurrentHashMap<>();
+    private final JobStateStore jobStateStore;
+    private final UserEventPublisher userEventPublisher;
+    private final AgentResponseCache responseCache;
+    private final JobCancellation jobCancellation;
 
-    @Value("${app.queue.code.request}")
-    private String requestQueueName;
+    public enum CancelResult { CANCELLED, NOT_FOUND, FINISHED }
 
+    /* The user's message and the job request are committed together: the request goes to the outbox and
+     * the relay publishes it once this transaction commits, so neither can exist without the other. */
+    @Transactional
     public UUID submitJob(JobDescriptionDto jobDescriptionDto, User user) {
         if (user == null) {
             throw new IllegalArgumentException("Authenticated user is required to submit a job");
         }
 
         UUID conversationId = jobDescriptionDto.getConversationId();
+        boolean createdConversation = conversationId == null;
 
         // If no conversationId provided, create a new conversation
         if (conversationId == null) {
@@ -47,18 +56,14 @@ public class JobService {
             System.out.println("Created new conversation: " + conversationId);
         }
 
-        jobToConversationMap.put(jobDescriptionDto.getJobId(), conversationId);
-        conversationToActiveJobMap.put(conversationId, jobDescriptionDto.getJobId());
-        // New job starts: clear last terminal status
-        conversationToLastTerminalStatus.remove(conversationId);
-
         conversationService.saveUserMessage(
                 conversationId,
                 jobDescriptionDto.getAgentType(),
                 jobDescriptionDto.getPrompt(),
                 jobDescriptionDto.getJobId());
 
-        List<Map<String, Object>> conversationHistory = conversationService.getConversationHistory(
+        // Bounded per agent type; the accepted model and code travel in their own fields, outside the window
+        List<String> conversationHistory = conversationService.getAgentHistoryWindow(
                 conversationId,
                 jobDescriptionDto.getAgentType());
 
@@ -66,7 +71,10 @@ public class JobService {
         message.put("jobId", jobDescriptionDto.getJobId());
         message.put("agentType", jobDescriptionDto.getAgentType());
         message.put("prompt", jobDescriptionDto.getPrompt());
-        message.put("conversationHistory", conversationHistory);
+        // Entries are already serialized, so they are spliced into the request as they are
+        message.put("conversationHistory", new RawValue("[" + String.join(",", conversationHistory) + "]"));
+        // Echoed back by the agent so time-to-first-token can be measured end to end
+        message.put("submittedAt", System.currentTimeMillis());
 
         // Add context for multi-stage workflow - resolve from messageId if provided
         String acceptedModel = jobDescriptionDto.getAcceptedModel();
@@ -85,74 +93,179 @@ public class JobService {
             message.put("acceptedCode", acceptedCode);
         }
 
-        // Store initial status
-        jobResults.put(jobDescriptionDto.getJobId(), Map.of("status", "pending"));
+        String requestHash = null;
+        if (jobDescriptionDto.isBypassCache())
+            responseCache.recordBypass();
+        else if (responseCache.isEnabled())
+            requestHash = AgentResponseCache.requestHash(jobDescriptionDto.getAgentType(),
+                    jobDescriptionDto.getPrompt(), conversationHistory, acceptedModel, acceptedCode);
+        Optional<String> cachedAnswer = requestHash != null && jobDescriptionDto.isUseCachedResponse()
+                ? responseCache.lookup(requestHash)
+                : Optional.empty();
+
+        String cachedMessageId = null;
+        if (cachedAnswer.isPresent()) {
+            // Saved with the user's message, so both commit together and the job completes once they have
+            cachedMessageId = conversationService.saveAssistantMessage(jobDescriptionDto.getJobId(),
+                    cachedAnswer.get()).getId().toString();
+        } else {
+            // Rejects unknown agent types, which the agent exchange could not route anywhere
+            JobDispatcher.Ticket ticket = jobDispatcher.schedule(jobDescriptionDto.getAgentType(), user);
+            if (requestHash != null)
+                responseCache.expectResult(jobDescriptionDto.getJobId(), requestHash);
+            jobOutboxRelay.enqueue(jobDescriptionDto.getJobId(), ticket, message);
+        }
 
-        rabbitTemplate.convertAndSend(requestQueueName, message);
+        // Store initial status; also makes it the conversation's active job and clears its last terminal status
+        jobStateStore.startJob(jobDescriptionDto.getJobId(), conversationId, user.getId());
         System.out.println("Job " + jobDescriptionDto.getJobId() + " submitted with agent type: "
                 + jobDescriptionDto.getAgentType());
         System.out.println("Conversation ID: " + conversationId);
         System.out.println("Conversation history size: " + conversationHistory.size());
 
+        String jobId = jobDescriptionDto.getJobId();
+        String answerMessageId = cachedMessageId;
+        Map<String, Object> event = Map.of(
+                "conversationId", conversationId.toString(),
+                "change", createdConversation ? "created" : "updated",
+                "jobId", jobId);
+        // Job state lives outside the database, so a rolled back submit must not leave a phantom active job behind
+        afterCompletion(committed -> {
+            if (committed) {
+                userEventPublisher.publish(user.getId(), UserEventPublisher.CONVERSATION_EVENT, event);
+                if (answerMessageId != null)
+                    updateJobResult(jobId, JobState.COMPLETED, cachedAnswer.get(), answerMessageId);
+            } else
+                jobStateStore.updateJob(jobId, JobState.ERROR, "Failed to submit job", null);
+        });
+
         return conversationId;
     }
 
-    public Map<String, String> getJobStatus(String jobId) {
-        Map<String, String> result = jobResults.get(jobId);
-        if (result == null) {
-            return Map.of("status", "not_found", "message", "Job not found");
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
         }
-        return result;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
     }
 
-    public void updateJobResult(String jobId, String status, String answer) {
-        updateJobResult(jobId, status, answer, null);
+    public Map<String, String> getJobStatus(String jobId) {
+        return jobStateStore.getJob(jobId)
+                .map(this::withAnswer)
+                .map(JobState::toStatusMap)
+                .orElseGet(() -> Map.of("status", "not_found", "message", "Job not found"));
     }
 
-    public void updateJobResult(String jobId, String status, String answer, String messageId) {
-        Map<String, String> result = new HashMap<>();
-        result.put("status", status);
-        if (answer != null) {
-            result.put("answer", answer);
-        }
-        if (messageId != null) {
-            result.put("messageId", messageId);
-        }
-        jobResults.put(jobId, result);
-
-        // Remove from active jobs when terminal (completed or error/failed)
-        if ("completed".equals(status) || "failed".equals(status) || "error".equals(status)) {
-            UUID conversationId = jobToConversationMap.get(jobId);
-            if (conversationId != null) {
-                conversationToActiveJobMap.remove(conversationId);
-                // Record last terminal status for the conversation
-                conversationToLastTerminalStatus.put(conversationId, status);
-            }
+    // Stores may drop a completed answer since it is persisted as the assistant message; re-read it by id
+    private JobState withAnswer(JobState job) {
+        if (job.answer() != null || job.messageId() == null || !JobState.COMPLETED.equals(job.status()))
+            return job;
+        try {
+            String answer = conversationService.getMessageContent(UUID.fromString(job.messageId()));
+            return new JobState(job.jobId(), job.conversationId(), job.userId(), job.status(), answer,
+                    job.messageId());
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load answer for job " + job.jobId() + ": " + e.getMessage());
+            return job;
         }
     }
 
-    public boolean hasActiveJob(UUID conversationId) {
-        String activeJobId = conversationToActiveJobMap.get(conversationId);
-        if (activeJobId == null) {
-            return false;
+    // False when the job had already finished, e.g. was cancelled, and the result was ignored
+    public boolean updateJobResult(String jobId, String status, String answer) {
+        return updateJobResult(jobId, status, answer, null);
+    }
+
+    public boolean updateJobResult(String jobId, String status, String answer, String messageId) {
+        return applyJobResult(jobId, status, answer, messageId);
+    }
+
+    /* Saves the answer as the assistant message and completes the job in one transaction. The job's terminal
+     * transition decides whether the answer is kept: if the job was cancelled meanwhile, JobFinishedException
+     * rolls the message back, so it never reaches the conversation or the agent history cache. */
+    @Transactional
+    public String completeJob(String jobId, String answer) {
+        String messageId = conversationService.saveAssistantMessage(jobId, answer).getId().toString();
+        if (!applyJobResult(jobId, JobState.COMPLETED, answer, messageId))
+            throw new JobFinishedException(jobId);
+        return messageId;
+    }
+
+    public static class JobFinishedException extends RuntimeException {
+        public JobFinishedException(String jobId) {
+            super("Job " + jobId + " already finished");
         }
+    }
+
+    /* Only the owner can cancel a job. Cancelled is terminal, so a result arriving later is ignored. */
+    public CancelResult cancelJob(String jobId, User user) {
+        Optional<JobState> job = jobStateStore.getJobStatus(jobId);
+        if (user == null || job.isEmpty() || !user.getId().equals(job.get().userId()))
+            return CancelResult.NOT_FOUND;
+        if (!applyJobResult(jobId, JobState.CANCELLED, null, null))
+            return CancelResult.FINISHED;
+        jobCancellation.cancel(jobId);
+        System.out.println("Job " + jobId + " cancelled");
+        return CancelResult.CANCELLED;
+    }
 
-        // Check if job is still pending
-        Map<String, String> jobStatus = jobResults.get(activeJobId);
-        if (jobStatus == null) {
+    public boolean isCancelled(String jobId) {
+        return jobStateStore.getJobStatus(jobId).map(job -> JobState.CANCELLED.equals(job.status())).orElse(false);
+    }
+
+    private boolean applyJobResult(String jobId, String status, String answer, String messageId) {
+        // Terminal statuses are final, so a redelivered or late result cannot overwrite the outcome
+        if (!jobStateStore.updateJob(jobId, status, answer, messageId)) {
+            System.out.println("Ignoring status " + status + " for already finished job " + jobId);
             return false;
         }
+        Runnable announce = () -> {
+            if (JobState.isTerminal(status)) {
+                jobCompletionPublisher.publish(jobId);
+            }
+            if (JobState.COMPLETED.equals(status))
+                responseCache.storeResult(jobId, answer);
+            jobStateStore.getJobStatus(jobId).ifPresent(job -> publishJobEvent(job, answer));
+        };
+        // Within completeJob the answer's message is only readable once the transaction has committed
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            afterCompletion(committed -> announce.run());
+        else
+            announce.run();
+        return true;
+    }
 
-        String status = jobStatus.get("status");
-        return "pending".equals(status);
+    // Tells the owner's open event streams about the new status, so clients need not poll get-job
+    private void publishJobEvent(JobState job, String answer) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("jobId", job.jobId());
+        event.put("status", job.status());
+        if (job.conversationId() != null)
+            event.put("conversationId", job.conversationId().toString());
+        if (job.messageId() != null)
+            event.put("messageId", job.messageId());
+        if (JobState.isError(job.status()) && answer != null)
+            event.put("message", answer);
+        userEventPublisher.publish(job.userId(), UserEventPublisher.JOB_EVENT, event);
+    }
+
+    public boolean hasActiveJob(UUID conversationId) {
+        return jobStateStore.getActiveJobId(conversationId)
+                .flatMap(jobStateStore::getJobStatus)
+                .map(job -> JobState.PENDING.equals(job.status()))
+                .orElse(false);
     }
 
     public String getActiveJobId(UUID conversationId) {
-        return conversationToActiveJobMap.get(conversationId);
+        return jobStateStore.getActiveJobId(conversationId).orElse(null);
     }
 
     public boolean hasLastError(UUID conversationId) {
-        String last = conversationToLastTerminalStatus.get(conversationId);
-        return "failed".equals(last) || "error".equals(last);
+        return jobStateStore.getLastTerminalStatus(conversationId).map(JobState::isError).orElse(false);
     }
 }
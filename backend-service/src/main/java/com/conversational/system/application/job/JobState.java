@@ -0,0 +1,37 @@
+package com.conversational.system.application.job;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Snapshot of a submitted job as seen by every backend replica.
+ */
+public record JobState(String jobId, UUID conversationId, Integer userId, String status, String answer,
+        String messageId) {
+    public static final String PENDING = "pending";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+    public static final String ERROR = "error";
+    public static final String CANCELLED = "cancelled";
+
+    public static boolean isTerminal(String status) {
+        return COMPLETED.equals(status) || FAILED.equals(status) || ERROR.equals(status)
+                || CANCELLED.equals(status);
+    }
+
+    public static boolean isError(String status) {
+        return FAILED.equals(status) || ERROR.equals(status);
+    }
+
+    // Shape returned by GET /api/test/get-job
+    public Map<String, String> toStatusMap() {
+        Map<String, String> result = new HashMap<>();
+        result.put("status", status);
+        if (answer != null)
+            result.put("answer", answer);
+        if (messageId != null)
+            result.put("messageId", messageId);
+        return result;
+    }
+}
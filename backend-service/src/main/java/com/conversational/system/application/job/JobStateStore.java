@@ -0,0 +1,30 @@
+package com.conversational.system.application.job;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Where job status lives between submission and the result coming back from the agent.
+ * Implementations must make a job started on one replica visible to, and updatable from, any other.
+ */
+public interface JobStateStore {
+
+    /* Records a pending job of the given user and makes it the conversation's active job,
+     * clearing its last terminal status */
+    void startJob(String jobId, UUID conversationId, Integer userId);
+
+    /* Applies a status change. Terminal statuses are final: returns false (and changes nothing)
+     * when the job already finished, e.g. for a redelivered result message. */
+    boolean updateJob(String jobId, String status, String answer, String messageId);
+
+    Optional<JobState> getJob(String jobId);
+
+    /* Like getJob but the answer may be left out, for lookups that only need the job's owner or status */
+    default Optional<JobState> getJobStatus(String jobId) {
+        return getJob(jobId);
+    }
+
+    Optional<String> getActiveJobId(UUID conversationId);
+
+    Optional<String> getLastTerminalStatus(UUID conversationId);
+}
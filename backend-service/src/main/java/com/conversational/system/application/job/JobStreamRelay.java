@@ -0,0 +1,265 @@
+package com.conversational.system.application.job;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relays TASK_CHUNK messages from the agent to the browser sockets watching the job.
+ * This instance's stream queue is bound to job.{jobId} only while a local socket watches that job,
+ * so chunks of other jobs never reach it; the bindings are restored whenever the connection comes back.
+ * Chunks are coalesced per socket and flushed once coalesce-chars have accumulated or flush-interval-ms
+ * has passed; a socket whose backlog grows past max-pending-chars is closed, and the client falls back
+ * to the persisted answer.
+ */
+@Slf4j
+@Component
+public class JobStreamRelay {
+    static final String ROUTING_KEY_PREFIX = "job.";
+
+    private final AmqpAdmin amqpAdmin;
+    private final ConnectionFactory connectionFactory;
+    private final Queue streamQueue;
+    private final TopicExchange streamExchange;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Set<JobStreamSession>> sessionsByJob = new ConcurrentHashMap<>();
+    private final Map<String, JobStreamSession> sessionsById = new ConcurrentHashMap<>();
+    private final Counter relayedChunks;
+    private final Counter sentFrames;
+    private final Counter slowSessions;
+    private ExecutorService senders;
+
+    @Value("${app.jobs.stream.coalesce-chars:64}")
+    private int coalesceChars;
+
+    @Value("${app.jobs.stream.max-pending-chars:262144}")
+    private int maxPendingChars;
+
+    @Value("${app.jobs.stream.max-session-minutes:15}")
+    private long maxSessionMinutes;
+
+    @Value("${app.jobs.stream.sender-threads:4}")
+    private int senderThreads;
+
+    public JobStreamRelay(AmqpAdmin amqpAdmin, @Qualifier("jobStreamQueue") Queue streamQueue,
+            TopicExchange streamExchange, ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.amqpAdmin = amqpAdmin;
+        this.connectionFactory = connectionFactory;
+        this.streamQueue = streamQueue;
+        this.streamExchange = streamExchange;
+        this.relayedChunks = Counter.builder("jobs.stream.chunks").register(meterRegistry);
+        this.sentFrames = Counter.builder("jobs.stream.frames").register(meterRegistry);
+        this.slowSessions = Counter.builder("jobs.stream.slow_sessions")
+                .description("Sockets closed because they could not keep up").register(meterRegistry);
+        Gauge.builder("jobs.stream.sessions", sessionsById, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("job-stream-sender-");
+        threadFactory.setDaemon(true);
+        senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), threadFactory);
+        // Added after the admin's own listener, so the queue is back before it is rebound
+        connectionFactory.addConnectionListener(connection -> rebind());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (senders != null)
+            senders.shutdownNow();
+    }
+
+    public void register(String jobId, WebSocketSession session) {
+        JobStreamSession stream = new JobStreamSession(jobId, session, System.nanoTime());
+        sessionsById.put(session.getId(), stream);
+        AtomicBoolean firstWatcher = new AtomicBoolean();
+        sessionsByJob.compute(jobId, (id, sessions) -> {
+            if (sessions == null) {
+                firstWatcher.set(true);
+                sessions = ConcurrentHashMap.newKeySet();
+            }
+            sessions.add(stream);
+            return sessions;
+        });
+        if (!firstWatcher.get())
+            return;
+        try {
+            amqpAdmin.declareBinding(binding(jobId));
+        } catch (AmqpException e) {
+            log.warn("Could not subscribe to the output of job {}: {}", jobId, e.getMessage());
+            closeQuietly(session, CloseStatus.SERVICE_OVERLOAD);
+            unregister(session);
+        }
+    }
+
+    public void unregister(WebSocketSession session) {
+        JobStreamSession stream = sessionsById.remove(session.getId());
+        if (stream == null)
+            return;
+        stream.close();
+        AtomicBoolean lastWatcher = new AtomicBoolean();
+        sessionsByJob.computeIfPresent(stream.getJobId(), (id, sessions) -> {
+            sessions.remove(stream);
+            if (!sessions.isEmpty())
+                return sessions;
+            lastWatcher.set(true);
+            return null;
+        });
+        if (!lastWatcher.get())
+            return;
+        try {
+            amqpAdmin.removeBinding(binding(stream.getJobId()));
+            // A socket that registered for the job meanwhile has declared the binding just removed
+            if (sessionsByJob.containsKey(stream.getJobId()))
+                amqpAdmin.declareBinding(binding(stream.getJobId()));
+        } catch (AmqpException e) {
+            log.warn("Could not unsubscribe from the output of job {}: {}", stream.getJobId(), e.getMessage());
+        }
+    }
+
+    // The stream queue is auto-delete, so a new connection redeclares it without the per-job bindings
+    private void rebind() {
+        for (String jobId : sessionsByJob.keySet()) {
+            try {
+                amqpAdmin.declareBinding(binding(jobId));
+            } catch (AmqpException e) {
+                log.warn("Could not resubscribe to the output of job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    // A job that already finished has nothing left to stream: tell the socket and close it
+    public void sendEnd(WebSocketSession session, String status) {
+        try {
+            session.sendMessage(toMessage(JobStreamSession.Frame.end(status)));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not send end of job stream: {}", e.getMessage());
+        }
+        closeQuietly(session, CloseStatus.NORMAL);
+    }
+
+    // Called for every TASK_CHUNK; final marks the end of the job's output
+    public void onChunk(String jobId, long seq, String delta, boolean last, String outcome) {
+        Set<JobStreamSession> sessions = sessionsByJob.get(jobId);
+        if (sessions == null)
+            return;
+        relayedChunks.increment();
+        for (JobStreamSession stream : sessions) {
+            int pendingChars = delta != null && !delta.isEmpty() ? stream.append(seq, delta) : 0;
+            if (pendingChars > maxPendingChars) {
+                slowSessions.increment();
+                log.debug("Closing job stream {} that fell {} characters behind.", jobId, pendingChars);
+                closeQuietly(stream.getSession(), CloseStatus.SESSION_NOT_RELIABLE);
+                unregister(stream.getSession());
+                continue;
+            }
+            if (last)
+                stream.end(outcome != null ? outcome : JobState.COMPLETED);
+            if (last || pendingChars >= coalesceChars)
+                schedule(stream);
+        }
+    }
+
+    public int sessionCount() {
+        return sessionsById.size();
+    }
+
+    // Sends text that waited flush-interval-ms without reaching coalesce-chars, and closes overdue sockets
+    @Scheduled(fixedDelayString = "${app.jobs.stream.flush-interval-ms:50}")
+    void flush() {
+        long now = System.nanoTime();
+        for (JobStreamSession stream : sessionsById.values()) {
+            if (now - stream.getOpenedAt() > TimeUnit.MINUTES.toNanos(maxSessionMinutes)) {
+                closeQuietly(stream.getSession(), CloseStatus.NORMAL);
+                unregister(stream.getSession());
+            } else if (stream.hasPending()) {
+                schedule(stream);
+            }
+        }
+    }
+
+    private void schedule(JobStreamSession stream) {
+        if (stream.claimDrain())
+            senders.execute(() -> drain(stream));
+    }
+
+    private void drain(JobStreamSession stream) {
+        WebSocketSession session = stream.getSession();
+        try {
+            JobStreamSession.Frame frame;
+            while ((frame = stream.next()) != null) {
+                session.sendMessage(toMessage(frame));
+                sentFrames.increment();
+                if (frame.isEnd()) {
+                    closeQuietly(session, CloseStatus.NORMAL);
+                    unregister(session);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Closing job stream {}: {}", stream.getJobId(), e.getMessage());
+            unregister(session);
+        }
+    }
+
+    private TextMessage toMessage(JobStreamSession.Frame frame) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", frame.type());
+        if (frame.isEnd()) {
+            message.put("status", frame.status());
+        } else {
+            message.put("fromSeq", frame.fromSeq());
+            message.put("toSeq", frame.toSeq());
+            message.put("text", frame.text());
+        }
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize job stream frame.", e);
+        }
+    }
+
+    private Binding binding(String jobId) {
+        return new Binding(streamQueue.getName(), Binding.DestinationType.QUEUE, streamExchange.getName(),
+                ROUTING_KEY_PREFIX + jobId, null);
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            if (session.isOpen())
+                session.close(status);
+        } catch (IOException e) {
+            log.debug("Failed to close job stream socket: {}", e.getMessage());
+        }
+    }
+}
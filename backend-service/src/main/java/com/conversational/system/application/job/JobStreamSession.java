@@ -0,0 +1,100 @@
+package com.conversational.system.application.job;
+
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * One browser socket following a job's output. Chunks are appended to a pending buffer that the
+ * relay flushes as a single frame, so many tiny tokens become one message and a slow socket
+ * simply receives larger frames. At most one sender drains a session at a time.
+ */
+final class JobStreamSession {
+    private final String jobId;
+    private final WebSocketSession session;
+    private final long openedAt;
+    private final StringBuilder pending = new StringBuilder();
+    private long fromSeq = -1;
+    private long toSeq = -1;
+    private String endStatus;
+    private boolean endSent;
+    private boolean draining;
+    private boolean closed;
+
+    JobStreamSession(String jobId, WebSocketSession session, long openedAt) {
+        this.jobId = jobId;
+        this.session = session;
+        this.openedAt = openedAt;
+    }
+
+    // Returns the number of characters waiting to be sent
+    synchronized int append(long seq, String text) {
+        if (fromSeq < 0)
+            fromSeq = seq;
+        toSeq = seq;
+        pending.append(text);
+        return pending.length();
+    }
+
+    synchronized void end(String status) {
+        if (endStatus == null)
+            endStatus = status;
+    }
+
+    synchronized boolean hasPending() {
+        return pending.length() > 0 || (endStatus != null && !endSent);
+    }
+
+    // Returns true if the caller became the (only) sender and must drain the session
+    synchronized boolean claimDrain() {
+        if (draining || closed || !hasPending())
+            return false;
+        draining = true;
+        return true;
+    }
+
+    // Next frame to send: all pending text, then the end marker; null releases the drain
+    synchronized Frame next() {
+        if (!closed && pending.length() > 0) {
+            Frame frame = Frame.chunk(fromSeq, toSeq, pending.toString());
+            pending.setLength(0);
+            fromSeq = -1;
+            return frame;
+        }
+        if (!closed && endStatus != null && !endSent) {
+            endSent = true;
+            return Frame.end(endStatus);
+        }
+        draining = false;
+        return null;
+    }
+
+    synchronized void close() {
+        closed = true;
+        pending.setLength(0);
+    }
+
+    String getJobId() {
+        return jobId;
+    }
+
+    WebSocketSession getSession() {
+        return session;
+    }
+
+    long getOpenedAt() {
+        return openedAt;
+    }
+
+    record Frame(String type, long fromSeq, long toSeq, String text, String status) {
+        static Frame chunk(long fromSeq, long toSeq, String text) {
+            return new Frame("chunk", fromSeq, toSeq, text, null);
+        }
+
+        static Frame end(String status) {
+            return new Frame("end", -1, -1, null, status);
+        }
+
+        boolean isEnd() {
+            return "end".equals(type);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.conversational.system.application.job;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+import com.conversational.system.application.authentication.json_web_token.JwtFilter;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ws://.../api/jobs/stream?jobId=... streams the answer of one of the user's jobs as it is generated.
+ * Browsers cannot set headers on a WebSocket, so the access token is offered as the subprotocols
+ * "bearer", "<token>" and JwtFilter authenticates the handshake from there.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobStreamWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
+    private final JobStreamRelay jobStreamRelay;
+    private final JobStateStore jobStateStore;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String jobId = session.getUri() != null
+                ? UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("jobId")
+                : null;
+        Integer userId = userId(session.getPrincipal());
+        Optional<JobState> job = jobId != null ? jobStateStore.getJobStatus(jobId) : Optional.empty();
+
+        if (userId == null || job.isEmpty() || !userId.equals(job.get().userId())) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Unknown job"));
+            return;
+        }
+        if (JobState.isTerminal(job.get().status())) {
+            jobStreamRelay.sendEnd(session, job.get().status());
+            return;
+        }
+        jobStreamRelay.register(jobId, session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        jobStreamRelay.unregister(session);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        jobStreamRelay.unregister(session);
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(JwtFilter.WEBSOCKET_BEARER_PROTOCOL);
+    }
+
+    private static Integer userId(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof CustomUserDetails userDetails)
+            return userDetails.getUser().getId();
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.conversational.system.application.job;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job state shared by all replicas through Redis.
+ * Each job is a hash under job:{jobId}; the conversation's active job id and last terminal status are kept
+ * under conversation_job:{conversationId} and conversation_job_status:{conversationId}. Everything expires
+ * after app.jobs.state-ttl-hours, and status transitions run as Lua scripts so they are atomic.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jobs.state-store", havingValue = "redis", matchIfMissing = true)
+public class RedisJobStateStore implements JobStateStore {
+    private static final String JOB_PREFIX = "job:";
+    private static final String ACTIVE_JOB_PREFIX = "conversation_job:";
+    private static final String LAST_STATUS_PREFIX = "conversation_job_status:";
+    private static final RedisScript<Long> START_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/job_start.lua"), Long.class);
+    private static final RedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            loadScript("redis/job_update.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public RedisJobStateStore(StringRedisTemplate redisTemplate,
+            @Value("${app.jobs.state-ttl-hours:24}") long ttlHours) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    @Override
+    public void startJob(String jobId, UUID conversationId, Integer userId) {
+        redisTemplate.execute(START_SCRIPT,
+                List.of(JOB_PREFIX + jobId, ACTIVE_JOB_PREFIX + conversationId, LAST_STATUS_PREFIX + conversationId),
+                jobId, conversationId.toString(), String.valueOf(ttl.toSeconds()),
+                String.valueOf(System.currentTimeMillis()), userId != null ? userId.toString() : "");
+    }
+
+    /* A completed answer saved as a message is not kept in the hash; JobService reloads it by messageId */
+    @Override
+    public boolean updateJob(String jobId, String status, String answer, String messageId) {
+        boolean keepAnswer = answer != null && (JobState.isError(status) || messageId == null);
+        Long applied = redisTemplate.execute(UPDATE_SCRIPT, List.of(JOB_PREFIX + jobId),
+                jobId, status, keepAnswer ? answer : "", messageId != null ? messageId : "",
+                String.valueOf(ttl.toSeconds()), String.valueOf(System.currentTimeMillis()),
+                ACTIVE_JOB_PREFIX, LAST_STATUS_PREFIX, JobState.isTerminal(status) ? "1" : "0");
+        return applied != null && applied == 1;
+    }
+
+    @Override
+    public Optional<JobState> getJob(String jobId) {
+        return readJob(jobId, true);
+    }
+
+    @Override
+    public Optional<JobState> getJobStatus(String jobId) {
+        return readJob(jobId, false);
+    }
+
+    private Optional<JobState> readJob(String jobId, boolean withAnswer) {
+        List<Object> fields = redisTemplate.opsForHash().multiGet(JOB_PREFIX + jobId, withAnswer
+                ? List.of("status", "conversationId", "userId", "messageId", "answer")
+                : List.of("status", "conversationId", "userId", "messageId"));
+        String status = (String) fields.get(0);
+        if (status == null)
+            return Optional.empty();
+        String conversationId = (String) fields.get(1);
+        String userId = (String) fields.get(2);
+        return Optional.of(new JobState(jobId, conversationId != null ? UUID.fromString(conversationId) : null,
+                userId != null ? Integer.valueOf(userId) : null, status, withAnswer ? (String) fields.get(4) : null,
+                (String) fields.get(3)));
+    }
+
+    @Override
+    public Optional<String> getActiveJobId(UUID conversationId) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(ACTIVE_JOB_PREFIX + conversationId));
+    }
+
+    @Override
+    public Optional<String> getLastTerminalStatus(UUID conversationId) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(LAST_STATUS_PREFIX + conversationId));
+    }
+
+    private static String loadScript(String path) {
+        try {
+            return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load Redis script: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.conversational.system.application.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared RabbitMQ publisher with correlated publisher confirms.
+ * Callers get a future that completes when the broker acks the message and fails on nack, timeout or
+ * a broken connection. A single sender thread drains queued messages and publishes everything queued
+ * so far on one channel, so batches grow with load without delaying a lone message. At most
+ * max-in-flight messages are queued or awaiting confirms; beyond that, publish blocks up to
+ * acquire-timeout-ms and then fails.
+ */
+@Slf4j
+@Component
+public class ConfirmedPublisher {
+    private final RabbitTemplate rabbitTemplate;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Counter ackedCounter;
+    private final Counter nackedCounter;
+    private final Counter timeoutCounter;
+    private final Counter errorCounter;
+    private final Counter rejectedCounter;
+    private final Timer confirmLatencyTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    @Value("${app.rabbit.publisher.max-in-flight:1024}")
+    private int maxInFlight;
+
+    @Value("${app.rabbit.publisher.batch-size:128}")
+    private int batchSize;
+
+    @Value("${app.rabbit.publisher.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${app.rabbit.publisher.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+
+    private Semaphore inFlight;
+    private Thread sender;
+    private volatile boolean running;
+
+    public ConfirmedPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.ackedCounter = Counter.builder("rabbit.publish").tag("result", "acked").register(meterRegistry);
+        this.nackedCounter = Counter.builder("rabbit.publish").tag("result", "nacked").register(meterRegistry);
+        this.timeoutCounter = Counter.builder("rabbit.publish").tag("result", "timeout").register(meterRegistry);
+        this.errorCounter = Counter.builder("rabbit.publish").tag("result", "error").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("rabbit.publish").tag("result", "rejected").register(meterRegistry);
+        this.confirmLatencyTimer = Timer.builder("rabbit.publish.confirm.latency")
+                .description("Time from publish to the broker's ack").register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("rabbit.publish.batch.size")
+                .description("Messages published per channel checkout").register(meterRegistry);
+        Gauge.builder("rabbit.publish.in_flight", this, ConfirmedPublisher::inFlightCount)
+                .description("Messages queued or awaiting a confirm").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        inFlight = new Semaphore(maxInFlight);
+        running = true;
+        sender = new Thread(this::sendLoop, "rabbit-publisher");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (sender != null) {
+            sender.interrupt();
+            sender.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pending -> fail(pending, new AmqpException("Publisher stopped")));
+    }
+
+    /* Publishes the payload (converted by the template's message converter, or sent as is when it already
+     * is a Message) to the default exchange with the given routing key. */
+    public CompletableFuture<Void> publish(String routingKey, Object payload) {
+        return publish(null, routingKey, payload);
+    }
+
+    /* Same, to the given exchange; null means the default exchange. */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Object payload) {
+        if (!running)
+            return CompletableFuture.failedFuture(new AmqpException("Publisher stopped"));
+        try {
+            if (!inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                return CompletableFuture.failedFuture(new AmqpException("Too many unconfirmed messages"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new AmqpException("Interrupted while waiting to publish"));
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        result.orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((ignored, error) -> {
+            inFlight.release();
+            if (error instanceof TimeoutException)
+                timeoutCounter.increment();
+        });
+        queue.add(new Pending(exchange, routingKey, payload, result, System.nanoTime()));
+        return result;
+    }
+
+    public int inFlightCount() {
+        return inFlight != null ? maxInFlight - inFlight.availablePermits() : 0;
+    }
+
+    private void sendLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Publisher iteration failed.", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // One dedicated channel for the whole batch; confirms arrive asynchronously on the correlation data
+    private void sendBatch(List<Pending> batch) {
+        batchSizeSummary.record(batch.size());
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (Pending pending : batch) {
+                    if (pending.result().isDone())
+                        continue;
+                    CorrelationData correlation = new CorrelationData();
+                    correlation.getFuture().whenComplete((confirm, error) -> {
+                        if (error != null)
+                            fail(pending, error);
+                        else if (confirm.isAck())
+                            ack(pending);
+                        else if (pending.result().completeExceptionally(
+                                new AmqpException("Message nacked by broker: " + confirm.getReason())))
+                            nackedCounter.increment();
+                    });
+                    if (pending.exchange() == null)
+                        operations.convertAndSend(pending.routingKey(), pending.payload(), correlation);
+                    else
+                        operations.convertAndSend(pending.exchange(), pending.routingKey(), pending.payload(),
+                                correlation);
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            log.warn("Failed to publish a batch of {} messages.", batch.size(), e);
+            batch.forEach(pending -> fail(pending, e));
+        }
+    }
+
+    private void ack(Pending pending) {
+        if (pending.result().complete(null)) {
+            ackedCounter.increment();
+            confirmLatencyTimer.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void fail(Pending pending, Throwable error) {
+        if (pending.result().completeExceptionally(error))
+            errorCounter.increment();
+    }
+
+    private record Pending(String exchange, String routingKey, Object payload, CompletableFuture<Void> result, long enqueuedAt) {
+    }
+}
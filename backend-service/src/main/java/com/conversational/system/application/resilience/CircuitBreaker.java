@@ -0,0 +1,102 @@
+package com.conversational.system.application.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ * After {@code failureThreshold} failures in a row the circuit opens and calls fail fast with
+ * CircuitBreakerOpenException. Once {@code openMillis} have passed a single trial call is let through:
+ * success closes the circuit, failure opens it again.
+ */
+@Slf4j
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Predicate<RuntimeException> isFailure;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+    private volatile long openedAt;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, Predicate<RuntimeException> isFailure,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.isFailure = isFailure;
+        this.successCounter = Counter.builder("circuit.breaker.calls").tag("name", name).tag("result", "success")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("circuit.breaker.calls").tag("name", name).tag("result", "failure")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("circuit.breaker.calls").tag("name", name).tag("result", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("circuit.breaker.state", state, current -> current.get().ordinal()).tag("name", name)
+                .description("0 = closed, 1 = open, 2 = half open").register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        if (!tryAcquirePermission()) {
+            rejectedCounter.increment();
+            throw new CircuitBreakerOpenException("Circuit breaker " + name + " is open.");
+        }
+        try {
+            T result = supplier.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (isFailure.test(e))
+                onFailure();
+            else
+                onSuccess(); // The dependency answered, the request itself was bad
+            throw e;
+        } catch (Throwable t) {
+            // Errors count as failures too, otherwise a half open trial would never settle
+            onFailure();
+            throw t;
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED)
+            return true;
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis)
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN); // only one trial call wins
+        return false;
+    }
+
+    private void onSuccess() {
+        successCounter.increment();
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED)
+            log.info("Circuit breaker {} closed.", name);
+    }
+
+    private void onFailure() {
+        failureCounter.increment();
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt = System.currentTimeMillis();
+            if (state.getAndSet(State.OPEN) != State.OPEN)
+                log.warn("Circuit breaker {} opened for {} ms.", name, openMillis);
+        }
+    }
+}
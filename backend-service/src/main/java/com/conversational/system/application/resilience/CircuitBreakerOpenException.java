@@ -0,0 +1,10 @@
+package com.conversational.system.application.resilience;
+
+/**
+ * Thrown instead of calling a dependency while its circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -1,19 +1,20 @@
 package com.conversational.system.application.visualization;
 
+import com.conversational.system.application.messaging.ConfirmedPublisher;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
 public class VisualizerService {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final ConfirmedPublisher confirmedPublisher;
     private final RedisTemplate<String, Object> redisTemplate;
 
     @Value("${app.queue.visualization}")
@@ -29,7 +30,12 @@ public class VisualizerService {
                 "context", context
         );
 
-        rabbitTemplate.convertAndSend(visualizationQueue, message);
+        // Wait for the broker's confirm so a lost request fails the call instead of leaving the client polling
+        try {
+            confirmedPublisher.publish(visualizationQueue, message).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to submit visualization job " + jobId, e.getCause());
+        }
 
         System.out.println("Visualization job submitted with jobId #" + jobId);
         
@@ -0,0 +1,21 @@
+-- Issues a one-time code for a user and invalidates the user's previous code of the same type.
+-- KEYS[1] per-user pointer to the current code
+-- KEYS[2] key of the new code (omitted to only revoke)
+-- ARGV[1] user id, ARGV[2] code key prefix, ARGV[3] ttl (ms), ARGV[4] new code
+-- The previous code is deleted only if it still belongs to this user, since 6-digit codes can be reused.
+local previous = redis.call('GET', KEYS[1])
+if previous and previous ~= ARGV[4] then
+    local previousKey = ARGV[2] .. previous
+    if redis.call('GET', previousKey) == ARGV[1] then
+        redis.call('DEL', previousKey)
+    end
+end
+
+if #KEYS < 2 then
+    redis.call('DEL', KEYS[1])
+    return 0
+end
+
+redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[3])
+redis.call('SET', KEYS[1], ARGV[4], 'PX', ARGV[3])
+return 1
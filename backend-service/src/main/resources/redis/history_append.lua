@@ -0,0 +1,20 @@
+-- Appends a committed message to the cached history of an agent conversation, keeping only the newest entries.
+-- KEYS[1] history list (entries "id<TAB>role<TAB>tokens<TAB>bytes<TAB>json", oldest first)
+-- KEYS[2] generation counter, bumped on every append so a load racing with it does not populate stale data
+-- ARGV[1] entry, ARGV[2] message id, ARGV[3] max entries, ARGV[4] ttl (s)
+redis.call('INCR', KEYS[2])
+redis.call('EXPIRE', KEYS[2], ARGV[4])
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+-- A load inside the writing transaction may already have cached this message
+local prefix = ARGV[2] .. '\t'
+for _, entry in ipairs(redis.call('LRANGE', KEYS[1], -8, -1)) do
+    if string.sub(entry, 1, #prefix) == prefix then
+        return 0
+    end
+end
+redis.call('RPUSH', KEYS[1], ARGV[1])
+redis.call('LTRIM', KEYS[1], -tonumber(ARGV[3]), -1)
+redis.call('EXPIRE', KEYS[1], ARGV[4])
+return 1
@@ -0,0 +1,12 @@
+-- Caches the history tail loaded from the database, unless a message was appended since the load started.
+-- KEYS[1] history list, KEYS[2] generation counter
+-- ARGV[1] generation read before the load ('' when absent), ARGV[2] ttl (s), ARGV[3..] entries, oldest first
+local generation = redis.call('GET', KEYS[2]) or ''
+if generation ~= ARGV[1] or redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+for i = 3, #ARGV do
+    redis.call('RPUSH', KEYS[1], ARGV[i])
+end
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+return 1
@@ -0,0 +1,14 @@
+-- Registers a pending job and makes it the active job of its conversation.
+-- KEYS[1] job hash {status, conversationId, userId, createdAt, updatedAt, answer, messageId}
+-- KEYS[2] active job id of the conversation
+-- KEYS[3] last terminal status of the conversation
+-- ARGV[1] job id, ARGV[2] conversation id, ARGV[3] ttl (s), ARGV[4] now (ms), ARGV[5] user id (may be empty)
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], 'status', 'pending', 'conversationId', ARGV[2], 'createdAt', ARGV[4], 'updatedAt', ARGV[4])
+if ARGV[5] ~= '' then
+    redis.call('HSET', KEYS[1], 'userId', ARGV[5])
+end
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[3])
+redis.call('DEL', KEYS[3])
+return 1
@@ -0,0 +1,35 @@
+-- Moves a job to a new status unless it already reached a terminal one.
+-- KEYS[1] job hash
+-- ARGV[1] job id, ARGV[2] new status, ARGV[3] answer or '' (left out once saved as a message),
+-- ARGV[4] message id or '',
+-- ARGV[5] ttl (s), ARGV[6] now (ms), ARGV[7] active job key prefix, ARGV[8] last status key prefix,
+-- ARGV[9] '1' when the new status is terminal
+-- The conversation keys are derived from the hash, so all job keys must live on one Redis node.
+-- Returns 1 when the transition was applied, 0 when the job was already finished.
+local current = redis.call('HGET', KEYS[1], 'status')
+if current == 'completed' or current == 'failed' or current == 'error' or current == 'cancelled' then
+    return 0
+end
+
+redis.call('HSET', KEYS[1], 'status', ARGV[2], 'updatedAt', ARGV[6])
+if ARGV[3] ~= '' then
+    redis.call('HSET', KEYS[1], 'answer', ARGV[3])
+end
+if ARGV[4] ~= '' then
+    redis.call('HSET', KEYS[1], 'messageId', ARGV[4])
+end
+redis.call('EXPIRE', KEYS[1], ARGV[5])
+
+if ARGV[9] == '1' then
+    local conversationId = redis.call('HGET', KEYS[1], 'conversationId')
+    if conversationId then
+        local activeKey = ARGV[7] .. conversationId
+        local active = redis.call('GET', activeKey)
+        -- A newer job of the same conversation keeps its own active and last status entries
+        if not active or active == ARGV[1] then
+            redis.call('DEL', activeKey)
+            redis.call('SET', ARGV[8] .. conversationId, ARGV[2], 'EX', ARGV[5])
+        end
+    end
+end
+return 1
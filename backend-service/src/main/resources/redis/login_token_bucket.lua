@@ -0,0 +1,39 @@
+-- Token buckets for login attempts, checked and consumed atomically.
+-- KEYS[i]            bucket hash {tokens, ts}
+-- ARGV[2i-1], ARGV[2i] capacity and refill interval (ms per token) of KEYS[i]
+-- Returns 0 when one token was taken from every bucket, otherwise the milliseconds
+-- until all buckets hold a token again (nothing is consumed in that case).
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local tokens = {}
+local wait = 0
+for i, key in ipairs(KEYS) do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local interval = tonumber(ARGV[2 * i])
+    local state = redis.call('HMGET', key, 'tokens', 'ts')
+    local available = tonumber(state[1])
+    local ts = tonumber(state[2])
+    if available == nil or ts == nil then
+        available = capacity
+    else
+        available = math.min(capacity, available + math.max(0, now - ts) / interval)
+    end
+    tokens[i] = available
+    if available < 1 then
+        wait = math.max(wait, math.ceil((1 - available) * interval))
+    end
+end
+
+if wait > 0 then
+    return wait
+end
+
+for i, key in ipairs(KEYS) do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local interval = tonumber(ARGV[2 * i])
+    redis.call('HSET', key, 'tokens', tokens[i] - 1, 'ts', now)
+    -- An idle bucket refills completely after capacity * interval, so it can simply expire then
+    redis.call('PEXPIRE', key, math.ceil(capacity * interval))
+end
+return 0
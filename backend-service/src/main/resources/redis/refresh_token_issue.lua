@@ -0,0 +1,12 @@
+-- Stores a new refresh token and adds it to its owner's index, both expiring with the token.
+-- KEYS[1] refresh token hash {uid, hash}
+-- KEYS[2] set of the user's refresh token ids
+-- ARGV[1] uid
+-- ARGV[2] SHA-256 of the secret
+-- ARGV[3] token id
+-- ARGV[4] time to live (ms)
+redis.call('HSET', KEYS[1], 'uid', ARGV[1], 'hash', ARGV[2])
+redis.call('PEXPIRE', KEYS[1], ARGV[4])
+redis.call('SADD', KEYS[2], ARGV[3])
+redis.call('PEXPIRE', KEYS[2], ARGV[4])
+return 1
@@ -0,0 +1,26 @@
+-- Rotates a refresh token: marks it as used and returns its owner.
+-- KEYS[1] refresh token hash {uid, hash, rotated}
+-- ARGV[1] SHA-256 of the presented secret
+-- ARGV[2] how long a used token is kept to detect replays (ms)
+-- ARGV[3] grace period for concurrent refreshes of the same token (ms)
+-- Returns uid on success, 0 when the token is unknown or within the grace period,
+-- and -uid when an already rotated token is replayed.
+local data = redis.call('HMGET', KEYS[1], 'uid', 'hash', 'rotated')
+if not data[1] or data[2] ~= ARGV[1] then
+    return 0
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local uid = tonumber(data[1])
+
+if data[3] then
+    if now - tonumber(data[3]) < tonumber(ARGV[3]) then
+        return 0
+    end
+    return -uid
+end
+
+redis.call('HSET', KEYS[1], 'rotated', now)
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return uid
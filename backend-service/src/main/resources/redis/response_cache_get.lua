@@ -0,0 +1,10 @@
+-- Reads a cached agent response and marks it as recently used.
+-- KEYS[1] response, KEYS[2] recency index (sorted set of request hashes scored by last use)
+-- ARGV[1] now (ms), ARGV[2] request hash
+local response = redis.call('GET', KEYS[1])
+if response then
+    redis.call('ZADD', KEYS[2], ARGV[1], ARGV[2])
+else
+    redis.call('ZREM', KEYS[2], ARGV[2])
+end
+return response
@@ -0,0 +1,15 @@
+-- Caches an agent response and evicts the least recently used ones beyond the capacity.
+-- KEYS[1] response, KEYS[2] recency index (sorted set of request hashes scored by last use)
+-- ARGV[1] response, ARGV[2] ttl (s), ARGV[3] now (ms), ARGV[4] request hash, ARGV[5] max entries,
+-- ARGV[6] response key prefix
+redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+redis.call('ZADD', KEYS[2], ARGV[3], ARGV[4])
+local overflow = redis.call('ZCARD', KEYS[2]) - tonumber(ARGV[5])
+if overflow <= 0 then
+    return 0
+end
+local evicted = redis.call('ZPOPMIN', KEYS[2], overflow)
+for i = 1, #evicted, 2 do
+    redis.call('DEL', ARGV[6] .. evicted[i])
+end
+return overflow
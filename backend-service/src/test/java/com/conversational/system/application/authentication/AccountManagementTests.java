@@ -22,7 +22,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.conversational.system.application.authentication.email_sender.EmailSender;
 import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.authentication.json_web_token.RefreshTokenService;
+import com.conversational.system.application.authentication.json_web_token.TokenVersionService;
 import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserCache;
 import com.conversational.system.application.entities.user.UserRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +52,15 @@ public class AccountManagementTests {
     @Mock
     private CodeCacheService codeCacheService;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -60,20 +72,20 @@ public class AccountManagementTests {
         user.setId(userId);
         user.setVerified(false);
 
-        when(codeCacheService.getUserIdByVerificationCode(verificationCode)).thenReturn(userId);
+        when(codeCacheService.consumeVerificationCode(verificationCode)).thenReturn(userId);
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         authenticationService.verifyAccount(verificationCode);
 
         assertTrue(user.isVerified());
         verify(userRepository).save(user);
-        verify(codeCacheService).deleteVerificationCode(verificationCode);
+        verify(codeCacheService).consumeVerificationCode(verificationCode);
     }
 
     @Test
     void verifyAccount_ShouldThrowException_WhenCodeIsInvalid() {
         String verificationCode = "invalid-code";
-        when(codeCacheService.getUserIdByVerificationCode(verificationCode)).thenReturn(null);
+        when(codeCacheService.consumeVerificationCode(verificationCode)).thenReturn(null);
 
         assertThrows(RuntimeException.class, () -> {
             authenticationService.verifyAccount(verificationCode);
@@ -117,7 +129,7 @@ public class AccountManagementTests {
         User user = new User("test@example.com", "testuser", "oldpassword");
         user.setId(userId);
 
-        when(codeCacheService.getUserIdByPasswordResetCode(resetCode)).thenReturn(userId);
+        when(codeCacheService.consumePasswordResetCode(resetCode)).thenReturn(userId);
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(passwordEncoder.encode(newPassword)).thenReturn(encodedPassword);
 
@@ -125,13 +137,13 @@ public class AccountManagementTests {
 
         assertEquals(encodedPassword, user.getPasswordHash());
         verify(userRepository).save(user);
-        verify(codeCacheService).deletePasswordResetCode(resetCode);
+        verify(codeCacheService).consumePasswordResetCode(resetCode);
     }
 
     @Test
     void resetPassword_ShouldThrowException_WhenCodeIsInvalid() {
         String resetCode = "invalid-reset-code";
-        when(codeCacheService.getUserIdByPasswordResetCode(resetCode)).thenReturn(null);
+        when(codeCacheService.consumePasswordResetCode(resetCode)).thenReturn(null);
 
         assertThrows(RuntimeException.class, () -> {
             authenticationService.resetPassword(resetCode, "newPassword");
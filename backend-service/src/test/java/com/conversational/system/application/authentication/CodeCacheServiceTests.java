@@ -0,0 +1,53 @@
+package com.conversational.system.application.authentication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+@ExtendWith(MockitoExtension.class)
+public class CodeCacheServiceTests {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private CodeCacheService codeCacheService;
+
+    @Test
+    void consumeVerificationCode_ShouldGetAndDeleteInOneCommand() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndDelete("verification:123456")).thenReturn("42");
+
+        assertEquals(42, codeCacheService.consumeVerificationCode("123456"));
+    }
+
+    @Test
+    void consumePasswordResetCode_ShouldReturnNull_WhenCodeIsUnknownOrUsed() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndDelete("password_reset:123456")).thenReturn(null);
+
+        assertNull(codeCacheService.consumePasswordResetCode("123456"));
+    }
+
+    @Test
+    void issueCodes_ShouldUseSinglePipeline_ForManyUsers() {
+        codeCacheService.issueCodes(CodeCacheService.CodeType.VERIFICATION, Map.of(1, "111111", 2, "222222"));
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+}
@@ -22,6 +22,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import com.conversational.system.application.authentication.email_sender.EmailSender;
 import com.conversational.system.application.authentication.json_web_token.JwtService;
 import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserCache;
 import com.conversational.system.application.entities.user.UserRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +49,9 @@ public class EmailVerificationTests {
     @Mock
     private CodeCacheService codeCacheService;
 
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -65,7 +69,7 @@ public class EmailVerificationTests {
     @Test
     void testVerifyAccount_WithValidCode_ShouldSucceed() {
         // Arrange
-        when(codeCacheService.getUserIdByVerificationCode(verificationCode))
+        when(codeCacheService.consumeVerificationCode(verificationCode))
                 .thenReturn(testUser.getId());
         when(userRepository.findById(testUser.getId()))
                 .thenReturn(Optional.of(testUser));
@@ -75,10 +79,9 @@ public class EmailVerificationTests {
         authenticationService.verifyAccount(verificationCode);
 
         // Assert
-        verify(codeCacheService).getUserIdByVerificationCode(verificationCode);
+        verify(codeCacheService).consumeVerificationCode(verificationCode);
         verify(userRepository).findById(testUser.getId());
         verify(userRepository).save(testUser);
-        verify(codeCacheService).deleteVerificationCode(verificationCode);
         assertTrue(testUser.isVerified());
     }
 
@@ -86,7 +89,7 @@ public class EmailVerificationTests {
     void testVerifyAccount_WithInvalidCode_ShouldThrowException() {
         // Arrange
         String invalidCode = "999999";
-        when(codeCacheService.getUserIdByVerificationCode(invalidCode))
+        when(codeCacheService.consumeVerificationCode(invalidCode))
                 .thenReturn(null);
 
         // Act & Assert
@@ -94,7 +97,7 @@ public class EmailVerificationTests {
             authenticationService.verifyAccount(invalidCode);
         });
 
-        verify(codeCacheService).getUserIdByVerificationCode(invalidCode);
+        verify(codeCacheService).consumeVerificationCode(invalidCode);
         verify(userRepository, never()).findById(any());
         verify(userRepository, never()).save(any(User.class));
     }
@@ -102,7 +105,7 @@ public class EmailVerificationTests {
     @Test
     void testVerifyAccount_WithExpiredCode_ShouldThrowException() {
         // Arrange - code exists but user not found (code expired and user deleted)
-        when(codeCacheService.getUserIdByVerificationCode(verificationCode))
+        when(codeCacheService.consumeVerificationCode(verificationCode))
                 .thenReturn(999);
         when(userRepository.findById(999))
                 .thenReturn(Optional.empty());
@@ -112,7 +115,7 @@ public class EmailVerificationTests {
             authenticationService.verifyAccount(verificationCode);
         });
 
-        verify(codeCacheService).getUserIdByVerificationCode(verificationCode);
+        verify(codeCacheService).consumeVerificationCode(verificationCode);
         verify(userRepository).findById(999);
         verify(userRepository, never()).save(any(User.class));
     }
@@ -0,0 +1,144 @@
+package com.conversational.system.application.authentication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.conversational.system.application.config.HttpClientConfig;
+import com.conversational.system.application.resilience.CircuitBreakerOpenException;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GitHubEmailLookupTests {
+    private static final String EMAILS_JSON = "[{\"email\":\"other@example.com\",\"primary\":false},"
+            + "{\"email\":\"octocat@example.com\",\"primary\":true}]";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long responseDelayMs;
+    private volatile int responseStatus = 200;
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private OAuth2Service oauth2Service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/user/emails", exchange -> {
+            requests.incrementAndGet();
+            sleep(responseDelayMs);
+            byte[] body = EMAILS_JSON.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        connectionManager = httpClientConfig.outboundConnectionManager(4, 4, 500, 300, meterRegistry);
+        httpClient = httpClientConfig.outboundHttpClient(connectionManager, 300, 500);
+        RestTemplate restTemplate = httpClientConfig.restTemplate(new RestTemplateBuilder(), httpClient);
+
+        OAuth2AuthorizedClientService authorizedClientService = mock(OAuth2AuthorizedClientService.class);
+        OAuth2AuthorizedClient authorizedClient = mock(OAuth2AuthorizedClient.class);
+        when(authorizedClientService.loadAuthorizedClient("github", "octocat")).thenReturn(authorizedClient);
+        when(authorizedClient.getAccessToken()).thenReturn(new OAuth2AccessToken(
+                OAuth2AccessToken.TokenType.BEARER, "gho_token", Instant.now(), Instant.now().plusSeconds(60)));
+
+        String emailsUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/user/emails";
+        oauth2Service = new OAuth2Service(authorizedClientService, restTemplate,
+                new GitHubEmailCache(100, 600, meterRegistry), meterRegistry, emailsUrl, 2, 60);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.stop(0);
+        httpClient.close();
+        connectionManager.close();
+    }
+
+    @Test
+    void extractEmail_ShouldReturnPrimaryEmail_AndServeRepeatLoginFromCache() {
+        OAuth2User user = gitHubUser(42);
+
+        assertEquals("octocat@example.com", oauth2Service.extractEmail(user, "github", "octocat"));
+        assertEquals("octocat@example.com", oauth2Service.extractEmail(user, "github", "octocat"));
+
+        assertEquals(1, requests.get());
+        assertEquals(1.0, meterRegistry.get("github.email.cache").tag("result", "hit").counter().count());
+        assertTrue(meterRegistry.find("httpcomponents.httpclient.pool.total.max").gauge() != null);
+    }
+
+    @Test
+    void extractEmail_ShouldTimeOut_WhenGitHubIsSlow() {
+        responseDelayMs = 2000;
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> oauth2Service.extractEmail(gitHubUser(1), "github", "octocat"));
+
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1500);
+    }
+
+    @Test
+    void extractEmail_ShouldFailFast_WhenCircuitIsOpen() {
+        responseDelayMs = 2000;
+        assertThrows(ResourceAccessException.class, () -> oauth2Service.extractEmail(gitHubUser(1), "github", "octocat"));
+        assertThrows(ResourceAccessException.class, () -> oauth2Service.extractEmail(gitHubUser(2), "github", "octocat"));
+        int requestsBeforeOpen = requests.get();
+
+        assertThrows(CircuitBreakerOpenException.class,
+                () -> oauth2Service.extractEmail(gitHubUser(3), "github", "octocat"));
+        assertEquals(requestsBeforeOpen, requests.get());
+    }
+
+    @Test
+    void extractEmail_ShouldNotOpenCircuit_OnClientErrors() {
+        responseStatus = 401;
+        for (int i = 0; i < 3; i++) {
+            int id = i;
+            assertThrows(RuntimeException.class, () -> oauth2Service.extractEmail(gitHubUser(id), "github", "octocat"));
+        }
+
+        assertEquals(3, requests.get());
+    }
+
+    private static OAuth2User gitHubUser(int id) {
+        OAuth2User user = mock(OAuth2User.class);
+        when(user.getAttribute("id")).thenReturn(id);
+        return user;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
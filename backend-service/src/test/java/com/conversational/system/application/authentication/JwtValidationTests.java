@@ -0,0 +1,120 @@
+package com.conversational.system.application.authentication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.authentication.json_web_token.VerifiedTokenCache;
+import com.conversational.system.application.entities.user.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JwtValidationTests {
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(2, meterRegistry);
+        jwtService = createJwtService(verifiedTokenCache, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Test
+    void validateToken_ShouldReturnClaims_WhenTokenIsValid() {
+        String token = jwtService.generateJWToken(testUser("testuser"));
+
+        Claims claims = jwtService.validateToken(token);
+
+        assertEquals("testuser", claims.getSubject());
+    }
+
+    @Test
+    void validateToken_ShouldVerifySignatureOnce_WhenTokenIsReused() {
+        String token = jwtService.generateJWToken(testUser("testuser"));
+
+        for (int i = 0; i < 5; i++) {
+            jwtService.validateToken(token);
+        }
+
+        assertEquals(1.0, meterRegistry.get("jwt.token.cache").tag("result", "miss").counter().count());
+        assertEquals(4.0, meterRegistry.get("jwt.token.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void validateToken_ShouldThrowException_WhenTokenIsTampered() {
+        String token = jwtService.generateJWToken(testUser("testuser"));
+        jwtService.validateToken(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.validateToken(tampered));
+    }
+
+    @Test
+    void validateToken_ShouldThrowException_WhenTokenIsExpired() {
+        JwtService expiredJwtService = createJwtService(verifiedTokenCache, -1000);
+        String token = expiredJwtService.generateJWToken(testUser("testuser"));
+
+        assertThrows(JwtException.class, () -> expiredJwtService.validateToken(token));
+        assertEquals(0, verifiedTokenCache.size());
+    }
+
+    @Test
+    void cache_ShouldStayBounded_WhenManyTokensAreVerified() {
+        for (int i = 0; i < 10; i++) {
+            jwtService.validateToken(jwtService.generateJWToken(testUser("user" + i)));
+        }
+
+        assertTrue(verifiedTokenCache.size() <= 2);
+    }
+
+    @Test
+    void buildUserDetails_ShouldRebuildPrincipalFromClaims_WithoutDatabase() {
+        User user = testUser("testuser");
+        user.setTokenVersion(3);
+        Claims claims = jwtService.validateToken(jwtService.generateJWToken(user));
+
+        CustomUserDetails userDetails = jwtService.buildUserDetails(claims).orElseThrow();
+
+        assertEquals(1, userDetails.getUser().getId());
+        assertEquals("testuser", userDetails.getUsername());
+        assertTrue(userDetails.isEnabled());
+        assertEquals("USER", userDetails.getAuthorities().iterator().next().getAuthority());
+        assertEquals(3, claims.get(JwtService.TOKEN_VERSION_CLAIM, Integer.class));
+    }
+
+    @Test
+    void buildUserDetails_ShouldReturnEmpty_WhenTokenHasNoPrincipalClaims() {
+        Claims claims = Jwts.claims().subject("testuser").build();
+
+        assertTrue(jwtService.buildUserDetails(claims).isEmpty());
+    }
+
+    private static User testUser(String username) {
+        User user = new User(username + "@example.com", username, "hash");
+        user.setId(1);
+        user.setVerified(true);
+        return user;
+    }
+
+    private static JwtService createJwtService(VerifiedTokenCache cache, long expiration) {
+        JwtService service = new JwtService(cache);
+        ReflectionTestUtils.setField(service, "secret", "test-secret-that-is-long-enough-for-hmac-sha-256");
+        ReflectionTestUtils.setField(service, "expiration", expiration);
+        service.init();
+        return service;
+    }
+}
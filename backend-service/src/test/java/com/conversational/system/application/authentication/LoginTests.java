@@ -3,7 +3,6 @@ package com.conversational.system.application.authentication;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -20,6 +19,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 
 import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.entities.user.User;
 
 @ExtendWith(MockitoExtension.class)
 public class LoginTests {
@@ -50,7 +50,7 @@ public class LoginTests {
         // MAKE SURE TOKEN WAS NOT GENERATED
         assertTrue(thrown.getMessage().contains("Account is not verified"));
         assertTrue(thrown.getMessage().contains(username));
-        verify(jwtService, never()).generateJWToken(anyString());
+        verify(jwtService, never()).generateJWToken(any(User.class));
     }
 
     @Test
@@ -69,7 +69,7 @@ public class LoginTests {
         // MAKE SURE TOKEN WAS NOT GENERATED & ERROR MESSAGE IS CORRECT
         assertTrue(thrown.getMessage().contains("Authentication failed"));
         assertTrue(thrown.getMessage().contains(username));
-        verify(jwtService, never()).generateJWToken(anyString());
+        verify(jwtService, never()).generateJWToken(any(User.class));
     }
 
     @Test
@@ -88,7 +88,7 @@ public class LoginTests {
         // MAKE SURE TOKEN WAS NOT GENERATED & ERROR MESSAGE IS CORRECT
         assertTrue(thrown.getMessage().contains("Authentication failed"));
         assertTrue(thrown.getMessage().contains(username));
-        verify(jwtService, never()).generateJWToken(anyString());
+        verify(jwtService, never()).generateJWToken(any(User.class));
     }
 
     @Test
@@ -100,6 +100,6 @@ public class LoginTests {
 
         // MAKE SURE TOKEN WAS NOT GENERATED & NO AUTHENTICATION ATTEMPT WAS MADE
         verify(authenticationManager, never()).authenticate(any());
-        verify(jwtService, never()).generateJWToken(anyString());
+        verify(jwtService, never()).generateJWToken(any(User.class));
     }
 }
@@ -21,6 +21,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.conversational.system.application.authentication.email_sender.EmailSender;
 import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.authentication.json_web_token.RefreshTokenService;
+import com.conversational.system.application.authentication.json_web_token.TokenVersionService;
+import com.conversational.system.application.authentication.password_hashing.PasswordHashingUnavailableException;
 import com.conversational.system.application.entities.user.User;
 import com.conversational.system.application.entities.user.UserRepository;
 
@@ -48,6 +51,12 @@ public class PasswordResetTests {
     @Mock
     private CodeCacheService codeCacheService;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -101,7 +110,7 @@ public class PasswordResetTests {
     @Test
     void testResetPassword_WithValidCode_ShouldSucceed() {
         // Arrange
-        when(codeCacheService.getUserIdByPasswordResetCode(resetCode))
+        when(codeCacheService.consumePasswordResetCode(resetCode))
                 .thenReturn(testUser.getId());
         when(userRepository.findById(testUser.getId()))
                 .thenReturn(Optional.of(testUser));
@@ -113,11 +122,11 @@ public class PasswordResetTests {
         authenticationService.resetPassword(resetCode, newPassword);
 
         // Assert
-        verify(codeCacheService).getUserIdByPasswordResetCode(resetCode);
+        verify(codeCacheService).consumePasswordResetCode(resetCode);
         verify(userRepository).findById(testUser.getId());
         verify(passwordEncoder).encode(newPassword);
         verify(userRepository).save(testUser);
-        verify(codeCacheService).deletePasswordResetCode(resetCode);
+        verify(refreshTokenService).revokeAll(testUser.getId());
         assertEquals(encodedNewPassword, testUser.getPasswordHash());
     }
 
@@ -125,7 +134,7 @@ public class PasswordResetTests {
     void testResetPassword_WithInvalidCode_ShouldThrowException() {
         // Arrange
         String invalidCode = "999999";
-        when(codeCacheService.getUserIdByPasswordResetCode(invalidCode))
+        when(codeCacheService.consumePasswordResetCode(invalidCode))
                 .thenReturn(null);
 
         // Act & Assert
@@ -133,7 +142,7 @@ public class PasswordResetTests {
             authenticationService.resetPassword(invalidCode, newPassword);
         });
 
-        verify(codeCacheService).getUserIdByPasswordResetCode(invalidCode);
+        verify(codeCacheService).consumePasswordResetCode(invalidCode);
         verify(userRepository, never()).findById(any());
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any(User.class));
@@ -142,7 +151,7 @@ public class PasswordResetTests {
     @Test
     void testResetPassword_WithExpiredCode_ShouldThrowException() {
         // Arrange - code exists but user not found (code expired)
-        when(codeCacheService.getUserIdByPasswordResetCode(resetCode))
+        when(codeCacheService.consumePasswordResetCode(resetCode))
                 .thenReturn(999);
         when(userRepository.findById(999))
                 .thenReturn(Optional.empty());
@@ -152,7 +161,7 @@ public class PasswordResetTests {
             authenticationService.resetPassword(resetCode, newPassword);
         });
 
-        verify(codeCacheService).getUserIdByPasswordResetCode(resetCode);
+        verify(codeCacheService).consumePasswordResetCode(resetCode);
         verify(userRepository).findById(999);
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any(User.class));
@@ -167,7 +176,7 @@ public class PasswordResetTests {
         String encodedWeakPassword = "encoded123";
 
         // Arrange
-        when(codeCacheService.getUserIdByPasswordResetCode(resetCode))
+        when(codeCacheService.consumePasswordResetCode(resetCode))
                 .thenReturn(testUser.getId());
         when(userRepository.findById(testUser.getId()))
                 .thenReturn(Optional.of(testUser));
@@ -183,4 +192,23 @@ public class PasswordResetTests {
         verify(userRepository).save(testUser);
         assertEquals(encodedWeakPassword, testUser.getPasswordHash());
     }
+
+    @Test
+    void testResetPassword_WhenHashingIsOverloaded_ShouldRestoreCode() {
+        // Arrange
+        when(codeCacheService.consumePasswordResetCode(resetCode))
+                .thenReturn(testUser.getId());
+        when(userRepository.findById(testUser.getId()))
+                .thenReturn(Optional.of(testUser));
+        when(passwordEncoder.encode(newPassword))
+                .thenThrow(new PasswordHashingUnavailableException("overloaded"));
+
+        // Act & Assert
+        assertThrows(PasswordHashingUnavailableException.class, () -> {
+            authenticationService.resetPassword(resetCode, newPassword);
+        });
+
+        verify(codeCacheService).savePasswordResetCode(resetCode, testUser.getId());
+        verify(userRepository, never()).save(any(User.class));
+    }
 }
@@ -0,0 +1,180 @@
+package com.conversational.system.application.authentication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.conversational.system.application.authentication.json_web_token.AccessTokenRevocationService;
+import com.conversational.system.application.authentication.json_web_token.BloomFilter;
+import com.conversational.system.application.authentication.json_web_token.RefreshTokenService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationTests {
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    private AccessTokenRevocationService revocationService;
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new AccessTokenRevocationService(redisTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationService, "expectedRevocations", 1000);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(revocationService, "revokedTokens", new BloomFilter(1000, 0.001));
+        refreshTokenService = new RefreshTokenService(redisTemplate);
+        ReflectionTestUtils.setField(refreshTokenService, "reuseDetectionHours", 24L);
+        ReflectionTestUtils.setField(refreshTokenService, "graceSeconds", 10L);
+    }
+
+    @Test
+    void bloomFilter_ShouldNeverMissAddedValues_AndRarelyReportOthers() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++)
+            filter.add("revoked-" + i);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("revoked-" + i));
+            if (filter.mightContain("active-" + i))
+                falsePositives++;
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void isRevoked_ShouldNotTouchRedis_WhenTokenWasNeverRevoked() {
+        assertFalse(revocationService.isRevoked("never-revoked"));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void isRevoked_ShouldConfirmInRedis_WhenFilterMatches() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.score("revoked_access_tokens", "logged-out")).thenReturn(1.0);
+
+        revocationService.revoke("logged-out", new Date(System.currentTimeMillis() + 60_000));
+
+        assertTrue(revocationService.isRevoked("logged-out"));
+        verify(zSetOperations).add(eq("revoked_access_tokens"), eq("logged-out"), anyDouble());
+    }
+
+    @Test
+    void isRevoked_ShouldFailClosed_WhenRedisIsDownForFlaggedToken() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        revocationService.revoke("logged-out", new Date(System.currentTimeMillis() + 60_000));
+        when(zSetOperations.score(anyString(), anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(revocationService.isRevoked("logged-out"));
+    }
+
+    @Test
+    void sync_ShouldRebuildFilterFromRedis() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq("revoked_access_tokens"), anyDouble(), anyDouble()))
+                .thenReturn(Set.of("revoked-elsewhere"));
+        when(zSetOperations.score("revoked_access_tokens", "revoked-elsewhere")).thenReturn(1.0);
+
+        ReflectionTestUtils.invokeMethod(revocationService, "sync");
+
+        assertTrue(revocationService.isRevoked("revoked-elsewhere"));
+    }
+
+    @Test
+    void sync_ShouldKeepTokensRevoked_WhileItReadsRedis() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq("revoked_access_tokens"), anyDouble(), anyDouble())).thenAnswer(read -> {
+            revocationService.revoke("revoked-meanwhile", new Date(System.currentTimeMillis() + 60_000));
+            return Set.of();
+        });
+        when(zSetOperations.score("revoked_access_tokens", "revoked-meanwhile")).thenReturn(1.0);
+
+        ReflectionTestUtils.invokeMethod(revocationService, "sync");
+
+        assertTrue(revocationService.isRevoked("revoked-meanwhile"));
+    }
+
+    @Test
+    void issue_ShouldStoreTokenAndIndex_InOneScript() {
+        ReflectionTestUtils.setField(refreshTokenService, "expirationDays", 14L);
+
+        String token = refreshTokenService.issue(7);
+
+        String id = token.substring(0, token.indexOf('.'));
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(List.of("refresh_token:" + id, "refresh_tokens:7")), eq("7"), anyString(), eq(id),
+                eq(String.valueOf(Duration.ofDays(14).toMillis())));
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    void rotate_ShouldReturnOwner_WhenTokenIsValid() {
+        stubRotateScript(7L);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        assertEquals(7, refreshTokenService.rotate("token-id.secret"));
+        verify(setOperations).remove("refresh_tokens:7", "token-id");
+    }
+
+    @Test
+    void rotate_ShouldRevokeAllUserTokens_WhenRotatedTokenIsReplayed() {
+        stubRotateScript(-7L);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("refresh_tokens:7")).thenReturn(Set.of("other-id"));
+
+        assertThrows(RuntimeException.class, () -> refreshTokenService.rotate("token-id.secret"));
+        verify(redisTemplate).delete(List.of("refresh_tokens:7", "refresh_token:other-id"));
+    }
+
+    @Test
+    void rotate_ShouldThrowException_WhenTokenIsMalformedOrUnknown() {
+        assertThrows(RuntimeException.class, () -> refreshTokenService.rotate("no-separator"));
+        verify(redisTemplate, never()).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class));
+
+        stubRotateScript(0L);
+        assertThrows(RuntimeException.class, () -> refreshTokenService.rotate("token-id.secret"));
+    }
+
+    private void stubRotateScript(Long result) {
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of("refresh_token:token-id")),
+                any(Object[].class))).thenReturn(result);
+    }
+}
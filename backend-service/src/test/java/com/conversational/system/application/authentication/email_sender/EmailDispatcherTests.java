@@ -0,0 +1,136 @@
+package com.conversational.system.application.authentication.email_sender;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.conversational.system.application.entities.email.OutboundEmail;
+import com.conversational.system.application.entities.email.OutboundEmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailDispatcherTests {
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private JavaMailSenderImpl mailSender;
+    private EmailDispatcher emailDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        emailDispatcher = new EmailDispatcher(outboundEmailRepository, mailSender, transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(emailDispatcher, "fromEmail", "no-reply@example.com");
+        ReflectionTestUtils.setField(emailDispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(emailDispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(emailDispatcher, "initialBackoffMs", 1000L);
+        ReflectionTestUtils.setField(emailDispatcher, "lockTimeoutMs", 60000L);
+    }
+
+    @Test
+    void dispatchBatch_ShouldDeliverWholeBatch_AndMarkEmailsSent() throws Exception {
+        List<OutboundEmail> batch = List.of(
+                new OutboundEmail("first@example.com", "Account verification", "<p>123456</p>"),
+                new OutboundEmail("second@example.com", "Account verification", "<p>654321</p>"),
+                new OutboundEmail("third@example.com", "Password reset request", "<p>reset</p>"));
+        stubClaimableEmails(batch);
+
+        assertEquals(3, emailDispatcher.dispatchBatch());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Account verification", received[0].getSubject());
+        batch.forEach(email -> {
+            assertEquals(OutboundEmail.Status.SENT, email.getStatus());
+            assertEquals(0, email.getAttempts());
+            assertEquals("", email.getBody());
+        });
+    }
+
+    @Test
+    void purgeFinished_ShouldDeleteSentAndFailedEmails_OlderThanRetention() {
+        ReflectionTestUtils.setField(emailDispatcher, "enabled", true);
+        ReflectionTestUtils.setField(emailDispatcher, "retentionHours", 24L);
+
+        emailDispatcher.purgeFinished();
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboundEmailRepository).deleteFinishedBefore(
+                eq(List.of(OutboundEmail.Status.SENT, OutboundEmail.Status.FAILED)), before.capture());
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+    }
+
+    @Test
+    void dispatchBatch_ShouldScheduleRetryWithBackoff_WhenSmtpServerIsUnavailable() {
+        mailSender.setPort(ServerSetupTest.SMTP.getPort() + 1);
+        OutboundEmail email = new OutboundEmail("user@example.com", "Account verification", "<p>123456</p>");
+        stubClaimableEmails(List.of(email));
+
+        emailDispatcher.dispatchBatch();
+
+        assertEquals(OutboundEmail.Status.PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertTrue(email.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void dispatchBatch_ShouldGiveUp_AfterMaxAttempts() {
+        mailSender.setPort(ServerSetupTest.SMTP.getPort() + 1);
+        OutboundEmail email = new OutboundEmail("user@example.com", "Account verification", "<p>123456</p>");
+        email.setAttempts(2);
+        stubClaimableEmails(List.of(email));
+
+        emailDispatcher.dispatchBatch();
+
+        assertEquals(OutboundEmail.Status.FAILED, email.getStatus());
+        assertEquals(3, email.getAttempts());
+    }
+
+    @Test
+    void enqueue_ShouldOnlyPersistEmail_WithoutContactingSmtpServer() {
+        emailDispatcher.enqueue("user@example.com", "Account verification", "<p>123456</p>");
+
+        ArgumentCaptor<OutboundEmail> captor = ArgumentCaptor.forClass(OutboundEmail.class);
+        verify(outboundEmailRepository).save(captor.capture());
+        assertEquals(OutboundEmail.Status.PENDING, captor.getValue().getStatus());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    private void stubClaimableEmails(List<OutboundEmail> emails) {
+        when(outboundEmailRepository.findClaimable(eq(OutboundEmail.Status.PENDING), eq(OutboundEmail.Status.SENDING),
+                any(LocalDateTime.class), any())).thenReturn(emails);
+        when(outboundEmailRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+}
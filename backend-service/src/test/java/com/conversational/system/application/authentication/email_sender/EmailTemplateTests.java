@@ -0,0 +1,86 @@
+package com.conversational.system.application.authentication.email_sender;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class EmailTemplateTests {
+
+    @Test
+    void render_ShouldFillSlots_InTemplateOrder() {
+        EmailTemplate template = EmailTemplate.compile("test", "<p>Hi {{username}}</p><a href=\"{{url}}\">{{url}}</a>");
+
+        String body = template.render(Map.of("username", "alice", "url", "http://x/reset?token=abc"));
+
+        assertEquals("<p>Hi alice</p><a href=\"http://x/reset?token=abc\">http://x/reset?token=abc</a>", body);
+        assertEquals(List.of("username", "url", "url"), template.getSlots());
+    }
+
+    @Test
+    void render_ShouldEscapeHtml_InSlotValues() {
+        EmailTemplate template = EmailTemplate.compile("test", "<p>{{username}}</p>");
+
+        String body = template.render(Map.of("username", "<script>alert('x' & \"y\")</script>"));
+
+        assertEquals("<p>&lt;script&gt;alert(&#39;x&#39; &amp; &quot;y&quot;)&lt;/script&gt;</p>", body);
+    }
+
+    @Test
+    void render_ShouldThrowException_WhenSlotValueIsMissing() {
+        EmailTemplate template = EmailTemplate.compile("test", "<p>{{username}}</p>");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+
+    @Test
+    void compile_ShouldThrowException_WhenSlotIsUnclosed() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("test", "<p>{{username</p>"));
+    }
+
+    @Test
+    void registry_ShouldCompileBundledTemplates() {
+        EmailTemplateRegistry registry = createRegistry("classpath:templates/email/", false);
+
+        String body = registry.get("verification_email")
+                .render(Map.of("username", "alice", "verificationCode", "123456"));
+
+        assertTrue(body.contains("alice"));
+        assertTrue(body.contains("123456"));
+        assertFalse(body.contains("{{"));
+        assertEquals(List.of("username", "resetUrl", "resetUrl", "resetUrl"),
+                registry.get("password_reset_email").getSlots());
+    }
+
+    @Test
+    void registry_ShouldReloadTemplate_WhenFileChangesAndHotReloadIsEnabled(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("greeting.html");
+        Files.writeString(file, "Hello {{username}}");
+        EmailTemplateRegistry registry = createRegistry(directory.toUri().toString(), true);
+
+        assertEquals("Hello alice", registry.get("greeting").render(Map.of("username", "alice")));
+
+        Files.writeString(file, "Bye {{username}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertEquals("Bye alice", registry.get("greeting").render(Map.of("username", "alice")));
+    }
+
+    private static EmailTemplateRegistry createRegistry(String location, boolean hotReload) {
+        EmailTemplateRegistry registry = new EmailTemplateRegistry();
+        ReflectionTestUtils.setField(registry, "location", location);
+        ReflectionTestUtils.setField(registry, "hotReload", hotReload);
+        registry.init();
+        return registry;
+    }
+}
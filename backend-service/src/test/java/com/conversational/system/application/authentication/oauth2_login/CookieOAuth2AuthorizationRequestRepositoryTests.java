@@ -0,0 +1,126 @@
+package com.conversational.system.application.authentication.oauth2_login;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+
+import jakarta.servlet.http.Cookie;
+
+public class CookieOAuth2AuthorizationRequestRepositoryTests {
+    private static final String SIGNING_KEY = "test-secret-that-is-long-enough-for-hmac-sha-256";
+
+    private CookieOAuth2AuthorizationRequestRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CookieOAuth2AuthorizationRequestRepository(SIGNING_KEY, 300, false);
+    }
+
+    @Test
+    void loadAuthorizationRequest_ShouldRestoreSavedRequest_FromCookie() {
+        OAuth2AuthorizationRequest saved = authorizationRequest("state-1");
+        String cookie = save(saved);
+
+        OAuth2AuthorizationRequest loaded = repository.loadAuthorizationRequest(callback("state-1", cookie));
+
+        assertNotNull(loaded);
+        assertEquals(saved.getState(), loaded.getState());
+        assertEquals(saved.getRedirectUri(), loaded.getRedirectUri());
+        assertEquals(saved.getAuthorizationRequestUri(), loaded.getAuthorizationRequestUri());
+        assertEquals("github", loaded.getAttribute(OAuth2ParameterNames.REGISTRATION_ID));
+    }
+
+    @Test
+    void saveAuthorizationRequest_ShouldNotCreateSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        repository.saveAuthorizationRequest(authorizationRequest("state-1"), request, new MockHttpServletResponse());
+
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    void loadAuthorizationRequest_ShouldReturnNull_WhenStateDoesNotMatch() {
+        String cookie = save(authorizationRequest("state-1"));
+
+        assertNull(repository.loadAuthorizationRequest(callback("state-2", cookie)));
+    }
+
+    @Test
+    void loadAuthorizationRequest_ShouldReturnNull_WhenCookieIsTampered() {
+        String cookie = save(authorizationRequest("state-1"));
+        String tampered = (cookie.charAt(0) == 'A' ? 'B' : 'A') + cookie.substring(1);
+
+        assertNull(repository.loadAuthorizationRequest(callback("state-1", tampered)));
+        assertNull(repository.loadAuthorizationRequest(callback("state-1", "not-a-cookie")));
+    }
+
+    @Test
+    void loadAuthorizationRequest_ShouldReturnNull_WhenCookieIsSignedWithAnotherKey() {
+        CookieOAuth2AuthorizationRequestRepository other = new CookieOAuth2AuthorizationRequestRepository(
+                "another-secret-that-is-long-enough-for-hmac", 300, false);
+        String cookie = other.encode(authorizationRequest("state-1"), System.currentTimeMillis() + 60_000);
+
+        assertNull(repository.loadAuthorizationRequest(callback("state-1", cookie)));
+    }
+
+    @Test
+    void loadAuthorizationRequest_ShouldReturnNull_WhenCookieIsExpired() {
+        String cookie = repository.encode(authorizationRequest("state-1"), System.currentTimeMillis() - 1);
+
+        assertNull(repository.loadAuthorizationRequest(callback("state-1", cookie)));
+    }
+
+    @Test
+    void removeAuthorizationRequest_ShouldReturnRequest_AndExpireCookie() {
+        String cookie = save(authorizationRequest("state-1"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        OAuth2AuthorizationRequest removed = repository.removeAuthorizationRequest(callback("state-1", cookie), response);
+
+        assertNotNull(removed);
+        String setCookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertTrue(setCookie.startsWith(CookieOAuth2AuthorizationRequestRepository.COOKIE_NAME + "=;"));
+        assertTrue(setCookie.contains("Max-Age=0"));
+    }
+
+    private String save(OAuth2AuthorizationRequest authorizationRequest) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveAuthorizationRequest(authorizationRequest, new MockHttpServletRequest(), response);
+        String setCookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        String prefix = CookieOAuth2AuthorizationRequestRepository.COOKIE_NAME + "=";
+        assertTrue(setCookie.startsWith(prefix));
+        assertTrue(setCookie.contains("HttpOnly"));
+        return setCookie.substring(prefix.length(), setCookie.indexOf(';'));
+    }
+
+    private static MockHttpServletRequest callback(String state, String cookieValue) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/login/oauth2/code/github");
+        request.setParameter(OAuth2ParameterNames.STATE, state);
+        request.setParameter(OAuth2ParameterNames.CODE, "code");
+        request.setCookies(new Cookie(CookieOAuth2AuthorizationRequestRepository.COOKIE_NAME, cookieValue));
+        return request;
+    }
+
+    private static OAuth2AuthorizationRequest authorizationRequest(String state) {
+        return OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://github.com/login/oauth/authorize")
+                .clientId("client-id")
+                .redirectUri("http://localhost:8080/login/oauth2/code/github")
+                .scopes(Set.of("user:email"))
+                .state(state)
+                .attributes(attributes -> attributes.put(OAuth2ParameterNames.REGISTRATION_ID, "github"))
+                .build();
+    }
+}
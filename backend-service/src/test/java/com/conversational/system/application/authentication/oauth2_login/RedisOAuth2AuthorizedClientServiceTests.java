@@ -0,0 +1,169 @@
+package com.conversational.system.application.authentication.oauth2_login;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.config.oauth2.client.CommonOAuth2Provider;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class RedisOAuth2AuthorizedClientServiceTests {
+    private static final ClientRegistration GITHUB = CommonOAuth2Provider.GITHUB.getBuilder("github")
+            .clientId("client-id").clientSecret("client-secret").build();
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ClientRegistrationRepository clientRegistrationRepository;
+
+    private final Map<String, String> redis = new HashMap<>();
+    private final Map<String, Duration> ttls = new HashMap<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.getArgument(0)));
+        lenient().doAnswer(invocation -> {
+            redis.put(invocation.getArgument(0), invocation.getArgument(1));
+            ttls.put(invocation.getArgument(0), invocation.getArgument(2));
+            return null;
+        }).when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        lenient().when(clientRegistrationRepository.findByRegistrationId("github")).thenReturn(GITHUB);
+    }
+
+    @Test
+    void saveAuthorizedClient_ShouldExpireInRedis_WithTheToken() {
+        RedisOAuth2AuthorizedClientService service = createService(10);
+        Instant now = Instant.now();
+
+        service.saveAuthorizedClient(client("octocat", now, now.plusSeconds(600), null), user("octocat"));
+
+        Duration ttl = ttls.get("oauth2_client:github:octocat");
+        assertTrue(ttl.toSeconds() > 590 && ttl.toSeconds() <= 600);
+    }
+
+    @Test
+    void saveAuthorizedClient_ShouldKeepClient_ForMinimumTtl_WhenProviderGaveNoExpiry() {
+        RedisOAuth2AuthorizedClientService service = createService(10);
+        Instant now = Instant.now();
+
+        // Spring stamps tokens without expires_in with a one-second expiry
+        service.saveAuthorizedClient(client("octocat", now, now.plusSeconds(1), null), user("octocat"));
+
+        assertTrue(ttls.get("oauth2_client:github:octocat").toSeconds() >= 59);
+    }
+
+    @Test
+    void loadAuthorizedClient_ShouldServeLocalCopy_WithoutRedisRoundTrip() {
+        RedisOAuth2AuthorizedClientService service = createService(10);
+        Instant now = Instant.now();
+        service.saveAuthorizedClient(client("octocat", now, now.plusSeconds(600), null), user("octocat"));
+
+        OAuth2AuthorizedClient loaded = service.loadAuthorizedClient("github", "octocat");
+
+        assertEquals("token-octocat", loaded.getAccessToken().getTokenValue());
+        verify(valueOperations, never()).get(anyString());
+        assertEquals(1.0, meterRegistry.get("oauth2.authorized_client.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void loadAuthorizedClient_ShouldRestoreFromRedis_OnAnotherNode() {
+        Instant now = Instant.now().minusSeconds(5);
+        createService(10).saveAuthorizedClient(
+                client("octocat", now, now.plusSeconds(600), new OAuth2RefreshToken("refresh", now)), user("octocat"));
+        RedisOAuth2AuthorizedClientService otherNode = createService(10);
+
+        OAuth2AuthorizedClient loaded = otherNode.loadAuthorizedClient("github", "octocat");
+
+        assertNotNull(loaded);
+        assertEquals("octocat", loaded.getPrincipalName());
+        assertEquals("token-octocat", loaded.getAccessToken().getTokenValue());
+        assertEquals(Set.of("user:email"), loaded.getAccessToken().getScopes());
+        assertEquals(now.toEpochMilli(), loaded.getAccessToken().getIssuedAt().toEpochMilli());
+        assertEquals("refresh", loaded.getRefreshToken().getTokenValue());
+        assertEquals("github", loaded.getClientRegistration().getRegistrationId());
+    }
+
+    @Test
+    void localCache_ShouldEvictLeastRecentlyUsed_AndTrackHeap() {
+        RedisOAuth2AuthorizedClientService service = createService(2);
+        Instant now = Instant.now();
+        service.saveAuthorizedClient(client("a", now, now.plusSeconds(600), null), user("a"));
+        service.saveAuthorizedClient(client("b", now, now.plusSeconds(600), null), user("b"));
+        service.loadAuthorizedClient("github", "a"); // "b" is now the eldest
+        long heapForTwo = service.localHeapBytes();
+
+        service.saveAuthorizedClient(client("c", now, now.plusSeconds(600), null), user("c"));
+
+        assertEquals(2, service.localSize());
+        assertTrue(heapForTwo > 0);
+        assertEquals(1.0, meterRegistry.get("oauth2.authorized_client.cache.evictions").counter().count());
+        service.loadAuthorizedClient("github", "b");
+        verify(valueOperations).get("oauth2_client:github:b");
+    }
+
+    @Test
+    void removeAuthorizedClient_ShouldDropLocalAndRedisCopies() {
+        RedisOAuth2AuthorizedClientService service = createService(10);
+        Instant now = Instant.now();
+        service.saveAuthorizedClient(client("octocat", now, now.plusSeconds(600), null), user("octocat"));
+        when(redisTemplate.delete("oauth2_client:github:octocat")).thenAnswer(invocation -> redis.remove("oauth2_client:github:octocat") != null);
+
+        service.removeAuthorizedClient("github", "octocat");
+
+        assertNull(service.loadAuthorizedClient("github", "octocat"));
+        assertEquals(0, service.localSize());
+        assertEquals(0, service.localHeapBytes());
+    }
+
+    private RedisOAuth2AuthorizedClientService createService(int localMaxSize) {
+        return new RedisOAuth2AuthorizedClientService(redisTemplate, clientRegistrationRepository, meterRegistry,
+                localMaxSize, 3600, 60);
+    }
+
+    private static OAuth2AuthorizedClient client(String principalName, Instant issuedAt, Instant expiresAt,
+            OAuth2RefreshToken refreshToken) {
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                "token-" + principalName, issuedAt, expiresAt, Set.of("user:email"));
+        return new OAuth2AuthorizedClient(GITHUB, principalName, accessToken, refreshToken);
+    }
+
+    private static TestingAuthenticationToken user(String name) {
+        return new TestingAuthenticationToken(name, null);
+    }
+}
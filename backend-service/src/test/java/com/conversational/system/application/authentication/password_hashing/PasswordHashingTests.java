@@ -0,0 +1,137 @@
+package com.conversational.system.application.authentication.password_hashing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetailService;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashingTests {
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, 5000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_ShouldFailFast_WhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One task occupies the only thread, a second one fills the queue
+            callers.submit(() -> executor.execute("encode", () -> {
+                running.countDown();
+                awaitQuietly(release);
+                return "first";
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> executor.execute("encode", () -> "second"));
+            waitForQueuedTask();
+
+            assertThrows(PasswordHashingUnavailableException.class, () -> executor.execute("encode", () -> "third"));
+            assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void encoder_ShouldHashOnExecutor_AndRecordComputeTime() {
+        OffloadedPasswordEncoder encoder = new OffloadedPasswordEncoder(4, executor);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(4, OffloadedPasswordEncoder.costOf(hash));
+        assertEquals(1, meterRegistry.get("password.hash.compute").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hash.compute").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void upgradeEncoding_ShouldBeTrue_WhenStoredCostDiffers() {
+        OffloadedPasswordEncoder encoder = new OffloadedPasswordEncoder(5, executor);
+
+        assertTrue(encoder.upgradeEncoding(BCrypt.hashpw("secret", BCrypt.gensalt(4))));
+        assertTrue(encoder.upgradeEncoding(BCrypt.hashpw("secret", BCrypt.gensalt(6))));
+        assertFalse(encoder.upgradeEncoding(BCrypt.hashpw("secret", BCrypt.gensalt(5))));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void strengthFor_ShouldPickCostClosestBelowTarget() {
+        long tenMs = TimeUnit.MILLISECONDS.toNanos(10);
+
+        assertEquals(10, BCryptStrengthCalibrator.strengthFor(tenMs, 10, 14, 15));
+        assertEquals(12, BCryptStrengthCalibrator.strengthFor(tenMs, 10, 14, 40));
+        assertEquals(14, BCryptStrengthCalibrator.strengthFor(tenMs, 10, 14, 10_000));
+        assertEquals(10, BCryptStrengthCalibrator.strengthFor(TimeUnit.SECONDS.toNanos(1), 10, 14, 250));
+    }
+
+    @Test
+    void login_ShouldRehashPassword_WhenStoredCostIsOutdated() {
+        User user = new User("test@example.com", "testuser", BCrypt.hashpw("secret", BCrypt.gensalt(4)));
+        user.setVerified(true);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CustomUserDetailService userDetailService = new CustomUserDetailService(userRepository);
+        OffloadedPasswordEncoder encoder = new OffloadedPasswordEncoder(5, executor);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(userDetailService);
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("testuser", "secret"));
+
+        assertEquals(5, OffloadedPasswordEncoder.costOf(user.getPasswordHash()));
+        assertTrue(encoder.matches("secret", user.getPasswordHash()));
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.hash.queue.depth").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.conversational.system.application.authentication.rate_limiting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginRateLimiterTests {
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 2 attempts per (username, IP), 3 per IP, slow refill so nothing refills during a test
+        loginRateLimiter = new LoginRateLimiter(redisTemplate, meterRegistry, true, 2, 60, 3, 60, 1000, 60_000, 4, 1000);
+    }
+
+    @Test
+    void tryAcquire_ShouldFollowRedisScript_WhenRedisIsAvailable() {
+        stubScript().thenReturn(0L, 4000L);
+
+        assertEquals(0, loginRateLimiter.tryAcquire("testuser", "10.0.0.1"));
+        assertEquals(4000, loginRateLimiter.tryAcquire("testuser", "10.0.0.1"));
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), any(RedisSerializer.class),
+                any(RedisSerializer.class), eq(List.of("login_rate:user_ip:testuser|10.0.0.1", "login_rate:ip:10.0.0.1")),
+                any(Object[].class));
+        assertEquals(1.0, meterRegistry.get("login.rate_limit").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void tryAcquire_ShouldFallBackToLocalBuckets_WhenRedisFails() {
+        stubScript().thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(0, loginRateLimiter.tryAcquire("TestUser", "10.0.0.1"));
+        assertEquals(0, loginRateLimiter.tryAcquire("testuser ", "10.0.0.1"));
+        assertTrue(loginRateLimiter.tryAcquire("testuser", "10.0.0.1") > 0);
+
+        // Redis is skipped during the backoff window instead of being retried on every attempt
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any(Object[].class));
+        assertEquals(3.0, meterRegistry.get("login.rate_limit.fallback").counter().count());
+    }
+
+    @Test
+    void tryAcquire_ShouldLimitPerIp_WhenManyUsernamesAreTried() {
+        stubScript().thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(0, loginRateLimiter.tryAcquire("user1", "10.0.0.1"));
+        assertEquals(0, loginRateLimiter.tryAcquire("user2", "10.0.0.1"));
+        assertEquals(0, loginRateLimiter.tryAcquire("user3", "10.0.0.1"));
+        assertTrue(loginRateLimiter.tryAcquire("user4", "10.0.0.1") > 0);
+
+        // The real user logging in from another address is not locked out
+        assertEquals(0, loginRateLimiter.tryAcquire("user1", "10.0.0.2"));
+    }
+
+    @Test
+    void localBuckets_ShouldStayBounded() {
+        LoginRateLimiter.StripedTokenBuckets buckets = new LoginRateLimiter.StripedTokenBuckets(4, 10);
+
+        for (int i = 0; i < 100; i++)
+            buckets.tryAcquire(List.of("key" + i), new int[] { 1 }, new long[] { 60_000 });
+
+        assertTrue(buckets.size() <= 10);
+    }
+
+    private OngoingStubbing<Long> stubScript() {
+        return when(redisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                ArgumentMatchers.<RedisSerializer<?>>any(), ArgumentMatchers.<RedisSerializer<Long>>any(), anyList(),
+                any(Object[].class)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.conversational.system.application.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+import com.conversational.system.application.authentication.email_sender.EmailTemplate;
+
+/**
+ * Compares the legacy email rendering (classpath read + one String.replace pass per placeholder)
+ * with the precompiled EmailTemplate.
+ *
+ * Run the same way as JwtValidationBenchmark, with this class name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+    private static final String TEMPLATE_PATH = "templates/email/password_reset_email.html";
+    private static final String USERNAME = "benchmark-user";
+    private static final String RESET_URL = "http://localhost:3000/auth/reset-password?token=4f9c2a7e-1b3d";
+
+    private String templateSource;
+    private EmailTemplate compiledTemplate;
+    private Map<String, String> values;
+
+    @Setup
+    public void setup() throws IOException {
+        templateSource = loadTemplate();
+        compiledTemplate = EmailTemplate.compile("password_reset_email", templateSource);
+        values = Map.of("username", USERNAME, "resetUrl", RESET_URL);
+    }
+
+    @Benchmark
+    public String legacyLoadAndReplace() throws IOException {
+        return loadTemplate()
+                .replace("{{username}}", USERNAME)
+                .replace("{{resetUrl}}", RESET_URL);
+    }
+
+    @Benchmark
+    public String legacyReplaceOnly() {
+        return templateSource
+                .replace("{{username}}", USERNAME)
+                .replace("{{resetUrl}}", RESET_URL);
+    }
+
+    @Benchmark
+    public String precompiledTemplate() {
+        return compiledTemplate.render(values);
+    }
+
+    private static String loadTemplate() throws IOException {
+        return new String(new ClassPathResource(TEMPLATE_PATH).getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
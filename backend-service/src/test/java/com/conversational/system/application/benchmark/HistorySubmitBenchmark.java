@@ -0,0 +1,239 @@
+package com.conversational.system.application.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.conversational.system.application.conversation.AgentHistoryCache;
+import com.conversational.system.application.conversation.ConversationHistoryWindow;
+import com.conversational.system.application.conversation.ConversationService;
+import com.conversational.system.application.entities.conversation.AgentConversation;
+import com.conversational.system.application.entities.conversation.Conversation;
+import com.conversational.system.application.entities.conversation.Message;
+import com.conversational.system.application.entities.conversation.repositories.AgentConversationRepository;
+import com.conversational.system.application.entities.conversation.repositories.MessageHistoryEntry;
+import com.conversational.system.application.entities.conversation.repositories.MessageRepository;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cost of building a job envelope's history per submit, by conversation length. Every path ships the
+ * same window of the conversation:
+ * - previousQuery: the path before the history cache, sizing every message of the conversation in the
+ *   database, selecting the window and fetching and serializing its messages.
+ * - cacheHit: reading the Redis ring buffer, selecting the window and splicing the cached JSON in.
+ * - cacheMiss: the same after an eviction, so the newest max-entries messages are read from the
+ *   database and cached first.
+ * The database is an in-memory H2, so its round trips are cheaper than Postgres over the network.
+ * Needs a Redis server (REDIS_HOST/REDIS_PORT, default localhost:6379); its keys are deleted on teardown.
+ *
+ * Run the same way as RabbitPublishBenchmark, with this class name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistorySubmitBenchmark {
+    private static final String AGENT = "CODER_AGENT";
+
+    @Param({ "10", "100", "1000" })
+    private int historySize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AnnotationConfigApplicationContext context;
+    private TransactionTemplate readOnly;
+    private ConversationService conversationService;
+    private ConversationHistoryWindow historyWindow;
+    private AgentHistoryCache cache;
+    private AgentConversationRepository agentConversationRepository;
+    private MessageRepository messageRepository;
+    private UUID conversationId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new AnnotationConfigApplicationContext(HistoryConfig.class);
+        cache = context.getBean(AgentHistoryCache.class);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 200);
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 10L);
+        conversationService = context.getBean(ConversationService.class);
+        historyWindow = context.getBean(ConversationHistoryWindow.class);
+        agentConversationRepository = context.getBean(AgentConversationRepository.class);
+        messageRepository = context.getBean(MessageRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        User user = context.getBean(UserRepository.class).save(
+                new User("bench-" + historySize + "@example.com", "bench-" + historySize, "hash"));
+        Conversation conversation = conversationService.createConversation(user, "Benchmark");
+        conversationId = conversation.getId();
+        AgentConversation agentConversation = conversationService.getOrCreateAgentConversation(conversationId, AGENT);
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < historySize; i++) {
+            Message message = new Message(agentConversation, i % 2 == 0 ? "user" : "assistant",
+                    ("Message " + i + ": please refactor the solver to handle edge cases. ").repeat(8), "job-" + i);
+            message.setTimestamp(start.plusSeconds(i));
+            ConversationHistoryWindow.annotate(message);
+            messageRepository.save(message);
+        }
+        // Same window on every path
+        if (!previousQuery().equals(cacheHit()))
+            throw new IllegalStateException("The benchmarked paths ship different histories");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.evict(conversationId, AGENT);
+        context.close();
+    }
+
+    @Benchmark
+    public String previousQuery() {
+        List<Map<String, Object>> history = readOnly.execute(status -> {
+            AgentConversation agentConversation = agentConversationRepository
+                    .findByConversationIdAndAgentType(conversationId, AGENT).orElseThrow();
+            List<MessageHistoryEntry> newestFirst = messageRepository
+                    .findHistoryEntries(agentConversation.getId(), Pageable.unpaged());
+            int size = historyWindow.select(AGENT, newestFirst);
+            List<UUID> messageIds = newestFirst.subList(0, size).stream()
+                    .map(MessageHistoryEntry::getId)
+                    .collect(Collectors.toList());
+            return messageRepository.findHistoryContents(messageIds).stream()
+                    .map(message -> {
+                        Map<String, Object> entry = new LinkedHashMap<>();
+                        entry.put("id", message.getId().toString());
+                        entry.put("role", message.getRole());
+                        entry.put("content", message.getContent());
+                        return entry;
+                    })
+                    .collect(Collectors.toList());
+        });
+        return serialize(history);
+    }
+
+    @Benchmark
+    public String cacheHit() {
+        String history = conversationService.getAgentHistoryWindow(conversationId, AGENT).stream()
+                .collect(Collectors.joining(",", "[", "]"));
+        return serialize(new RawValue(history));
+    }
+
+    @Benchmark
+    public String cacheMiss() {
+        cache.evict(conversationId, AGENT);
+        return cacheHit();
+    }
+
+    private String serialize(Object history) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("jobId", "benchmark");
+        message.put("prompt", "Add input validation");
+        message.put("conversationHistory", history);
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = { MessageRepository.class, UserRepository.class })
+    @Import(ConversationService.class)
+    static class HistoryConfig {
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:history;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+            dataSource.setUsername("sa");
+            return dataSource;
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan("com.conversational.system.application.entities");
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean(destroyMethod = "destroy")
+        LettuceConnectionFactory redisConnectionFactory() {
+            return new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                    System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                    Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"))));
+        }
+
+        @Bean
+        AgentHistoryCache agentHistoryCache(LettuceConnectionFactory redisConnectionFactory) {
+            return new AgentHistoryCache(new StringRedisTemplate(redisConnectionFactory), new SimpleMeterRegistry());
+        }
+
+        @Bean
+        ConversationHistoryWindow conversationHistoryWindow() {
+            return new ConversationHistoryWindow(new MockEnvironment(), new SimpleMeterRegistry());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HistorySubmitBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.conversational.system.application.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.authentication.json_web_token.VerifiedTokenCache;
+import com.conversational.system.application.entities.user.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares the legacy JwtFilter validation path (fresh parser, three parses per request)
+ * with the single-parse path and the verified-token cache.
+ *
+ * Run with: mvn test-compile && java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *     com.conversational.system.application.benchmark.JwtValidationBenchmark
+ * where cp.txt comes from: mvn dependency:build-classpath -Dmdep.outputFile=cp.txt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+    private static final String SECRET = "benchmark-secret-that-is-long-enough-for-hmac-sha-256";
+
+    private SecretKey secretKey;
+    private JwtService uncachedJwtService;
+    private JwtService cachedJwtService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes());
+        uncachedJwtService = createJwtService(new VerifiedTokenCache(1, new SimpleMeterRegistry()) {
+            @Override
+            public Claims get(String token, Function<String, Claims> verifier) {
+                return verifier.apply(token);
+            }
+        });
+        cachedJwtService = createJwtService(new VerifiedTokenCache(10_000, new SimpleMeterRegistry()));
+        token = cachedJwtService.generateJWToken(testUser("benchmark-user"));
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String username = legacyClaims(token).getSubject();
+        String tokenUsername = legacyClaims(token).getSubject();
+        Date expiration = legacyClaims(token).getExpiration();
+        return tokenUsername.equals(username) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public Claims singleParseSharedParser() {
+        return uncachedJwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims verifiedTokenCache() {
+        return cachedJwtService.validateToken(token);
+    }
+
+    private Claims legacyClaims(String token) {
+        return Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static User testUser(String username) {
+        User user = new User(username + "@example.com", username, "hash");
+        user.setId(1);
+        user.setVerified(true);
+        return user;
+    }
+
+    private static JwtService createJwtService(VerifiedTokenCache cache) {
+        JwtService jwtService = new JwtService(cache);
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", TimeUnit.HOURS.toMillis(1));
+        jwtService.init();
+        return jwtService;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtValidationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+package com.conversational.system.application.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.conversational.system.application.messaging.ConfirmedPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Messages per second published to a local broker: the previous unconfirmed convertAndSend,
+ * a confirm round trip per message, and the ConfirmedPublisher with its in-flight window.
+ * Needs a RabbitMQ broker (RABBITMQ_HOST, default localhost, guest/guest); the queue is purged on teardown.
+ *
+ * Run with: mvn test-compile && java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *     com.conversational.system.application.benchmark.RabbitPublishBenchmark
+ * where cp.txt comes from: mvn dependency:build-classpath -Dmdep.outputFile=cp.txt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RabbitPublishBenchmark {
+    private static final String QUEUE = "publish_benchmark";
+    private static final int BURST = 100;
+
+    private final Map<String, String> message = Map.of("jobId", "benchmark", "taskType", "coding",
+            "code", "print('hello')");
+    private CachingConnectionFactory simpleConfirms;
+    private CachingConnectionFactory correlatedConfirms;
+    private RabbitTemplate unconfirmedTemplate;
+    private RabbitTemplate confirmingTemplate;
+    private ConfirmedPublisher publisher;
+    private RabbitAdmin admin;
+
+    @Setup
+    public void setup() {
+        simpleConfirms = connectionFactory(CachingConnectionFactory.ConfirmType.SIMPLE);
+        correlatedConfirms = connectionFactory(CachingConnectionFactory.ConfirmType.CORRELATED);
+        admin = new RabbitAdmin(simpleConfirms);
+        admin.declareQueue(new Queue(QUEUE, false));
+
+        unconfirmedTemplate = template(connectionFactory(CachingConnectionFactory.ConfirmType.NONE));
+        confirmingTemplate = template(simpleConfirms);
+        publisher = new ConfirmedPublisher(template(correlatedConfirms), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(publisher, "maxInFlight", 1024);
+        ReflectionTestUtils.setField(publisher, "batchSize", 128);
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(publisher, "acquireTimeoutMs", 5000L);
+        publisher.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        publisher.stop();
+        admin.deleteQueue(QUEUE);
+        simpleConfirms.destroy();
+        correlatedConfirms.destroy();
+        ((CachingConnectionFactory) unconfirmedTemplate.getConnectionFactory()).destroy();
+    }
+
+    // Before: fire and forget, a lost message goes unnoticed
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void unconfirmedConvertAndSend() {
+        for (int i = 0; i < BURST; i++)
+            unconfirmedTemplate.convertAndSend(QUEUE, message);
+    }
+
+    // Confirms without batching: one broker round trip per message
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void confirmEachMessage() {
+        for (int i = 0; i < BURST; i++)
+            confirmingTemplate.invoke(operations -> {
+                operations.convertAndSend(QUEUE, message);
+                operations.waitForConfirmsOrDie(5000);
+                return null;
+            });
+    }
+
+    // After: every message confirmed, many in flight at once
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void confirmedPublisher() {
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++)
+            confirms.add(publisher.publish(QUEUE, message));
+        CompletableFuture.allOf(confirms.toArray(new CompletableFuture[0])).join();
+    }
+
+    private static CachingConnectionFactory connectionFactory(CachingConnectionFactory.ConfirmType confirmType) {
+        CachingConnectionFactory factory = new CachingConnectionFactory(
+                System.getenv().getOrDefault("RABBITMQ_HOST", "localhost"));
+        factory.setUsername(System.getenv().getOrDefault("RABBITMQ_USER", "guest"));
+        factory.setPassword(System.getenv().getOrDefault("RABBITMQ_PASS", "guest"));
+        factory.setPublisherConfirmType(confirmType);
+        factory.setChannelCacheSize(32);
+        return factory;
+    }
+
+    private static RabbitTemplate template(CachingConnectionFactory connectionFactory) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(new Jackson2JsonMessageConverter());
+        return template;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RabbitPublishBenchmark.class.getSimpleName()).build()).run();
+    }
+}
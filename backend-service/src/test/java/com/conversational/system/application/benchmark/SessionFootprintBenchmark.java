@@ -0,0 +1,225 @@
+package com.conversational.system.application.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpSession;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.config.oauth2.client.CommonOAuth2Provider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.conversational.system.application.authentication.json_web_token.AccessTokenRevocationService;
+import com.conversational.system.application.authentication.json_web_token.JwtFilter;
+import com.conversational.system.application.authentication.json_web_token.JwtService;
+import com.conversational.system.application.authentication.json_web_token.TokenVersionService;
+import com.conversational.system.application.authentication.json_web_token.VerifiedTokenCache;
+import com.conversational.system.application.authentication.oauth2_login.CookieOAuth2AuthorizationRequestRepository;
+import com.conversational.system.application.authentication.oauth2_login.OAuth2LoginHandler;
+import com.conversational.system.application.authentication.password_hashing.BCryptStrengthCalibrator;
+import com.conversational.system.application.authentication.password_hashing.PasswordHashingExecutor;
+import com.conversational.system.application.config.SecurityConfig;
+import com.conversational.system.application.entities.user.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Load test for the server memory each active user leaves behind in the security layer.
+ * Every simulated user starts a GitHub login, hits the API once with an expired session and once with a JWT,
+ * and the HttpSessions created along the way are retained the way the servlet container would keep them.
+ * Reports retained heap per 10k users for the previous session-backed chain and for the stateless chains.
+ *
+ * Run with: mvn test-compile && java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *     com.conversational.system.application.benchmark.SessionFootprintBenchmark [users]
+ * where cp.txt comes from: mvn dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ */
+public class SessionFootprintBenchmark {
+    private static final int WARMUP_USERS = 500;
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        run("session-backed (IF_REQUIRED, httpBasic, session OAuth2 state)", LegacySecurityConfig.class, users);
+        run("stateless (/api JWT only, cookie OAuth2 state)", SecurityConfig.class, users);
+    }
+
+    private static void run(String label, Class<?> securityConfig, int users) throws Exception {
+        try (AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext()) {
+            context.setServletContext(new MockServletContext());
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                    "app.jwt.secret", "benchmark-secret-that-is-long-enough-for-hmac-sha-256",
+                    "app.jwt.expiration", TimeUnit.HOURS.toMillis(1),
+                    "app.jwt.principal-source", "claims")));
+            context.register(CommonConfig.class, securityConfig);
+            context.refresh();
+
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                    .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                    .build();
+            String token = context.getBean(JwtService.class).generateJWToken(testUser());
+
+            simulate(mockMvc, token, WARMUP_USERS, new ArrayList<>());
+
+            List<HttpSession> sessions = new ArrayList<>();
+            long before = usedHeapAfterGc();
+            simulate(mockMvc, token, users, sessions);
+            long after = usedHeapAfterGc();
+
+            long perTenThousand = (after - before) * 10_000 / users;
+            System.out.printf("%-62s users=%d sessions=%d heap growth=%d KB (%d KB per 10k users)%n", label, users,
+                    sessions.size(), (after - before) / 1024, perTenThousand / 1024);
+            // Keep the "container" session store reachable until after the measurement
+            if (sessions.hashCode() == 42)
+                System.out.println();
+        }
+    }
+
+    private static void simulate(MockMvc mockMvc, String token, int users, List<HttpSession> sessions)
+            throws Exception {
+        for (int i = 0; i < users; i++) {
+            // A browser carries JSESSIONID between requests, so one user keeps at most one session
+            MockHttpSession session = null;
+            session = perform(mockMvc, get("/oauth2/authorization/github"), session);
+            session = perform(mockMvc, get("/api/probe"), session);
+            session = perform(mockMvc, get("/api/probe").header(HttpHeaders.AUTHORIZATION, "Bearer " + token), session);
+            if (session != null)
+                sessions.add(session);
+        }
+    }
+
+    private static MockHttpSession perform(MockMvc mockMvc, MockHttpServletRequestBuilder request,
+            MockHttpSession session) throws Exception {
+        if (session != null)
+            request.session(session);
+        MvcResult result = mockMvc.perform(request).andReturn();
+        return (MockHttpSession) result.getRequest().getSession(false);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Stub-only mocks do not record invocations, which would otherwise show up as retained heap
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static User testUser() {
+        User user = new User("benchmark@example.com", "benchmark-user", "hash");
+        user.setId(1);
+        user.setVerified(true);
+        return user;
+    }
+
+    @RestController
+    static class ProbeController {
+        @GetMapping("/api/probe")
+        public String probe() {
+            return "ok";
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class CommonConfig {
+        @Bean
+        ProbeController probeController() {
+            return new ProbeController();
+        }
+
+        @Bean
+        ClientRegistrationRepository clientRegistrationRepository() {
+            return new InMemoryClientRegistrationRepository(CommonOAuth2Provider.GITHUB.getBuilder("github")
+                    .clientId("client-id").clientSecret("client-secret").build());
+        }
+
+        @Bean
+        JwtService jwtService() {
+            return new JwtService(new VerifiedTokenCache(10_000, new SimpleMeterRegistry()));
+        }
+
+        @Bean
+        JwtFilter jwtFilter(JwtService jwtService) {
+            TokenVersionService tokenVersionService = stub(TokenVersionService.class);
+            when(tokenVersionService.isCurrent(any(), any())).thenReturn(true);
+            return new JwtFilter(jwtService, stub(UserDetailsService.class), tokenVersionService,
+                    stub(AccessTokenRevocationService.class));
+        }
+
+        @Bean
+        CookieOAuth2AuthorizationRequestRepository cookieOAuth2AuthorizationRequestRepository() {
+            return new CookieOAuth2AuthorizationRequestRepository("benchmark-signing-key", 300, false);
+        }
+
+        @Bean
+        OAuth2LoginHandler oAuth2LoginHandler() {
+            return stub(OAuth2LoginHandler.class);
+        }
+
+        @Bean
+        BCryptStrengthCalibrator bCryptStrengthCalibrator() {
+            BCryptStrengthCalibrator calibrator = stub(BCryptStrengthCalibrator.class);
+            when(calibrator.getStrength()).thenReturn(10);
+            return calibrator;
+        }
+
+        @Bean
+        PasswordHashingExecutor passwordHashingExecutor() {
+            return stub(PasswordHashingExecutor.class);
+        }
+    }
+
+    // The chain as it was before /api became stateless
+    @Configuration
+    @EnableWebSecurity
+    static class LegacySecurityConfig {
+        @Bean
+        SecurityFilterChain legacySecurityFilterChain(HttpSecurity http, JwtFilter jwtFilter) throws Exception {
+            return http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+                    .csrf(csrf -> csrf.disable())
+                    .authorizeHttpRequests((request) -> request
+                            .requestMatchers("/api/auth/**", "/oauth2/**", "/login/**").permitAll()
+                            .anyRequest().authenticated())
+                    .httpBasic(Customizer.withDefaults())
+                    .addFilterBefore(jwtFilter, BasicAuthenticationFilter.class)
+                    .oauth2Login(oauth2 -> oauth2.defaultSuccessUrl("/api/auth/oauth2/success", true))
+                    .build();
+        }
+    }
+}
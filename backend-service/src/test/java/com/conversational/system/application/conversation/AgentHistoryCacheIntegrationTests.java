@@ -0,0 +1,141 @@
+package com.conversational.system.application.conversation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/* Runs against REDIS_HOST:REDIS_PORT (default localhost:6379) and is skipped when no Redis is reachable. */
+public class AgentHistoryCacheIntegrationTests {
+    private static final String AGENT = "CODER_AGENT";
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private AgentHistoryCache cache;
+    private UUID conversationId;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"))));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        Assumptions.assumeTrue(isReachable(), "No Redis reachable, skipping history cache tests");
+
+        cache = new AgentHistoryCache(redisTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 5);
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 1L);
+        conversationId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+        if (conversationId != null) {
+            Set<String> keys = redisTemplate.keys("*" + conversationId + "*");
+            if (keys != null && !keys.isEmpty())
+                redisTemplate.delete(keys);
+        }
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void populateAfterMiss_ShouldServeTailFromRedis_AndAppendsShouldKeepItCapped() {
+        AgentHistoryCache.Lookup miss = cache.read(conversationId, AGENT);
+        assertFalse(miss.isHit());
+
+        cache.populate(conversationId, AGENT, miss.generation(), entries(0, 3));
+        for (HistoryEntry entry : entries(3, 4))
+            cache.append(conversationId, AGENT, entry);
+
+        AgentHistoryCache.Lookup hit = cache.read(conversationId, AGENT);
+        assertTrue(hit.isHit());
+        assertEquals(List.of("m2", "m3", "m4", "m5", "m6"), contents(hit.entries()));
+        assertEquals(entries(6, 1).get(0).json(), hit.entries().get(4).json());
+    }
+
+    @Test
+    void populate_ShouldBackOff_WhenMessageWasAppendedSinceTheMiss() {
+        AgentHistoryCache.Lookup miss = cache.read(conversationId, AGENT);
+        // Not cached yet, so nothing is stored, but the racing load must not cache a tail without it
+        cache.append(conversationId, AGENT, entries(3, 1).get(0));
+
+        cache.populate(conversationId, AGENT, miss.generation(), entries(0, 3));
+
+        assertFalse(cache.read(conversationId, AGENT).isHit());
+    }
+
+    @Test
+    void transactionalAppend_ShouldBeVisibleToItsTransaction_AndReachRedisOnlyOnCommit() {
+        cache.populate(conversationId, AGENT, cache.read(conversationId, AGENT).generation(), entries(0, 2));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.append(conversationId, AGENT, entries(2, 1).get(0));
+
+        assertEquals(List.of("m0", "m1", "m2"), contents(cache.read(conversationId, AGENT).entries()));
+        assertEquals(2, redisTemplate.opsForList().size("agent_history:" + conversationId + ":" + AGENT));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(List.of("m0", "m1", "m2"), contents(cache.read(conversationId, AGENT).entries()));
+    }
+
+    @Test
+    void rolledBackAppend_ShouldEvictHistory() {
+        cache.populate(conversationId, AGENT, cache.read(conversationId, AGENT).generation(), entries(0, 2));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.append(conversationId, AGENT, entries(2, 1).get(0));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertFalse(cache.read(conversationId, AGENT).isHit());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    // Entries m{from}..m{from+count-1} with deterministic ids, so the same message always has the same id
+    private static List<HistoryEntry> entries(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> HistoryEntry.of(new UUID(0, i), i % 2 == 0 ? "user" : "assistant", "m" + i, 1, 2))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> contents(List<HistoryEntry> entries) {
+        return entries.stream()
+                .map(entry -> entry.json().replaceAll(".*\"content\":\"([^\"]*)\".*", "$1"))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isReachable() {
+        try {
+            connectionFactory.getConnection().ping();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.conversational.system.application.conversation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.conversational.system.application.entities.conversation.Message;
+import com.conversational.system.application.entities.conversation.repositories.MessageHistoryEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConversationHistoryWindowTests {
+    private MockEnvironment environment;
+    private ConversationHistoryWindow historyWindow;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("app.history.max-turns", "2")
+                .withProperty("app.history.max-tokens", "0")
+                .withProperty("app.history.max-bytes", "0")
+                .withProperty("app.history.agents.VISUALIZER_AGENT.max-tokens", "100");
+        historyWindow = new ConversationHistoryWindow(environment, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void annotate_ShouldReduceVisualizationReportToTextAndFileReferences() throws Exception {
+        String report = new ObjectMapper().writeValueAsString(Map.of(
+                "type", "visualization_report",
+                "content", "Here is your plot [FILE: plot.png]",
+                "generated_files", Map.of("plot.png", "iVBORw0KGgo".repeat(100_000))));
+        Message message = new Message(null, "assistant", report, "job-1");
+
+        ConversationHistoryWindow.annotate(message);
+
+        assertEquals("Here is your plot [FILE: plot.png]\n\n[Generated files: plot.png]", message.getHistoryContent());
+        assertEquals(ConversationHistoryWindow.estimateTokens(message.getHistoryContent()), message.getTokenCount());
+        assertTrue(message.getHistoryBytes() < 100);
+    }
+
+    @Test
+    void annotate_ShouldKeepPlainTextAsIs_AndReplaceInlineData() {
+        Message plain = new Message(null, "user", "Solve x^2 = 4", "job-1");
+        Message inline = new Message(null, "user", "See ![img](data:image/png;base64,iVBORw0KGgo=) please", "job-2");
+
+        ConversationHistoryWindow.annotate(plain);
+        ConversationHistoryWindow.annotate(inline);
+
+        assertNull(plain.getHistoryContent());
+        assertEquals(4, plain.getTokenCount());
+        assertEquals("See ![img]([inline data omitted]) please", inline.getHistoryContent());
+    }
+
+    @Test
+    void select_ShouldKeepLastTurns_NewestFirst() {
+        List<Entry> history = conversation(5, 10);
+
+        int selected = historyWindow.select("CODER_AGENT", newestFirst(history));
+
+        // The newest prompt is one turn, the previous prompt and its answer the other
+        assertEquals(3, selected);
+    }
+
+    @Test
+    void select_ShouldApplyPerAgentTokenBudget_ButAlwaysKeepNewestMessage() {
+        environment.setProperty("app.history.agents.VISUALIZER_AGENT.max-turns", "0");
+        List<Entry> history = conversation(3, 60);
+
+        int selected = historyWindow.select("VISUALIZER_AGENT", newestFirst(history));
+        int oversized = historyWindow.select("VISUALIZER_AGENT",
+                List.of(new Entry(UUID.randomUUID(), "user", 500, 2000, null)));
+
+        assertEquals(1, selected);
+        assertEquals(1, oversized);
+    }
+
+    @Test
+    void select_ShouldEstimateLegacyMessagesFromContentLength() {
+        environment.setProperty("app.history.max-turns", "0");
+        environment.setProperty("app.history.max-bytes", "1000");
+        ConversationHistoryWindow window = new ConversationHistoryWindow(environment, new SimpleMeterRegistry());
+        Entry legacy = new Entry(UUID.randomUUID(), "assistant", null, null, 5000);
+        Entry prompt = new Entry(UUID.randomUUID(), "user", 10, 40, null);
+
+        assertEquals(1, window.select("CODER_AGENT", List.of(prompt, legacy)));
+    }
+
+    // Alternating user/assistant messages, oldest first
+    private static List<Entry> conversation(int turns, int tokensPerMessage) {
+        List<Entry> history = new ArrayList<>();
+        // The job being submitted ends the conversation with its prompt, not an answer
+        for (int i = 0; i < turns * 2 - 1; i++)
+            history.add(new Entry(UUID.randomUUID(), i % 2 == 0 ? "user" : "assistant", tokensPerMessage,
+                    tokensPerMessage * 4, null));
+        return history;
+    }
+
+    private static List<MessageHistoryEntry> newestFirst(List<Entry> history) {
+        List<MessageHistoryEntry> reversed = new ArrayList<>(history);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    private record Entry(UUID id, String role, Integer tokenCount, Integer historyBytes, Integer contentLength)
+            implements MessageHistoryEntry {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getRole() {
+            return role;
+        }
+
+        @Override
+        public Integer getTokenCount() {
+            return tokenCount;
+        }
+
+        @Override
+        public Integer getHistoryBytes() {
+            return historyBytes;
+        }
+
+        @Override
+        public Integer getContentLength() {
+            return contentLength;
+        }
+    }
+}
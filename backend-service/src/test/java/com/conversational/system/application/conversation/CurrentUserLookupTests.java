@@ -0,0 +1,161 @@
+package com.conversational.system.application.conversation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.conversational.system.application.authentication.current_user.CurrentUserArgumentResolver;
+import com.conversational.system.application.authentication.current_user.CurrentUserProvider;
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+import com.conversational.system.application.entities.conversation.Conversation;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.entities.user.UserCache;
+import com.conversational.system.application.entities.user.UserRepository;
+import com.conversational.system.application.events.UserEventPublisher;
+import com.conversational.system.application.job.JobAdmission;
+import com.conversational.system.application.job.JobController;
+import com.conversational.system.application.job.JobService;
+
+/* Query-count regression test: every user lookup goes through UserRepository,
+ * so counting its invocations counts the user queries an endpoint issues. */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CurrentUserLookupTests {
+    private static final int USER_ID = 7;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private ConversationService conversationService;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private JobAdmission jobAdmission;
+
+    @Mock
+    private UserEventPublisher userEventPublisher;
+
+    private CurrentUserProvider currentUserProvider;
+    private MockMvc mockMvc;
+    private UUID conversationId;
+
+    @BeforeEach
+    void setUp() {
+        currentUserProvider = new CurrentUserProvider(userRepository, userCache);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ConversationController(conversationService, jobService, userEventPublisher),
+                        new JobController(jobService, jobAdmission))
+                .setCustomArgumentResolvers(new CurrentUserArgumentResolver(currentUserProvider))
+                .build();
+
+        // Principal as JwtFilter builds it from token claims: id and username only
+        User principalUser = new User();
+        principalUser.setId(USER_ID);
+        principalUser.setUsername("testuser");
+        CustomUserDetails principal = new CustomUserDetails(principalUser);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        User storedUser = new User("testuser@example.com", "testuser", "hash");
+        storedUser.setId(USER_ID);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(storedUser));
+
+        conversationId = UUID.randomUUID();
+        Conversation conversation = new Conversation(storedUser, "title");
+        conversation.setId(conversationId);
+        when(conversationService.getConversation(conversationId)).thenReturn(Optional.of(conversation));
+        when(conversationService.getUserConversations(any())).thenReturn(List.of(conversation));
+        when(conversationService.getAgentHistoryWindow(conversationId, "code")).thenReturn(List.of());
+        when(jobService.submitJob(any(), any())).thenReturn(conversationId);
+        when(jobAdmission.admit(any(), any(), any())).thenReturn(new JobAdmission.Decision(true, null, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void conversationEndpoints_ShouldDoAtMostOneUserLookup() throws Exception {
+        assertAtMostOneUserLookup(get("/api/conversations"), status().isOk());
+        assertAtMostOneUserLookup(get("/api/conversations/{id}/history/code", conversationId), status().isOk());
+        assertAtMostOneUserLookup(get("/api/conversations/{id}/status", conversationId), status().isOk());
+        assertAtMostOneUserLookup(delete("/api/conversations/{id}", conversationId), status().isOk());
+    }
+
+    @Test
+    void submitJob_ShouldLoadUserOnceById() throws Exception {
+        assertAtMostOneUserLookup(post("/api/test/submit-job")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"agentType\":\"code\",\"prompt\":\"hello\"}"), status().isOk());
+    }
+
+    @Test
+    void getUser_ShouldReuseEntity_WithinOneRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        CustomUserDetails principal = currentUserProvider.getPrincipal().orElseThrow();
+
+        User first = currentUserProvider.getUser(principal).orElseThrow();
+        User second = currentUserProvider.getUser(principal).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, mockingDetails(userRepository).getInvocations().size());
+    }
+
+    @Test
+    void conversationEndpoints_ShouldReturnUnauthorized_WithoutPrincipal() throws Exception {
+        SecurityContextHolder.clearContext();
+
+        mockMvc.perform(get("/api/conversations")).andExpect(status().isUnauthorized());
+    }
+
+    private void assertAtMostOneUserLookup(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus)
+            throws Exception {
+        clearInvocations(userRepository);
+
+        mockMvc.perform(request).andExpect(expectedStatus);
+
+        int lookups = mockingDetails(userRepository).getInvocations().size();
+        assertTrue(lookups <= 1, request.buildRequest(new MockServletContext())
+                .getRequestURI() + " did " + lookups + " user lookups");
+    }
+}
@@ -0,0 +1,101 @@
+package com.conversational.system.application.entities.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheTests {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(userRepository, stringRedisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(userCache, "maxSize", 2);
+        ReflectionTestUtils.setField(userCache, "ttlSeconds", 60L);
+
+        testUser = new User("test@example.com", "testuser", "hash");
+        testUser.setId(1);
+    }
+
+    @Test
+    void getByUsername_ShouldQueryDatabaseOnce_WhenCalledRepeatedly() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("test@example.com", userCache.getByUsername("testuser").orElseThrow().email());
+        }
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertEquals(4.0, meterRegistry.get("user.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void getById_ShouldBeServedFromCache_WhenLoadedByUsername() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        userCache.getByUsername("testuser");
+        userCache.getById(1);
+
+        verify(userRepository, never()).findById(1);
+    }
+
+    @Test
+    void invalidate_ShouldReloadUser_AfterEmailChange() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        userCache.getByUsername("testuser");
+
+        testUser.setEmail("new@example.com");
+        userCache.invalidate(testUser.getId(), testUser.getUsername());
+
+        assertEquals("new@example.com", userCache.getByUsername("testuser").orElseThrow().email());
+        verify(userRepository, times(2)).findByUsername("testuser");
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void invalidate_ShouldDropOldUsername_WhenLookedUpById() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        userCache.getByUsername("testuser");
+
+        userCache.invalidate(testUser.getId(), null);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+
+        assertTrue(userCache.getByUsername("testuser").isEmpty());
+    }
+
+    @Test
+    void invalidate_ShouldBroadcast_WhenRedisInvalidationIsEnabled() {
+        ReflectionTestUtils.setField(userCache, "redisInvalidationEnabled", true);
+        ReflectionTestUtils.setField(userCache, "invalidationChannel", "user-cache-invalidation");
+
+        userCache.invalidate(1, "testuser");
+
+        verify(stringRedisTemplate).convertAndSend("user-cache-invalidation", "1:testuser");
+    }
+}
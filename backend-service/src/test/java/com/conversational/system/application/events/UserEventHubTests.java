@@ -0,0 +1,133 @@
+package com.conversational.system.application.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.conversational.system.application.authentication.current_user.CurrentUserArgumentResolver;
+import com.conversational.system.application.authentication.current_user.CurrentUserProvider;
+import com.conversational.system.application.authentication.custom_user_details.CustomUserDetails;
+import com.conversational.system.application.entities.user.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class UserEventHubTests {
+    private SimpleMeterRegistry meterRegistry;
+    private UserEventHub hub;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new UserEventHub(meterRegistry);
+        ReflectionTestUtils.setField(hub, "timeoutMinutes", 1);
+        ReflectionTestUtils.setField(hub, "bufferSize", 4);
+        ReflectionTestUtils.setField(hub, "maxConnectionsPerUser", 2);
+        ReflectionTestUtils.setField(hub, "senderThreads", 2);
+        hub.start();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserEventController(hub))
+                .setCustomArgumentResolvers(new CurrentUserArgumentResolver(new CurrentUserProvider(null, null)))
+                .build();
+        authenticateAs(7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deliver_ShouldReachOnlyTheStreamsOfThatUser() throws Exception {
+        MockHttpServletResponse mine = connect();
+        authenticateAs(8);
+        MockHttpServletResponse other = connect();
+
+        hub.deliver(7, UserEventPublisher.JOB_EVENT, "{\"jobId\":\"job-1\",\"status\":\"completed\"}");
+
+        awaitTrue(() -> body(mine).contains("job-1"));
+        assertTrue(body(mine).contains("event:ready"));
+        assertTrue(body(mine).contains("event:job"));
+        assertFalse(body(other).contains("job-1"));
+        assertEquals(2, hub.connectionCount());
+    }
+
+    @Test
+    void heartbeats_ShouldBeSentToIdleStreams() throws Exception {
+        MockHttpServletResponse response = connect();
+        awaitTrue(() -> body(response).contains("event:ready"));
+
+        hub.sendHeartbeats();
+
+        awaitTrue(() -> body(response).contains(":heartbeat"));
+    }
+
+    @Test
+    void connectionsPerUser_ShouldBeCapped_ClosingTheOldest() throws Exception {
+        connect();
+        connect();
+        connect();
+
+        assertEquals(2, hub.connectionCount());
+    }
+
+    @Test
+    void publisher_ShouldDecodeFannedOutEvents() throws Exception {
+        MockHttpServletResponse response = connect();
+        UserEventPublisher publisher = new UserEventPublisher(null, hub);
+
+        publisher.receive("7:conversation:{\"change\":\"deleted\",\"note\":\"a:b\"}");
+        publisher.receive("not-a-user:job:{}");
+
+        awaitTrue(() -> body(response).contains("\"note\":\"a:b\""));
+        assertTrue(body(response).contains("event:conversation"));
+    }
+
+    private MockHttpServletResponse connect() throws Exception {
+        return mockMvc.perform(get("/api/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private static String body(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void authenticateAs(int userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setUsername("user" + userId);
+        CustomUserDetails principal = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                throw new AssertionError("Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
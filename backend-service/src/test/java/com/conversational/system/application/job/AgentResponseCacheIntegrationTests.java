@@ -0,0 +1,154 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.conversational.system.application.conversation.HistoryEntry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/* Runs against REDIS_HOST:REDIS_PORT (default localhost:6379) and is skipped when no Redis is reachable,
+ * e.g.: docker run --rm -p 6379:6379 redis:7-alpine */
+public class AgentResponseCacheIntegrationTests {
+    private final List<String> hashes = new ArrayList<>();
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private AgentResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        Assumptions.assumeTrue(isReachable(redisTemplate), "No Redis reachable, skipping response cache tests");
+
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AgentResponseCache(redisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlHours", 1L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10000);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (redisTemplate != null) {
+            for (String hash : hashes) {
+                redisTemplate.delete("agent_response:" + hash);
+                redisTemplate.opsForZSet().remove("agent_response_lru", hash);
+            }
+        }
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void requestHash_ShouldIgnoreMessageIds_ButNotContents() {
+        String hash = AgentResponseCache.requestHash("MODELER_AGENT", "model a shop",
+                history("earlier question", "model a shop"), null, null);
+
+        assertEquals(hash, AgentResponseCache.requestHash("MODELER_AGENT", "model a shop",
+                history("earlier question", "model a shop"), null, null));
+        assertNotEquals(hash, AgentResponseCache.requestHash("MODELER_AGENT", "model a shop",
+                history("another question", "model a shop"), null, null));
+        assertNotEquals(hash, AgentResponseCache.requestHash("CODER_AGENT", "model a shop",
+                history("earlier question", "model a shop"), null, null));
+        // An empty accepted model is not the same as none
+        assertNotEquals(hash, AgentResponseCache.requestHash("MODELER_AGENT", "model a shop",
+                history("earlier question", "model a shop"), "", null));
+    }
+
+    @Test
+    void completedJob_ShouldAnswerTheSameRequest_Once() {
+        String hash = newHash();
+        String jobId = "job-" + UUID.randomUUID();
+
+        assertEquals(Optional.empty(), cache.lookup(hash));
+        cache.expectResult(jobId, hash);
+        cache.storeResult(jobId, "the model");
+        // The job's hash is consumed, so a redelivered result cannot overwrite a newer entry
+        cache.storeResult(jobId, "redelivered");
+
+        assertEquals(Optional.of("the model"), cache.lookup(hash));
+        assertTrue(redisTemplate.getExpire("agent_response:" + hash) > 0);
+        assertEquals(1, meterRegistry.get("jobs.response_cache").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("jobs.response_cache").tag("result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get("jobs.response_cache.stored").counter().count());
+    }
+
+    @Test
+    void leastRecentlyUsed_ShouldBeEvicted_BeyondMaxEntries() {
+        // Entries left by other tests would otherwise count against the small capacity
+        Long existing = redisTemplate.opsForZSet().size("agent_response_lru");
+        ReflectionTestUtils.setField(cache, "maxEntries", (existing != null ? existing.intValue() : 0) + 2);
+        String first = store("first");
+        String second = store("second");
+        cache.lookup(first);
+
+        String third = store("third");
+
+        assertEquals(Optional.of("first"), cache.lookup(first));
+        assertEquals(Optional.empty(), cache.lookup(second));
+        assertEquals(Optional.of("third"), cache.lookup(third));
+    }
+
+    @Test
+    void oversizedAnswer_ShouldNotBeCached() {
+        String hash = newHash();
+        cache.expectResult("job-big", hash);
+
+        cache.storeResult("job-big", "x".repeat(2048));
+
+        assertEquals(Optional.empty(), cache.lookup(hash));
+    }
+
+    private String store(String answer) {
+        String hash = newHash();
+        String jobId = "job-" + UUID.randomUUID();
+        cache.expectResult(jobId, hash);
+        cache.storeResult(jobId, answer);
+        return hash;
+    }
+
+    private String newHash() {
+        String hash = AgentResponseCache.requestHash("MODELER_AGENT", UUID.randomUUID().toString(), List.of(), null,
+                null);
+        hashes.add(hash);
+        return hash;
+    }
+
+    private static List<String> history(String... userMessages) {
+        List<String> history = new ArrayList<>();
+        for (String content : userMessages)
+            history.add(HistoryEntry.of(UUID.randomUUID(), "user", content, 1, content.length()).json());
+        return history;
+    }
+
+    private static boolean isReachable(StringRedisTemplate template) {
+        try {
+            template.getConnectionFactory().getConnection().ping();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
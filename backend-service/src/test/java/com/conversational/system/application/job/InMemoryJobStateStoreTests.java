@@ -0,0 +1,117 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InMemoryJobStateStoreTests {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryJobStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new InMemoryJobStateStore(meterRegistry, 60, 600, 10, now::get);
+    }
+
+    @Test
+    void completedJob_ShouldKeepMessageId_ButNotTheAnswer() {
+        UUID conversationId = UUID.randomUUID();
+        String messageId = UUID.randomUUID().toString();
+        store.startJob("job-1", conversationId, 1);
+
+        assertTrue(store.updateJob("job-1", JobState.COMPLETED, "a long answer already saved as a message", messageId));
+
+        JobState job = store.getJob("job-1").orElseThrow();
+        assertEquals(JobState.COMPLETED, job.status());
+        assertEquals(messageId, job.messageId());
+        assertNull(job.answer());
+        assertTrue(store.getActiveJobId(conversationId).isEmpty());
+        assertEquals(JobState.COMPLETED, store.getLastTerminalStatus(conversationId).orElseThrow());
+    }
+
+    @Test
+    void terminalStatus_ShouldBeApplied_ExactlyOnce_UnderConcurrentResults() throws Exception {
+        store.startJob("job-1", UUID.randomUUID(), 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> updates = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            String status = i % 2 == 0 ? JobState.COMPLETED : JobState.ERROR;
+            updates.add(() -> store.updateJob("job-1", status, "Task failed: boom", null));
+        }
+        int applied = 0;
+        for (Future<Boolean> result : executor.invokeAll(updates))
+            applied += result.get() ? 1 : 0;
+        executor.shutdown();
+
+        assertEquals(1, applied);
+    }
+
+    @Test
+    void lateResultOfOlderJob_ShouldNotClearNewerActiveJob() {
+        UUID conversationId = UUID.randomUUID();
+        store.startJob("job-1", conversationId, 1);
+        store.startJob("job-2", conversationId, 1);
+
+        store.updateJob("job-1", JobState.ERROR, "Task failed: timeout", null);
+
+        assertEquals("job-2", store.getActiveJobId(conversationId).orElseThrow());
+        assertTrue(store.getLastTerminalStatus(conversationId).isEmpty());
+    }
+
+    @Test
+    void sweep_ShouldEvictFinishedAndAbandonedJobs_ByAge() {
+        UUID conversationId = UUID.randomUUID();
+        store.startJob("finished", conversationId, 1);
+        store.updateJob("finished", JobState.ERROR, "Task failed: boom", null);
+        store.startJob("pending", UUID.randomUUID(), 1);
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(61));
+        store.sweep();
+
+        assertTrue(store.getJob("finished").isEmpty());
+        assertTrue(store.getLastTerminalStatus(conversationId).isEmpty());
+        assertTrue(store.getJob("pending").isPresent());
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(600));
+        store.sweep();
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.heapBytes());
+        assertEquals(2.0, meterRegistry.get("jobs.table.evictions").tag("reason", "expired").counter().count());
+    }
+
+    @Test
+    void table_ShouldStayBounded_EvictingFinishedJobsFirst() {
+        store.startJob("pending", UUID.randomUUID(), 1);
+        for (int i = 0; i < 20; i++) {
+            now.incrementAndGet();
+            store.startJob("job-" + i, UUID.randomUUID(), 1);
+            store.updateJob("job-" + i, JobState.COMPLETED, null, UUID.randomUUID().toString());
+        }
+
+        assertTrue(store.size() <= 10);
+        assertTrue(store.getJob("pending").isPresent());
+        assertTrue(store.getJob("job-19").isPresent());
+        assertFalse(store.getJob("job-0").isPresent());
+        assertTrue(meterRegistry.get("jobs.table.heap.per_job").gauge().value() > 0);
+    }
+}
@@ -0,0 +1,137 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.conversational.system.application.entities.job.OutboundJobRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class JobAdmissionTests {
+    private static final String CODER = "CODER_AGENT";
+    private static final String VISUALIZER = "VISUALIZER_AGENT";
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private OutboundJobRepository outboundJobRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JobAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.queue.agents.types", CODER + "," + VISUALIZER)
+                .withProperty("app.jobs.admission.max-user-in-flight", "2")
+                .withProperty("app.jobs.admission.max-queue-depth", "10")
+                .withProperty("app.jobs.admission.agents.VISUALIZER_AGENT.max-queue-depth", "3")
+                .withProperty("app.jobs.admission.queue-retry-after-seconds", "30");
+        meterRegistry = new SimpleMeterRegistry();
+        admission = new JobAdmission(rabbitTemplate, outboundJobRepository, environment, meterRegistry);
+    }
+
+    @Test
+    void admit_ShouldRejectUsersOverTheirLimit_UntilAJobFinishes() {
+        assertTrue(admission.admit("job-1", 1, CODER).admitted());
+        assertTrue(admission.admit("job-2", 1, CODER).admitted());
+
+        JobAdmission.Decision rejected = admission.admit("job-3", 1, CODER);
+        // Other users and other agent types have their own counts
+        assertTrue(admission.admit("job-4", 2, CODER).admitted());
+        assertTrue(admission.admit("job-5", 1, VISUALIZER).admitted());
+        admission.release("job-1");
+        admission.release("job-1");
+
+        assertFalse(rejected.admitted());
+        assertEquals("user_limit", rejected.reason());
+        assertTrue(admission.admit("job-6", 1, CODER).admitted());
+        assertFalse(admission.admit("job-7", 1, CODER).admitted());
+        assertEquals(2, meterRegistry.get("jobs.admission").tag("result", "user_limit").counter().count());
+    }
+
+    @Test
+    void release_ShouldForgetUsersWithoutUnfinishedJobs() {
+        admission.admit("job-1", 1, CODER);
+        admission.admit("job-2", 1, CODER);
+        admission.admit("job-3", 2, VISUALIZER);
+
+        admission.release("job-1");
+        admission.release("job-3");
+        assertEquals(1, admission.trackedUserCount());
+        admission.release("job-2");
+
+        assertEquals(0, admission.trackedUserCount());
+    }
+
+    @Test
+    void admit_ShouldRejectEveryone_WhenSampledBacklogReachesAgentLimit() {
+        when(outboundJobRepository.countByAgentTypeAndStatusIn(eq(VISUALIZER), anyCollection())).thenReturn(1L);
+        when(outboundJobRepository.countByAgentTypeAndStatusIn(eq(CODER), anyCollection())).thenReturn(1L);
+        when(rabbitTemplate.<Integer>execute(any())).thenReturn(2);
+
+        admission.sampleQueueDepths();
+        JobAdmission.Decision rejected = admission.admit("job-1", 1, VISUALIZER);
+
+        assertFalse(rejected.admitted());
+        assertEquals("queue_full", rejected.reason());
+        assertEquals(30, rejected.retryAfterSeconds());
+        assertTrue(admission.admit("job-2", 1, CODER).admitted());
+        assertEquals(3, meterRegistry.get("jobs.admission.queue.depth").tag("agent", VISUALIZER).gauge().value());
+    }
+
+    @Test
+    void sampleQueueDepths_ShouldFallBackToOutbox_WhenBrokerCannotBeAsked() {
+        when(outboundJobRepository.countByAgentTypeAndStatusIn(eq(VISUALIZER), anyCollection())).thenReturn(3L);
+        when(outboundJobRepository.countByAgentTypeAndStatusIn(eq(CODER), anyCollection())).thenReturn(0L);
+        when(rabbitTemplate.<Integer>execute(any())).thenThrow(new AmqpIOException(new IOException()));
+
+        admission.sampleQueueDepths();
+
+        assertFalse(admission.admit("job-1", 1, VISUALIZER).admitted());
+    }
+
+    @Test
+    void admit_ShouldNeverExceedUserLimit_UnderConcurrentSubmits() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        for (int i = 0; i < 64; i++) {
+            String jobId = "job-" + i;
+            executor.submit(() -> {
+                start.await();
+                if (admission.admit(jobId, 1, CODER).admitted())
+                    admitted.incrementAndGet();
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(2, admitted.get());
+    }
+}
@@ -0,0 +1,278 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.conversational.system.application.entities.job.OutboundJob;
+import com.conversational.system.application.entities.job.OutboundJobRepository;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.messaging.ConfirmedPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/* Runs JobDispatcher and JobOutboxRelay against an in-memory outbox and a stub agent consuming one job
+ * at a time per agent type, on a simulated clock advancing one second per step. Results are consumed by
+ * the backend instances in turn and their completions fanned out to all of them, as over Redis. */
+@ExtendWith(MockitoExtension.class)
+public class JobDispatchSimulationTests {
+    private static final String VISUALIZER = "VISUALIZER_AGENT";
+    private static final String MODELER = "MODELER_AGENT";
+
+    @Mock
+    private OutboundJobRepository outboundJobRepository;
+
+    @Mock
+    private ConfirmedPublisher confirmedPublisher;
+
+    @Mock
+    private JobAdmission jobAdmission;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final List<OutboundJob> outbox = new ArrayList<>();
+    private final Map<String, List<Message>> brokerQueues = new HashMap<>();
+    private final Map<String, Integer> durations = new HashMap<>();
+    private final Map<String, Running> consumers = new HashMap<>();
+    private final List<String> completed = new ArrayList<>();
+    private final SimulatedClock clock = new SimulatedClock();
+    private final List<Instance> instances = new ArrayList<>();
+    private MockEnvironment environment;
+    private SimpleMeterRegistry meterRegistry;
+    private JobDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("app.queue.agents.types", VISUALIZER + "," + MODELER)
+                .withProperty("app.jobs.dispatch.max-in-flight", "2")
+                .withProperty("app.jobs.dispatch.job-cost-seconds", "20")
+                .withProperty("app.jobs.dispatch.weights.pro", "3");
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = addInstance().dispatcher();
+
+        when(outboundJobRepository.save(any(OutboundJob.class))).thenAnswer(invocation -> {
+            OutboundJob job = invocation.getArgument(0);
+            job.setId((long) outbox.size() + 1);
+            outbox.add(job);
+            return job;
+        });
+        when(outboundJobRepository.findClaimable(any(), any(), any(), any())).thenReturn(List.of());
+        when(outboundJobRepository.findClaimableByAgentType(anyString(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> claimable(invocation.getArgument(0), invocation.getArgument(4)));
+        when(outboundJobRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(confirmedPublisher.publish(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            brokerQueues.computeIfAbsent(invocation.getArgument(1), ignored -> new ArrayList<>())
+                    .add(invocation.getArgument(2));
+            return CompletableFuture.completedFuture(null);
+        });
+        doAnswer(invocation -> {
+            instances.forEach(instance -> instance.completions().receive(invocation.getArgument(1)));
+            return 1L;
+        }).when(redisTemplate).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void lightUser_ShouldNotWaitBehindHeavyUsersBacklog() {
+        User heavy = user(1, "free");
+        User light = user(2, "free");
+        for (int i = 0; i < 20; i++)
+            submit(heavy, VISUALIZER, "heavy-" + i, 60);
+        run(5);
+        submit(light, VISUALIZER, "light-viz", 60);
+        submit(light, MODELER, "light-model", 5);
+
+        run(300);
+
+        // Heavy's first two jobs were running or prefetched already; FIFO would have put light's 21st
+        assertTrue(completed.indexOf("light-viz") <= 2, "Completion order: " + completed);
+        assertEquals(0, completed.indexOf("light-model"), "Completion order: " + completed);
+        assertEquals(JobDispatcher.INTERACTIVE_PRIORITY, published("light-viz").getMessageProperties().getPriority());
+        assertEquals(JobDispatcher.BACKGROUND_PRIORITY, published("heavy-5").getMessageProperties().getPriority());
+        assertEquals(1, meterRegistry.get("jobs.dispatch.queue.wait").tag("priority", "interactive")
+                .tag("agent", MODELER).timer().count());
+    }
+
+    @Test
+    void backloggedUsers_ShouldShareCapacityByPlanWeight() {
+        User free = user(1, "free");
+        User pro = user(2, "pro");
+        for (int i = 0; i < 12; i++) {
+            submit(free, MODELER, "free-" + i, 10);
+            submit(pro, MODELER, "pro-" + i, 10);
+        }
+
+        run(150);
+
+        List<String> first = completed.subList(0, 12);
+        long proJobs = first.stream().filter(jobId -> jobId.startsWith("pro-")).count();
+        // Weight 3 against 1 gives pro about three in every four slots
+        assertTrue(proJobs >= 8 && proJobs <= 10, "Completion order: " + completed);
+        assertEquals(0, dispatcher.inFlightCount(MODELER) - inProgress(MODELER));
+    }
+
+    @Test
+    void slotsOfJobsPublishedByOneInstance_ShouldBeFreed_WhenAnotherConsumesTheirResults() {
+        Instance second = addInstance();
+        User user = user(1, "free");
+        for (int i = 0; i < 12; i++)
+            submit(instances.get(i % 2), user, MODELER, "job-" + i, 10);
+
+        run(150);
+
+        // Without the fan-out every slot whose result went to the other instance would be held for 30 minutes
+        assertEquals(12, completed.size(), "Completion order: " + completed);
+        assertEquals(0, dispatcher.inFlightCount(MODELER));
+        assertEquals(0, second.dispatcher().inFlightCount(MODELER));
+    }
+
+    private Instance addInstance() {
+        SimpleMeterRegistry registry = instances.isEmpty() ? meterRegistry : new SimpleMeterRegistry();
+        JobDispatcher instanceDispatcher = new JobDispatcher(environment, registry);
+        instanceDispatcher.clock = clock;
+        JobOutboxRelay relay = new JobOutboxRelay(outboundJobRepository, confirmedPublisher, instanceDispatcher, jobService, new ObjectMapper(), transactionManager, registry);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "lockTimeoutMs", 30000L);
+        JobCompletionPublisher completions = new JobCompletionPublisher(redisTemplate, instanceDispatcher,
+                jobAdmission);
+        ReflectionTestUtils.setField(completions, "channel", "job_completions");
+        ReflectionTestUtils.setField(completions, "redisFanout", true);
+        Instance instance = new Instance(instanceDispatcher, relay, completions);
+        instances.add(instance);
+        return instance;
+    }
+
+    private void submit(User user, String agentType, String jobId, int durationSeconds) {
+        submit(instances.get(0), user, agentType, jobId, durationSeconds);
+    }
+
+    private void submit(Instance instance, User user, String agentType, String jobId, int durationSeconds) {
+        durations.put(jobId, durationSeconds);
+        instance.relay().enqueue(jobId, instance.dispatcher().schedule(agentType, user), Map.of("jobId", jobId));
+    }
+
+    private void run(int seconds) {
+        for (int second = 0; second < seconds; second++) {
+            consumers.values().removeIf(running -> {
+                if (running.doneAt() > clock.millis())
+                    return false;
+                completed.add(running.jobId());
+                instances.get(completed.size() % instances.size()).completions().publish(running.jobId());
+                return true;
+            });
+            instances.forEach(instance -> instance.relay().dispatchBatch());
+            brokerQueues.forEach((agentType, queue) -> {
+                if (consumers.containsKey(agentType) || queue.isEmpty())
+                    return;
+                Message next = queue.stream()
+                        .max(Comparator.comparingInt(message -> message.getMessageProperties().getPriority()))
+                        .orElseThrow();
+                queue.remove(next);
+                String jobId = next.getMessageProperties().getMessageId();
+                consumers.put(agentType, new Running(jobId, clock.millis() + durations.get(jobId) * 1000L));
+            });
+            clock.advanceSeconds(1);
+        }
+    }
+
+    private int inProgress(String agentType) {
+        return (consumers.containsKey(agentType) ? 1 : 0) + brokerQueues.getOrDefault(agentType, List.of()).size();
+    }
+
+    private List<OutboundJob> claimable(String agentType, Pageable pageable) {
+        return outbox.stream()
+                .filter(job -> agentType.equals(job.getAgentType()) && job.getStatus() == OutboundJob.Status.PENDING)
+                .sorted(Comparator.comparingInt(OutboundJob::getPriority).reversed()
+                        .thenComparingLong(OutboundJob::getDispatchTag)
+                        .thenComparingLong(OutboundJob::getId))
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private Message published(String jobId) {
+        return mockingDetails(confirmedPublisher).getInvocations().stream()
+                .filter(invocation -> invocation.getArguments().length == 3
+                        && invocation.getArgument(2) instanceof Message message
+                        && jobId.equals(message.getMessageProperties().getMessageId()))
+                .map(invocation -> (Message) invocation.getArgument(2))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static User user(int id, String plan) {
+        User user = new User("user" + id + "@example.com", "user" + id, null);
+        user.setId(id);
+        user.setPlan(plan);
+        return user;
+    }
+
+    private record Running(String jobId, long doneAt) {
+    }
+
+    private record Instance(JobDispatcher dispatcher, JobOutboxRelay relay, JobCompletionPublisher completions) {
+    }
+
+    private static final class SimulatedClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advanceSeconds(int seconds) {
+            millis += seconds * 1000L;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
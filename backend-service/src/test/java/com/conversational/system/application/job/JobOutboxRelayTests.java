@@ -0,0 +1,153 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.conversational.system.application.entities.job.OutboundJob;
+import com.conversational.system.application.entities.job.OutboundJobRepository;
+import com.conversational.system.application.messaging.ConfirmedPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class JobOutboxRelayTests {
+    @Mock
+    private OutboundJobRepository outboundJobRepository;
+
+    @Mock
+    private ConfirmedPublisher confirmedPublisher;
+
+    @Mock
+    private JobDispatcher jobDispatcher;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private JobOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new JobOutboxRelay(outboundJobRepository, confirmedPublisher, jobDispatcher, jobService,
+                new ObjectMapper(), transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "initialBackoffMs", 500L);
+        ReflectionTestUtils.setField(relay, "lockTimeoutMs", 30000L);
+    }
+
+    @Test
+    void dispatchBatch_ShouldPublishWholeBatch_AndMarkJobsSentOnceConfirmed() {
+        List<OutboundJob> batch = List.of(
+                new OutboundJob("job-1", "agent_requests", "{\"jobId\":\"job-1\"}"),
+                new OutboundJob("job-2", "agent_requests", "{\"jobId\":\"job-2\"}"));
+        stubClaimableJobs(batch);
+        when(confirmedPublisher.publish(isNull(), eq("agent_requests"), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(2, relay.dispatchBatch());
+
+        ArgumentCaptor<Object> messages = ArgumentCaptor.forClass(Object.class);
+        verify(confirmedPublisher, times(2)).publish(isNull(), eq("agent_requests"), messages.capture());
+        assertEquals("{\"jobId\":\"job-1\"}", new String(((Message) messages.getAllValues().get(0)).getBody(),
+                StandardCharsets.UTF_8));
+        assertEquals("job-2", ((Message) messages.getAllValues().get(1)).getMessageProperties().getMessageId());
+        batch.forEach(job -> assertEquals(OutboundJob.Status.SENT, job.getStatus()));
+    }
+
+    @Test
+    void dispatchBatch_ShouldRetryOnlyUnconfirmedJobs_WithBackoff() {
+        OutboundJob confirmed = new OutboundJob("job-1", "agent_requests", "{}");
+        OutboundJob nacked = new OutboundJob("job-2", "agent_requests", "{}");
+        stubClaimableJobs(List.of(confirmed, nacked));
+        when(confirmedPublisher.publish(isNull(), eq("agent_requests"), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("Message nacked by broker")));
+
+        relay.dispatchBatch();
+
+        assertEquals(OutboundJob.Status.SENT, confirmed.getStatus());
+        assertEquals(OutboundJob.Status.PENDING, nacked.getStatus());
+        assertEquals(1, nacked.getAttempts());
+        assertEquals("Message nacked by broker", nacked.getLastError());
+        assertTrue(nacked.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        verify(jobService, never()).updateJobResult(any(), any(), any());
+    }
+
+    @Test
+    void dispatchBatch_ShouldGiveUpAndFailJob_AfterMaxAttempts() {
+        OutboundJob job = new OutboundJob("job-1", "agent_requests", "{}");
+        job.setAttempts(2);
+        stubClaimableJobs(List.of(job));
+        when(confirmedPublisher.publish(isNull(), eq("agent_requests"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        relay.dispatchBatch();
+
+        assertEquals(OutboundJob.Status.FAILED, job.getStatus());
+        verify(jobService).updateJobResult("job-1", JobState.ERROR, "Failed to submit job");
+    }
+
+    @Test
+    void purgeFinished_ShouldDeleteSentAndFailedRequests_OlderThanRetention() {
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "retentionHours", 24L);
+        when(outboundJobRepository.deleteFinishedBefore(any(), any())).thenReturn(3);
+
+        relay.purgeFinished();
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboundJobRepository).deleteFinishedBefore(
+                eq(List.of(OutboundJob.Status.SENT, OutboundJob.Status.FAILED)), before.capture());
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+    }
+
+    @Test
+    void enqueue_ShouldOnlyPersistEnvelope_WithoutPublishing() {
+        relay.enqueue("job-1", new JobDispatcher.Ticket("agent_requests", "CODER_AGENT", 7, "free",
+                JobDispatcher.INTERACTIVE_PRIORITY, 1000L), Map.of("jobId", "job-1", "prompt", "hello"));
+
+        ArgumentCaptor<OutboundJob> captor = ArgumentCaptor.forClass(OutboundJob.class);
+        verify(outboundJobRepository).save(captor.capture());
+        assertEquals(OutboundJob.Status.PENDING, captor.getValue().getStatus());
+        assertEquals("CODER_AGENT", captor.getValue().getRoutingKey());
+        assertEquals(1000L, captor.getValue().getDispatchTag());
+        assertTrue(captor.getValue().getPayload().contains("\"prompt\":\"hello\""));
+        verify(confirmedPublisher, never()).publish(any(), any(), any());
+    }
+
+    private void stubClaimableJobs(List<OutboundJob> jobs) {
+        when(outboundJobRepository.findClaimable(eq(OutboundJob.Status.PENDING), eq(OutboundJob.Status.SENDING),
+                any(LocalDateTime.class), any())).thenReturn(jobs);
+        when(outboundJobRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+}
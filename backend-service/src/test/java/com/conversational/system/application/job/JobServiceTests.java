@@ -0,0 +1,85 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.conversational.system.application.conversation.ConversationService;
+import com.conversational.system.application.entities.conversation.Message;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.events.UserEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JobServiceTests {
+    private ConversationService conversationService;
+    private PlatformTransactionManager transactionManager;
+    private InMemoryJobStateStore jobStateStore;
+    private JobService jobService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        conversationService = mock(ConversationService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        jobStateStore = new InMemoryJobStateStore(new SimpleMeterRegistry(), 60, 600, 100, System::currentTimeMillis);
+        JobService target = new JobService(mock(JobOutboxRelay.class), mock(JobDispatcher.class),
+                mock(JobCompletionPublisher.class), conversationService, jobStateStore, mock(UserEventPublisher.class),
+                mock(AgentResponseCache.class), mock(JobCancellation.class));
+        // Proxied like the bean, so completeJob runs in a (mocked) transaction
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        jobService = (JobService) proxyFactory.getProxy();
+
+        user = new User("user@example.com", "user", "hash");
+        user.setId(7);
+        jobStateStore.startJob("job-1", UUID.randomUUID(), user.getId());
+    }
+
+    @Test
+    void completeJob_ShouldCommitAnswer_WhenJobIsStillRunning() {
+        when(conversationService.saveAssistantMessage("job-1", "answer")).thenReturn(message());
+
+        jobService.completeJob("job-1", "answer");
+
+        assertEquals(JobState.COMPLETED, jobStateStore.getJob("job-1").orElseThrow().status());
+        verify(transactionManager).commit(any());
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    void completeJob_ShouldRollBackAnswer_WhenJobIsCancelledBetweenCheckAndSave() {
+        when(conversationService.saveAssistantMessage("job-1", "answer")).thenAnswer(save -> {
+            jobService.cancelJob("job-1", user);
+            return message();
+        });
+
+        assertThrows(JobService.JobFinishedException.class, () -> jobService.completeJob("job-1", "answer"));
+
+        assertEquals(JobState.CANCELLED, jobStateStore.getJob("job-1").orElseThrow().status());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private static Message message() {
+        Message message = new Message(null, "assistant", "answer", "job-1");
+        message.setId(UUID.randomUUID());
+        return message;
+    }
+}
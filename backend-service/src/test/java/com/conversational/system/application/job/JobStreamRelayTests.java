@@ -0,0 +1,250 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.conversational.system.application.config.ResultsListener;
+import com.conversational.system.application.messaging.ConfirmedPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JobStreamRelayTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private AmqpAdmin amqpAdmin;
+    private ConnectionFactory connectionFactory;
+    private JobStreamRelay relay;
+    private JobService jobService;
+    private ResultsListener resultsListener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        amqpAdmin = mock(AmqpAdmin.class);
+        connectionFactory = mock(ConnectionFactory.class);
+        relay = new JobStreamRelay(amqpAdmin, new AnonymousQueue(), new TopicExchange("job_stream"), connectionFactory,
+                meterRegistry);
+        ReflectionTestUtils.setField(relay, "coalesceChars", 16);
+        ReflectionTestUtils.setField(relay, "maxPendingChars", 4096);
+        ReflectionTestUtils.setField(relay, "maxSessionMinutes", 15L);
+        ReflectionTestUtils.setField(relay, "senderThreads", 2);
+        relay.start();
+
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        jobService = mock(JobService.class);
+        JobCancellation jobCancellation = new JobCancellation(mock(JobOutboxRelay.class),
+                mock(ConfirmedPublisher.class), new MockEnvironment(), meterRegistry);
+        resultsListener = new ResultsListener(redisTemplate, jobService, relay,
+                jobCancellation, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+    }
+
+    @Test
+    void chunks_ShouldBeCoalescedIntoFewFrames_AndReassembleTheAnswer() throws Exception {
+        List<String> frames = new CopyOnWriteArrayList<>();
+        WebSocketSession session = session("s1", frames, null);
+        relay.register("job-1", session);
+
+        String answer = "x = LpVariable('x', lowBound=0)\nprob += 3 * x + 2 * y\n".repeat(3);
+        new StubChunkPublisher("job-1").publishByCharacter(answer);
+
+        awaitTrue(() -> !frames.isEmpty() && frames.get(frames.size() - 1).contains("\"type\":\"end\""));
+        StringBuilder reassembled = new StringBuilder();
+        long expectedSeq = 0;
+        for (String frame : frames.subList(0, frames.size() - 1)) {
+            Map<?, ?> chunk = objectMapper.readValue(frame, Map.class);
+            assertEquals(expectedSeq, ((Number) chunk.get("fromSeq")).longValue());
+            expectedSeq = ((Number) chunk.get("toSeq")).longValue() + 1;
+            reassembled.append(chunk.get("text"));
+        }
+        assertEquals(answer, reassembled.toString());
+        assertTrue(frames.size() < answer.length() / 8, "expected coalescing, got " + frames.size() + " frames");
+        verify(session).close(CloseStatus.NORMAL);
+        verify(amqpAdmin).declareBinding(any(Binding.class));
+        verify(amqpAdmin).removeBinding(any(Binding.class));
+    }
+
+    @Test
+    void routingKeyBinding_ShouldBeShared_BySocketsWatchingTheSameJob() {
+        WebSocketSession first = session("s1", new ArrayList<>(), null);
+        WebSocketSession second = session("s2", new ArrayList<>(), null);
+
+        relay.register("job-1", first);
+        relay.register("job-1", second);
+        relay.unregister(first);
+
+        verify(amqpAdmin, times(1)).declareBinding(any(Binding.class));
+        verify(amqpAdmin, times(0)).removeBinding(any(Binding.class));
+
+        relay.unregister(second);
+
+        verify(amqpAdmin, times(1)).removeBinding(any(Binding.class));
+        assertEquals(0, relay.sessionCount());
+    }
+
+    @Test
+    void watchedJobs_ShouldBeRebound_WhenTheConnectionIsReestablished() {
+        ArgumentCaptor<ConnectionListener> listener = ArgumentCaptor.forClass(ConnectionListener.class);
+        verify(connectionFactory).addConnectionListener(listener.capture());
+        WebSocketSession first = session("s1", new ArrayList<>(), null);
+        WebSocketSession second = session("s2", new ArrayList<>(), null);
+        WebSocketSession gone = session("s3", new ArrayList<>(), null);
+        relay.register("job-1", first);
+        relay.register("job-2", second);
+        relay.register("job-3", gone);
+        relay.unregister(gone);
+
+        listener.getValue().onCreate(mock(Connection.class));
+
+        ArgumentCaptor<Binding> bindings = ArgumentCaptor.forClass(Binding.class);
+        verify(amqpAdmin, times(5)).declareBinding(bindings.capture());
+        assertEquals(List.of("job.job-1", "job.job-2"), bindings.getAllValues().subList(3, 5).stream()
+                .map(Binding::getRoutingKey).sorted().toList());
+    }
+
+    @Test
+    void socketThatCannotKeepUp_ShouldBeClosed() throws Exception {
+        ReflectionTestUtils.setField(relay, "maxPendingChars", 64);
+        CountDownLatch blocked = new CountDownLatch(1);
+        WebSocketSession slow = session("slow", new ArrayList<>(), blocked);
+        relay.register("job-1", slow);
+
+        StubChunkPublisher publisher = new StubChunkPublisher("job-1");
+        for (int i = 0; i < 40; i++)
+            publisher.publish("chunk-" + i + " ");
+
+        awaitTrue(() -> meterRegistry.get("jobs.stream.slow_sessions").counter().count() == 1);
+        verify(slow).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, relay.sessionCount());
+        blocked.countDown();
+    }
+
+    @Test
+    void completedResult_ShouldRecordTimeToFirstToken() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("jobId", "job-1");
+        result.put("status", "TASK_COMPLETED");
+        result.put("agentType", "CODER_AGENT");
+        result.put("payload", Map.of("content", "answer"));
+        result.put("submittedAt", 1_000L);
+        result.put("firstTokenAt", 1_750L);
+
+        resultsListener.receiveJobResults(result);
+
+        var timer = meterRegistry.get("jobs.time_to_first_token").tag("agentType", "CODER_AGENT").timer();
+        assertEquals(1, timer.count());
+        assertEquals(750.0, timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void completedResultOfCancelledJob_ShouldBeDropped() {
+        when(jobService.isCancelled("job-1")).thenReturn(true);
+        Map<String, Object> result = new HashMap<>();
+        result.put("jobId", "job-1");
+        result.put("status", "TASK_COMPLETED");
+        result.put("agentType", "CODER_AGENT");
+        result.put("payload", Map.of("content", "answer"));
+        result.put("submittedAt", System.currentTimeMillis() - 5_000);
+
+        resultsListener.receiveJobResults(result);
+
+        verify(jobService, never()).completeJob(any(), any());
+        verify(jobService, never()).updateJobResult(any(), any(), any(), any());
+        var timer = meterRegistry.get("jobs.cancelled.agent.time").tag("result", "late").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 5_000);
+    }
+
+    // Publishes TASK_CHUNK messages in the agent's format through the listener, like agent-service would
+    private class StubChunkPublisher {
+        private final String jobId;
+        private long seq;
+
+        StubChunkPublisher(String jobId) {
+            this.jobId = jobId;
+        }
+
+        void publishByCharacter(String text) {
+            for (char c : text.toCharArray())
+                publish(String.valueOf(c));
+            finish("completed");
+        }
+
+        void publish(String delta) {
+            resultsListener.receiveJobChunks(Map.of("jobId", jobId, "status", "TASK_CHUNK", "seq", seq++,
+                    "delta", delta));
+        }
+
+        void finish(String outcome) {
+            resultsListener.receiveJobChunks(Map.of("jobId", jobId, "status", "TASK_CHUNK", "seq", seq++,
+                    "delta", "", "final", true, "outcome", outcome));
+        }
+    }
+
+    private static WebSocketSession session(String id, List<String> frames, CountDownLatch blockSends) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id + "-" + UUID.randomUUID());
+        when(session.isOpen()).thenReturn(true);
+        try {
+            doAnswer(invocation -> {
+                if (blockSends != null)
+                    blockSends.await(5, TimeUnit.SECONDS);
+                frames.add(((TextMessage) invocation.getArgument(0)).getPayload());
+                return null;
+            }).when(session).sendMessage(any());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return session;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                throw new AssertionError("Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.conversational.system.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.conversational.system.application.conversation.ConversationService;
+import com.conversational.system.application.entities.user.User;
+import com.conversational.system.application.events.UserEventPublisher;
+
+/* Two backend "replicas", each with its own Redis connection and JobService, sharing one Redis.
+ * Runs against REDIS_HOST:REDIS_PORT (default localhost:6379) and is skipped when no Redis is reachable,
+ * e.g.: docker run --rm -p 6379:6379 redis:7-alpine */
+public class RedisJobStateStoreIntegrationTests {
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final ConversationService conversationService = mock(ConversationService.class);
+    private StringRedisTemplate redisTemplate;
+    private JobService replicaA;
+    private JobService replicaB;
+    private UUID conversationId;
+
+    @BeforeEach
+    void setUp() {
+        StringRedisTemplate templateA = connect();
+        Assumptions.assumeTrue(isReachable(templateA), "No Redis reachable, skipping multi-replica job state tests");
+        StringRedisTemplate templateB = connect();
+        redisTemplate = templateA;
+
+        replicaA = replica(templateA);
+        replicaB = replica(templateB);
+        conversationId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (redisTemplate != null && conversationId != null) {
+            Set<String> keys = redisTemplate.keys("*" + conversationId + "*");
+            if (keys != null && !keys.isEmpty())
+                redisTemplate.delete(keys);
+        }
+        connectionFactories.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    @Test
+    void resultReceivedOnOneReplica_ShouldBeVisibleOnTheOther() {
+        String jobId = submit(replicaA);
+        assertTrue(replicaB.hasActiveJob(conversationId));
+        assertEquals(jobId, replicaB.getActiveJobId(conversationId));
+        assertEquals("pending", replicaB.getJobStatus(jobId).get("status"));
+
+        UUID messageId = UUID.randomUUID();
+        when(conversationService.getMessageContent(messageId)).thenReturn("answer");
+        replicaB.updateJobResult(jobId, "completed", "answer", messageId.toString());
+
+        // The answer is saved as a message, so the job hash only keeps its id
+        assertFalse(redisTemplate.opsForHash().hasKey("job:" + jobId, "answer"));
+        Map<String, String> status = replicaA.getJobStatus(jobId);
+        assertEquals("completed", status.get("status"));
+        assertEquals("answer", status.get("answer"));
+        assertEquals(messageId.toString(), status.get("messageId"));
+        assertFalse(replicaA.hasActiveJob(conversationId));
+        assertFalse(replicaA.hasLastError(conversationId));
+    }
+
+    @Test
+    void lastError_ShouldBeShared_AndClearedByTheNextJob() {
+        String failedJob = submit(replicaA);
+        replicaB.updateJobResult(failedJob, "error", "Task failed: boom");
+
+        assertTrue(replicaA.hasLastError(conversationId));
+        assertFalse(replicaA.hasActiveJob(conversationId));
+
+        submit(replicaB);
+
+        assertFalse(replicaA.hasLastError(conversationId));
+        assertTrue(replicaA.hasActiveJob(conversationId));
+    }
+
+    @Test
+    void terminalStatus_ShouldBeApplied_ExactlyOnce_UnderConcurrentResults() throws Exception {
+        String jobId = submit(replicaA);
+        RedisJobStateStore storeA = new RedisJobStateStore(redisTemplate, 1);
+        RedisJobStateStore storeB = new RedisJobStateStore(connect(), 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> updates = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            RedisJobStateStore store = i % 2 == 0 ? storeA : storeB;
+            String status = i % 2 == 0 ? "completed" : "error";
+            updates.add(() -> store.updateJob(jobId, status, status, null));
+        }
+        int applied = 0;
+        for (Future<Boolean> result : executor.invokeAll(updates))
+            applied += result.get() ? 1 : 0;
+        executor.shutdown();
+
+        assertEquals(1, applied);
+        Map<String, String> status = replicaB.getJobStatus(jobId);
+        assertEquals(status.get("status"), status.get("answer"));
+    }
+
+    @Test
+    void lateResultOfOlderJob_ShouldNotClearNewerActiveJob() {
+        String olderJob = submit(replicaA);
+        String newerJob = submit(replicaB);
+
+        replicaA.updateJobResult(olderJob, "error", "Task failed: timeout");
+
+        assertEquals(newerJob, replicaB.getActiveJobId(conversationId));
+        assertTrue(replicaB.hasActiveJob(conversationId));
+        assertFalse(replicaB.hasLastError(conversationId));
+    }
+
+    @Test
+    void cancelledJob_ShouldIgnoreItsLateResult_OnEveryReplica() {
+        String jobId = submit(replicaA);
+        User stranger = new User();
+        stranger.setId(42);
+
+        assertEquals(JobService.CancelResult.NOT_FOUND, replicaB.cancelJob(jobId, stranger));
+        assertEquals(JobService.CancelResult.CANCELLED, replicaB.cancelJob(jobId, owner()));
+        replicaA.updateJobResult(jobId, "completed", "late answer", UUID.randomUUID().toString());
+
+        assertTrue(replicaA.isCancelled(jobId));
+        assertEquals("cancelled", replicaA.getJobStatus(jobId).get("status"));
+        assertFalse(replicaA.hasActiveJob(conversationId));
+        assertFalse(replicaA.hasLastError(conversationId));
+        assertEquals(JobService.CancelResult.FINISHED, replicaA.cancelJob(jobId, owner()));
+    }
+
+    @Test
+    void jobKeys_ShouldExpire() {
+        String jobId = submit(replicaA);
+
+        assertTrue(redisTemplate.getExpire("job:" + jobId) > 0);
+        assertTrue(redisTemplate.getExpire("conversation_job:" + conversationId) > 0);
+        redisTemplate.delete("job:" + jobId);
+    }
+
+    private String submit(JobService replica) {
+        JobDescriptionDto job = new JobDescriptionDto();
+        job.setJobId("job-" + UUID.randomUUID());
+        job.setAgentType("code");
+        job.setPrompt("hello");
+        job.setConversationId(conversationId);
+        replica.submitJob(job, owner());
+        return job.getJobId();
+    }
+
+    private static User owner() {
+        User user = new User();
+        user.setId(7);
+        return user;
+    }
+
+    private JobService replica(StringRedisTemplate template) {
+        return new JobService(mock(JobOutboxRelay.class), mock(JobDispatcher.class),
+                mock(JobCompletionPublisher.class), conversationService, new RedisJobStateStore(template, 1),
+                mock(UserEventPublisher.class), mock(AgentResponseCache.class), mock(JobCancellation.class));
+    }
+
+    private StringRedisTemplate connect() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        connectionFactories.add(connectionFactory);
+        return new StringRedisTemplate(connectionFactory);
+    }
+
+    private static boolean isReachable(StringRedisTemplate template) {
+        try {
+            template.getConnectionFactory().getConnection().ping();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.conversational.system.application.messaging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ConfirmedPublisherTests {
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations channel;
+
+    private final List<CorrelationData> unconfirmed = new CopyOnWriteArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private ConfirmedPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new ConfirmedPublisher(rabbitTemplate, meterRegistry);
+        ReflectionTestUtils.setField(publisher, "maxInFlight", 2);
+        ReflectionTestUtils.setField(publisher, "batchSize", 128);
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(publisher, "acquireTimeoutMs", 50L);
+
+        lenient().when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> invocation
+                .<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(channel));
+        lenient().doAnswer(invocation -> unconfirmed.add(invocation.getArgument(2)))
+                .when(channel).convertAndSend(anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        publisher.stop();
+    }
+
+    @Test
+    void publish_ShouldCompleteOnAck_AndFailOnNack() throws InterruptedException {
+        publisher.start();
+
+        CompletableFuture<Void> acked = publisher.publish("agent_requests", Map.of("jobId", "job-1"));
+        CompletableFuture<Void> nacked = publisher.publish("agent_requests", Map.of("jobId", "job-2"));
+        awaitTrue(() -> unconfirmed.size() == 2);
+        assertFalse(acked.isDone());
+
+        unconfirmed.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        unconfirmed.get(1).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        acked.join();
+        CompletionException failure = assertThrows(CompletionException.class, nacked::join);
+        assertTrue(failure.getCause().getMessage().contains("queue full"));
+        assertEquals(1, meterRegistry.get("rabbit.publish").tag("result", "acked").counter().count());
+        assertEquals(0, publisher.inFlightCount());
+    }
+
+    @Test
+    void publish_ShouldReject_WhenWindowIsFull_UntilConfirmsFreeIt() throws InterruptedException {
+        publisher.start();
+        publisher.publish("agent_requests", "first");
+        publisher.publish("agent_requests", "second");
+
+        CompletableFuture<Void> rejected = publisher.publish("agent_requests", "third");
+
+        CompletionException failure = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(AmqpException.class, failure.getCause());
+        awaitTrue(() -> unconfirmed.size() == 2);
+        unconfirmed.forEach(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null)));
+        awaitTrue(() -> publisher.inFlightCount() == 0);
+        assertFalse(publisher.publish("agent_requests", "fourth").isCompletedExceptionally());
+    }
+
+    @Test
+    void publish_ShouldTimeOut_AndReleaseWindow_WhenBrokerNeverConfirms() throws InterruptedException {
+        ReflectionTestUtils.setField(publisher, "confirmTimeoutMs", 50L);
+        publisher.start();
+
+        CompletableFuture<Void> result = publisher.publish("agent_requests", "payload");
+
+        CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        awaitTrue(() -> publisher.inFlightCount() == 0);
+        assertEquals(1, meterRegistry.get("rabbit.publish").tag("result", "timeout").counter().count());
+    }
+
+    @Test
+    void publish_ShouldFailWholeBatch_WhenConnectionIsDown() {
+        doThrow(new AmqpConnectException(new RuntimeException())).when(rabbitTemplate).invoke(any());
+        publisher.start();
+
+        CompletableFuture<Void> result = publisher.publish("agent_requests", "payload");
+
+        CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(AmqpConnectException.class, failure.getCause());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                throw new AssertionError("Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
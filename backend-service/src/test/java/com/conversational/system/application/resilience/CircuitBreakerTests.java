@@ -0,0 +1,30 @@
+package com.conversational.system.application.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CircuitBreakerTests {
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, 0, e -> true,
+            new SimpleMeterRegistry());
+
+    @Test
+    void halfOpenTrial_ShouldReopenCircuit_WhenItThrowsAnError() {
+        assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertThrows(OutOfMemoryError.class, () -> circuitBreaker.call(() -> {
+            throw new OutOfMemoryError("trial");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        // The next trial is let through again and closes the circuit
+        assertEquals("ok", circuitBreaker.call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+}
@@ -18,7 +18,13 @@ function ChatPageContent() {
   const { toast } = useToast()
 
   const activeConversation = conversations.find((c) => c.id === activeConversationId)
-  const activePollCancelRef = useRef<null | (() => void)>(null)
+  // Stops following the active job; abandonJob also cancels it on the backend
+  const activePollCancelRef = useRef<null | ((abandonJob?: boolean) => void)>(null)
+
+  // Switching conversations keeps the job running so its result can be picked up on return
+  const abandon = (jobId: string) => {
+    chatApi.cancelJob(jobId).catch((error) => console.error(`Failed to cancel job ${jobId}:`, error))
+  }
 
   // Initialize new conversation with MODELER subchat
   const createNewConversation = (initialMessage?: Message): Conversation => {
@@ -292,7 +298,12 @@ function ChatPageContent() {
     // If there is a pending job for this conversation, poll by jobId and append result
     if (pendingJobId) {
       try {
-        const { promise, cancel } = chatApi.pollJobStatusCancellable(pendingJobId, () => { })
+        const { promise, cancel: cancelPoll } = chatApi.pollJobStatusCancellable(pendingJobId, () => { })
+        const jobId = pendingJobId
+        const cancel = (abandonJob = false) => {
+          cancelPoll()
+          if (abandonJob) abandon(jobId)
+        }
         activePollCancelRef.current = cancel
         const result = await promise
 
@@ -452,6 +463,8 @@ function ChatPageContent() {
           c.id === currentConvId ? { ...c, isLoading: true } : c
         )
       )
+      let stopStream: (() => void) | null = null
+      const streamConvId = currentConvId
 
       try {
         // Get current conversation for context
@@ -482,10 +495,18 @@ function ChatPageContent() {
           backendConversationId = submitResponse.conversationId
         }
 
-        // Poll for job status
-        const { promise, cancel } = chatApi.pollJobStatusCancellable(jobId, (status) => {
+        // Show the answer while it is generated, then wait for the final result
+        stopStream = chatApi.streamJobOutput(jobId, (text) => {
+          setConversations((prev) => prev.map((c) => (c.id === streamConvId ? { ...c, streamingText: text } : c)))
+        })
+        const { promise, cancel: cancelPoll } = chatApi.pollJobStatusCancellable(jobId, (status) => {
           console.log(`Job ${jobId} status:`, status.status)
         })
+        const cancel = (abandonJob = false) => {
+          cancelPoll()
+          stopStream?.()
+          if (abandonJob) abandon(jobId)
+        }
         // Track cancel handle for this active poll
         activePollCancelRef.current = cancel
         const result = await promise
@@ -570,9 +591,10 @@ function ChatPageContent() {
           )
         )
       } finally {
+        stopStream?.()
         setConversations((prev) =>
           prev.map((c) =>
-            c.id === currentConvId ? { ...c, isLoading: false } : c
+            c.id === currentConvId ? { ...c, isLoading: false, streamingText: undefined } : c
           )
         )
         // Clear cancel ref on settle
@@ -585,6 +607,8 @@ function ChatPageContent() {
   const handleAutoGenerate = useCallback(
     async (agentType: AgentType, conversationId: string, acceptedModelMessageId?: string, acceptedCodeMessageId?: string) => {
       // isLoading is already set to true in handleAcceptMessage
+      let stopStream: (() => void) | null = null
+      const streamConvId = conversationId
 
       try {
         const conversation = conversations.find(c => c.id === conversationId)
@@ -609,10 +633,18 @@ function ChatPageContent() {
 
         const jobId = submitResponse.jobId
 
-        // Poll for job status
-        const { promise, cancel } = chatApi.pollJobStatusCancellable(jobId, (status) => {
+        // Show the answer while it is generated, then wait for the final result
+        stopStream = chatApi.streamJobOutput(jobId, (text) => {
+          setConversations((prev) => prev.map((c) => (c.id === streamConvId ? { ...c, streamingText: text } : c)))
+        })
+        const { promise, cancel: cancelPoll } = chatApi.pollJobStatusCancellable(jobId, (status) => {
           console.log(`Job ${jobId} status:`, status.status)
         })
+        const cancel = (abandonJob = false) => {
+          cancelPoll()
+          stopStream?.()
+          if (abandonJob) abandon(jobId)
+        }
         activePollCancelRef.current = cancel
         const result = await promise
 
@@ -688,9 +720,10 @@ function ChatPageContent() {
           updatedAt: new Date(),
         } : c))
       } finally {
+        stopStream?.()
         setConversations((prev) =>
           prev.map((c) =>
-            c.id === conversationId ? { ...c, isLoading: false } : c
+            c.id === conversationId ? { ...c, isLoading: false, streamingText: undefined } : c
           )
         )
         activePollCancelRef.current = null
@@ -699,11 +732,11 @@ function ChatPageContent() {
     [conversations, toast],
   )
 
-  // Cleanup on unmount to stop any polling
+  // Cleanup on unmount to stop any polling, and the job itself since nobody is left to read its answer
   useEffect(() => {
     return () => {
       if (activePollCancelRef.current) {
-        activePollCancelRef.current()
+        activePollCancelRef.current(true)
         activePollCancelRef.current = null
       }
     }
@@ -823,6 +856,7 @@ function ChatPageContent() {
             onAcceptMessage={handleAcceptMessage}
             onNavigateToSubChat={handleNavigateToSubChat}
             isLoading={activeConversation?.isLoading || false}
+            streamingText={activeConversation?.streamingText}
             onMessageAction={(message, action) => {
               if (action !== "Retry") return
 
@@ -830,9 +864,9 @@ function ChatPageContent() {
               const currentConvId = activeConversationId
               if (!retry || !currentConvId) return
 
-              // Cancel any ongoing polling before retrying
+              // Cancel any ongoing job before retrying, its answer would be replaced anyway
               if (activePollCancelRef.current) {
-                activePollCancelRef.current()
+                activePollCancelRef.current(true)
                 activePollCancelRef.current = null
               }
 
@@ -2,7 +2,7 @@
 
 import { Bot } from "lucide-react"
 
-export function LoadingMessage() {
+export function LoadingMessage({ text }: { text?: string }) {
   return (
     <div className="flex gap-4 py-6">
       <div className="relative">
@@ -12,11 +12,18 @@ export function LoadingMessage() {
         </div>
       </div>
 
+      {text ? (
+        <div className="max-w-[80%] whitespace-pre-wrap break-words rounded-2xl bg-secondary/60 backdrop-blur-sm px-4 py-3 border border-border/30 text-sm">
+          {text}
+          <span className="ml-0.5 inline-block h-3 w-1.5 animate-pulse bg-primary/70 align-middle" />
+        </div>
+      ) : (
       <div className="flex max-w-[80%] items-center gap-1.5 rounded-2xl bg-secondary/60 backdrop-blur-sm px-4 py-3 border border-border/30">
         <span className="h-2 w-2 rounded-full bg-gradient-to-br from-primary to-accent animate-bounce [animation-delay:-0.3s]" />
         <span className="h-2 w-2 rounded-full bg-gradient-to-br from-accent to-cyan-400 animate-bounce [animation-delay:-0.15s]" />
         <span className="h-2 w-2 rounded-full bg-gradient-to-br from-cyan-400 to-primary animate-bounce" />
       </div>
+      )}
     </div>
   )
 }
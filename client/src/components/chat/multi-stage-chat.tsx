@@ -17,6 +17,7 @@ interface MultiStageChatProps {
   onAcceptMessage: (agentType: AgentType, message: Message) => void
   onNavigateToSubChat: (index: number) => void
   isLoading?: boolean
+  streamingText?: string
   onMessageAction?: (message: Message, action: string) => void
 }
 
@@ -40,6 +41,7 @@ export function MultiStageChat({
   onAcceptMessage,
   onNavigateToSubChat,
   isLoading = false,
+  streamingText,
   onMessageAction,
 }: MultiStageChatProps) {
   const messagesEndRef = useRef<HTMLDivElement>(null)
@@ -50,7 +52,7 @@ export function MultiStageChat({
 
   useEffect(() => {
     messagesEndRef.current?.scrollIntoView({ behavior: "smooth" })
-  }, [activeSubChat?.messages, isLoading])
+  }, [activeSubChat?.messages, isLoading, streamingText])
 
   const handleSend = (message: string) => {
     if (message.trim() && !isLoading) {
@@ -131,7 +133,7 @@ export function MultiStageChat({
                 </div>
               )
             })}
-            {isLoading && <LoadingMessage />}
+            {isLoading && <LoadingMessage text={streamingText} />}
             <div ref={messagesEndRef} />
           </div>
         )}
@@ -45,6 +45,10 @@ export function SecuritySection() {
       
       if (!response.ok) throw new Error(await response.text() || 'Failed to change password')
 
+      // Changing the password revokes older tokens - the response carries a fresh one
+      const newToken = await response.text()
+      if (newToken) localStorage.setItem('token', newToken)
+
       toast({ title: "Success", description: "Password changed successfully." })
       setCurrentPassword("")
       setNewPassword("")
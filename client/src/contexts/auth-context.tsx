@@ -2,6 +2,19 @@
 
 import type React from "react"
 import { createContext, useContext, useState, useEffect, useCallback } from "react"
+import { authApi } from "@/lib/auth-api"
+
+// Refresh the access token this long before it expires
+const REFRESH_MARGIN_MS = 60_000
+
+function getTokenExpiry(token: string): number | null {
+  try {
+    const payload = JSON.parse(atob(token.split(".")[1].replace(/-/g, "+").replace(/_/g, "/")))
+    return typeof payload.exp === "number" ? payload.exp * 1000 : null
+  } catch {
+    return null
+  }
+}
 
 interface AuthContextType {
   token: string | null
@@ -17,24 +30,55 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
   const [token, setToken] = useState<string | null>(null)
   const [isLoading, setIsLoading] = useState(true)
 
-  useEffect(() => {
-    const storedToken = localStorage.getItem("token")
-    if (storedToken) {
-      setToken(storedToken)
-    }
-    setIsLoading(false)
-  }, [])
-
   const login = useCallback((newToken: string) => {
     localStorage.setItem("token", newToken)
     setToken(newToken)
   }, [])
 
-  const logout = useCallback(() => {
+  const clearSession = useCallback(() => {
     localStorage.removeItem("token")
     setToken(null)
   }, [])
 
+  const logout = useCallback(() => {
+    authApi.logout(localStorage.getItem("token")).catch(() => {})
+    clearSession()
+  }, [clearSession])
+
+  const refresh = useCallback(async () => {
+    try {
+      login(await authApi.refresh())
+    } catch {
+      // Another tab may have rotated the refresh token already
+      const storedToken = localStorage.getItem("token")
+      const expiry = storedToken ? getTokenExpiry(storedToken) : null
+      if (storedToken && expiry && expiry > Date.now()) setToken(storedToken)
+      else clearSession()
+    }
+  }, [login, clearSession])
+
+  useEffect(() => {
+    const storedToken = localStorage.getItem("token")
+    const expiry = storedToken ? getTokenExpiry(storedToken) : null
+    if (storedToken && expiry && expiry <= Date.now()) {
+      refresh().finally(() => setIsLoading(false))
+      return
+    }
+    if (storedToken) {
+      setToken(storedToken)
+    }
+    setIsLoading(false)
+  }, [refresh])
+
+  // Renew the short-lived access token shortly before it expires instead of forcing a new login
+  useEffect(() => {
+    if (!token) return
+    const expiry = getTokenExpiry(token)
+    if (!expiry) return
+    const timeout = setTimeout(refresh, Math.max(0, expiry - Date.now() - REFRESH_MARGIN_MS))
+    return () => clearTimeout(timeout)
+  }, [token, refresh])
+
   return (
     <AuthContext.Provider
       value={{
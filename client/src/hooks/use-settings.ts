@@ -73,7 +73,7 @@ export function useSettings() {
     if (!originalProfile) return
     setIsSaving(true)
     try {
-      const token = localStorage.getItem('token')
+      let token = localStorage.getItem('token')
       if (!token) throw new Error("No authentication token found")
       
       if (newProfile.username !== originalProfile.username) {
@@ -92,7 +92,10 @@ export function useSettings() {
         }
 
         const newToken = await res.text()
-        if (newToken) localStorage.setItem('token', newToken)
+        if (newToken) {
+          localStorage.setItem('token', newToken)
+          token = newToken
+        }
       }
 
       if (newProfile.email !== originalProfile.email) {
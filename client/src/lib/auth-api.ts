@@ -34,11 +34,30 @@ export const authApi = {
     return handleResponse(response)
   },
 
+  // credentials: "include" lets the browser store the HttpOnly refresh token cookie
   login: async (data: LoginData): Promise<string> => {
     const response = await fetch(`${API_BASE}/login`, {
       method: "POST",
       headers: { "Content-Type": "application/json" },
       body: JSON.stringify(data),
+      credentials: "include",
+    })
+    return handleResponse(response)
+  },
+
+  refresh: async (): Promise<string> => {
+    const response = await fetch(`${API_BASE}/refresh`, {
+      method: "POST",
+      credentials: "include",
+    })
+    return handleResponse(response)
+  },
+
+  logout: async (token: string | null): Promise<string> => {
+    const response = await fetch(`${API_BASE}/logout`, {
+      method: "POST",
+      headers: token ? { Authorization: `Bearer ${token}` } : {},
+      credentials: "include",
     })
     return handleResponse(response)
   },
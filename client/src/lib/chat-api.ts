@@ -1,5 +1,8 @@
+import { userEvents, type JobEvent } from "./user-events"
+
 const API_BASE = "http://localhost:8080/api/test"
 const CONVERSATIONS_API = "http://localhost:8080/api/conversations"
+const JOB_STREAM_WS = "ws://localhost:8080/api/jobs/stream"
 
 interface JobSubmitRequest {
   agentType: string
@@ -17,7 +20,7 @@ interface JobSubmitResponse {
 }
 
 interface JobStatusResponse {
-  status: "pending" | "completed" | "error" | "not_found"
+  status: "pending" | "completed" | "error" | "cancelled" | "not_found"
   answer?: string
   message?: string
   messageId?: string
@@ -52,6 +55,13 @@ export const chatApi = {
       body: JSON.stringify(request),
     })
 
+    // Rejected by admission control: agents are saturated or the user has too many unfinished jobs
+    if (response.status === 429) {
+      const body = await response.json().catch(() => null)
+      const retryAfter = response.headers.get("Retry-After")
+      throw new Error(`${body?.message ?? "Too many requests"}${retryAfter ? ` (retry in ${retryAfter}s)` : ""}`)
+    }
+
     if (!response.ok) {
       throw new Error(`Failed to submit job: ${response.statusText}`)
     }
@@ -72,57 +82,113 @@ export const chatApi = {
     return response.json()
   },
 
-  // Cancellable variant: returns a cancel() handle and a promise
+  /* Cancellable variant: returns a cancel() handle and a promise.
+   * Completion normally arrives on the user event stream; polling only covers a missed event or a
+   * dropped stream, so it runs every fallbackIntervalMs while the stream is up and every intervalMs otherwise. */
   pollJobStatusCancellable: (
     jobId: string,
     onUpdate: (status: JobStatusResponse) => void,
-    intervalMs: number = 1000
+    intervalMs: number = 1000,
+    fallbackIntervalMs: number = 15000
   ): { promise: Promise<JobStatusResponse>; cancel: () => void } => {
-    let interval: ReturnType<typeof setInterval> | null = null
+    let timer: ReturnType<typeof setTimeout> | null = null
+    let unsubscribe: (() => void) | null = null
     let settled = false
 
     const cancel = () => {
-      if (interval) {
-        clearInterval(interval)
-        interval = null
+      if (timer) {
+        clearTimeout(timer)
+        timer = null
+      }
+      if (unsubscribe) {
+        unsubscribe()
+        unsubscribe = null
       }
     }
 
     const promise = new Promise<JobStatusResponse>((resolve, reject) => {
-      interval = setInterval(async () => {
+      const settle = (status: JobStatusResponse | null, error?: Error) => {
+        if (settled) return
+        settled = true
+        cancel()
+        if (status) resolve(status)
+        else reject(error)
+      }
+
+      const check = async () => {
         try {
           const status = await chatApi.getJobStatus(jobId)
+          if (settled) return
           onUpdate(status)
 
           if (status.status === "completed") {
-            if (interval) clearInterval(interval)
-            interval = null
-            if (!settled) {
-              settled = true
-              resolve(status)
-            }
+            settle(status)
           } else if (status.status === "error") {
-            if (interval) clearInterval(interval)
-            interval = null
-            if (!settled) {
-              settled = true
-              reject(new Error(status.message || "Job failed"))
-            }
+            settle(null, new Error(status.message || status.answer || "Job failed"))
+          } else if (status.status === "cancelled") {
+            settle(null, new Error("Job cancelled"))
           }
         } catch (error) {
-          if (interval) clearInterval(interval)
-          interval = null
-          if (!settled) {
-            settled = true
-            reject(error as Error)
-          }
+          settle(null, error as Error)
+        }
+      }
+
+      const schedule = () => {
+        if (settled) return
+        timer = setTimeout(async () => {
+          await check()
+          schedule()
+        }, userEvents.isConnected() ? fallbackIntervalMs : intervalMs)
+      }
+
+      unsubscribe = userEvents.subscribe((type, data) => {
+        if (type === "ready" || type === "resync") {
+          // (Re)connected or events were dropped: the outcome may have been missed
+          check()
+          return
+        }
+        const event = data as JobEvent
+        if (type !== "job" || event.jobId !== jobId) return
+        if (event.status === "completed") {
+          // The event carries ids only; the answer is fetched once
+          check()
+        } else if (event.status === "error" || event.status === "failed") {
+          settle(null, new Error(event.message || "Job failed"))
+        } else if (event.status === "cancelled") {
+          settle(null, new Error("Job cancelled"))
         }
-      }, intervalMs)
+      })
+      schedule()
     })
 
     return { promise, cancel }
   },
 
+  /* Live preview of a job's answer while it is generated. Calls onText with the text so far; the final
+   * answer still comes from getJobStatus. Returns a function that closes the socket. */
+  streamJobOutput: (jobId: string, onText: (text: string) => void): (() => void) => {
+    const token = localStorage.getItem("token")
+    if (!token) return () => { }
+
+    // Browsers cannot set headers on a WebSocket, so the token travels as a subprotocol
+    const socket = new WebSocket(`${JOB_STREAM_WS}?jobId=${encodeURIComponent(jobId)}`, ["bearer", token])
+    let text = ""
+    socket.onmessage = (event) => {
+      try {
+        const frame = JSON.parse(event.data)
+        if (frame.type === "chunk" && typeof frame.text === "string") {
+          text += frame.text
+          onText(text)
+        }
+      } catch {
+        // Ignore malformed frames, the preview is best effort
+      }
+    }
+    return () => {
+      if (socket.readyState === WebSocket.CONNECTING || socket.readyState === WebSocket.OPEN) socket.close()
+    }
+  },
+
   // Conversation management
   getConversations: async (): Promise<ConversationRecord[]> => {
     const response = await fetch(CONVERSATIONS_API, {
@@ -150,6 +216,18 @@ export const chatApi = {
     return response.json()
   },
 
+  /* Stops the job's agent work; a 409 means it already finished, which callers can ignore */
+  cancelJob: async (jobId: string): Promise<void> => {
+    const response = await fetch(`http://localhost:8080/api/jobs/${encodeURIComponent(jobId)}`, {
+      method: "DELETE",
+      headers: getAuthHeaders(),
+    })
+
+    if (!response.ok && response.status !== 409) {
+      throw new Error(`Failed to cancel job: ${response.statusText}`)
+    }
+  },
+
   deleteConversation: async (conversationId: string): Promise<void> => {
     const response = await fetch(`${CONVERSATIONS_API}/${conversationId}`, {
       method: "DELETE",
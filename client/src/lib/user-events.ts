@@ -0,0 +1,100 @@
+const EVENTS_API = "http://localhost:8080/api/events"
+const MAX_RECONNECT_DELAY_MS = 30000
+
+export interface JobEvent {
+  jobId: string
+  status: "pending" | "completed" | "error" | "failed" | "cancelled"
+  conversationId?: string
+  messageId?: string
+  message?: string
+}
+
+export interface ConversationEvent {
+  conversationId: string
+  change: "created" | "updated" | "deleted"
+  jobId?: string
+}
+
+type Listener = (type: string, data: unknown) => void
+
+// One shared /api/events stream per tab. EventSource cannot send the bearer token, so the stream is read with fetch.
+const listeners = new Set<Listener>()
+let controller: AbortController | null = null
+let connected = false
+let reconnectDelayMs = 1000
+
+const dispatch = (type: string, data: unknown) => {
+  listeners.forEach((listener) => listener(type, data))
+}
+
+const parseEvent = (block: string) => {
+  let type = "message"
+  const data: string[] = []
+  for (const line of block.split("\n")) {
+    if (line.startsWith(":")) continue
+    if (line.startsWith("event:")) type = line.slice(6).trim()
+    else if (line.startsWith("data:")) data.push(line.slice(5).trimStart())
+  }
+  if (data.length === 0) return
+  try {
+    dispatch(type, JSON.parse(data.join("\n")))
+  } catch {
+    // Not JSON, nothing to deliver
+  }
+}
+
+const connect = async () => {
+  const token = localStorage.getItem("token")
+  if (!token || listeners.size === 0) return
+
+  controller = new AbortController()
+  try {
+    const response = await fetch(EVENTS_API, {
+      headers: { Authorization: `Bearer ${token}`, Accept: "text/event-stream" },
+      signal: controller.signal,
+    })
+    if (!response.ok || !response.body) throw new Error(`Event stream failed: ${response.status}`)
+
+    connected = true
+    reconnectDelayMs = 1000
+    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+    let buffer = ""
+    while (true) {
+      const { value, done } = await reader.read()
+      if (done) break
+      buffer += value.replace(/\r\n/g, "\n")
+      let boundary
+      while ((boundary = buffer.indexOf("\n\n")) >= 0) {
+        parseEvent(buffer.slice(0, boundary))
+        buffer = buffer.slice(boundary + 2)
+      }
+    }
+  } catch (error) {
+    if (controller?.signal.aborted) return
+    console.warn("User event stream interrupted:", error)
+  } finally {
+    connected = false
+  }
+
+  if (listeners.size > 0 && !controller?.signal.aborted) {
+    setTimeout(connect, reconnectDelayMs)
+    reconnectDelayMs = Math.min(reconnectDelayMs * 2, MAX_RECONNECT_DELAY_MS)
+  }
+}
+
+export const userEvents = {
+  // Returns an unsubscribe function; the stream is opened with the first listener and closed with the last
+  subscribe: (listener: Listener): (() => void) => {
+    listeners.add(listener)
+    if (!controller || controller.signal.aborted) connect()
+    return () => {
+      listeners.delete(listener)
+      if (listeners.size === 0 && controller) {
+        controller.abort()
+        controller = null
+      }
+    }
+  },
+
+  isConnected: () => connected,
+}
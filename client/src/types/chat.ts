@@ -42,6 +42,8 @@ export interface Conversation {
   acceptedCodeMessageId?: string
   codeExecutionResult?: string
   isLoading?: boolean
+  // Answer generated so far for the pending job, shown until the final message arrives
+  streamingText?: string
 }
 
 export type ConversationGroup = "today" | "yesterday" | "last7days" | "last30days" | "older"